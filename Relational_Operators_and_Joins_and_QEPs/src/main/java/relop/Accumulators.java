@@ -0,0 +1,238 @@
+package relop;
+
+import global.AttrType;
+
+import java.util.Arrays;
+
+/**
+ * Running aggregates of a number of groups, for HashAggregate and
+ * StreamAggregate. Each aggregate keeps one primitive array indexed by group
+ * number (a long for integer sums, minimums and maximums, a double for float
+ * ones and averages), rather than an object per group and aggregate, and each
+ * group keeps its row count and one of its tuples for the group columns.
+ */
+class Accumulators {
+
+    /** Per-group overhead, besides the arrays, in bytes (for estimates). */
+    private static final int GROUP_OVERHEAD = 64;
+
+    private Schema input;
+    private int[] groupFields;
+    private Aggregate[] aggs;
+
+    /** Output schema: the group columns, then the aggregates. */
+    private Schema schema;
+
+    /** Aggregated field number and result type of each aggregate. */
+    private int[] aggFields;
+    private int[] types;
+
+    /** Per group: row count, and a tuple of the group. */
+    private long[] counts;
+    private Tuple[] keys;
+
+    /** Per aggregate and group: numeric or string values. */
+    private long[][] longs;
+    private double[][] doubles;
+    private String[][] strings;
+
+    private int size;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs empty accumulators for the given group fields and aggregates
+     * of the input schema.
+     *
+     * @throws IllegalArgumentException if an aggregate is invalid for the schema
+     */
+    public Accumulators(Schema input, int[] groupFields, Aggregate[] aggs) {
+        this.input = input;
+        this.groupFields = groupFields;
+        this.aggs = aggs;
+        this.aggFields = new int[aggs.length];
+        this.types = new int[aggs.length];
+        this.schema = Aggregate.schema(input, groupFields, aggs);
+        for (int a = 0; a < aggs.length; a++) {
+            aggFields[a] = aggs[a].fieldNumber(input);
+            types[a] = aggs[a].resultType(input);
+        }
+        this.longs = new long[aggs.length][];
+        this.doubles = new double[aggs.length][];
+        this.strings = new String[aggs.length][];
+        grow(16);
+    }
+
+    /**
+     * Gets the output schema.
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Gets the number of groups.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets an estimate of the memory used per group, in bytes.
+     */
+    public int groupBytes() {
+        return GROUP_OVERHEAD + input.getLength() + 8 * (1 + aggs.length);
+    }
+
+    /**
+     * Adds an empty group of the given tuple (or null if there are no group
+     * columns); returns its group number.
+     */
+    public int add(Tuple tuple) {
+        if (size == counts.length) {
+            grow(2 * size);
+        }
+        counts[size] = 0;
+        keys[size] = tuple;
+        return size++;
+    }
+
+    /**
+     * Gets the tuple of the given group (or null if there are no group columns).
+     */
+    public Tuple key(int group) {
+        return keys[group];
+    }
+
+    /**
+     * Adds a tuple to the given group's aggregates.
+     */
+    public void accumulate(int group, Tuple tuple) {
+        boolean first = (counts[group]++ == 0);
+        for (int a = 0; a < aggs.length; a++) {
+            int fldno = aggFields[a];
+            switch (aggs[a].function) {
+
+                case Aggregate.COUNT:
+                    break;
+
+                case Aggregate.SUM:
+                    if (types[a] == AttrType.INTEGER) {
+                        longs[a][group] = (first ? 0 : longs[a][group]) + tuple.getIntFld(fldno);
+                    } else {
+                        doubles[a][group] = (first ? 0 : doubles[a][group]) + tuple.getFloatFld(fldno);
+                    }
+                    break;
+
+                case Aggregate.AVG:
+                    doubles[a][group] = (first ? 0 : doubles[a][group]) + number(tuple, fldno);
+                    break;
+
+                default:
+                    boolean min = (aggs[a].function == Aggregate.MIN);
+                    if (types[a] == AttrType.INTEGER) {
+                        long val = tuple.getIntFld(fldno);
+                        if (first || (min ? val < longs[a][group] : val > longs[a][group])) {
+                            longs[a][group] = val;
+                        }
+                    } else if (types[a] == AttrType.FLOAT) {
+                        double val = tuple.getFloatFld(fldno);
+                        if (first || (min ? val < doubles[a][group] : val > doubles[a][group])) {
+                            doubles[a][group] = val;
+                        }
+                    } else {
+                        String val = tuple.getStringFld(fldno);
+                        int cmp = first ? 0 : val.compareTo(strings[a][group]);
+                        if (first || (min ? cmp < 0 : cmp > 0)) {
+                            strings[a][group] = val;
+                        }
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Gets the output tuple of the given group.
+     */
+    public Tuple result(int group) {
+        Tuple tuple = new Tuple(schema);
+        for (int i = 0; i < groupFields.length; i++) {
+            tuple.setField(i, keys[group].getField(groupFields[i]));
+        }
+        long count = counts[group];
+        for (int a = 0; a < aggs.length; a++) {
+            int fldno = groupFields.length + a;
+            switch (aggs[a].function) {
+
+                case Aggregate.COUNT:
+                    tuple.setIntFld(fldno, (int) count);
+                    break;
+
+                case Aggregate.AVG:
+                    tuple.setFloatFld(fldno, (count == 0) ? 0 : (float) (doubles[a][group] / count));
+                    break;
+
+                default:
+                    if (count == 0) {
+                        break;
+                    }
+                    if (types[a] == AttrType.INTEGER) {
+                        tuple.setIntFld(fldno, (int) longs[a][group]);
+                    } else if (types[a] == AttrType.FLOAT) {
+                        tuple.setFloatFld(fldno, (float) doubles[a][group]);
+                    } else {
+                        tuple.setStringFld(fldno, strings[a][group]);
+                    }
+                    break;
+            }
+        }
+        return tuple;
+    }
+
+    /**
+     * Removes all groups, keeping the arrays for reuse.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Gets a numeric field as a double.
+     */
+    private static double number(Tuple tuple, int fldno) {
+        if (tuple.schema.fieldType(fldno) == AttrType.INTEGER) {
+            return tuple.getIntFld(fldno);
+        }
+        return tuple.getFloatFld(fldno);
+    }
+
+    /**
+     * Grows the arrays to the given number of groups, allocating only the
+     * arrays that each aggregate uses.
+     */
+    private void grow(int capacity) {
+        counts = (counts == null) ? new long[capacity] : Arrays.copyOf(counts, capacity);
+        keys = (keys == null) ? new Tuple[capacity] : Arrays.copyOf(keys, capacity);
+        for (int a = 0; a < aggs.length; a++) {
+            int function = aggs[a].function;
+            if (function == Aggregate.COUNT) {
+                continue;
+            }
+            if (function == Aggregate.AVG || types[a] == AttrType.FLOAT) {
+                doubles[a] = (doubles[a] == null) ? new double[capacity]
+                        : Arrays.copyOf(doubles[a], capacity);
+            } else if (types[a] == AttrType.INTEGER) {
+                longs[a] = (longs[a] == null) ? new long[capacity]
+                        : Arrays.copyOf(longs[a], capacity);
+            } else {
+                strings[a] = (strings[a] == null) ? new String[capacity]
+                        : Arrays.copyOf(strings[a], capacity);
+            }
+        }
+    }
+
+} // class Accumulators
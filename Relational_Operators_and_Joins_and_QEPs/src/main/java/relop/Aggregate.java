@@ -0,0 +1,127 @@
+package relop;
+
+import global.AttrType;
+
+/**
+ * One aggregate function of a GROUP BY query, e.g. SUM(Age) or COUNT(*).
+ */
+public class Aggregate {
+
+    /** Aggregate functions. */
+    public static final int COUNT = 0;
+    public static final int SUM = 1;
+    public static final int AVG = 2;
+    public static final int MIN = 3;
+    public static final int MAX = 4;
+
+    /** Names of the functions, by constant. */
+    private static final String[] NAMES = { "COUNT", "SUM", "AVG", "MIN", "MAX" };
+
+    /**
+     * The function (one of the constants above).
+     */
+    public int function;
+
+    /**
+     * Column name or field number, or null for COUNT(*).
+     */
+    public Object field;
+
+    /**
+     * Constructs an Aggregate from the given values.
+     *
+     * @throws IllegalArgumentException if the function is invalid, or only
+     * COUNT has no field
+     */
+    public Aggregate(int function, Object field) {
+        if (function < COUNT || function > MAX || (field == null && function != COUNT)) {
+            throw new IllegalArgumentException("invalid aggregate");
+        }
+        this.function = function;
+        this.field = field;
+    }
+
+    /**
+     * Gets the function constant for the given (case-insensitive) name, or -1
+     * if there is none.
+     */
+    public static int valueOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the field number of the aggregated column in the given schema, or
+     * -1 for COUNT(*) or an unknown column name.
+     */
+    public int fieldNumber(Schema schema) {
+        if (field == null) {
+            return -1;
+        }
+        if (field instanceof Integer) {
+            return (Integer) field;
+        }
+        return schema.fieldNumber((String) field);
+    }
+
+    /**
+     * Gets the type of the result for the given input schema: COUNT is an
+     * integer, AVG a float, SUM of the column's (numeric) type, and MIN and
+     * MAX of the column's type.
+     *
+     * @throws IllegalArgumentException if the column doesn't exist, or SUM or
+     * AVG is of a string column
+     */
+    public int resultType(Schema schema) {
+        if (function == COUNT) {
+            if (field != null && fieldNumber(schema) < 0) {
+                throw new IllegalArgumentException("unknown column " + field);
+            }
+            return AttrType.INTEGER;
+        }
+        int fldno = fieldNumber(schema);
+        if (fldno < 0) {
+            throw new IllegalArgumentException("unknown column " + field);
+        }
+        int type = schema.fieldType(fldno);
+        if ((function == SUM || function == AVG) && type == AttrType.STRING) {
+            throw new IllegalArgumentException(NAMES[function] + " of a string column");
+        }
+        return (function == AVG) ? AttrType.FLOAT : type;
+    }
+
+    /**
+     * Gets the schema of the result of grouping the given input schema by the
+     * given fields: the group columns, then the aggregates.
+     *
+     * @throws IllegalArgumentException if an aggregate is invalid for the schema
+     */
+    public static Schema schema(Schema input, int[] groupFields, Aggregate... aggs) {
+        Schema schema = new Schema(groupFields.length + aggs.length);
+        for (int i = 0; i < groupFields.length; i++) {
+            schema.initField(i, input, groupFields[i]);
+        }
+        for (int a = 0; a < aggs.length; a++) {
+            int type = aggs[a].resultType(input);
+            int length = (type == AttrType.STRING) ? input.fieldLength(aggs[a].fieldNumber(input)) : 4;
+            schema.initField(groupFields.length + a, type, length, aggs[a].toString(input));
+        }
+        return schema;
+    }
+
+    /**
+     * Gets the name of the result column for the given input schema.
+     */
+    public String toString(Schema schema) {
+        if (field == null) {
+            return NAMES[function] + "(*)";
+        }
+        int fldno = fieldNumber(schema);
+        return NAMES[function] + "(" + ((fldno < 0) ? field : schema.fieldName(fldno)) + ")";
+    }
+
+} // public class Aggregate
@@ -0,0 +1,110 @@
+package relop;
+
+/**
+ * Adapts the batch protocol to the tuple protocol: pulls batches from the
+ * underlying iterator and returns their rows one at a time. Placed at the top
+ * of a plan, it lets the operators below process whole batches while callers
+ * still use hasNext and getNext. (The opposite direction needs no adapter:
+ * Iterator.nextBatch fills batches from any tuple iterator.)
+ */
+public class BatchAdapter extends Iterator {
+
+    private Iterator iter;
+    private TupleBatch batch;
+    private int row;
+    private boolean isOpen;
+
+    /**
+     * Constructs an adapter using batches of the default capacity.
+     */
+    public BatchAdapter(Iterator iter) {
+        this(iter, TupleBatch.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an adapter using batches of the given capacity.
+     */
+    public BatchAdapter(Iterator iter, int capacity) {
+        this.iter = iter;
+        this.schema = iter.getSchema();
+        this.batch = new TupleBatch(schema, capacity);
+        this.row = 0;
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("BatchAdapter : " + batch.capacity() + " rows per batch");
+        iter.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        iter.restart();
+        batch.clear();
+        row = 0;
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        iter.close();
+        batch.clear();
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (!isOpen) {
+            return false;
+        }
+        while (row >= batch.size()) {
+            if (!iter.nextBatch(batch)) {
+                return false;
+            }
+            row = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        return batch.getTuple(row++);
+    }
+
+    /**
+     * Passes batches through, once any rows left over from the tuple protocol
+     * have been returned.
+     */
+    public boolean nextBatch(TupleBatch out) {
+        if (row < batch.size() || !isOpen) {
+            return super.nextBatch(out);
+        }
+        return iter.nextBatch(out);
+    }
+
+} // public class BatchAdapter extends Iterator
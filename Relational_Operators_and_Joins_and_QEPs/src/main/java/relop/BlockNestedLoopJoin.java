@@ -0,0 +1,214 @@
+package relop;
+
+import global.GlobalConst;
+
+/**
+ * Block nested-loop join (see textbook, 3rd edition, section 14.4.1): the
+ * outer (left) input is read a block at a time, as many tuples as fit in the
+ * given number of buffer pages, and the inner (right) input is scanned once
+ * per block rather than once per outer tuple. Each pair is kept if any of the
+ * join predicates holds (or always, if there are none), so unlike HashJoin it
+ * handles any join condition.
+ */
+public class BlockNestedLoopJoin extends Iterator implements GlobalConst {
+
+    /** Default number of buffer pages for a block of outer tuples. */
+    public static final int DEFAULT_BLOCK_PAGES = 64;
+
+    // --------------------------------------------------------------------------
+
+    private Iterator outer;
+    private Iterator inner;
+    private CompiledPredicate[] preds;
+    private int blockPages;
+
+    /** Plan for joining an outer and an inner tuple. */
+    private CopyPlan joinPlan;
+
+    /** Current block of outer tuples. */
+    private Tuple[] block;
+    private int blockSize;
+
+    /** Current inner tuple, and the next outer tuple of the block to try. */
+    private Tuple innerTuple;
+    private int blockIndex;
+
+    private boolean started;
+    private Tuple next;
+    private boolean isOpen;
+
+    // statistics
+    private int innerScans;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a join with the default block size, given the left and right
+     * iterators and join predicates (relative to the combined schema).
+     */
+    public BlockNestedLoopJoin(Iterator left, Iterator right, Predicate... preds) {
+        this(left, right, DEFAULT_BLOCK_PAGES, preds);
+    }
+
+    /**
+     * Constructs a join whose blocks of left tuples fill the given number of
+     * buffer pages.
+     */
+    public BlockNestedLoopJoin(Iterator left, Iterator right, int blockPages,
+            Predicate... preds) {
+        if (blockPages <= 0) {
+            throw new IllegalArgumentException("invalid block size");
+        }
+        this.outer = left;
+        this.inner = right;
+        this.blockPages = blockPages;
+        this.schema = Schema.join(left.getSchema(), right.getSchema());
+        this.joinPlan = CopyPlan.join(left.getSchema(), right.getSchema(), schema);
+        this.preds = new CompiledPredicate[preds.length];
+        for (int i = 0; i < preds.length; i++) {
+            this.preds[i] = preds[i].compile(schema);
+        }
+        int perBlock = Math.max(1, blockPages * PAGE_SIZE / left.getSchema().getLength());
+        this.block = new Tuple[perBlock];
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("BlockNestedLoopJoin : " + blockPages + " pages, "
+                + preds.length + " predicates");
+        outer.explain(depth + 1);
+        inner.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        outer.restart();
+        inner.restart();
+        blockSize = 0;
+        innerTuple = null;
+        started = false;
+        next = null;
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        outer.close();
+        inner.close();
+        blockSize = 0;
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (!isOpen) {
+            return false;
+        }
+        if (!started) {
+            started = true;
+            if (!fillBlock()) {
+                return false;
+            }
+            innerScans++;
+        }
+        while (true) {
+
+            // try the current inner tuple with the rest of the block
+            while (innerTuple != null && blockIndex < blockSize) {
+                Tuple tuple = joinPlan.join(block[blockIndex++], innerTuple);
+                if (matches(tuple)) {
+                    next = tuple;
+                    return true;
+                }
+            }
+
+            // then the next inner tuple, or the next block with a new inner scan
+            if (inner.hasNext()) {
+                innerTuple = inner.getNext();
+                blockIndex = 0;
+            } else if (fillBlock()) {
+                inner.restart();
+                innerScans++;
+                innerTuple = null;
+            } else {
+                innerTuple = null;
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        Tuple tuple = next;
+        next = null;
+        return tuple;
+    }
+
+    /**
+     * Gets the number of times the inner input has been scanned.
+     */
+    public int getInnerScans() {
+        return innerScans;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Reads the next block of outer tuples; returns false if there are none.
+     */
+    private boolean fillBlock() {
+        blockSize = 0;
+        while (blockSize < block.length && outer.hasNext()) {
+            block[blockSize++] = outer.getNext();
+        }
+        for (int i = blockSize; i < block.length && block[i] != null; i++) {
+            block[i] = null;
+        }
+        return blockSize > 0;
+    }
+
+    /**
+     * Returns true if any predicate holds for a joined tuple (or if there are
+     * no predicates).
+     */
+    private boolean matches(Tuple tuple) {
+        if (preds.length == 0) {
+            return true;
+        }
+        for (CompiledPredicate pred : preds) {
+            if (pred.evaluate(tuple)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+} // public class BlockNestedLoopJoin extends Iterator implements GlobalConst
@@ -0,0 +1,36 @@
+package relop;
+
+/**
+ * Exchange that sends every tuple to every consumer, e.g. the small input of
+ * a join whose other input is repartitioned round-robin.
+ */
+public class Broadcast extends Exchange {
+
+    /**
+     * Constructs a broadcast of the input to the given number of consumers.
+     *
+     * @throws IllegalArgumentException if there are no consumers
+     */
+    public Broadcast(Iterator input, int consumerCnt) {
+        super(input, consumerCnt);
+    }
+
+    /**
+     * Gives a one-line explanation of the exchange, and explains the input.
+     */
+    public void explain(int depth) {
+        input.indent(depth);
+        System.out.println("Broadcast : " + getConsumerCount() + " consumers");
+        input.explain(depth + 1);
+    }
+
+    /**
+     * Sends the tuple to every consumer.
+     */
+    protected void route(Tuple tuple) {
+        for (int i = 0; i < getConsumerCount(); i++) {
+            add(i, tuple);
+        }
+    }
+
+} // public class Broadcast extends Exchange
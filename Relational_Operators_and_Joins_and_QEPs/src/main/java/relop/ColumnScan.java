@@ -0,0 +1,242 @@
+package relop;
+
+import global.PageId;
+
+/**
+ * Scan of a columnar file that reads only the columns it needs: the projected
+ * fields, plus any fields referenced by its predicates. Predicates are given
+ * in conjunctive normal form (i.e. each argument is a group of OR'ed
+ * predicates, as in a chain of Selections), refer to fields of the file's
+ * schema, and are evaluated before the projected fields are copied.
+ */
+public class ColumnScan extends Iterator {
+
+    private ColumnarFile file;
+    private Schema fileSchema;
+    private int[] fields;
+    private Predicate[][] preds;
+
+    /** The predicates, compiled for the file schema. */
+    private CompiledPredicate[][] compiled;
+
+    /** Fields read by the scan, in file order, and where they are copied. */
+    private int[] readFields;
+    private boolean[] filtered;
+    private int[] outputFields;
+
+    /** Current segment, position, and next page of each read field. */
+    private ColumnSegment[] segments;
+    private int[] positions;
+    private PageId[] nextPages;
+
+    /** Row of the file schema holding the filtered fields. */
+    private Tuple row;
+
+    private int rowno;
+    private Tuple next;
+    private boolean isOpen;
+
+    /**
+     * Constructs a scan returning the given fields (in the given order) of the
+     * records passing the predicates.
+     */
+    public ColumnScan(ColumnarFile file, int[] fields, Predicate[]... preds) {
+        this.file = file;
+        this.fileSchema = file.getSchema();
+        this.fields = fields;
+        this.preds = preds;
+        this.compiled = new CompiledPredicate[preds.length][];
+        for (int g = 0; g < preds.length; g++) {
+            compiled[g] = new CompiledPredicate[preds[g].length];
+            for (int i = 0; i < preds[g].length; i++) {
+                compiled[g][i] = preds[g][i].compile(fileSchema);
+            }
+        }
+
+        // build the output schema
+        this.schema = new Schema(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            schema.initField(i, fileSchema, fields[i]);
+        }
+
+        // find the fields to read
+        int fldcnt = fileSchema.getCount();
+        boolean[] projected = new boolean[fldcnt];
+        filtered = new boolean[fldcnt];
+        for (int fldno : fields) {
+            projected[fldno] = true;
+        }
+        for (int i = 0; i < fldcnt; i++) {
+            for (Predicate[] group : preds) {
+                for (Predicate pred : group) {
+                    filtered[i] |= pred.references(fileSchema, i);
+                }
+            }
+        }
+        int readcnt = 0;
+        for (int i = 0; i < fldcnt; i++) {
+            if (projected[i] || filtered[i]) {
+                readcnt++;
+            }
+        }
+        readFields = new int[readcnt];
+        for (int i = 0, j = 0; i < fldcnt; i++) {
+            if (projected[i] || filtered[i]) {
+                readFields[j++] = i;
+            }
+        }
+        outputFields = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            for (int j = 0; j < readcnt; j++) {
+                if (readFields[j] == fields[i]) {
+                    outputFields[i] = j;
+                }
+            }
+        }
+
+        row = new Tuple(fileSchema);
+        open();
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.print("ColumnScan : " + file + " reading {");
+        for (int i = 0; i < readFields.length; i++) {
+            System.out.print((i > 0 ? ", " : "") + fileSchema.fieldName(readFields[i]));
+        }
+        System.out.print("}");
+        for (Predicate[] group : preds) {
+            System.out.print(" AND (");
+            for (int i = 0; i < group.length; i++) {
+                System.out.print((i > 0 ? " OR " : "") + group[i]);
+            }
+            System.out.print(")");
+        }
+        System.out.println();
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        open();
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        segments = null;
+        next = null;
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (!isOpen) {
+            return false;
+        }
+        int reccnt = file.getRecCnt();
+        while (rowno < reccnt) {
+            rowno++;
+
+            // evaluate the predicates on the filtered fields first
+            for (int j = 0; j < readFields.length; j++) {
+                if (filtered[readFields[j]]) {
+                    advance(j);
+                    segments[j].copyTo(positions[j], row.getData(),
+                            fileSchema.fieldOffset(readFields[j]));
+                }
+            }
+            boolean passed = true;
+            for (int g = 0; g < compiled.length && passed; g++) {
+                passed = false;
+                for (CompiledPredicate pred : compiled[g]) {
+                    if (pred.evaluate(row.getData())) {
+                        passed = true;
+                        break;
+                    }
+                }
+            }
+
+            // then copy (or skip) the projected fields
+            for (int j = 0; j < readFields.length; j++) {
+                if (!filtered[readFields[j]]) {
+                    advance(j);
+                }
+            }
+            if (passed) {
+                next = new Tuple(schema);
+                for (int i = 0; i < fields.length; i++) {
+                    int j = outputFields[i];
+                    segments[j].copyTo(positions[j], next.getData(),
+                            schema.fieldOffset(i));
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        Tuple tuple = next;
+        next = null;
+        return tuple;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Positions every read field before the first record.
+     */
+    private void open() {
+        file.flush();
+        segments = new ColumnSegment[readFields.length];
+        positions = new int[readFields.length];
+        nextPages = new PageId[readFields.length];
+        for (int j = 0; j < readFields.length; j++) {
+            nextPages[j] = new PageId(file.firstPage(readFields[j]).pid);
+        }
+        rowno = 0;
+        next = null;
+        isOpen = true;
+    }
+
+    /**
+     * Moves a read field to its next value, decoding the next page as needed.
+     */
+    private void advance(int j) {
+        positions[j]++;
+        while (segments[j] == null || positions[j] >= segments[j].getCount()) {
+            PageId pageno = nextPages[j];
+            nextPages[j] = new PageId();
+            segments[j] = file.readSegment(readFields[j], pageno, nextPages[j]);
+            positions[j] = 0;
+        }
+    }
+
+} // public class ColumnScan extends Iterator
@@ -0,0 +1,404 @@
+package relop;
+
+import global.AttrType;
+import global.Convert;
+import global.GlobalConst;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The values of one column stored on one page of a ColumnarFile. Values are
+ * appended until the page is full, and each time the page is written the
+ * smallest of the applicable encodings is chosen: frame-of-reference (integers)
+ * and run-length (integers and floats) for numbers, dictionary for strings, and
+ * plain fixed-width values otherwise.
+ * <p>
+ * Page layout: next page id (4 bytes), encoding (1 byte), value count (2 bytes),
+ * then the encoded values.
+ */
+class ColumnSegment implements GlobalConst {
+
+    /** Offset of the next page id. */
+    protected static final int NEXT_PAGE = 0;
+
+    /** Offset of the encoding. */
+    protected static final int ENCODING = 4;
+
+    /** Offset of the value count. */
+    protected static final int COUNT = 5;
+
+    /** Offset of the encoded values. */
+    protected static final int PAYLOAD = 7;
+
+    /** Bytes available for encoded values. */
+    protected static final int CAPACITY = PAGE_SIZE - PAYLOAD;
+
+    /** Maximum number of values in a segment (i.e. an unsigned short). */
+    protected static final int MAX_VALUES = 0xffff;
+
+    /** Fixed-width values, as in a tuple. */
+    protected static final int PLAIN = 0;
+
+    /** Integers as bit-packed offsets from the minimum value. */
+    protected static final int FRAME_OF_REFERENCE = 1;
+
+    /** Runs of (value, length) pairs. */
+    protected static final int RUN_LENGTH = 2;
+
+    /** Distinct strings followed by bit-packed codes. */
+    protected static final int DICTIONARY = 3;
+
+    // --------------------------------------------------------------------------
+
+    /** AttrType of the column. */
+    protected int type;
+
+    /** Width of the column in a tuple (in bytes). */
+    protected int length;
+
+    /** Number of values in the segment. */
+    protected int count;
+
+    /** Integer values, or the raw bits of float values. */
+    protected int[] ints;
+
+    /** String values, without their zero padding. */
+    protected byte[][] strings;
+
+    // statistics for sizing the candidate encodings
+    private int min;
+    private int max;
+    private int runs;
+    private HashMap<String, Integer> dictionary;
+    private ArrayList<byte[]> dictValues;
+    private int dictBytes;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs an empty segment for a column of the given type and width.
+     */
+    public ColumnSegment(int type, int length) {
+        this.type = type;
+        this.length = length;
+        this.count = 0;
+        if (type == AttrType.STRING) {
+            strings = new byte[16][];
+            dictionary = new HashMap<String, Integer>();
+            dictValues = new ArrayList<byte[]>();
+            dictBytes = 0;
+        } else {
+            ints = new int[16];
+        }
+        min = Integer.MAX_VALUE;
+        max = Integer.MIN_VALUE;
+        runs = 0;
+    }
+
+    /**
+     * Decodes the segment stored on the given page.
+     */
+    public static ColumnSegment read(byte[] page, int type, int length) {
+        ColumnSegment seg = new ColumnSegment(type, length);
+        int encoding = page[ENCODING];
+        int cnt = Convert.getShortValue(COUNT, page) & 0xffff;
+        int pos = PAYLOAD;
+
+        switch (encoding) {
+
+            case PLAIN:
+                for (int i = 0; i < cnt; i++) {
+                    seg.add(page, pos + i * length);
+                }
+                break;
+
+            case FRAME_OF_REFERENCE: {
+                int base = Convert.getIntValue(pos, page);
+                int bits = page[pos + 4];
+                for (int i = 0; i < cnt; i++) {
+                    seg.append(base + (int) unpack(page, pos + 5, i, bits));
+                }
+                break;
+            }
+
+            case RUN_LENGTH: {
+                int nruns = Convert.getShortValue(pos, page) & 0xffff;
+                pos += 2;
+                for (int r = 0; r < nruns; r++, pos += 6) {
+                    int value = Convert.getIntValue(pos, page);
+                    int len = Convert.getShortValue(pos + 4, page) & 0xffff;
+                    for (int i = 0; i < len; i++) {
+                        seg.append(value);
+                    }
+                }
+                break;
+            }
+
+            case DICTIONARY: {
+                int nvals = Convert.getShortValue(pos, page) & 0xffff;
+                pos += 2;
+                byte[][] values = new byte[nvals][];
+                for (int d = 0; d < nvals; d++) {
+                    int len = Convert.getShortValue(pos, page) & 0xffff;
+                    values[d] = Arrays.copyOfRange(page, pos + 2, pos + 2 + len);
+                    pos += 2 + len;
+                }
+                int bits = page[pos];
+                for (int i = 0; i < cnt; i++) {
+                    seg.append(values[(int) unpack(page, pos + 1, i, bits)]);
+                }
+                break;
+            }
+
+            default:
+                throw new IllegalStateException("unknown column encoding " + encoding);
+
+        } // switch (encoding)
+
+        return seg;
+
+    } // public static ColumnSegment read(byte[] page, int type, int length)
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Appends the field stored at the given offset of a tuple's data, unless
+     * the segment would no longer fit on a page.
+     *
+     * @return true if the value was added, false if the segment is full
+     */
+    public boolean add(byte[] data, int offset) {
+        if (count == MAX_VALUES) {
+            return false;
+        }
+        if (type == AttrType.STRING) {
+            int end = offset + length;
+            while (end > offset && data[end - 1] == 0) {
+                end--;
+            }
+            byte[] value = Arrays.copyOfRange(data, offset, end);
+            if (sizeWith(0, value) > CAPACITY) {
+                return false;
+            }
+            append(value);
+        } else {
+            int value = Convert.getIntValue(offset, data);
+            if (sizeWith(value, null) > CAPACITY) {
+                return false;
+            }
+            append(value);
+        }
+        return true;
+    }
+
+    /**
+     * Copies the value at the given index into a tuple's data.
+     */
+    public void copyTo(int index, byte[] data, int offset) {
+        if (type == AttrType.STRING) {
+            byte[] value = strings[index];
+            System.arraycopy(value, 0, data, offset, value.length);
+            Arrays.fill(data, offset + value.length, offset + length, (byte) 0);
+        } else {
+            Convert.setIntValue(ints[index], offset, data);
+        }
+    }
+
+    /**
+     * Gets the number of values in the segment.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Encodes the segment onto the given page, leaving its next page id as is.
+     */
+    public void write(byte[] page) {
+        int encoding = bestEncoding();
+        page[ENCODING] = (byte) encoding;
+        Convert.setShortValue((short) count, COUNT, page);
+        int pos = PAYLOAD;
+
+        switch (encoding) {
+
+            case PLAIN:
+                for (int i = 0; i < count; i++) {
+                    copyTo(i, page, pos + i * length);
+                }
+                break;
+
+            case FRAME_OF_REFERENCE: {
+                int bits = bitsFor((long) max - min);
+                Convert.setIntValue(min, pos, page);
+                page[pos + 4] = (byte) bits;
+                Arrays.fill(page, pos + 5, pos + 5 + packedSize(count, bits), (byte) 0);
+                for (int i = 0; i < count; i++) {
+                    pack(page, pos + 5, i, bits, (long) ints[i] - min);
+                }
+                break;
+            }
+
+            case RUN_LENGTH: {
+                Convert.setShortValue((short) runs, pos, page);
+                pos += 2;
+                int i = 0;
+                while (i < count) {
+                    int j = i;
+                    while (j < count && ints[j] == ints[i]) {
+                        j++;
+                    }
+                    Convert.setIntValue(ints[i], pos, page);
+                    Convert.setShortValue((short) (j - i), pos + 4, page);
+                    pos += 6;
+                    i = j;
+                }
+                break;
+            }
+
+            case DICTIONARY: {
+                Convert.setShortValue((short) dictValues.size(), pos, page);
+                pos += 2;
+                for (byte[] value : dictValues) {
+                    Convert.setShortValue((short) value.length, pos, page);
+                    System.arraycopy(value, 0, page, pos + 2, value.length);
+                    pos += 2 + value.length;
+                }
+                int bits = bitsFor(dictValues.size() - 1);
+                page[pos] = (byte) bits;
+                Arrays.fill(page, pos + 1, pos + 1 + packedSize(count, bits), (byte) 0);
+                for (int i = 0; i < count; i++) {
+                    pack(page, pos + 1, i, bits, dictionary.get(key(strings[i])));
+                }
+                break;
+            }
+
+        } // switch (encoding)
+
+    } // public void write(byte[] page)
+
+    /**
+     * Returns the encoding that write() would use.
+     */
+    public int bestEncoding() {
+        int best = PLAIN;
+        int bestSize = plainSize(count);
+        if (type == AttrType.INTEGER && count > 0
+                && forSize(count, min, max) < bestSize) {
+            best = FRAME_OF_REFERENCE;
+            bestSize = forSize(count, min, max);
+        }
+        if (type != AttrType.STRING && rleSize(runs) < bestSize) {
+            best = RUN_LENGTH;
+            bestSize = rleSize(runs);
+        }
+        if (type == AttrType.STRING && count > 0
+                && dictSize(count, dictValues.size(), dictBytes) < bestSize) {
+            best = DICTIONARY;
+        }
+        return best;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Gets the encoded size of the segment after appending the given value.
+     */
+    private int sizeWith(int value, byte[] str) {
+        int n = count + 1;
+        int size = plainSize(n);
+        if (type == AttrType.STRING) {
+            boolean known = dictionary.containsKey(key(str));
+            int nvals = dictValues.size() + (known ? 0 : 1);
+            int nbytes = dictBytes + (known ? 0 : 2 + str.length);
+            size = Math.min(size, dictSize(n, nvals, nbytes));
+        } else {
+            int nruns = runs + (count == 0 || ints[count - 1] != value ? 1 : 0);
+            size = Math.min(size, rleSize(nruns));
+            if (type == AttrType.INTEGER) {
+                size = Math.min(size, forSize(n, Math.min(min, value), Math.max(max, value)));
+            }
+        }
+        return size;
+    }
+
+    private void append(int value) {
+        if (count == ints.length) {
+            ints = Arrays.copyOf(ints, count * 2);
+        }
+        if (count == 0 || ints[count - 1] != value) {
+            runs++;
+        }
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        ints[count++] = value;
+    }
+
+    private void append(byte[] value) {
+        if (count == strings.length) {
+            strings = Arrays.copyOf(strings, count * 2);
+        }
+        String key = key(value);
+        if (!dictionary.containsKey(key)) {
+            dictionary.put(key, dictValues.size());
+            dictValues.add(value);
+            dictBytes += 2 + value.length;
+        }
+        strings[count++] = value;
+    }
+
+    private int plainSize(int n) {
+        return n * length;
+    }
+
+    private static int forSize(int n, int lo, int hi) {
+        return 5 + packedSize(n, bitsFor((long) hi - lo));
+    }
+
+    private static int rleSize(int nruns) {
+        return 2 + nruns * 6;
+    }
+
+    private static int dictSize(int n, int nvals, int nbytes) {
+        return 2 + nbytes + 1 + packedSize(n, bitsFor(nvals - 1));
+    }
+
+    /**
+     * Maps string bytes to a dictionary key without decoding them.
+     */
+    private static String key(byte[] value) {
+        return new String(value, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int bitsFor(long maxValue) {
+        return 64 - Long.numberOfLeadingZeros(maxValue);
+    }
+
+    private static int packedSize(int n, int bits) {
+        return (int) (((long) n * bits + 7) / 8);
+    }
+
+    private static void pack(byte[] page, int pos, int index, int bits, long value) {
+        long bit = (long) index * bits;
+        for (int b = 0; b < bits; b++, bit++) {
+            if ((value >>> b & 1) != 0) {
+                page[pos + (int) (bit >>> 3)] |= 1 << (bit & 7);
+            }
+        }
+    }
+
+    private static long unpack(byte[] page, int pos, int index, int bits) {
+        long value = 0;
+        long bit = (long) index * bits;
+        for (int b = 0; b < bits; b++, bit++) {
+            if ((page[pos + (int) (bit >>> 3)] >>> (bit & 7) & 1) != 0) {
+                value |= 1L << b;
+            }
+        }
+        return value;
+    }
+
+} // class ColumnSegment implements GlobalConst
@@ -0,0 +1,294 @@
+package relop;
+
+import global.AttrType;
+import global.Convert;
+import global.GlobalConst;
+import global.Minibase;
+import global.Page;
+import global.PageId;
+
+/**
+ * A columnar table stores each field of its schema in a separate chain of
+ * pages, so that scans read only the columns they need. Each page holds one
+ * encoded ColumnSegment. Records can only be appended; the last page of each
+ * chain is kept decoded in memory, and encoded onto its page only when it
+ * fills up or on flush (which a ColumnScan of this object calls first). Other
+ * objects opened on the same file see the appended records once flushed.
+ * <p>
+ * The file entry points to a header page holding the record count, the number
+ * of columns, and the first and last page id of each column's chain.
+ */
+public class ColumnarFile implements GlobalConst {
+
+    /** Offset of the record count in the header page. */
+    protected static final int REC_CNT = 0;
+
+    /** Offset of the column count in the header page. */
+    protected static final int COL_CNT = 4;
+
+    /** Offset of the first column's page ids in the header page. */
+    protected static final int COLUMNS = 8;
+
+    /** Maximum number of columns (i.e. that fit on the header page). */
+    public static final int MAX_COLUMNS = (PAGE_SIZE - COLUMNS) / 8;
+
+    // --------------------------------------------------------------------------
+
+    /** Name of the file. */
+    protected String name;
+
+    /** Schema of the records. */
+    protected Schema schema;
+
+    /** Id of the header page. */
+    protected PageId headerId;
+
+    /** Number of records in the file. */
+    protected int recCnt;
+
+    /** First and last page of each column's chain. */
+    protected PageId[] firstPages;
+    protected PageId[] lastPages;
+
+    /** Decoded last page of each column, loaded on the first insert. */
+    protected ColumnSegment[] tails;
+
+    /** Set if the tails or the header have changes that aren't on disk. */
+    protected boolean dirty;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * If the given name already denotes a file, this opens it; otherwise, this
+     * creates a new empty file with the given schema.
+     *
+     * @throws IllegalArgumentException if the schema has too many columns
+     */
+    public ColumnarFile(String name, Schema schema) {
+        int colcnt = schema.getCount();
+        if (colcnt > MAX_COLUMNS) {
+            throw new IllegalArgumentException("too many columns for a columnar file");
+        }
+        this.name = name;
+        this.schema = schema;
+        this.firstPages = new PageId[colcnt];
+        this.lastPages = new PageId[colcnt];
+        this.tails = new ColumnSegment[colcnt];
+
+        headerId = Minibase.DiskManager.get_file_entry(name);
+        Page header = new Page();
+        if (headerId == null) {
+
+            // create the header and an empty first page for each column
+            headerId = Minibase.BufferManager.newPage(header, 1);
+            recCnt = 0;
+            for (int i = 0; i < colcnt; i++) {
+                firstPages[i] = newColumnPage();
+                lastPages[i] = firstPages[i];
+            }
+            writeHeader(header);
+            Minibase.BufferManager.unpinPage(headerId, UNPIN_DIRTY);
+            Minibase.DiskManager.add_file_entry(name, headerId);
+
+        } else {
+
+            // read the chains from the existing header
+            Minibase.BufferManager.pinPage(headerId, header, PIN_DISKIO);
+            byte[] data = header.getData();
+            recCnt = Convert.getIntValue(REC_CNT, data);
+            if (Convert.getIntValue(COL_CNT, data) != colcnt) {
+                Minibase.BufferManager.unpinPage(headerId, UNPIN_CLEAN);
+                throw new IllegalArgumentException("schema doesn't match columnar file");
+            }
+            for (int i = 0; i < colcnt; i++) {
+                firstPages[i] = new PageId(Convert.getIntValue(COLUMNS + i * 8, data));
+                lastPages[i] = new PageId(Convert.getIntValue(COLUMNS + i * 8 + 4, data));
+            }
+            Minibase.BufferManager.unpinPage(headerId, UNPIN_CLEAN);
+
+        }
+    } // public ColumnarFile(String name, Schema schema)
+
+    /**
+     * Deletes the file from the database, freeing all of its pages.
+     */
+    public void deleteFile() {
+        for (int i = 0; i < firstPages.length; i++) {
+            PageId pageno = firstPages[i];
+            while (pageno.pid != INVALID_PAGEID) {
+                PageId next = nextPage(pageno);
+                Minibase.BufferManager.freePage(pageno);
+                pageno = next;
+            }
+        }
+        Minibase.BufferManager.freePage(headerId);
+        Minibase.DiskManager.delete_file_entry(name);
+        recCnt = 0;
+        dirty = false;
+    }
+
+    /**
+     * Appends a record, given its data in the layout of the file's schema.
+     */
+    public void insertRecord(byte[] data) {
+        for (int i = 0; i < tails.length; i++) {
+            appendValue(i, data, schema.fieldOffset(i));
+        }
+        recCnt++;
+        dirty = true;
+    }
+
+    /**
+     * Writes the last page of each column and the header, if records have been
+     * appended since the last flush.
+     */
+    public void flush() {
+        if (!dirty) {
+            return;
+        }
+        for (int i = 0; i < tails.length; i++) {
+            if (tails[i] != null) {
+                writeTail(i);
+            }
+        }
+        updateHeader();
+        dirty = false;
+    }
+
+    /**
+     * Gets the number of records in the file.
+     */
+    public int getRecCnt() {
+        return recCnt;
+    }
+
+    /**
+     * Gets the schema of the records.
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Gets the number of pages in a column's chain.
+     */
+    public int getPageCnt(int fldno) {
+        int cnt = 0;
+        for (PageId pageno = firstPages[fldno]; pageno.pid != INVALID_PAGEID;
+                pageno = nextPage(pageno)) {
+            cnt++;
+        }
+        return cnt;
+    }
+
+    /**
+     * Returns the name of the file.
+     */
+    public String toString() {
+        return name;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Gets the first page of a column's chain.
+     */
+    protected PageId firstPage(int fldno) {
+        return firstPages[fldno];
+    }
+
+    /**
+     * Reads and decodes the segment on a column page; returns the id of the
+     * next page in the chain through the given PageId.
+     */
+    protected ColumnSegment readSegment(int fldno, PageId pageno, PageId next) {
+        Page page = new Page();
+        Minibase.BufferManager.pinPage(pageno, page, PIN_DISKIO);
+        try {
+            byte[] data = page.getData();
+            next.pid = Convert.getIntValue(ColumnSegment.NEXT_PAGE, data);
+            return ColumnSegment.read(data, schema.fieldType(fldno),
+                    schema.fieldLength(fldno));
+        } finally {
+            Minibase.BufferManager.unpinPage(pageno, UNPIN_CLEAN);
+        }
+    }
+
+    /**
+     * Adds one field value to the end of a column, writing the last page and
+     * starting a new one when it is full.
+     */
+    private void appendValue(int fldno, byte[] data, int offset) {
+        if (tails[fldno] == null) {
+            tails[fldno] = readSegment(fldno, lastPages[fldno], new PageId());
+        }
+        if (!tails[fldno].add(data, offset)) {
+
+            // write the full page, and link a new last page to the chain
+            PageId newId = newColumnPage();
+            Page page = new Page();
+            Minibase.BufferManager.pinPage(lastPages[fldno], page, PIN_DISKIO);
+            tails[fldno].write(page.getData());
+            Convert.setIntValue(newId.pid, ColumnSegment.NEXT_PAGE, page.getData());
+            Minibase.BufferManager.unpinPage(lastPages[fldno], UNPIN_DIRTY);
+            lastPages[fldno] = newId;
+
+            tails[fldno] = new ColumnSegment(schema.fieldType(fldno),
+                    schema.fieldLength(fldno));
+            tails[fldno].add(data, offset);
+        }
+    }
+
+    /**
+     * Encodes the last page of a column.
+     */
+    private void writeTail(int fldno) {
+        Page page = new Page();
+        Minibase.BufferManager.pinPage(lastPages[fldno], page, PIN_DISKIO);
+        tails[fldno].write(page.getData());
+        Minibase.BufferManager.unpinPage(lastPages[fldno], UNPIN_DIRTY);
+    }
+
+    /**
+     * Allocates an empty column page at the end of a chain.
+     */
+    private PageId newColumnPage() {
+        Page page = new Page();
+        PageId pageno = Minibase.BufferManager.newPage(page, 1);
+        byte[] data = page.getData();
+        Convert.setIntValue(INVALID_PAGEID, ColumnSegment.NEXT_PAGE, data);
+        new ColumnSegment(AttrType.INTEGER, 4).write(data);
+        Minibase.BufferManager.unpinPage(pageno, UNPIN_DIRTY);
+        return pageno;
+    }
+
+    /**
+     * Gets the id of the page following the given one in its chain.
+     */
+    private PageId nextPage(PageId pageno) {
+        Page page = new Page();
+        Minibase.BufferManager.pinPage(pageno, page, PIN_DISKIO);
+        PageId next = new PageId(Convert.getIntValue(ColumnSegment.NEXT_PAGE,
+                page.getData()));
+        Minibase.BufferManager.unpinPage(pageno, UNPIN_CLEAN);
+        return next;
+    }
+
+    private void updateHeader() {
+        Page header = new Page();
+        Minibase.BufferManager.pinPage(headerId, header, PIN_DISKIO);
+        writeHeader(header);
+        Minibase.BufferManager.unpinPage(headerId, UNPIN_DIRTY);
+    }
+
+    private void writeHeader(Page header) {
+        byte[] data = header.getData();
+        Convert.setIntValue(recCnt, REC_CNT, data);
+        Convert.setIntValue(firstPages.length, COL_CNT, data);
+        for (int i = 0; i < firstPages.length; i++) {
+            Convert.setIntValue(firstPages[i].pid, COLUMNS + i * 8, data);
+            Convert.setIntValue(lastPages[i].pid, COLUMNS + i * 8 + 4, data);
+        }
+    }
+
+} // public class ColumnarFile implements GlobalConst
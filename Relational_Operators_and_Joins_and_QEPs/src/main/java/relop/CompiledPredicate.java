@@ -0,0 +1,472 @@
+package relop;
+
+import global.AttrOperator;
+import global.AttrType;
+import global.Convert;
+
+import java.util.List;
+
+/**
+ * A predicate bound to a schema (see Predicate.compile). Its operands are
+ * resolved once to byte offsets or unboxed constants, and it is evaluated by
+ * a class specialized for the operands' type and kinds (field and constant,
+ * or two fields) that reads the tuple's bytes directly, without boxing the
+ * fields. The operator is reduced to a truth table over the sign of the
+ * comparison, and string equality compares bytes without decoding them.
+ * <p>
+ * Compiled predicates are immutable, so one may be shared by several threads.
+ * Each can also give itself as a Java expression, which PipelineCompiler puts
+ * in the loop of a generated class.
+ */
+public abstract class CompiledPredicate {
+
+    /** Truth table of the operator: bit 0 for less, 1 for equal, 2 for greater. */
+    protected final int truth;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a compiled predicate for the given operator.
+     */
+    protected CompiledPredicate(int oper) {
+        this.truth = truthTable(oper);
+    }
+
+    /**
+     * Evaluates the predicate on the given tuple and returns true if it passes.
+     */
+    public boolean evaluate(Tuple tuple) {
+        return evaluate(tuple.getData());
+    }
+
+    /**
+     * Evaluates the predicate on the data of a tuple of the bound schema.
+     */
+    public abstract boolean evaluate(byte[] data);
+
+    /**
+     * Gets a Java expression that evaluates the predicate on the byte array of
+     * the given name. Constants are not written into the expression, but added
+     * to the list and named c0, c1, etc. by their index (so classes generated
+     * for predicates that differ only in their constants are the same).
+     */
+    abstract String toJava(String data, List<Object> constants);
+
+    /**
+     * Applies the operator to the sign of a comparison (-1, 0, or 1).
+     */
+    protected final boolean test(int sign) {
+        return ((truth >> (sign + 1)) & 1) != 0;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Gets the Java operator that compares a value with 0 like this predicate's
+     * operator, e.g. "<=" for LTE.
+     */
+    protected final String operator() {
+        switch (truth) {
+
+            case 0b010:
+                return "==";
+
+            case 0b101:
+                return "!=";
+
+            case 0b100:
+                return ">";
+
+            case 0b110:
+                return ">=";
+
+            case 0b001:
+                return "<";
+
+            default:
+                return "<=";
+
+        } // switch (truth)
+    }
+
+    /**
+     * Adds a constant to the list; returns its name in generated code.
+     */
+    protected static String constant(List<Object> constants, Object value) {
+        constants.add(value);
+        return "c" + (constants.size() - 1);
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Compiles a comparison of the given type. Field operands are given by
+     * their offsets and lengths, and have no value (i.e. null); a comparison
+     * of a constant with a field is turned around.
+     */
+    static CompiledPredicate compile(int oper, int type, int loff, int llen, Object lval,
+            int roff, int rlen, Object rval) {
+
+        // constants are folded, and kept on the right
+        if (lval != null && rval != null) {
+            return new Constant(oper, Integer.signum(compare(type, lval, rval)));
+        }
+        if (lval != null) {
+            return compile(flip(oper), type, roff, rlen, rval, loff, llen, lval);
+        }
+
+        switch (type) {
+
+            case AttrType.INTEGER:
+                return (rval != null) ? new IntConst(oper, loff, (Integer) rval)
+                        : new IntFields(oper, loff, roff);
+
+            case AttrType.FLOAT:
+                return (rval != null) ? new FloatConst(oper, loff, (Float) rval)
+                        : new FloatFields(oper, loff, roff);
+
+            case AttrType.STRING:
+                return (rval != null) ? new StringConst(oper, loff, llen, (String) rval)
+                        : new StringFields(oper, loff, llen, roff, rlen);
+
+            default:
+                throw new IllegalArgumentException("unknown types to compare");
+
+        } // switch (type)
+    }
+
+    /**
+     * Gets the truth table of an operator.
+     *
+     * @throws IllegalArgumentException if the operator is invalid
+     */
+    private static int truthTable(int oper) {
+        switch (oper) {
+
+            case AttrOperator.EQ:
+                return 0b010;
+
+            case AttrOperator.NEQ:
+                return 0b101;
+
+            case AttrOperator.GT:
+                return 0b100;
+
+            case AttrOperator.GTE:
+                return 0b110;
+
+            case AttrOperator.LT:
+                return 0b001;
+
+            case AttrOperator.LTE:
+                return 0b011;
+
+            default:
+                throw new IllegalArgumentException("unknown operator to evaluate");
+
+        } // switch (oper)
+    }
+
+    /**
+     * Gets the operator with its operands swapped (e.g. LT for GT).
+     */
+    private static int flip(int oper) {
+        switch (oper) {
+
+            case AttrOperator.GT:
+                return AttrOperator.LT;
+
+            case AttrOperator.GTE:
+                return AttrOperator.LTE;
+
+            case AttrOperator.LT:
+                return AttrOperator.GT;
+
+            case AttrOperator.LTE:
+                return AttrOperator.GTE;
+
+            default:
+                return oper;
+        }
+    }
+
+    /**
+     * Compares two constants of the given type.
+     */
+    private static int compare(int type, Object lval, Object rval) {
+        switch (type) {
+
+            case AttrType.INTEGER:
+                return ((Integer) lval).compareTo((Integer) rval);
+
+            case AttrType.FLOAT:
+                return ((Float) lval).compareTo((Float) rval);
+
+            case AttrType.STRING:
+                return ((String) lval).compareTo((String) rval);
+
+            default:
+                throw new IllegalArgumentException("unknown types to compare");
+        }
+    }
+
+    /**
+     * Gets the end of a string field without its trailing padding, as in
+     * Convert.getStringValue.
+     */
+    static int trimEnd(byte[] data, int off, int len) {
+        int end = Math.min(off + len, data.length);
+        while (end > off && (data[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Gets the start of a string field without its leading padding.
+     */
+    static int trimStart(byte[] data, int off, int end) {
+        while (off < end && (data[off] & 0xFF) <= ' ') {
+            off++;
+        }
+        return off;
+    }
+
+    /**
+     * Returns true if a string field, without its padding, has the given bytes.
+     */
+    static boolean equalsTrimmed(byte[] data, int off, int len, byte[] val) {
+        int end = trimEnd(data, off, len);
+        return equal(data, trimStart(data, off, end), end, val, 0, val.length);
+    }
+
+    /**
+     * Returns true if two string fields are equal without their padding.
+     */
+    static boolean equalsTrimmed(byte[] data, int loff, int llen, int roff, int rlen) {
+        int lend = trimEnd(data, loff, llen);
+        int rend = trimEnd(data, roff, rlen);
+        return equal(data, trimStart(data, loff, lend), lend, data, trimStart(data, roff, rend), rend);
+    }
+
+    /**
+     * Returns true if two byte ranges are equal.
+     */
+    private static boolean equal(byte[] d1, int from1, int to1, byte[] d2, int from2, int to2) {
+        if (to1 - from1 != to2 - from2) {
+            return false;
+        }
+        while (from1 < to1) {
+            if (d1[from1++] != d2[from2++]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Comparison of two constants, i.e. always true or always false.
+     */
+    private static final class Constant extends CompiledPredicate {
+
+        private final boolean result;
+
+        Constant(int oper, int sign) {
+            super(oper);
+            this.result = test(sign);
+        }
+
+        public boolean evaluate(byte[] data) {
+            return result;
+        }
+
+        String toJava(String data, List<Object> constants) {
+            return Boolean.toString(result);
+        }
+
+    } // private static final class Constant extends CompiledPredicate
+
+    /**
+     * Integer field compared with a constant.
+     */
+    private static final class IntConst extends CompiledPredicate {
+
+        private final int off;
+        private final int val;
+
+        IntConst(int oper, int off, int val) {
+            super(oper);
+            this.off = off;
+            this.val = val;
+        }
+
+        public boolean evaluate(byte[] data) {
+            return test(Integer.signum(Integer.compare(Convert.getIntValue(off, data), val)));
+        }
+
+        String toJava(String data, List<Object> constants) {
+            return "Convert.getIntValue(" + off + ", " + data + ") " + operator() + " "
+                    + constant(constants, val);
+        }
+
+    } // private static final class IntConst extends CompiledPredicate
+
+    /**
+     * Two integer fields compared.
+     */
+    private static final class IntFields extends CompiledPredicate {
+
+        private final int loff;
+        private final int roff;
+
+        IntFields(int oper, int loff, int roff) {
+            super(oper);
+            this.loff = loff;
+            this.roff = roff;
+        }
+
+        public boolean evaluate(byte[] data) {
+            return test(Integer.signum(Integer.compare(Convert.getIntValue(loff, data),
+                    Convert.getIntValue(roff, data))));
+        }
+
+        String toJava(String data, List<Object> constants) {
+            return "Convert.getIntValue(" + loff + ", " + data + ") " + operator()
+                    + " Convert.getIntValue(" + roff + ", " + data + ")";
+        }
+
+    } // private static final class IntFields extends CompiledPredicate
+
+    /**
+     * Float field compared with a constant (with the ordering of Float).
+     */
+    private static final class FloatConst extends CompiledPredicate {
+
+        private final int off;
+        private final float val;
+
+        FloatConst(int oper, int off, float val) {
+            super(oper);
+            this.off = off;
+            this.val = val;
+        }
+
+        public boolean evaluate(byte[] data) {
+            return test(Integer.signum(Float.compare(Convert.getFloatValue(off, data), val)));
+        }
+
+        String toJava(String data, List<Object> constants) {
+            return "Float.compare(Convert.getFloatValue(" + off + ", " + data + "), "
+                    + constant(constants, val) + ") " + operator() + " 0";
+        }
+
+    } // private static final class FloatConst extends CompiledPredicate
+
+    /**
+     * Two float fields compared (with the ordering of Float).
+     */
+    private static final class FloatFields extends CompiledPredicate {
+
+        private final int loff;
+        private final int roff;
+
+        FloatFields(int oper, int loff, int roff) {
+            super(oper);
+            this.loff = loff;
+            this.roff = roff;
+        }
+
+        public boolean evaluate(byte[] data) {
+            return test(Integer.signum(Float.compare(Convert.getFloatValue(loff, data),
+                    Convert.getFloatValue(roff, data))));
+        }
+
+        String toJava(String data, List<Object> constants) {
+            return "Float.compare(Convert.getFloatValue(" + loff + ", " + data
+                    + "), Convert.getFloatValue(" + roff + ", " + data + ")) " + operator() + " 0";
+        }
+
+    } // private static final class FloatFields extends CompiledPredicate
+
+    /**
+     * String field compared with a constant; equality compares the field's
+     * bytes with the constant's, and only orderings decode the field.
+     */
+    private static final class StringConst extends CompiledPredicate {
+
+        private final int off;
+        private final int len;
+        private final String val;
+        private final byte[] bytes;
+        private final boolean equality;
+
+        StringConst(int oper, int off, int len, String val) {
+            super(oper);
+            this.off = off;
+            this.len = len;
+            this.val = val;
+            this.bytes = val.getBytes();
+            this.equality = (oper == AttrOperator.EQ || oper == AttrOperator.NEQ);
+        }
+
+        public boolean evaluate(byte[] data) {
+            if (equality) {
+                return test(equalsTrimmed(data, off, len, bytes) ? 0 : 1);
+            }
+            return test(Integer.signum(Convert.getStringValue(off, data, len).compareTo(val)));
+        }
+
+        String toJava(String data, List<Object> constants) {
+            if (equality) {
+                return (test(0) ? "" : "!") + "CompiledPredicate.equalsTrimmed(" + data + ", "
+                        + off + ", " + len + ", " + constant(constants, bytes) + ")";
+            }
+            return "Convert.getStringValue(" + off + ", " + data + ", " + len + ").compareTo("
+                    + constant(constants, val) + ") " + operator() + " 0";
+        }
+
+    } // private static final class StringConst extends CompiledPredicate
+
+    /**
+     * Two string fields compared; equality compares their bytes.
+     */
+    private static final class StringFields extends CompiledPredicate {
+
+        private final int loff;
+        private final int llen;
+        private final int roff;
+        private final int rlen;
+        private final boolean equality;
+
+        StringFields(int oper, int loff, int llen, int roff, int rlen) {
+            super(oper);
+            this.loff = loff;
+            this.llen = llen;
+            this.roff = roff;
+            this.rlen = rlen;
+            this.equality = (oper == AttrOperator.EQ || oper == AttrOperator.NEQ);
+        }
+
+        public boolean evaluate(byte[] data) {
+            if (equality) {
+                return test(equalsTrimmed(data, loff, llen, roff, rlen) ? 0 : 1);
+            }
+            return test(Integer.signum(Convert.getStringValue(loff, data, llen)
+                    .compareTo(Convert.getStringValue(roff, data, rlen))));
+        }
+
+        String toJava(String data, List<Object> constants) {
+            if (equality) {
+                return (test(0) ? "" : "!") + "CompiledPredicate.equalsTrimmed(" + data + ", "
+                        + loff + ", " + llen + ", " + roff + ", " + rlen + ")";
+            }
+            return "Convert.getStringValue(" + loff + ", " + data + ", " + llen + ").compareTo("
+                    + "Convert.getStringValue(" + roff + ", " + data + ", " + rlen + ")) "
+                    + operator() + " 0";
+        }
+
+    } // private static final class StringFields extends CompiledPredicate
+
+} // public abstract class CompiledPredicate
@@ -0,0 +1,141 @@
+package relop;
+
+import global.RID;
+import heap.HeapFile;
+import heap.HeapScan;
+
+/**
+ * A scan of a heap file fused with its selections and projection, i.e. the
+ * pipeline FileScan, Selection (one per array of predicates), Projection, run
+ * by a class generated for it (see PipelineCompiler). The generated loop fills
+ * a buffer of projected records at a time, with no tuples or virtual calls in
+ * between; this iterator only wraps the records it returns as tuples.
+ */
+public class CompiledScan extends Iterator {
+
+    /** Number of records the pipeline returns per call. */
+    public static final int BUFFER_SIZE = 256;
+
+    private HeapFile file;
+    private Pipeline pipeline;
+    private Predicate[][] preds;
+    private HeapScan scan;
+    private RID rid;
+
+    /** Records returned by the pipeline, and the next one to return. */
+    private byte[][] buffer;
+    private int count;
+    private int pos;
+
+    private boolean isOpen;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a scan of the given pipeline.
+     */
+    private CompiledScan(HeapFile file, Pipeline pipeline, Predicate[][] preds) {
+        this.file = file;
+        this.pipeline = pipeline;
+        this.preds = preds;
+        this.schema = pipeline.output;
+        this.scan = file.openScan();
+        this.rid = new RID();
+        this.buffer = new byte[BUFFER_SIZE][];
+        this.isOpen = true;
+    }
+
+    /**
+     * Compiles the scan of the given heap file, selecting the tuples that pass
+     * every array of predicates (each of which is a disjunction, as in
+     * Selection), and projecting the given fields (or all of them, if null).
+     * Returns null if the pipeline can't be compiled, so that the caller can
+     * build the FileScan, Selection and Projection instead.
+     *
+     * @throws IllegalArgumentException if a predicate or field is invalid for
+     * the schema
+     */
+    public static CompiledScan compile(Schema schema, HeapFile file, Predicate[][] preds,
+            Integer... fields) {
+        Pipeline pipeline = PipelineCompiler.compile(schema, preds, fields);
+        return (pipeline != null) ? new CompiledScan(file, pipeline, preds) : null;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        StringBuilder where = new StringBuilder();
+        for (Predicate[] pred : preds) {
+            where.append((where.length() > 0) ? " AND " : "").append('(');
+            for (int i = 0; i < pred.length; i++) {
+                where.append((i > 0) ? " OR " : "").append(pred[i]);
+            }
+            where.append(')');
+        }
+        System.out.println("CompiledScan : " + pipeline.getClass().getSimpleName()
+                + ((preds.length > 0) ? ", " + where : "") + ", " + schema.getCount() + " columns");
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        scan.close();
+        scan = file.openScan();
+        count = 0;
+        pos = 0;
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        if (isOpen) {
+            scan.close();
+        }
+        count = 0;
+        pos = 0;
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (pos < count) {
+            return true;
+        }
+        if (!isOpen) {
+            return false;
+        }
+        pos = 0;
+        count = pipeline.fill(scan, rid, buffer);
+        return count > 0;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        byte[] data = buffer[pos];
+        buffer[pos++] = null;
+        return new Tuple(schema, data);
+    }
+
+} // public class CompiledScan extends Iterator
@@ -0,0 +1,158 @@
+package relop;
+
+/**
+ * Precomputed plan for building tuples by copying bytes: the ranges of one or
+ * two input tuples' data (from Schema offsets) that make up an output tuple,
+ * with adjacent fields merged into one range. A join of two tuples is then two
+ * System.arraycopy calls, and a projection one per run of adjacent fields,
+ * without decoding or re-encoding any field (cf. Tuple.getField and setField).
+ * <p>
+ * Plans are immutable, so one may be shared by several threads.
+ */
+public class CopyPlan {
+
+    /** Schema of the output tuples. */
+    private final Schema schema;
+
+    /**
+     * Per range: input (0 or 1), offset in it, offset in the output, length
+     * (also read by PipelineCompiler, to generate the copies).
+     */
+    final int[] inputs;
+    final int[] from;
+    final int[] to;
+    final int[] lengths;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a plan of the given ranges.
+     */
+    private CopyPlan(Schema schema, int[] inputs, int[] from, int[] to, int[] lengths) {
+        this.schema = schema;
+        this.inputs = inputs;
+        this.from = from;
+        this.to = to;
+        this.lengths = lengths;
+    }
+
+    /**
+     * Gets the plan that joins tuples of the given schemas into tuples of the
+     * joined schema (see Schema.join).
+     *
+     * @throws IllegalArgumentException if the joined schema isn't the fields
+     * of s1 then those of s2
+     */
+    public static CopyPlan join(Schema s1, Schema s2, Schema schema) {
+        if (!concatenates(s1, s2, schema)) {
+            throw new IllegalArgumentException("schema is not a join of the given schemas");
+        }
+        int len1 = s1.getLength();
+        return new CopyPlan(schema, new int[] { 0, 1 }, new int[] { 0, 0 },
+                new int[] { 0, len1 }, new int[] { len1, s2.getLength() });
+    }
+
+    /**
+     * Gets the plan that projects the given fields of tuples of the input
+     * schema, in the given order.
+     *
+     * @throws IllegalArgumentException if a field number is invalid
+     */
+    public static CopyPlan project(Schema input, Integer... fields) {
+        Schema schema = new Schema(fields.length);
+        int[] from = new int[fields.length];
+        int[] to = new int[fields.length];
+        int[] lengths = new int[fields.length];
+        int cnt = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] == null || fields[i] < 0 || fields[i] >= input.getCount()) {
+                throw new IllegalArgumentException("unknown field " + fields[i]);
+            }
+            schema.initField(i, input, fields[i]);
+            int src = input.fieldOffset(fields[i]);
+            int dst = schema.fieldOffset(i);
+            if (cnt > 0 && from[cnt - 1] + lengths[cnt - 1] == src && to[cnt - 1] + lengths[cnt - 1] == dst) {
+                // adjacent in both, so one copy
+                lengths[cnt - 1] += schema.fieldLength(i);
+            } else {
+                from[cnt] = src;
+                to[cnt] = dst;
+                lengths[cnt] = schema.fieldLength(i);
+                cnt++;
+            }
+        }
+        return new CopyPlan(schema, new int[cnt], trim(from, cnt), trim(to, cnt), trim(lengths, cnt));
+    }
+
+    /**
+     * Returns true if a schema has the fields of s1 then those of s2, with the
+     * same types and lengths (so a joined tuple is their data concatenated).
+     */
+    static boolean concatenates(Schema s1, Schema s2, Schema schema) {
+        int cnt1 = s1.getCount();
+        if (schema.getCount() != cnt1 + s2.getCount()) {
+            return false;
+        }
+        for (int i = 0; i < schema.getCount(); i++) {
+            Schema src = (i < cnt1) ? s1 : s2;
+            int srcNo = (i < cnt1) ? i : i - cnt1;
+            if (schema.fieldType(i) != src.fieldType(srcNo)
+                    || schema.fieldLength(i) != src.fieldLength(srcNo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Gets the schema of the output tuples.
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Builds the joined tuple of two tuples.
+     */
+    public Tuple join(Tuple t1, Tuple t2) {
+        return new Tuple(schema, copy(t1.data, t2.data));
+    }
+
+    /**
+     * Builds the projected tuple of a tuple.
+     */
+    public Tuple project(Tuple tuple) {
+        return new Tuple(schema, copy(tuple.data, null));
+    }
+
+    /**
+     * Copies the ranges of the inputs' data into new output data.
+     */
+    public byte[] copy(byte[] d1, byte[] d2) {
+        byte[] data = new byte[schema.getLength()];
+        copyInto(d1, d2, data);
+        return data;
+    }
+
+    /**
+     * Copies the ranges of the inputs' data into the given output data, which
+     * may be longer than the plan's schema (e.g. to add fields after them).
+     */
+    void copyInto(byte[] d1, byte[] d2, byte[] data) {
+        for (int r = 0; r < lengths.length; r++) {
+            System.arraycopy((inputs[r] == 0) ? d1 : d2, from[r], data, to[r], lengths[r]);
+        }
+    }
+
+    /**
+     * Gets the first cnt elements of an array.
+     */
+    private static int[] trim(int[] array, int cnt) {
+        int[] trimmed = new int[cnt];
+        System.arraycopy(array, 0, trimmed, 0, cnt);
+        return trimmed;
+    }
+
+} // public class CopyPlan
@@ -0,0 +1,304 @@
+package relop;
+
+import java.util.Arrays;
+
+/**
+ * Hash-based duplicate elimination (i.e. SELECT DISTINCT) that respects a
+ * memory budget. Tuples are compared by their raw bytes, which are hashed into
+ * an open-addressing set, and each tuple not seen before is returned at once,
+ * so the operator is pipelined (and stops early under a Limit). Once the set
+ * is full, tuples not in it are split by hash into FANOUT partitions written
+ * to temporary files instead; after the input ends, each partition is made
+ * distinct the same way, with a different hash function (up to MAX_DEPTH
+ * levels, after which a partition is held in memory). Nothing is sorted.
+ */
+public class Distinct extends Iterator {
+
+    /** Number of partitions per level. */
+    public static final int FANOUT = 16;
+
+    /** Maximum number of times a partition is split again. */
+    public static final int MAX_DEPTH = 8;
+
+    /** Per-tuple overhead of the set, besides the bytes, for estimates. */
+    private static final int ENTRY_OVERHEAD = 32;
+
+    // --------------------------------------------------------------------------
+
+    private Iterator input;
+    private long memoryBudget;
+    private int depth;
+
+    /** Top-level distinct, which owns the temp space and the statistics. */
+    private Distinct root;
+    private TempSpace space;
+
+    /** Open-addressing set of the tuples seen: their bytes and hashes. */
+    private byte[][] seen;
+    private int[] hashes;
+    private int seenCnt;
+    private int maxSeen;
+
+    /** Spilled partitions (or null if empty). */
+    private TempFile[] partitions;
+
+    /** After the input: the next partition, and the distinct of it in progress. */
+    private boolean inputDone;
+    private int spillIndex;
+    private int distincting = -1;
+    private Distinct partitionDistinct;
+
+    private Tuple next;
+    private boolean isOpen;
+
+    // statistics (kept by the root)
+    private int partitionsSpilled;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a distinct with the default memory budget.
+     */
+    public Distinct(Iterator input) {
+        this(input, TempSpace.DEFAULT_MEMORY);
+    }
+
+    /**
+     * Constructs a distinct that holds at most the given number of bytes of
+     * tuples in memory.
+     */
+    public Distinct(Iterator input, long memoryBudget) {
+        this(input, memoryBudget, 0, null);
+    }
+
+    /**
+     * Constructs a distinct of a spilled partition.
+     */
+    private Distinct(Iterator input, long memoryBudget, int depth, Distinct root) {
+        this.input = input;
+        this.memoryBudget = memoryBudget;
+        this.depth = depth;
+        this.root = (root != null) ? root : this;
+        this.space = (root != null) ? root.space : new TempSpace(0);
+        this.schema = input.getSchema();
+        this.maxSeen = (int) Math.max(1, Math.min(Integer.MAX_VALUE / 4,
+                memoryBudget / (schema.getLength() + ENTRY_OVERHEAD)));
+        this.isOpen = true;
+        clear();
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("Distinct : " + memoryBudget + " bytes");
+        input.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        release();
+        clear();
+        input.restart();
+        next = null;
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        release();
+        seen = null;
+        hashes = null;
+        if (root == this) {
+            space.close();
+        }
+        input.close();
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (!isOpen) {
+            return false;
+        }
+
+        // first the input, returning tuples as they are first seen
+        while (!inputDone) {
+            if (!input.hasNext()) {
+                inputDone = true;
+                break;
+            }
+            Tuple tuple = input.getNext();
+            if (add(tuple)) {
+                next = tuple;
+                return true;
+            }
+        }
+
+        // then the distinct tuples of each spilled partition
+        while (true) {
+            if (partitionDistinct != null) {
+                if (partitionDistinct.hasNext()) {
+                    next = partitionDistinct.getNext();
+                    return true;
+                }
+                partitionDistinct.close();
+                partitionDistinct = null;
+                partitions[distincting].close();
+                partitions[distincting] = null;
+            }
+            while (spillIndex < FANOUT && partitions[spillIndex] == null) {
+                spillIndex++;
+            }
+            if (spillIndex == FANOUT) {
+                return false;
+            }
+            distincting = spillIndex++;
+            partitionDistinct = new Distinct(partitions[distincting].openScan(),
+                    memoryBudget, depth + 1, root);
+        }
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        Tuple tuple = next;
+        next = null;
+        return tuple;
+    }
+
+    /**
+     * Gets the number of partitions that were written to temporary files (at
+     * any level).
+     */
+    public int getPartitionsSpilled() {
+        return root.partitionsSpilled;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Adds a tuple to the set; returns true if it wasn't seen before and fits,
+     * or false if it is a duplicate or was spilled.
+     */
+    private boolean add(Tuple tuple) {
+        byte[] data = tuple.getData();
+        int hash = hash(data);
+        int mask = seen.length - 1;
+        int slot = hash & mask;
+        while (seen[slot] != null) {
+            if (hashes[slot] == hash && Arrays.equals(seen[slot], data)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (seenCnt >= maxSeen && depth < MAX_DEPTH) {
+            spill(hash, tuple);
+            return false;
+        }
+        seen[slot] = data.clone();
+        hashes[slot] = hash;
+        if (++seenCnt * 2 > seen.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the bytes of a tuple, differently at each level.
+     */
+    private int hash(byte[] data) {
+        int h = Arrays.hashCode(data) * 0x9E3779B9 + depth * 0x85EBCA6B;
+        h ^= h >>> 16;
+        h *= 0x7FEB352D;
+        h ^= h >>> 15;
+        return h;
+    }
+
+    /**
+     * Writes a tuple to the partition of its hash.
+     */
+    private void spill(int hash, Tuple tuple) {
+        // the top bits pick the partition, as the low ones pick the slot
+        int p = (hash >>> 28) % FANOUT;
+        if (partitions[p] == null) {
+            partitions[p] = space.createFile(schema);
+            root.partitionsSpilled++;
+        }
+        partitions[p].add(tuple);
+    }
+
+    /**
+     * Doubles the size of the set.
+     */
+    private void grow() {
+        byte[][] oldSeen = seen;
+        int[] oldHashes = hashes;
+        seen = new byte[oldSeen.length * 2][];
+        hashes = new int[seen.length];
+        int mask = seen.length - 1;
+        for (int i = 0; i < oldSeen.length; i++) {
+            if (oldSeen[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (seen[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                seen[slot] = oldSeen[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Empties the set, and starts reading the input again.
+     */
+    private void clear() {
+        seen = new byte[16][];
+        hashes = new int[16];
+        seenCnt = 0;
+        partitions = new TempFile[FANOUT];
+        inputDone = false;
+        spillIndex = 0;
+    }
+
+    /**
+     * Frees the partitions, and any distinct of them in progress.
+     */
+    private void release() {
+        if (partitionDistinct != null) {
+            partitionDistinct.close();
+            partitionDistinct = null;
+        }
+        for (int p = 0; p < FANOUT; p++) {
+            if (partitions[p] != null) {
+                partitions[p].close();
+                partitions[p] = null;
+            }
+        }
+    }
+
+} // public class Distinct extends Iterator
@@ -0,0 +1,224 @@
+package relop;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * Sending side of an exchange: reads an input iterator and sends its tuples,
+ * in batches, to a number of consumers (see getConsumer), each of which is
+ * the leaf of a subtree that a Gather runs on a worker thread. Subclasses
+ * decide which consumers get each tuple (see Repartition and Broadcast).
+ * <p>
+ * The input is read only when the Gather calls pump, on the Gather's own
+ * thread, since the buffer manager isn't thread-safe; so the input may scan
+ * files, but the workers' subtrees must work in memory. Each consumer has a
+ * bounded queue of batches, and a batch that doesn't fit waits here, which
+ * stops the input from being read until the consumer catches up.
+ */
+public abstract class Exchange {
+
+    /** Number of tuples per batch. */
+    public static final int BATCH_SIZE = 256;
+
+    /** Number of batches that each consumer's queue holds. */
+    public static final int QUEUE_BATCHES = 4;
+
+    // --------------------------------------------------------------------------
+
+    protected Iterator input;
+
+    private ExchangeSource[] consumers;
+
+    /** Per consumer: the batch being filled, and the full ones that wait. */
+    private ArrayList<ArrayList<Tuple>> filling;
+    private ArrayList<ArrayDeque<Tuple[]>> waiting;
+
+    private boolean inputDone;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs an exchange of the input to the given number of consumers.
+     *
+     * @throws IllegalArgumentException if there are no consumers
+     */
+    protected Exchange(Iterator input, int consumerCnt) {
+        if (consumerCnt <= 0) {
+            throw new IllegalArgumentException("invalid number of consumers");
+        }
+        this.input = input;
+        this.consumers = new ExchangeSource[consumerCnt];
+        this.filling = new ArrayList<ArrayList<Tuple>>();
+        this.waiting = new ArrayList<ArrayDeque<Tuple[]>>();
+        for (int i = 0; i < consumerCnt; i++) {
+            consumers[i] = new ExchangeSource(this, QUEUE_BATCHES);
+            filling.add(new ArrayList<Tuple>());
+            waiting.add(new ArrayDeque<Tuple[]>());
+        }
+    }
+
+    /**
+     * Gives a one-line explanation of the exchange, and explains the input.
+     */
+    public abstract void explain(int depth);
+
+    /**
+     * Gets the schema of the tuples.
+     */
+    public Schema getSchema() {
+        return input.getSchema();
+    }
+
+    /**
+     * Gets the number of consumers.
+     */
+    public int getConsumerCount() {
+        return consumers.length;
+    }
+
+    /**
+     * Gets the iterator over the tuples that the given consumer receives.
+     */
+    public Iterator getConsumer(int i) {
+        return consumers[i];
+    }
+
+    /**
+     * Sends the tuple to one or more consumers (see add).
+     */
+    protected abstract void route(Tuple tuple);
+
+    /**
+     * Adds a tuple to the given consumer's next batch.
+     */
+    protected void add(int consumer, Tuple tuple) {
+        ArrayList<Tuple> batch = filling.get(consumer);
+        batch.add(tuple);
+        if (batch.size() == BATCH_SIZE) {
+            waiting.get(consumer).add(batch.toArray(new Tuple[BATCH_SIZE]));
+            batch.clear();
+        }
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Moves waiting batches into the consumers' queues and, once none wait,
+     * reads and routes the next input tuples, until a batch must wait. Returns
+     * true if any batch was queued. Called by the Gather's thread only.
+     */
+    boolean pump() {
+        boolean queued = offerWaiting();
+        if (isWaiting() || inputDone) {
+            return queued;
+        }
+
+        // route tuples until some batch is full, or the input ends
+        while (!isWaiting()) {
+            if (!input.hasNext()) {
+                inputDone = true;
+                for (int i = 0; i < consumers.length; i++) {
+                    ArrayList<Tuple> batch = filling.get(i);
+                    if (!batch.isEmpty()) {
+                        waiting.get(i).add(batch.toArray(new Tuple[batch.size()]));
+                        batch.clear();
+                    }
+                    waiting.get(i).add(ExchangeSource.END);
+                }
+                break;
+            }
+            route(input.getNext());
+        }
+        return offerWaiting() || queued;
+    }
+
+    /**
+     * Returns true if the input has been read, and every batch queued.
+     */
+    boolean isDone() {
+        return inputDone && !isWaiting();
+    }
+
+    /**
+     * Returns true if any consumer was restarted since the exchange was, i.e.
+     * will read the input again.
+     */
+    boolean isRestarted() {
+        for (ExchangeSource consumer : consumers) {
+            if (consumer.isRestarted()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Restarts the input, and empties the consumers and batches.
+     */
+    void restart() {
+        input.restart();
+        clear();
+    }
+
+    /**
+     * Closes the input, and empties the consumers and batches; the input is
+     * then done, so pump does nothing (e.g. for consumers that won't be read
+     * again, like the build side of a HashJoin that keeps its hash table).
+     */
+    void finish() {
+        close();
+        inputDone = true;
+    }
+
+    /**
+     * Closes the input, and empties the consumers and batches.
+     */
+    void close() {
+        if (input.isOpen()) {
+            input.close();
+        }
+        clear();
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Returns true if a full batch waits for room in a queue.
+     */
+    private boolean isWaiting() {
+        for (ArrayDeque<Tuple[]> batches : waiting) {
+            if (!batches.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queues the waiting batches that fit; returns true if any did.
+     */
+    private boolean offerWaiting() {
+        boolean queued = false;
+        for (int i = 0; i < consumers.length; i++) {
+            ArrayDeque<Tuple[]> batches = waiting.get(i);
+            while (!batches.isEmpty() && consumers[i].offer(batches.peek())) {
+                batches.remove();
+                queued = true;
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Empties the consumers and batches, as if nothing had been read.
+     */
+    private void clear() {
+        for (int i = 0; i < consumers.length; i++) {
+            consumers[i].clear();
+            filling.get(i).clear();
+            waiting.get(i).clear();
+        }
+        inputDone = false;
+    }
+
+} // public abstract class Exchange
@@ -0,0 +1,131 @@
+package relop;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Receiving side of an exchange: iterates over the batches that an Exchange
+ * queues for one consumer, on the worker thread that runs the consumer's
+ * subtree; waits while the queue is empty.
+ */
+class ExchangeSource extends Iterator {
+
+    /** Batch that marks the end of the input. */
+    static final Tuple[] END = new Tuple[0];
+
+    private Exchange exchange;
+    private ArrayBlockingQueue<Tuple[]> queue;
+
+    /** Current batch, and the next tuple in it. */
+    private Tuple[] batch;
+    private int pos;
+
+    private boolean done;
+    private boolean isOpen;
+
+    /** Set if restarted since the exchange last restarted (see Gather.restart). */
+    private boolean restarted;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a consumer of the exchange with a queue of the given number
+     * of batches.
+     */
+    ExchangeSource(Exchange exchange, int capacity) {
+        this.exchange = exchange;
+        this.queue = new ArrayBlockingQueue<Tuple[]>(capacity);
+        this.schema = exchange.getSchema();
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        exchange.explain(depth);
+    }
+
+    /**
+     * Restarts the iterator; the exchange then restarts the input and queues
+     * (see Gather.restart).
+     */
+    public void restart() {
+        isOpen = true;
+        restarted = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator; the exchange closes the input (see Gather.close).
+     */
+    public void close() {
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise; waits for the
+     * exchange to queue a batch if there is none.
+     *
+     * @throws IllegalStateException if the thread is interrupted while waiting
+     */
+    public boolean hasNext() {
+        while (!done && (batch == null || pos == batch.length)) {
+            try {
+                batch = queue.take();
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for tuples");
+            }
+            pos = 0;
+            done = (batch == END);
+        }
+        return isOpen && !done;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        return batch[pos++];
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Queues a batch if there's room; returns true if it was queued.
+     */
+    boolean offer(Tuple[] tuples) {
+        return queue.offer(tuples);
+    }
+
+    /**
+     * Returns true if the iterator was restarted, i.e. will be read again.
+     */
+    boolean isRestarted() {
+        return restarted;
+    }
+
+    /**
+     * Empties the queue, as if nothing had been queued.
+     */
+    void clear() {
+        queue.clear();
+        batch = null;
+        pos = 0;
+        done = false;
+        restarted = false;
+    }
+
+} // class ExchangeSource extends Iterator
@@ -74,14 +74,28 @@ public class FileScan extends Iterator {
      * @throws IllegalStateException if no more tuples
      */
     public Tuple getNext() {
-        return new Tuple(schema, scan.getNext(rid));
+        return Tuple.fromRecord(schema, scan.getNext(rid));
     }
 
     /**
-     * Gets the RID of the last tuple returned.
+     * Fills the batch straight from the file's records, without creating a
+     * tuple for each one.
+     */
+    public boolean nextBatch(TupleBatch batch) {
+        batch.clear();
+        while (!batch.isFull() && scan.hasNext()) {
+            byte[] record = scan.getNext(rid);
+            batch.addRecord(schema.isVariable() ? schema.decode(record) : record);
+        }
+        return batch.size() > 0;
+    }
+
+    /**
+     * Gets the RID of the last tuple returned (a copy, since the scan reuses
+     * its own RID for each tuple).
      */
     public RID getLastRID() {
-        return rid;
+        return new RID(rid);
     }
 
     // getter; added so HashJoin doesn't have to copy the file;
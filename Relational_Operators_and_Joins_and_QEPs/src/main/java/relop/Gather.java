@@ -0,0 +1,253 @@
+package relop;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exchange that runs a number of worker subtrees, each on its own thread, and
+ * merges their tuples (in no particular order). The workers' leaves are the
+ * consumers of the given exchanges (see Exchange.getConsumer), whose inputs
+ * are read on this iterator's thread; so only in-memory operators (e.g.
+ * Selection, HashJoin, HashAggregate) run on the workers, while scans and
+ * anything else that pins pages stay on one thread.
+ * <p>
+ * Workers send batches of tuples through a bounded queue, and wait when it's
+ * full; the threads start on the first call to hasNext, and closing (e.g. as
+ * a Limit is reached) stops them.
+ */
+public class Gather extends Iterator {
+
+    private Exchange[] inputs;
+    private Iterator[] workers;
+
+    /** Batches from every worker, and the threads that run them. */
+    private ArrayBlockingQueue<Tuple[]> output;
+    private Thread[] threads;
+
+    /** First error thrown by a worker, rethrown by this thread. */
+    private volatile Throwable error;
+
+    /** Current batch, the next tuple in it, and the workers finished. */
+    private Tuple[] batch;
+    private int pos;
+    private int finished;
+
+    private boolean isOpen;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a gather of the given workers, all of which have the same
+     * schema, and which read from the consumers of the given exchanges.
+     *
+     * @throws IllegalArgumentException if there are no workers
+     */
+    public Gather(Exchange[] inputs, Iterator... workers) {
+        if (workers.length == 0) {
+            throw new IllegalArgumentException("no workers");
+        }
+        this.inputs = inputs;
+        this.workers = workers;
+        this.output = new ArrayBlockingQueue<Tuple[]>(Exchange.QUEUE_BATCHES * workers.length);
+        this.schema = workers[0].getSchema();
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("Gather : " + workers.length + " workers");
+        workers[0].explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed. Exchanges are
+     * restarted only if a worker restarts one of their consumers (e.g. not the
+     * build side of a HashJoin, which keeps its hash table); the others are
+     * closed, as their input won't be read again.
+     */
+    public void restart() {
+        stop();
+        for (Iterator worker : workers) {
+            worker.restart();
+        }
+        for (Exchange input : inputs) {
+            if (input.isRestarted()) {
+                input.restart();
+            } else {
+                input.finish();
+            }
+        }
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        if (!isOpen) {
+            return;
+        }
+        stop();
+        for (Iterator worker : workers) {
+            worker.close();
+        }
+        for (Exchange input : inputs) {
+            input.close();
+        }
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     *
+     * @throws IllegalStateException if the thread is interrupted while waiting
+     */
+    public boolean hasNext() {
+        if (!isOpen) {
+            return false;
+        }
+        if (threads == null) {
+            start();
+        }
+        try {
+            while ((batch == null || pos == batch.length) && finished < workers.length) {
+                batch = output.poll();
+                if (batch == null) {
+
+                    // feed the workers, or wait for them
+                    boolean queued = false;
+                    boolean done = true;
+                    for (Exchange input : inputs) {
+                        queued |= input.pump();
+                        done &= input.isDone();
+                    }
+                    if (!queued) {
+                        batch = done ? output.take() : output.poll(1, TimeUnit.MILLISECONDS);
+                    }
+                }
+                pos = 0;
+                if (batch == ExchangeSource.END) {
+                    finished++;
+                    batch = null;
+                }
+            }
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for tuples");
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (error != null) {
+            throw new IllegalStateException("worker failed", error);
+        }
+        return batch != null && pos < batch.length;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        return batch[pos++];
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Starts a thread for each worker.
+     */
+    private void start() {
+        threads = new Thread[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            final Iterator worker = workers[i];
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    work(worker);
+                }
+            }, "Gather worker " + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    /**
+     * Runs a worker, sending its tuples in batches; the last batch is END.
+     */
+    private void work(Iterator worker) {
+        try {
+            try {
+                Tuple[] tuples = new Tuple[Exchange.BATCH_SIZE];
+                int cnt = 0;
+                while (worker.hasNext()) {
+                    tuples[cnt++] = worker.getNext();
+                    if (cnt == tuples.length) {
+                        output.put(tuples);
+                        tuples = new Tuple[Exchange.BATCH_SIZE];
+                        cnt = 0;
+                    }
+                }
+                if (cnt > 0) {
+                    Tuple[] last = new Tuple[cnt];
+                    System.arraycopy(tuples, 0, last, 0, cnt);
+                    output.put(last);
+                }
+            } catch (Throwable exc) {
+                // any error ends the worker, so that hasNext still sees its END
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                if (error == null) {
+                    error = exc;
+                }
+            }
+            output.put(ExchangeSource.END);
+        } catch (InterruptedException exc) {
+            // stopped by close or restart
+        }
+    }
+
+    /**
+     * Stops the threads, and forgets the batches.
+     */
+    private void stop() {
+        if (threads != null) {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            threads = null;
+        }
+        output.clear();
+        error = null;
+        batch = null;
+        pos = 0;
+        finished = 0;
+    }
+
+} // public class Gather extends Iterator
@@ -0,0 +1,468 @@
+package relop;
+
+import global.AttrType;
+
+import java.util.Arrays;
+
+/**
+ * Hash aggregation (i.e. GROUP BY) that respects a memory budget. The input
+ * is read once, and each tuple is added to its group's accumulators, which
+ * are found through an open-addressing hash table on the group columns; their
+ * values are hashed and compared in place (strings by their bytes, without
+ * padding), so finding a tuple's group allocates nothing. Once the budget
+ * allows no more groups, the tuples of groups not in memory yet are split by
+ * key hash into FANOUT partitions written to temporary files, while the groups
+ * already in memory keep aggregating; after the groups in memory are returned,
+ * each partition is aggregated the same way, with a different hash function
+ * (up to MAX_DEPTH levels, after which a partition is aggregated in memory).
+ * <p>
+ * Without group columns, the whole input is one group, which is returned even
+ * if the input is empty (e.g. a COUNT of 0).
+ */
+public class HashAggregate extends Iterator {
+
+    /** Number of partitions per level. */
+    public static final int FANOUT = 16;
+
+    /** Maximum number of times a partition is split again. */
+    public static final int MAX_DEPTH = 8;
+
+    // --------------------------------------------------------------------------
+
+    private Iterator input;
+    private int[] groupFields;
+
+    /** Type, offset and length of each group column in the input tuples. */
+    private int[] groupTypes;
+    private int[] groupOffsets;
+    private int[] groupLengths;
+    private Aggregate[] aggs;
+    private long memoryBudget;
+    private int depth;
+
+    /** Set if the tuples of groups that don't fit are returned, not spilled. */
+    private boolean passOverflow;
+
+    /** Top-level aggregate, which owns the temp space and the statistics. */
+    private HashAggregate root;
+    private TempSpace space;
+
+    /** Groups in memory, and the most there may be. */
+    private Accumulators groups;
+    private int maxGroups;
+
+    /**
+     * Hash table of the groups in memory: each slot holds a group number plus
+     * one (0 is an empty slot), and each group the hash of its key.
+     */
+    private int[] slots;
+    private int[] hashes;
+
+    /** Spilled partitions (or null if empty). */
+    private TempFile[] partitions;
+
+    /** Output state: the next group in memory, then the next partition. */
+    private boolean built;
+    private int groupIndex;
+    private int spillIndex;
+    private int aggregating = -1;
+    private HashAggregate partitionAgg;
+
+    private Tuple next;
+    private boolean isOpen;
+
+    // statistics (kept by the root)
+    private int partitionsSpilled;
+    private int maxDepth;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs an aggregate of the given group fields with the default
+     * memory budget.
+     *
+     * @throws IllegalArgumentException if an aggregate is invalid for the input
+     */
+    public HashAggregate(Iterator input, int[] groupFields, Aggregate... aggs) {
+        this(input, groupFields, TempSpace.DEFAULT_MEMORY, aggs);
+    }
+
+    /**
+     * Constructs an aggregate of the given group fields that holds at most
+     * the given number of bytes of groups in memory.
+     *
+     * @throws IllegalArgumentException if an aggregate is invalid for the input
+     */
+    public HashAggregate(Iterator input, int[] groupFields, long memoryBudget,
+            Aggregate... aggs) {
+        this(input, groupFields, memoryBudget, 0, null, aggs);
+    }
+
+    /**
+     * Constructs an aggregate for a worker thread (see ParallelAggregate),
+     * which can't write temporary files: once the budget allows no more
+     * groups, the input tuples of the groups not in memory are returned as
+     * they are read, instead of being spilled, and the groups in memory
+     * follow. The former are marked as passed (see isPassed).
+     */
+    HashAggregate(Iterator input, int[] groupFields, long memoryBudget, boolean passOverflow,
+            Aggregate... aggs) {
+        this(input, groupFields, memoryBudget, 0, null, aggs);
+        this.passOverflow = passOverflow;
+    }
+
+    /**
+     * Constructs an aggregate of a spilled partition.
+     */
+    private HashAggregate(Iterator input, int[] groupFields, long memoryBudget,
+            int depth, HashAggregate root, Aggregate... aggs) {
+        this.input = input;
+        this.groupFields = groupFields;
+        this.aggs = aggs;
+        this.memoryBudget = memoryBudget;
+        this.depth = depth;
+        this.root = (root != null) ? root : this;
+        this.space = (root != null) ? root.space : new TempSpace(0);
+        this.groups = new Accumulators(input.getSchema(), groupFields, aggs);
+        Schema in = input.getSchema();
+        this.groupTypes = new int[groupFields.length];
+        this.groupOffsets = new int[groupFields.length];
+        this.groupLengths = new int[groupFields.length];
+        for (int i = 0; i < groupFields.length; i++) {
+            groupTypes[i] = in.fieldType(groupFields[i]);
+            groupOffsets[i] = in.fieldOffset(groupFields[i]);
+            groupLengths[i] = in.fieldLength(groupFields[i]);
+        }
+        this.schema = groups.getSchema();
+        this.maxGroups = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                memoryBudget / groups.groupBytes()));
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("HashAggregate : group by " + Arrays.toString(groupFields)
+                + ", " + aggs.length + " aggregates");
+        input.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        release();
+        input.restart();
+        built = false;
+        next = null;
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        release();
+        if (root == this) {
+            space.close();
+        }
+        input.close();
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (!isOpen) {
+            return false;
+        }
+        if (!built) {
+            Tuple overflow = build();
+            if (overflow != null) {
+                next = overflow;
+                return true;
+            }
+        }
+
+        // first the groups in memory
+        if (groupIndex < groups.size()) {
+            next = groups.result(groupIndex++);
+            return true;
+        }
+
+        // then those of each spilled partition
+        while (true) {
+            if (partitionAgg != null) {
+                if (partitionAgg.hasNext()) {
+                    next = partitionAgg.getNext();
+                    return true;
+                }
+                partitionAgg.close();
+                partitionAgg = null;
+                partitions[aggregating].close();
+                partitions[aggregating] = null;
+            }
+            while (spillIndex < FANOUT && partitions[spillIndex] == null) {
+                spillIndex++;
+            }
+            if (spillIndex == FANOUT) {
+                return false;
+            }
+            aggregating = spillIndex++;
+            partitionAgg = new HashAggregate(partitions[aggregating].openScan(), groupFields,
+                    memoryBudget, depth + 1, root, aggs);
+            root.maxDepth = Math.max(root.maxDepth, depth + 1);
+        }
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        Tuple tuple = next;
+        next = null;
+        return tuple;
+    }
+
+    /**
+     * Gets the number of partitions that were written to temporary files (at
+     * any level).
+     */
+    public int getPartitionsSpilled() {
+        return root.partitionsSpilled;
+    }
+
+    /**
+     * Gets the deepest level of partitioning.
+     */
+    public int getMaxDepth() {
+        return root.maxDepth;
+    }
+
+    /**
+     * Returns true if a tuple from an aggregate that passes overflow is an
+     * input tuple it passed, rather than one of its groups.
+     */
+    static boolean isPassed(Tuple tuple) {
+        return tuple instanceof Passed;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Reads the input, aggregating the groups that fit in memory and spilling
+     * the tuples of the others. When passing the others instead, returns the
+     * first one read, to be called again once it has been returned; returns
+     * null when the input has been read.
+     */
+    private Tuple build() {
+        if (slots == null) {
+            slots = new int[32];
+            hashes = new int[16];
+            partitions = new TempFile[FANOUT];
+            groupIndex = 0;
+            spillIndex = 0;
+        }
+        while (input.hasNext()) {
+            Tuple tuple = input.getNext();
+            int hash = hash(tuple);
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+            int group = -1;
+            while (slots[slot] != 0) {
+                int g = slots[slot] - 1;
+                if (hashes[g] == hash && sameGroup(tuple, groups.key(g))) {
+                    group = g;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (group < 0) {
+                if (groups.size() >= maxGroups && depth < MAX_DEPTH) {
+                    if (passOverflow) {
+                        return new Passed(tuple);
+                    }
+                    spill(hash, tuple);
+                    continue;
+                }
+                group = groups.add(tuple);
+                claim(slot, group, hash);
+            }
+            groups.accumulate(group, tuple);
+        }
+
+        // without group columns, an empty input is still one group
+        if (groupFields.length == 0 && groups.size() == 0 && depth == 0) {
+            groups.add(null);
+        }
+        slots = null;
+        hashes = null;
+        built = true;
+        return null;
+    }
+
+    /**
+     * Hashes the group columns of a tuple, differently at each level.
+     */
+    private int hash(Tuple tuple) {
+        int h = 0;
+        for (int i = 0; i < groupFields.length; i++) {
+            switch (groupTypes[i]) {
+
+                case AttrType.INTEGER:
+                    h = 31 * h + tuple.getIntFld(groupFields[i]);
+                    break;
+
+                case AttrType.FLOAT:
+                    h = 31 * h + Float.floatToIntBits(tuple.getFloatFld(groupFields[i]));
+                    break;
+
+                default:
+                    int off = groupOffsets[i];
+                    int end = CompiledPredicate.trimEnd(tuple.data, off, groupLengths[i]);
+                    for (int b = CompiledPredicate.trimStart(tuple.data, off, end); b < end; b++) {
+                        h = 31 * h + (tuple.data[b] & 0xFF);
+                    }
+                    break;
+            }
+        }
+        h = h * 0x9E3779B9 + depth * 0x85EBCA6B;
+        h ^= h >>> 16;
+        h *= 0x7FEB352D;
+        h ^= h >>> 15;
+        return h;
+    }
+
+    /**
+     * Returns true if two tuples have equal group columns (floats compared by
+     * their bits, as Float.equals does, and strings without their padding).
+     */
+    private boolean sameGroup(Tuple tuple, Tuple key) {
+        for (int i = 0; i < groupFields.length; i++) {
+            int fldno = groupFields[i];
+            switch (groupTypes[i]) {
+
+                case AttrType.INTEGER:
+                    if (tuple.getIntFld(fldno) != key.getIntFld(fldno)) {
+                        return false;
+                    }
+                    break;
+
+                case AttrType.FLOAT:
+                    if (Float.floatToIntBits(tuple.getFloatFld(fldno))
+                            != Float.floatToIntBits(key.getFloatFld(fldno))) {
+                        return false;
+                    }
+                    break;
+
+                default:
+                    int off = groupOffsets[i];
+                    int len = groupLengths[i];
+                    int end = CompiledPredicate.trimEnd(tuple.data, off, len);
+                    int start = CompiledPredicate.trimStart(tuple.data, off, end);
+                    int keyEnd = CompiledPredicate.trimEnd(key.data, off, len);
+                    int keyStart = CompiledPredicate.trimStart(key.data, off, keyEnd);
+                    if (end - start != keyEnd - keyStart) {
+                        return false;
+                    }
+                    while (start < end) {
+                        if (tuple.data[start++] != key.data[keyStart++]) {
+                            return false;
+                        }
+                    }
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Puts a new group in an empty slot, then rehashes if the table is half
+     * full.
+     */
+    private void claim(int slot, int group, int hash) {
+        if (group == hashes.length) {
+            hashes = Arrays.copyOf(hashes, 2 * group);
+        }
+        hashes[group] = hash;
+        slots[slot] = group + 1;
+        if (groups.size() * 2 > slots.length) {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int g = 0; g < groups.size(); g++) {
+                int i = hashes[g] & mask;
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = g + 1;
+            }
+        }
+    }
+
+    /**
+     * Writes a tuple to the partition of its hash at this level.
+     */
+    private void spill(int hash, Tuple tuple) {
+        // the top bits pick the partition, as the low ones pick the slot
+        int p = (hash >>> 28) % FANOUT;
+        if (partitions[p] == null) {
+            partitions[p] = space.createFile(input.getSchema());
+            root.partitionsSpilled++;
+        }
+        partitions[p].add(tuple);
+    }
+
+    /**
+     * Frees the groups and partitions, and any aggregate of them in progress.
+     */
+    private void release() {
+        if (partitionAgg != null) {
+            partitionAgg.close();
+            partitionAgg = null;
+        }
+        if (partitions != null) {
+            for (int p = 0; p < FANOUT; p++) {
+                if (partitions[p] != null) {
+                    partitions[p].close();
+                    partitions[p] = null;
+                }
+            }
+        }
+        groups.clear();
+        slots = null;
+        hashes = null;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Input tuple passed rather than aggregated; shares the tuple's data.
+     */
+    private static final class Passed extends Tuple {
+
+        Passed(Tuple tuple) {
+            super(tuple.schema, tuple.data);
+        }
+
+    } // private static final class Passed extends Tuple
+
+} // public class HashAggregate extends Iterator
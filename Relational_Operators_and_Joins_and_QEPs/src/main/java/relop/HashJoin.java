@@ -7,9 +7,6 @@ import global.RID;
 import global.AttrOperator;
 import global.AttrType;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
-
 public class HashJoin extends Iterator {
 
     // Column iterators
@@ -20,11 +17,24 @@ public class HashJoin extends Iterator {
     Integer left_column;
     Integer right_column;
 
-    // Hash table
-    HashTableDup hash_table;
+    // Plan for joining a left and a right tuple
+    private CopyPlan join_plan;
+
+    // Hash table, built from the left iterator on the first call to hasNext;
+    // set only once the left iterator has been read to the end
+    JoinHashTable hash_table;
+
+    // Probe state: the current right tuple, its next matching entry in the
+    // hash table (or -1), and the joined tuple waiting to be returned by getNext
+    private Tuple right_tuple;
+    private int right_entry = -1;
+    private Tuple next_tuple;
 
-    // Queue for tuples
-    private Queue<Tuple> tuple_queue;
+    // Probe state, when used a batch at a time: the current batch of right
+    // tuples, the next row to probe, and the matches of the previous row
+    private TupleBatch probe_batch;
+    private int probe_row;
+    private int probe_entry = -1;
 
     public HashJoin(Iterator aIter1, Iterator aIter2, int aJoinCol1, int aJoinCol2) {
         // Initialize iterators
@@ -33,34 +43,32 @@ public class HashJoin extends Iterator {
         // Initialize columns
         this.left_column = aJoinCol1;
         this.right_column = aJoinCol2;
-        // Initialize tuple queue
-        this.tuple_queue = new ArrayDeque<Tuple>();
-        // Initialize hash table
-        this.hash_table = new HashTableDup();
-        while(this.left_iterator.hasNext()) {
-            // Get next tuple
-            Tuple tuple = this.left_iterator.getNext();
-            // Make search key for the tuple in the hash table
-            SearchKey search_key = new SearchKey(tuple.getField(aJoinCol1));
-            // Add to hash table
-            this.hash_table.add(search_key, tuple);
-        }
-        this.left_iterator.close();
         // Initialize schema
         this.schema = Schema.join(this.left_iterator.schema, this.right_iterator.schema);
+        this.join_plan = CopyPlan.join(this.left_iterator.schema, this.right_iterator.schema, this.schema);
     }
 
     @Override
     public void explain(int depth) {
-        throw new UnsupportedOperationException("Not implemented");
-        //TODO: Your code here
+        indent(depth);
+        System.out.println("HashJoin : {" + this.left_column + "} = {" + this.right_column + "}");
+        this.left_iterator.explain(depth + 1);
+        this.right_iterator.explain(depth + 1);
     }
 
     @Override
     public void restart() {
-        // Restart both iterators
-        this.left_iterator.restart();
+        // Keep the hash table once built; only the right side is scanned again
+        if (this.hash_table == null) {
+            this.left_iterator.restart();
+        }
         this.right_iterator.restart();
+        // Forget any tuple or batch in progress
+        this.right_tuple = null;
+        this.right_entry = -1;
+        this.next_tuple = null;
+        this.probe_batch = null;
+        this.probe_entry = -1;
     }
 
     @Override
@@ -78,35 +86,97 @@ public class HashJoin extends Iterator {
 
     @Override
     public boolean hasNext() {
-        boolean has_next = false;
-        // Check if the queue is not empty
-        if (!this.tuple_queue.isEmpty()) {
-            has_next = true;
+        // A joined tuple is already waiting
+        if (this.next_tuple != null) {
+            return true;
+        }
+        build();
+        while (true) {
+            // Join the next match of the current right tuple
+            if (this.right_entry >= 0) {
+                this.next_tuple = this.join_plan.join(this.hash_table.get(this.right_entry),
+                        this.right_tuple);
+                this.right_entry = this.hash_table.next(this.right_entry);
+                return true;
+            }
+            // Otherwise probe with the next right tuple, if any
+            if (!this.right_iterator.hasNext()) {
+                this.right_tuple = null;
+                return false;
+            }
+            this.right_tuple = this.right_iterator.getNext();
+            this.right_entry = this.hash_table.find(this.right_tuple, this.right_column);
         }
+    }
+
+    /**
+     * Builds the hash table from the left iterator, if not done yet.
+     */
+    private void build() {
+        if (this.hash_table != null) {
+            return;
+        }
+        // Key the table by the type of the right column, which probes it; keys of
+        // different types never match, so then the table stays empty
+        int left_type = this.left_iterator.getSchema().fieldType(this.left_column);
+        int right_type = this.right_iterator.getSchema().fieldType(this.right_column);
+        // Build into a local table, so that a build cut short (e.g. by a Gather's
+        // restart) leaves no partial table for restart to keep
+        JoinHashTable table = JoinHashTable.create(right_type);
+        while (this.left_iterator.hasNext()) {
+            // Get next tuple and add it to the hash table
+            Tuple tuple = this.left_iterator.getNext();
+            if (left_type == right_type) {
+                table.add(tuple, this.left_column);
+            }
+        }
+        this.left_iterator.close();
+        this.hash_table = table;
+    }
 
-        // If not, use right iterator to find matching tuples
-        while (this.right_iterator.hasNext()) {
-            // Get next tuple, create search key, and find matches
-            Tuple next_tuple = this.right_iterator.getNext();
-            SearchKey search_key = new SearchKey(next_tuple.getField(this.right_column));
-            Tuple[] hash_table_matches = this.hash_table.getAll(search_key);
-            for (Tuple match : hash_table_matches) {
-                Tuple joined_tuple = Tuple.join(match, next_tuple, this.schema);
-                this.tuple_queue.add(joined_tuple);
+    /**
+     * Fills the batch with the next joined tuples, probing the hash table with
+     * a batch of right tuples at a time.
+     */
+    @Override
+    public boolean nextBatch(TupleBatch batch) {
+        batch.clear();
+        build();
+        if (this.probe_batch == null || this.probe_batch.capacity() != batch.capacity()) {
+            this.probe_batch = new TupleBatch(this.right_iterator.getSchema(), batch.capacity());
+            this.probe_row = 0;
+            this.probe_entry = -1;
+        }
+        int left_count = this.left_iterator.getSchema().getCount();
+        while (!batch.isFull()) {
+            // Output the remaining matches of the last probed row
+            if (this.probe_entry >= 0) {
+                int row = batch.size();
+                batch.setFields(row, 0, this.hash_table.get(this.probe_entry));
+                batch.setFields(row, left_count, this.probe_batch, this.probe_row - 1);
+                batch.setSize(row + 1);
+                this.probe_entry = this.hash_table.next(this.probe_entry);
+                continue;
             }
-            // Check new tuples were added
-            if (!this.tuple_queue.isEmpty()) {
-                has_next = true;
+            // Probe the next row, getting the next right batch as needed
+            if (this.probe_row >= this.probe_batch.size()) {
+                if (!this.right_iterator.nextBatch(this.probe_batch)) {
+                    break;
+                }
+                this.probe_row = 0;
             }
+            this.probe_entry = this.hash_table.find(this.probe_batch, this.right_column,
+                    this.probe_row++);
         }
-        return has_next;
+        return batch.size() > 0;
     }
 
     @Override
     public Tuple getNext() {
-        // If there is a next tuple, remove and return it. Otherwise, error.
+        // If there is a next tuple, hand it over. Otherwise, error.
         if (this.hasNext()) {
-            Tuple tuple = this.tuple_queue.remove();
+            Tuple tuple = this.next_tuple;
+            this.next_tuple = null;
             return tuple;
         } else {
             throw new IllegalStateException("There are no more tuples in the queue.");
@@ -0,0 +1,371 @@
+package relop;
+
+import java.util.ArrayList;
+
+/**
+ * Hybrid hash join that respects a memory budget. The left (build) input is
+ * split by key hash into FANOUT partitions, held in memory while they fit;
+ * when the budget is exceeded, the largest resident partition spills to a
+ * temporary file, and so do its later tuples. Right (probe) tuples of resident
+ * partitions are joined as they arrive, and the others are written to the
+ * matching partition's probe file. Each spilled pair of files is then joined
+ * the same way, with a different hash function, so partitions that are still
+ * too large are split again (up to MAX_DEPTH levels, after which a partition
+ * is joined in memory: its keys are most likely all equal).
+ */
+public class HybridHashJoin extends Iterator {
+
+    /** Number of partitions per level. */
+    public static final int FANOUT = 16;
+
+    /** Maximum number of times a partition is split again. */
+    public static final int MAX_DEPTH = 8;
+
+    // --------------------------------------------------------------------------
+
+    private Iterator left;
+    private Iterator right;
+    private int leftCol;
+    private int rightCol;
+    private long memoryBudget;
+    private int depth;
+
+    /** Plan for joining a left and a right tuple. */
+    private CopyPlan joinPlan;
+
+    /** Top-level join, which owns the temp space and the statistics. */
+    private HybridHashJoin root;
+    private TempSpace space;
+
+    /** Build partitions: tuples held in memory, or the file they spilled to. */
+    private ArrayList<ArrayList<Tuple>> resident;
+    private long[] bytes;
+    private TempFile[] buildFiles;
+    private TempFile[] probeFiles;
+    private JoinHashTable[] tables;
+
+    /** Probe state: the current right tuple and its next match (or -1). */
+    private boolean built;
+    private Tuple probeTuple;
+    private int match = -1;
+
+    /** Partition of the current right tuple. */
+    private int partition;
+
+    /** Spilled partitions: the next one to join, and the join in progress. */
+    private boolean probing;
+    private int spillIndex;
+    private int joining = -1;
+    private HybridHashJoin partitionJoin;
+
+    private Tuple next;
+    private boolean isOpen;
+
+    // statistics (kept by the root)
+    private int partitionsSpilled;
+    private int maxDepth;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a join of the given columns with the default memory budget.
+     */
+    public HybridHashJoin(Iterator left, Iterator right, int leftCol, int rightCol) {
+        this(left, right, leftCol, rightCol, TempSpace.DEFAULT_MEMORY);
+    }
+
+    /**
+     * Constructs a join of the given columns that holds at most the given
+     * number of bytes of left tuples in memory.
+     */
+    public HybridHashJoin(Iterator left, Iterator right, int leftCol, int rightCol,
+            long memoryBudget) {
+        this(left, right, leftCol, rightCol, memoryBudget, 0, null);
+    }
+
+    /**
+     * Constructs a join of a spilled pair of partitions.
+     */
+    private HybridHashJoin(Iterator left, Iterator right, int leftCol, int rightCol,
+            long memoryBudget, int depth, HybridHashJoin root) {
+        this.left = left;
+        this.right = right;
+        this.leftCol = leftCol;
+        this.rightCol = rightCol;
+        this.memoryBudget = memoryBudget;
+        this.depth = depth;
+        this.root = (root != null) ? root : this;
+        this.space = (root != null) ? root.space : new TempSpace(0);
+        this.schema = Schema.join(left.getSchema(), right.getSchema());
+        this.joinPlan = CopyPlan.join(left.getSchema(), right.getSchema(), schema);
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("HybridHashJoin : {" + leftCol + "} = {" + rightCol
+                + "}, " + memoryBudget + " bytes");
+        left.explain(depth + 1);
+        right.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        release();
+        left.restart();
+        right.restart();
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        release();
+        left.close();
+        right.close();
+        if (root == this) {
+            space.close();
+        }
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (!isOpen) {
+            return false;
+        }
+        if (!built) {
+            build();
+        }
+
+        // join the right tuples of resident partitions as they arrive
+        while (probing) {
+            if (match >= 0) {
+                next = joinPlan.join(tables[partition].get(match), probeTuple);
+                match = tables[partition].next(match);
+                return true;
+            }
+            if (!right.hasNext()) {
+                probing = false;
+                break;
+            }
+            probeTuple = right.getNext();
+            int p = partition(probeTuple.getField(rightCol));
+            if (tables[p] != null) {
+                partition = p;
+                match = tables[p].find(probeTuple, rightCol);
+            } else if (buildFiles[p] != null) {
+                if (probeFiles[p] == null) {
+                    probeFiles[p] = space.createFile(right.getSchema());
+                }
+                probeFiles[p].add(probeTuple);
+            }
+        }
+
+        // then join the spilled partitions, one pair at a time
+        while (true) {
+            if (partitionJoin != null) {
+                if (partitionJoin.hasNext()) {
+                    next = partitionJoin.getNext();
+                    return true;
+                }
+                partitionJoin.close();
+                partitionJoin = null;
+                buildFiles[joining].close();
+                probeFiles[joining].close();
+            }
+            int p = nextSpilled();
+            if (p < 0) {
+                return false;
+            }
+            joining = p;
+            partitionJoin = new HybridHashJoin(buildFiles[p].openScan(),
+                    probeFiles[p].openScan(), leftCol, rightCol, memoryBudget,
+                    depth + 1, root);
+        }
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        Tuple tuple = next;
+        next = null;
+        return tuple;
+    }
+
+    /**
+     * Gets the number of partitions spilled to disk, at all levels so far.
+     */
+    public int getPartitionsSpilled() {
+        return root.partitionsSpilled;
+    }
+
+    /**
+     * Gets the deepest level of partitioning used so far (0 if no partition
+     * spilled, 1 if spilled partitions fit in memory, and so on).
+     */
+    public int getMaxDepth() {
+        return root.maxDepth;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Partitions the left input, spilling the largest partitions while over
+     * budget, and hashes the partitions left in memory.
+     */
+    private void build() {
+        resident = new ArrayList<ArrayList<Tuple>>();
+        for (int p = 0; p < FANOUT; p++) {
+            resident.add(new ArrayList<Tuple>());
+        }
+        bytes = new long[FANOUT];
+        buildFiles = new TempFile[FANOUT];
+        probeFiles = new TempFile[FANOUT];
+        tables = new JoinHashTable[FANOUT];
+
+        int len = left.getSchema().getLength();
+        long used = 0;
+        while (left.hasNext()) {
+            Tuple tuple = left.getNext();
+            int p = partition(tuple.getField(leftCol));
+            if (buildFiles[p] != null) {
+                buildFiles[p].add(tuple);
+                continue;
+            }
+            resident.get(p).add(tuple);
+            bytes[p] += len;
+            used += len;
+            while (used > memoryBudget && depth < MAX_DEPTH) {
+                int victim = largestResident();
+                used -= bytes[victim];
+                spill(victim);
+            }
+        }
+
+        // keys of different types never match, so then the tables stay empty
+        int type = right.getSchema().fieldType(rightCol);
+        boolean sameType = left.getSchema().fieldType(leftCol) == type;
+        for (int p = 0; p < FANOUT; p++) {
+            if (buildFiles[p] == null && !resident.get(p).isEmpty()) {
+                tables[p] = JoinHashTable.create(type);
+                if (sameType) {
+                    for (Tuple tuple : resident.get(p)) {
+                        tables[p].add(tuple, leftCol);
+                    }
+                }
+            }
+        }
+        resident = null;
+        probing = true;
+        spillIndex = 0;
+        built = true;
+    }
+
+    /**
+     * Gets the resident partition holding the most bytes.
+     */
+    private int largestResident() {
+        int largest = -1;
+        for (int p = 0; p < FANOUT; p++) {
+            if (buildFiles[p] == null && (largest < 0 || bytes[p] > bytes[largest])) {
+                largest = p;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * Moves a resident partition to a temporary file.
+     */
+    private void spill(int p) {
+        buildFiles[p] = space.createFile(left.getSchema());
+        for (Tuple tuple : resident.get(p)) {
+            buildFiles[p].add(tuple);
+        }
+        resident.get(p).clear();
+        bytes[p] = 0;
+        root.partitionsSpilled++;
+        root.maxDepth = Math.max(root.maxDepth, depth + 1);
+    }
+
+    /**
+     * Gets the next spilled partition with tuples on both sides, or -1 if
+     * there are no more; the files of skipped partitions are closed.
+     */
+    private int nextSpilled() {
+        while (spillIndex < FANOUT) {
+            int p = spillIndex++;
+            if (buildFiles[p] == null) {
+                continue;
+            }
+            if (probeFiles[p] != null) {
+                return p;
+            }
+            buildFiles[p].close();
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the partition of a join key at this level.
+     */
+    private int partition(Object key) {
+        int h = key.hashCode() * 0x9E3779B9 + depth * 0x85EBCA6B;
+        h ^= h >>> 16;
+        h *= 0x7FEB352D;
+        h ^= h >>> 15;
+        return (h & 0x7FFFFFFF) % FANOUT;
+    }
+
+    /**
+     * Frees the partitions, and any join of them in progress.
+     */
+    private void release() {
+        if (partitionJoin != null) {
+            partitionJoin.close();
+            partitionJoin = null;
+        }
+        if (built) {
+            for (int p = 0; p < FANOUT; p++) {
+                if (buildFiles[p] != null) {
+                    buildFiles[p].close();
+                }
+                if (probeFiles[p] != null) {
+                    probeFiles[p].close();
+                }
+            }
+        }
+        resident = null;
+        tables = null;
+        match = -1;
+        next = null;
+        built = false;
+    }
+
+} // public class HybridHashJoin extends Iterator
@@ -0,0 +1,249 @@
+package relop;
+
+import global.GlobalConst;
+import global.Minibase;
+import global.RID;
+import global.SearchKey;
+import heap.HFPage;
+import index.HashIndex;
+import index.HashScan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Index nested-loop join: for each outer (left) tuple, the inner table's hash
+ * index on the join column is probed with the outer key, as in KeyScan, rather
+ * than scanning the inner table. Probes are done for a batch of outer tuples
+ * at a time, and the matching RIDs are sorted by page, so each inner page is
+ * pinned once per batch no matter how many of the batch's matches are on it.
+ * Worth it when the outer input is small compared to the inner table.
+ */
+public class IndexNestedLoopJoin extends Iterator implements GlobalConst {
+
+    /** Default number of outer tuples probed at a time. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    // --------------------------------------------------------------------------
+
+    private Iterator outer;
+    private int outerCol;
+    private Schema innerSchema;
+    private int innerCol;
+    private HashIndex index;
+    private int batchSize;
+
+    /** True if the join columns have the same type (otherwise nothing matches). */
+    private boolean sameType;
+
+    /** Plan for joining an outer and an inner tuple. */
+    private CopyPlan joinPlan;
+
+    /** Current batch of outer tuples. */
+    private Tuple[] batch;
+
+    /** Matches of the batch: inner RID and outer tuple number, by page. */
+    private RID[] matchRids;
+    private int[] matchOuter;
+    private int matchCnt;
+    private int matchIndex;
+
+    /** Joined tuples of the current page. */
+    private ArrayList<Tuple> joined;
+    private int joinedIndex;
+
+    private boolean isOpen;
+
+    // statistics
+    private int pagesPinned;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a join of the given outer column with the column of an inner
+     * table that the given index is on.
+     */
+    public IndexNestedLoopJoin(Iterator outer, int outerCol, Schema innerSchema,
+            int innerCol, HashIndex index) {
+        this(outer, outerCol, innerSchema, innerCol, index, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a join that probes the index for the given number of outer
+     * tuples at a time.
+     */
+    public IndexNestedLoopJoin(Iterator outer, int outerCol, Schema innerSchema,
+            int innerCol, HashIndex index, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("invalid batch size");
+        }
+        this.outer = outer;
+        this.outerCol = outerCol;
+        this.innerSchema = innerSchema;
+        this.innerCol = innerCol;
+        this.index = index;
+        this.batchSize = batchSize;
+        this.schema = Schema.join(outer.getSchema(), innerSchema);
+        this.joinPlan = CopyPlan.join(outer.getSchema(), innerSchema, schema);
+        this.sameType = outer.getSchema().fieldType(outerCol) == innerSchema.fieldType(innerCol);
+        this.batch = new Tuple[batchSize];
+        this.matchRids = new RID[16];
+        this.matchOuter = new int[16];
+        this.joined = new ArrayList<Tuple>();
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("IndexNestedLoopJoin : {" + outerCol + "} = "
+                + innerSchema.fieldName(innerCol) + " using " + index);
+        outer.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        outer.restart();
+        matchCnt = 0;
+        matchIndex = 0;
+        joined.clear();
+        joinedIndex = 0;
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        outer.close();
+        joined.clear();
+        matchCnt = 0;
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (!isOpen) {
+            return false;
+        }
+        while (joinedIndex >= joined.size()) {
+            if (matchIndex < matchCnt) {
+                fetchPage();
+            } else if (!probeBatch()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        return joined.get(joinedIndex++);
+    }
+
+    /**
+     * Gets the number of inner pages pinned so far.
+     */
+    public int getPagesPinned() {
+        return pagesPinned;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Probes the index with the next batch of outer tuples, and sorts their
+     * matches by page; returns false if the outer input is exhausted.
+     */
+    private boolean probeBatch() {
+        int size = 0;
+        while (size < batchSize && outer.hasNext()) {
+            batch[size++] = outer.getNext();
+        }
+        if (size == 0) {
+            return false;
+        }
+
+        // probe the index for each outer tuple
+        matchCnt = 0;
+        for (int i = 0; sameType && i < size; i++) {
+            HashScan scan = index.openScan(new SearchKey(batch[i].getField(outerCol)));
+            while (scan.hasNext()) {
+                if (matchCnt == matchRids.length) {
+                    matchRids = Arrays.copyOf(matchRids, matchCnt * 2);
+                    matchOuter = Arrays.copyOf(matchOuter, matchCnt * 2);
+                }
+                matchRids[matchCnt] = scan.getNext();
+                matchOuter[matchCnt++] = i;
+            }
+            scan.close();
+        }
+
+        // then group the matches by page: sort (page, match number) pairs
+        long[] order = new long[matchCnt];
+        for (int m = 0; m < matchCnt; m++) {
+            order[m] = ((long) matchRids[m].pageno.pid << 32) | m;
+        }
+        Arrays.sort(order);
+        RID[] rids = new RID[matchCnt];
+        int[] outers = new int[matchCnt];
+        for (int m = 0; m < matchCnt; m++) {
+            int pos = (int) order[m];
+            rids[m] = matchRids[pos];
+            outers[m] = matchOuter[pos];
+        }
+        System.arraycopy(rids, 0, matchRids, 0, matchCnt);
+        System.arraycopy(outers, 0, matchOuter, 0, matchCnt);
+        matchIndex = 0;
+        return true;
+    }
+
+    /**
+     * Pins the page of the next match, and joins all of the batch's matches
+     * on that page.
+     */
+    private void fetchPage() {
+        joined.clear();
+        joinedIndex = 0;
+        RID first = matchRids[matchIndex];
+        HFPage hfpage = new HFPage();
+        Minibase.BufferManager.pinPage(first.pageno, hfpage, PIN_DISKIO);
+        pagesPinned++;
+        try {
+            while (matchIndex < matchCnt && matchRids[matchIndex].pageno.pid == first.pageno.pid) {
+                Tuple outerTuple = batch[matchOuter[matchIndex]];
+                Tuple inner = Tuple.fromRecord(innerSchema,
+                        hfpage.selectRecord(matchRids[matchIndex]));
+                matchIndex++;
+
+                // a hash index may return other keys of the same bucket
+                if (outerTuple.getField(outerCol).equals(inner.getField(innerCol))) {
+                    joined.add(joinPlan.join(outerTuple, inner));
+                }
+            }
+        } finally {
+            Minibase.BufferManager.unpinPage(first.pageno, UNPIN_CLEAN);
+        }
+    }
+
+} // public class IndexNestedLoopJoin extends Iterator implements GlobalConst
@@ -95,7 +95,7 @@ public class IndexScan extends Iterator {
             // Get rid of next tuple and apply schema
             rid = bucket_scan.getNext();
             byte[] byte_data = heap_file.selectRecord(rid);
-            Tuple tuple = new Tuple(schema, byte_data);
+            Tuple tuple = Tuple.fromRecord(schema, byte_data);
             return tuple;
         }
 
@@ -7,6 +7,10 @@ package relop;
  * tuple" calls on the root of the tree, which in turn makes similar calls to
  * child iterators throughout the tree. Intermediate nodes (i.e. join iterators)
  * drive the leaf-level nodes (i.e. file or index scan iterators).
+ * <p>
+ * Iterators can also be driven a batch at a time (see nextBatch), which saves
+ * the per-tuple calls and allocations; a consumer uses one protocol or the
+ * other until the iterator is restarted.
  */
 public abstract class Iterator {
 
@@ -63,6 +67,19 @@ public abstract class Iterator {
      */
     public abstract Tuple getNext();
 
+    /**
+     * Fills the batch with the next tuples, up to its capacity; returns false
+     * (leaving the batch empty) if there are no more. This default adapts the
+     * tuple protocol, and operators that process whole batches override it.
+     */
+    public boolean nextBatch(TupleBatch batch) {
+        batch.clear();
+        while (!batch.isFull() && hasNext()) {
+            batch.add(getNext());
+        }
+        return batch.size() > 0;
+    }
+
     /**
      * Prints the schema, gets and prints all tuples, and closes the iterator.
      *
@@ -0,0 +1,421 @@
+package relop;
+
+import global.AttrType;
+
+/**
+ * Hash table of tuples by join key, with duplicate keys, for the build side of
+ * hash joins. There is one subclass per key type, so keys are compared as
+ * primitives (or bytes) rather than as boxed SearchKeys.
+ * <p>
+ * Tuples are stored in flat arrays of entries, along with the hash of their
+ * key; entries with the same key are chained through an array of indices. The
+ * slots of the table (open addressing, linear probing) hold the first entry
+ * of each distinct key, plus one (0 is an empty slot). Probing returns the
+ * index of the first matching entry, and next() follows the chain, so a probe
+ * allocates nothing:
+ *
+ * <pre>
+ * for (int e = table.find(tuple, col); e >= 0; e = table.next(e)) {
+ *     ... table.get(e) ...
+ * }
+ * </pre>
+ */
+abstract class JoinHashTable {
+
+    /** Initial number of entries, and of slots. */
+    protected static final int INIT_SIZE = 64;
+
+    // --------------------------------------------------------------------------
+
+    /** First entry of each distinct key (plus one), by slot. */
+    protected int[] slots;
+
+    /** Number of distinct keys. */
+    protected int distinct;
+
+    /** Tuples, hashes of their keys, and next entry with the same key (or -1). */
+    protected Tuple[] values;
+    protected int[] hashes;
+    protected int[] nexts;
+
+    /** Number of entries. */
+    protected int size;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Creates an empty table for keys of the given type.
+     */
+    public static JoinHashTable create(int type) {
+        switch (type) {
+
+            case AttrType.INTEGER:
+                return new IntTable();
+
+            case AttrType.FLOAT:
+                return new FloatTable();
+
+            case AttrType.STRING:
+                return new StringTable();
+
+            default:
+                throw new IllegalStateException("invalid attribute type");
+        }
+    }
+
+    /**
+     * Constructs an empty table.
+     */
+    protected JoinHashTable() {
+        slots = new int[INIT_SIZE * 2];
+        values = new Tuple[INIT_SIZE];
+        hashes = new int[INIT_SIZE];
+        nexts = new int[INIT_SIZE];
+    }
+
+    /**
+     * Adds a tuple, keyed by the given field.
+     */
+    public abstract void add(Tuple tuple, int fldno);
+
+    /**
+     * Gets the first entry whose key equals the given field of a tuple, or -1.
+     */
+    public abstract int find(Tuple tuple, int fldno);
+
+    /**
+     * Gets the first entry whose key equals the given field of a row, or -1.
+     */
+    public abstract int find(TupleBatch batch, int fldno, int row);
+
+    /**
+     * Gets the next entry with the same key, or -1.
+     */
+    public int next(int entry) {
+        return nexts[entry];
+    }
+
+    /**
+     * Gets the tuple of an entry.
+     */
+    public Tuple get(int entry) {
+        return values[entry];
+    }
+
+    /**
+     * Gets the number of tuples in the table.
+     */
+    public int size() {
+        return size;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Spreads the bits of a key's hash code.
+     */
+    protected static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Adds an entry, growing the entry arrays as needed; the subclass stores
+     * its key at the same index.
+     */
+    protected int newEntry(Tuple tuple, int hash) {
+        if (size == values.length) {
+            grow(size * 2);
+        }
+        int entry = size++;
+        values[entry] = tuple;
+        hashes[entry] = hash;
+        nexts[entry] = -1;
+        return entry;
+    }
+
+    /**
+     * Chains an entry after the first entry of its key.
+     */
+    protected void link(int first, int entry) {
+        nexts[entry] = nexts[first];
+        nexts[first] = entry;
+    }
+
+    /**
+     * Makes an entry the first of a new key in an empty slot, then rehashes if
+     * the table is half full.
+     */
+    protected void claim(int slot, int entry) {
+        slots[slot] = entry + 1;
+        if (++distinct * 2 > slots.length) {
+            int[] old = slots;
+            slots = new int[old.length * 2];
+            int mask = slots.length - 1;
+            for (int first : old) {
+                if (first != 0) {
+                    int i = hashes[first - 1] & mask;
+                    while (slots[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    slots[i] = first;
+                }
+            }
+        }
+    }
+
+    /**
+     * Resizes the entry arrays; subclasses also resize their keys.
+     */
+    protected void grow(int capacity) {
+        Tuple[] v = new Tuple[capacity];
+        int[] h = new int[capacity];
+        int[] n = new int[capacity];
+        System.arraycopy(values, 0, v, 0, size);
+        System.arraycopy(hashes, 0, h, 0, size);
+        System.arraycopy(nexts, 0, n, 0, size);
+        values = v;
+        hashes = h;
+        nexts = n;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Table of integer keys.
+     */
+    static final class IntTable extends JoinHashTable {
+
+        private int[] keys = new int[INIT_SIZE];
+
+        public void add(Tuple tuple, int fldno) {
+            int key = tuple.getIntFld(fldno);
+            int hash = mix(key);
+            int entry = newEntry(tuple, hash);
+            keys[entry] = key;
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int first = slots[i] - 1;
+                if (first < 0) {
+                    claim(i, entry);
+                    return;
+                }
+                if (hashes[first] == hash && keys[first] == key) {
+                    link(first, entry);
+                    return;
+                }
+            }
+        }
+
+        public int find(Tuple tuple, int fldno) {
+            return find(tuple.getIntFld(fldno));
+        }
+
+        public int find(TupleBatch batch, int fldno, int row) {
+            return find(batch.getIntColumn(fldno)[row]);
+        }
+
+        private int find(int key) {
+            int hash = mix(key);
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int first = slots[i] - 1;
+                if (first < 0 || (hashes[first] == hash && keys[first] == key)) {
+                    return first;
+                }
+            }
+        }
+
+        protected void grow(int capacity) {
+            super.grow(capacity);
+            int[] k = new int[capacity];
+            System.arraycopy(keys, 0, k, 0, size);
+            keys = k;
+        }
+
+    } // static final class IntTable extends JoinHashTable
+
+    /**
+     * Table of float keys, compared by their bits (as Float.equals does).
+     */
+    static final class FloatTable extends JoinHashTable {
+
+        private int[] keys = new int[INIT_SIZE];
+
+        public void add(Tuple tuple, int fldno) {
+            int key = Float.floatToIntBits(tuple.getFloatFld(fldno));
+            int hash = mix(key);
+            int entry = newEntry(tuple, hash);
+            keys[entry] = key;
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int first = slots[i] - 1;
+                if (first < 0) {
+                    claim(i, entry);
+                    return;
+                }
+                if (hashes[first] == hash && keys[first] == key) {
+                    link(first, entry);
+                    return;
+                }
+            }
+        }
+
+        public int find(Tuple tuple, int fldno) {
+            return find(Float.floatToIntBits(tuple.getFloatFld(fldno)));
+        }
+
+        public int find(TupleBatch batch, int fldno, int row) {
+            return find(Float.floatToIntBits(batch.getFloatColumn(fldno)[row]));
+        }
+
+        private int find(int key) {
+            int hash = mix(key);
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int first = slots[i] - 1;
+                if (first < 0 || (hashes[first] == hash && keys[first] == key)) {
+                    return first;
+                }
+            }
+        }
+
+        protected void grow(int capacity) {
+            super.grow(capacity);
+            int[] k = new int[capacity];
+            System.arraycopy(keys, 0, k, 0, size);
+            keys = k;
+        }
+
+    } // static final class FloatTable extends JoinHashTable
+
+    /**
+     * Table of string keys, compared by the bytes of the fields without their
+     * padding (as Convert.getStringValue trims them). A key is the range of
+     * its entry's tuple data, so neither adding nor probing with a tuple
+     * decodes a String; rows of a batch, already decoded, are compared by
+     * their chars, which are the bytes for ASCII strings.
+     */
+    static final class StringTable extends JoinHashTable {
+
+        /** Range of each entry's key in its tuple's data. */
+        private int[] starts = new int[INIT_SIZE];
+        private int[] ends = new int[INIT_SIZE];
+
+        public void add(Tuple tuple, int fldno) {
+            int off = tuple.schema.fieldOffset(fldno);
+            int end = CompiledPredicate.trimEnd(tuple.data, off, tuple.schema.fieldLength(fldno));
+            int start = CompiledPredicate.trimStart(tuple.data, off, end);
+            int hash = mix(hash(tuple.data, start, end));
+            int entry = newEntry(tuple, hash);
+            starts[entry] = start;
+            ends[entry] = end;
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int first = slots[i] - 1;
+                if (first < 0) {
+                    claim(i, entry);
+                    return;
+                }
+                if (hashes[first] == hash && equal(first, tuple.data, start, end)) {
+                    link(first, entry);
+                    return;
+                }
+            }
+        }
+
+        public int find(Tuple tuple, int fldno) {
+            int off = tuple.schema.fieldOffset(fldno);
+            int end = CompiledPredicate.trimEnd(tuple.data, off, tuple.schema.fieldLength(fldno));
+            return find(tuple.data, CompiledPredicate.trimStart(tuple.data, off, end), end);
+        }
+
+        public int find(TupleBatch batch, int fldno, int row) {
+            String key = batch.getStringColumn(fldno)[row];
+            for (int c = 0; c < key.length(); c++) {
+                if (key.charAt(c) >= 0x80) {
+                    // not one byte per char; compare its encoded bytes
+                    byte[] bytes = key.getBytes();
+                    return find(bytes, 0, bytes.length);
+                }
+            }
+            int hash = mix(key.hashCode());
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int first = slots[i] - 1;
+                if (first < 0 || (hashes[first] == hash && equal(first, key))) {
+                    return first;
+                }
+            }
+        }
+
+        private int find(byte[] data, int start, int end) {
+            int hash = mix(hash(data, start, end));
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int first = slots[i] - 1;
+                if (first < 0 || (hashes[first] == hash && equal(first, data, start, end))) {
+                    return first;
+                }
+            }
+        }
+
+        /**
+         * Hashes a range of bytes like String.hashCode hashes the same ASCII
+         * chars.
+         */
+        private static int hash(byte[] data, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + (data[i] & 0xFF);
+            }
+            return h;
+        }
+
+        /**
+         * Returns true if an entry's key has the given bytes.
+         */
+        private boolean equal(int entry, byte[] data, int start, int end) {
+            byte[] key = values[entry].data;
+            int k = starts[entry];
+            if (ends[entry] - k != end - start) {
+                return false;
+            }
+            while (start < end) {
+                if (key[k++] != data[start++]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns true if an entry's key has the given ASCII chars.
+         */
+        private boolean equal(int entry, String str) {
+            byte[] key = values[entry].data;
+            int k = starts[entry];
+            if (ends[entry] - k != str.length()) {
+                return false;
+            }
+            for (int c = 0; c < str.length(); c++) {
+                if ((key[k++] & 0xFF) != str.charAt(c)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        protected void grow(int capacity) {
+            super.grow(capacity);
+            int[] s = new int[capacity];
+            int[] e = new int[capacity];
+            System.arraycopy(starts, 0, s, 0, size);
+            System.arraycopy(ends, 0, e, 0, size);
+            starts = s;
+            ends = e;
+        }
+
+    } // static final class StringTable extends JoinHashTable
+
+} // abstract class JoinHashTable
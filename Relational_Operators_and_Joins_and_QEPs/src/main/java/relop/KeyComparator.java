@@ -0,0 +1,92 @@
+package relop;
+
+import global.AttrType;
+import global.SortKey;
+
+import java.util.Comparator;
+
+/**
+ * Orders tuples of a schema on a list of sort keys, each ascending or
+ * descending. The keys are resolved to field numbers once, and fields are
+ * compared as primitives (or strings), without boxing.
+ */
+class KeyComparator implements Comparator<Tuple> {
+
+    /** Sort fields, their types, and whether each is descending. */
+    protected int[] fldnos;
+    protected int[] types;
+    protected boolean[] desc;
+
+    /**
+     * Constructs a comparator on the given keys, whose fields are column names
+     * or field numbers of the schema.
+     *
+     * @throws IllegalArgumentException if there are no keys, or a key names a
+     * column that doesn't exist
+     */
+    public KeyComparator(Schema schema, SortKey... keys) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("no sort keys");
+        }
+        fldnos = new int[keys.length];
+        types = new int[keys.length];
+        desc = new boolean[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].field instanceof Integer) {
+                fldnos[i] = (Integer) keys[i].field;
+            } else {
+                fldnos[i] = schema.fieldNumber(keys[i].field.toString());
+            }
+            if (fldnos[i] < 0 || fldnos[i] >= schema.getCount()) {
+                throw new IllegalArgumentException("invalid sort key: " + keys[i].field);
+            }
+            types[i] = schema.fieldType(fldnos[i]);
+            desc[i] = keys[i].isDesc;
+        }
+    }
+
+    /**
+     * Compares two tuples on the sort keys.
+     *
+     * @return a negative integer, zero, or a positive integer as the first
+     * tuple sorts before, with, or after the second
+     */
+    public int compare(Tuple t1, Tuple t2) {
+        for (int i = 0; i < fldnos.length; i++) {
+            int cmp;
+            switch (types[i]) {
+
+                case AttrType.INTEGER:
+                    cmp = Integer.compare(t1.getIntFld(fldnos[i]), t2.getIntFld(fldnos[i]));
+                    break;
+
+                case AttrType.FLOAT:
+                    cmp = Float.compare(t1.getFloatFld(fldnos[i]), t2.getFloatFld(fldnos[i]));
+                    break;
+
+                default:
+                    cmp = t1.getStringFld(fldnos[i]).compareTo(t2.getStringFld(fldnos[i]));
+                    break;
+            }
+            if (cmp != 0) {
+                return desc[i] ? -cmp : cmp;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Describes the keys, e.g. "Age DESC, DriverId".
+     */
+    public String toString(Schema schema) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fldnos.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(schema.fieldName(fldnos[i]));
+            if (desc[i]) {
+                sb.append(" DESC");
+            }
+        }
+        return sb.toString();
+    }
+
+} // class KeyComparator implements Comparator<Tuple>
@@ -93,7 +93,7 @@ public class KeyScan extends Iterator {
             throw new IllegalStateException("There are no more tuples.");
         } else {
             // return tuple with new schema
-            Tuple next = new Tuple(schema, byte_data);
+            Tuple next = Tuple.fromRecord(schema, byte_data);
             return next;
         }
     }
@@ -0,0 +1,158 @@
+package relop;
+
+import global.AttrType;
+import global.Convert;
+import global.RID;
+import heap.HeapFile;
+import heap.HeapScan;
+
+/**
+ * Scan of a heap file for late materialization: each tuple has only the given
+ * fields of a record (e.g. those that the joins, selections and sorting above
+ * need), followed by the record's RID as two integer fields, the page and slot
+ * numbers. Intermediate results then move narrow tuples rather than whole
+ * rows, and Materialize fetches the other columns by RID at the end.
+ */
+public class LateScan extends Iterator {
+
+    /** Suffixes of the names of the RID fields. */
+    public static final String PAGE_SUFFIX = "#page";
+    public static final String SLOT_SUFFIX = "#slot";
+
+    private Schema tableSchema;
+    private HeapFile file;
+    private String name;
+    private int[] fields;
+
+    /** Plan that copies the fields from a record. */
+    private CopyPlan plan;
+
+    private HeapScan scan;
+    private RID rid;
+    private boolean isOpen;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a scan of the given fields of a heap file; the RID fields are
+     * named after the given name (which should be unique in the query) with
+     * PAGE_SUFFIX and SLOT_SUFFIX.
+     *
+     * @throws IllegalArgumentException if a field number is invalid
+     */
+    public LateScan(Schema tableSchema, HeapFile file, String name, int... fields) {
+        this.tableSchema = tableSchema;
+        this.file = file;
+        this.name = name;
+        this.fields = fields;
+        Integer[] projected = new Integer[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            projected[i] = fields[i];
+        }
+        this.plan = CopyPlan.project(tableSchema, projected);
+        this.schema = new Schema(fields.length + 2);
+        for (int i = 0; i < fields.length; i++) {
+            schema.initField(i, tableSchema, fields[i]);
+        }
+        schema.initField(fields.length, AttrType.INTEGER, 4, getPageColumn());
+        schema.initField(fields.length + 1, AttrType.INTEGER, 4, getSlotColumn());
+        this.scan = file.openScan();
+        this.rid = new RID();
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        StringBuilder columns = new StringBuilder();
+        for (int fldno : fields) {
+            columns.append(tableSchema.fieldName(fldno)).append(", ");
+        }
+        System.out.println("LateScan : " + name + " (" + columns + "RID)");
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        scan.close();
+        scan = file.openScan();
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        if (isOpen) {
+            scan.close();
+        }
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        return isOpen && scan.hasNext();
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        byte[] record = scan.getNext(rid);
+        if (tableSchema.isVariable()) {
+            record = tableSchema.decode(record);
+        }
+        byte[] data = new byte[schema.getLength()];
+        plan.copyInto(record, null, data);
+        Convert.setIntValue(rid.pageno.pid, schema.fieldOffset(fields.length), data);
+        Convert.setIntValue(rid.slotno, schema.fieldOffset(fields.length + 1), data);
+        return new Tuple(schema, data);
+    }
+
+    /**
+     * Gets the schema of the file's records.
+     */
+    public Schema getTableSchema() {
+        return tableSchema;
+    }
+
+    /**
+     * Gets the heap file.
+     */
+    public HeapFile getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the name of the RID's page number field.
+     */
+    public String getPageColumn() {
+        return name + PAGE_SUFFIX;
+    }
+
+    /**
+     * Gets the name of the RID's slot number field.
+     */
+    public String getSlotColumn() {
+        return name + SLOT_SUFFIX;
+    }
+
+} // public class LateScan extends Iterator
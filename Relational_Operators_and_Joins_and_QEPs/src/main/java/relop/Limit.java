@@ -0,0 +1,127 @@
+package relop;
+
+/**
+ * Returns at most a given number of tuples of its input, after skipping a
+ * given number of them (i.e. LIMIT n OFFSET m). Once the limit is reached the
+ * input is closed, which closes the iterators below it in turn, so scans stop
+ * reading and unpin their pages instead of running to the end.
+ */
+public class Limit extends Iterator {
+
+    private Iterator input;
+    private int limit;
+    private int offset;
+
+    /** Number of tuples returned so far. */
+    private int count;
+
+    /** True once the offset has been skipped. */
+    private boolean skipped;
+
+    /** True once the input has been closed early. */
+    private boolean done;
+
+    private boolean isOpen;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a limit of the given number of tuples.
+     */
+    public Limit(Iterator input, int limit) {
+        this(input, limit, 0);
+    }
+
+    /**
+     * Constructs a limit of the given number of tuples, after the given
+     * number of tuples.
+     *
+     * @throws IllegalArgumentException if the limit or offset is negative
+     */
+    public Limit(Iterator input, int limit, int offset) {
+        if (limit < 0 || offset < 0) {
+            throw new IllegalArgumentException("invalid limit or offset");
+        }
+        this.input = input;
+        this.limit = limit;
+        this.offset = offset;
+        this.schema = input.getSchema();
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("Limit : " + limit + (offset > 0 ? " offset " + offset : ""));
+        input.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        input.restart();
+        count = 0;
+        skipped = false;
+        done = false;
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        if (!done) {
+            input.close();
+            done = true;
+        }
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (!isOpen || done) {
+            return false;
+        }
+        if (!skipped) {
+            for (int i = 0; i < offset && input.hasNext(); i++) {
+                input.getNext();
+            }
+            skipped = true;
+        }
+        if (count < limit && input.hasNext()) {
+            return true;
+        }
+
+        // the limit is reached (or the input ended): stop the subtree
+        input.close();
+        done = true;
+        return false;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        count++;
+        return input.getNext();
+    }
+
+} // public class Limit extends Iterator
@@ -0,0 +1,161 @@
+package relop;
+
+import global.PageId;
+import global.RID;
+
+import java.util.Arrays;
+
+/**
+ * The last step of late materialization: projects the output columns of tuples
+ * whose tables were read by LateScans, fetching each table's record by the
+ * RID in the tuple. Only tables that have output columns are fetched, once
+ * per tuple each; like Projection, this operator does NOT eliminate duplicate
+ * tuples.
+ */
+public class Materialize extends Iterator {
+
+    private Iterator input;
+    private LateScan[] scans;
+
+    /** Input field numbers of each scan's RID (or -1 if it isn't fetched). */
+    private int[] pageFields;
+    private int[] slotFields;
+
+    /** Per output field: scan, offset in its record, and length. */
+    private int[] sources;
+    private int[] from;
+    private int[] lengths;
+
+    /** Records fetched for the current tuple, by scan. */
+    private byte[][] records;
+
+    private boolean isOpen;
+
+    // statistics
+    private int recordsFetched;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a materialization whose output field i is field fields[i] of
+     * the table of scans[tables[i]]; the input must have the RID fields of
+     * those scans.
+     *
+     * @throws IllegalArgumentException if a field is invalid, or the input
+     * doesn't have a RID that is needed
+     */
+    public Materialize(Iterator input, LateScan[] scans, int[] tables, int[] fields) {
+        this.input = input;
+        this.scans = scans;
+        this.pageFields = new int[scans.length];
+        this.slotFields = new int[scans.length];
+        Arrays.fill(pageFields, -1);
+        Arrays.fill(slotFields, -1);
+        this.sources = tables;
+        this.from = new int[fields.length];
+        this.lengths = new int[fields.length];
+        this.records = new byte[scans.length][];
+        this.schema = new Schema(fields.length);
+        Schema inputSchema = input.getSchema();
+        for (int i = 0; i < fields.length; i++) {
+            Schema tableSchema = scans[tables[i]].getTableSchema();
+            if (fields[i] < 0 || fields[i] >= tableSchema.getCount()) {
+                throw new IllegalArgumentException("unknown field " + fields[i]);
+            }
+            schema.initField(i, tableSchema, fields[i]);
+            from[i] = tableSchema.fieldOffset(fields[i]);
+            lengths[i] = tableSchema.fieldLength(fields[i]);
+            if (pageFields[tables[i]] < 0) {
+                pageFields[tables[i]] = inputSchema.fieldNumber(scans[tables[i]].getPageColumn());
+                slotFields[tables[i]] = inputSchema.fieldNumber(scans[tables[i]].getSlotColumn());
+                if (pageFields[tables[i]] < 0 || slotFields[tables[i]] < 0) {
+                    throw new IllegalArgumentException("input has no RID for "
+                            + scans[tables[i]].getPageColumn());
+                }
+            }
+        }
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        StringBuilder columns = new StringBuilder();
+        for (int i = 0; i < schema.getCount(); i++) {
+            columns.append((i > 0) ? ", " : "").append(schema.fieldName(i));
+        }
+        System.out.println("Materialize : " + columns);
+        input.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        input.restart();
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        input.close();
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        return isOpen && input.hasNext();
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        Tuple tuple = input.getNext();
+
+        // fetch the record of each table that has output columns
+        for (int s = 0; s < scans.length; s++) {
+            if (pageFields[s] >= 0) {
+                RID rid = new RID(new PageId(tuple.getIntFld(pageFields[s])), tuple.getIntFld(slotFields[s]));
+                byte[] record = scans[s].getFile().selectRecord(rid);
+                Schema tableSchema = scans[s].getTableSchema();
+                records[s] = tableSchema.isVariable() ? tableSchema.decode(record) : record;
+                recordsFetched++;
+            }
+        }
+
+        // then copy the output fields' bytes
+        byte[] data = new byte[schema.getLength()];
+        for (int i = 0; i < sources.length; i++) {
+            System.arraycopy(records[sources[i]], from[i], data, schema.fieldOffset(i), lengths[i]);
+        }
+        return new Tuple(schema, data);
+    }
+
+    /**
+     * Gets the number of records fetched by RID.
+     */
+    public int getRecordsFetched() {
+        return recordsFetched;
+    }
+
+} // public class Materialize extends Iterator
@@ -0,0 +1,327 @@
+package relop;
+
+import global.AttrType;
+import global.SortKey;
+
+import java.util.ArrayList;
+
+/**
+ * Sort-merge equi-join. Both inputs are read in ascending order of their join
+ * columns, once each: inputs that aren't sorted yet are wrapped in an external
+ * Sort, and inputs that already are (e.g. a Sort, or a scan of a table
+ * clustered on the column) are consumed as is.
+ * <p>
+ * For each key found on both sides, the run of right tuples with that key is
+ * buffered, and joined with each left tuple of the key as the left side
+ * streams by. The run stays in memory up to a budget; a longer run (e.g. a
+ * heavily duplicated key) spills to a temporary file, which is reread for each
+ * matching left tuple.
+ */
+public class MergeJoin extends Iterator {
+
+    /** Default memory budget of a run of right tuples (in bytes). */
+    public static final long DEFAULT_RUN_MEMORY = TempSpace.DEFAULT_MEMORY;
+
+    // --------------------------------------------------------------------------
+
+    private Iterator left;
+    private Iterator right;
+    private int leftCol;
+    private int rightCol;
+    private long runMemory;
+    private boolean sorted;
+
+    /** Plan for joining a left and a right tuple. */
+    private CopyPlan joinPlan;
+
+    /** Type of the join columns, or -1 if they differ (and nothing matches). */
+    private int type;
+
+    /** Current left tuple, and the next right tuple not in the run. */
+    private Tuple leftTuple;
+    private Tuple rightTuple;
+
+    /** Run of right tuples with the current key: in memory, then spilled. */
+    private Tuple runKey;
+    private ArrayList<Tuple> run;
+    private long runBytes;
+    private TempSpace space;
+    private TempFile runFile;
+
+    /** Position in the run for the current left tuple (or -1 if no run). */
+    private int runIndex = -1;
+    private Iterator runScan;
+
+    private Tuple next;
+    private boolean isOpen;
+
+    // statistics
+    private int runsSpilled;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a join of the given columns of two unsorted inputs, which are
+     * sorted externally.
+     */
+    public MergeJoin(Iterator left, Iterator right, int leftCol, int rightCol) {
+        this(left, right, leftCol, rightCol, false);
+    }
+
+    /**
+     * Constructs a join of the given columns; if the inputs are sorted, they
+     * must be in ascending order of the join columns.
+     */
+    public MergeJoin(Iterator left, Iterator right, int leftCol, int rightCol,
+            boolean sorted) {
+        this(left, right, leftCol, rightCol, sorted, DEFAULT_RUN_MEMORY);
+    }
+
+    /**
+     * Constructs a join of the given columns that holds at most the given
+     * number of bytes of a run of right tuples in memory.
+     */
+    public MergeJoin(Iterator left, Iterator right, int leftCol, int rightCol,
+            boolean sorted, long runMemory) {
+        this.schema = Schema.join(left.getSchema(), right.getSchema());
+        this.joinPlan = CopyPlan.join(left.getSchema(), right.getSchema(), schema);
+        if (!sorted) {
+            left = new Sort(left, new SortKey(leftCol, false));
+            right = new Sort(right, new SortKey(rightCol, false));
+        }
+        this.left = left;
+        this.right = right;
+        this.leftCol = leftCol;
+        this.rightCol = rightCol;
+        this.sorted = sorted;
+        this.runMemory = runMemory;
+        int leftType = left.getSchema().fieldType(leftCol);
+        this.type = (leftType == right.getSchema().fieldType(rightCol)) ? leftType : -1;
+        this.run = new ArrayList<Tuple>();
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("MergeJoin : {" + leftCol + "} = {" + rightCol + "}"
+                + (sorted ? ", sorted inputs" : ""));
+        left.explain(depth + 1);
+        right.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        clearRun();
+        left.restart();
+        right.restart();
+        leftTuple = null;
+        rightTuple = null;
+        next = null;
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        clearRun();
+        if (space != null) {
+            space.close();
+        }
+        left.close();
+        right.close();
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (!isOpen || type < 0) {
+            return false;
+        }
+        while (true) {
+
+            // join the current left tuple with the rest of the run
+            if (runIndex >= 0) {
+                Tuple match = nextInRun();
+                if (match != null) {
+                    next = joinPlan.join(leftTuple, match);
+                    return true;
+                }
+
+                // then move on to the next left tuple, which may have the same key
+                leftTuple = left.hasNext() ? left.getNext() : null;
+                if (leftTuple != null && compare(leftTuple, runKey) == 0) {
+                    startRun();
+                    continue;
+                }
+                clearRun();
+            }
+
+            // otherwise advance the side with the smaller key
+            if (leftTuple == null) {
+                if (!left.hasNext()) {
+                    return false;
+                }
+                leftTuple = left.getNext();
+            }
+            if (rightTuple == null) {
+                if (!right.hasNext()) {
+                    return false;
+                }
+                rightTuple = right.getNext();
+            }
+            int cmp = compare(leftTuple, rightTuple);
+            if (cmp < 0) {
+                leftTuple = null;
+            } else if (cmp > 0) {
+                rightTuple = null;
+            } else {
+                loadRun();
+                startRun();
+            }
+        }
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        Tuple tuple = next;
+        next = null;
+        return tuple;
+    }
+
+    /**
+     * Gets the number of runs of right tuples that spilled to disk.
+     */
+    public int getRunsSpilled() {
+        return runsSpilled;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Compares the join column of a left tuple with that of a right tuple.
+     */
+    private int compare(Tuple l, Tuple r) {
+        switch (type) {
+
+            case AttrType.INTEGER:
+                return Integer.compare(l.getIntFld(leftCol), r.getIntFld(rightCol));
+
+            case AttrType.FLOAT:
+                return Float.compare(l.getFloatFld(leftCol), r.getFloatFld(rightCol));
+
+            default:
+                return l.getStringFld(leftCol).compareTo(r.getStringFld(rightCol));
+        }
+    }
+
+    /**
+     * Buffers the right tuples with the same key as the next right tuple,
+     * leaving the first one with a greater key (if any) as the next.
+     */
+    private void loadRun() {
+        int len = right.getSchema().getLength();
+        runKey = rightTuple;
+        addToRun(runKey, len);
+        rightTuple = null;
+        while (right.hasNext()) {
+            Tuple tuple = right.getNext();
+            if (compare(leftTuple, tuple) != 0) {
+                rightTuple = tuple;
+                break;
+            }
+            addToRun(tuple, len);
+        }
+    }
+
+    /**
+     * Adds a right tuple to the run, spilling the rest of the run once the
+     * memory budget is used up.
+     */
+    private void addToRun(Tuple tuple, int len) {
+        if (runFile == null && runBytes + len <= runMemory) {
+            run.add(tuple);
+            runBytes += len;
+            return;
+        }
+        if (runFile == null) {
+            if (space == null) {
+                space = new TempSpace(0);
+            }
+            runFile = space.createFile(right.getSchema());
+            runsSpilled++;
+        }
+        runFile.add(tuple);
+    }
+
+    /**
+     * Starts joining the current left tuple with the run.
+     */
+    private void startRun() {
+        runIndex = 0;
+        if (runScan != null) {
+            runScan.close();
+            runScan = null;
+        }
+    }
+
+    /**
+     * Gets the next tuple of the run for the current left tuple, or null.
+     */
+    private Tuple nextInRun() {
+        if (runIndex < run.size()) {
+            return run.get(runIndex++);
+        }
+        if (runFile == null) {
+            return null;
+        }
+        if (runScan == null) {
+            runScan = runFile.openScan();
+        }
+        return runScan.hasNext() ? runScan.getNext() : null;
+    }
+
+    /**
+     * Empties the run, freeing any spilled part.
+     */
+    private void clearRun() {
+        if (runScan != null) {
+            runScan.close();
+            runScan = null;
+        }
+        if (runFile != null) {
+            runFile.close();
+            runFile = null;
+        }
+        run.clear();
+        runKey = null;
+        runBytes = 0;
+        runIndex = -1;
+    }
+
+} // public class MergeJoin extends Iterator
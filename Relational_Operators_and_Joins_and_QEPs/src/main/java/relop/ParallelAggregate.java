@@ -0,0 +1,178 @@
+package relop;
+
+import java.util.Arrays;
+
+/**
+ * Hash aggregation on worker threads that respects a memory budget. Each
+ * worker aggregates the groups that fit in its share of the budget; since
+ * workers can't write temporary files (see Gather), they pass the tuples of
+ * the other groups back to this iterator's thread, which writes them to a
+ * temporary file and aggregates them with a HashAggregate of the whole budget
+ * once the workers are done (spilling as needed). The workers' inputs should
+ * be repartitioned by the group columns, so that every group is aggregated
+ * by one worker, or by this thread.
+ */
+public class ParallelAggregate extends Iterator {
+
+    private Gather gather;
+    private int[] groupFields;
+    private long memoryBudget;
+    private Aggregate[] aggs;
+
+    /** Tuples of the groups the workers didn't aggregate, and their aggregate. */
+    private TempSpace space;
+    private TempFile overflow;
+    private HashAggregate overflowAgg;
+
+    private Tuple next;
+    private boolean isOpen;
+
+    // statistics
+    private int tuplesPassed;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs an aggregate of the given inputs, which read from the
+     * consumers of the given exchanges, with the given memory budget in all.
+     *
+     * @throws IllegalArgumentException if there are no inputs, or an aggregate
+     * is invalid for them
+     */
+    public ParallelAggregate(Exchange[] exchanges, Iterator[] inputs, int[] groupFields,
+            long memoryBudget, Aggregate... aggs) {
+        if (inputs.length == 0) {
+            throw new IllegalArgumentException("no inputs");
+        }
+        Iterator[] workers = new Iterator[inputs.length];
+        for (int w = 0; w < inputs.length; w++) {
+            workers[w] = new HashAggregate(inputs[w], groupFields, memoryBudget / inputs.length,
+                    true, aggs);
+        }
+        this.gather = new Gather(exchanges, workers);
+        this.groupFields = groupFields;
+        this.memoryBudget = memoryBudget;
+        this.aggs = aggs;
+        this.space = new TempSpace(0);
+        this.schema = workers[0].getSchema();
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("ParallelAggregate : group by " + Arrays.toString(groupFields)
+                + ", " + memoryBudget + " bytes");
+        gather.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        release();
+        gather.restart();
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        release();
+        gather.close();
+        space.close();
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (!isOpen) {
+            return false;
+        }
+
+        // first the workers' groups, setting aside the tuples they passed
+        while (overflowAgg == null) {
+            if (!gather.hasNext()) {
+                if (overflow == null) {
+                    return false;
+                }
+                overflowAgg = new HashAggregate(overflow.openScan(), groupFields, memoryBudget, aggs);
+                break;
+            }
+            Tuple tuple = gather.getNext();
+            if (!HashAggregate.isPassed(tuple)) {
+                next = tuple;
+                return true;
+            }
+            if (overflow == null) {
+                overflow = space.createFile(tuple.schema);
+            }
+            overflow.add(tuple);
+            tuplesPassed++;
+        }
+
+        // then the groups of those tuples
+        if (overflowAgg.hasNext()) {
+            next = overflowAgg.getNext();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        Tuple tuple = next;
+        next = null;
+        return tuple;
+    }
+
+    /**
+     * Gets the number of tuples that the workers passed back, rather than
+     * aggregated.
+     */
+    public int getTuplesPassed() {
+        return tuplesPassed;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Frees the tuples set aside, and their aggregate.
+     */
+    private void release() {
+        if (overflowAgg != null) {
+            overflowAgg.close();
+            overflowAgg = null;
+        }
+        if (overflow != null) {
+            overflow.close();
+            overflow = null;
+        }
+        next = null;
+        tuplesPassed = 0;
+    }
+
+} // public class ParallelAggregate extends Iterator
@@ -0,0 +1,34 @@
+package relop;
+
+import global.RID;
+import heap.HeapScan;
+
+/**
+ * Superclass of the classes that PipelineCompiler generates, each of which
+ * scans a heap file, selects, and projects in one loop (see CompiledScan).
+ */
+abstract class Pipeline {
+
+    /** Schema of the file's records. */
+    protected final Schema input;
+
+    /** Schema of the tuples returned. */
+    protected final Schema output;
+
+    /**
+     * Constructs a pipeline from the given file schema to the given output
+     * schema.
+     */
+    protected Pipeline(Schema input, Schema output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    /**
+     * Reads records from the scan until the array is full or the scan ends,
+     * storing the (projected) data of each one that passes; returns how many
+     * were stored.
+     */
+    abstract int fill(HeapScan scan, RID rid, byte[][] out);
+
+} // abstract class Pipeline
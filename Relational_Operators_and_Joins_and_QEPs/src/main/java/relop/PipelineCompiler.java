@@ -0,0 +1,252 @@
+package relop;
+
+import global.Convert;
+import global.RID;
+import heap.HeapScan;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.net.URI;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates a Pipeline class for a scan of a heap file, its selections, and
+ * its projection. The class's loop reads each record, evaluates the compiled
+ * predicates inline (see CompiledPredicate.toJava), and copies the projected
+ * bytes with System.arraycopy (as planned by CopyPlan), so the JIT sees one
+ * method with no virtual calls or tuples. The source is compiled in memory
+ * with the system Java compiler, and the class defined in this package.
+ * <p>
+ * Constants are passed to the class's constructor, so queries that differ
+ * only in their constants share a class. At most MAX_CLASSES classes are
+ * generated (they are never unloaded); past that, or without a compiler (e.g.
+ * on a JRE), pipelines aren't compiled and the caller interprets them.
+ */
+class PipelineCompiler {
+
+    /** Maximum number of classes generated. */
+    public static final int MAX_CLASSES = 256;
+
+    /** Generated classes, by their source (with a placeholder name). */
+    private static final Map<String, Class<?>> classes = new HashMap<String, Class<?>>();
+
+    /** Set once compiling fails for a reason other than the source. */
+    private static boolean unavailable;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Compiles a pipeline that selects the records of the given schema that
+     * pass every array of predicates (each of which is a disjunction, as in
+     * Selection), and projects the given fields (or all of them, if null).
+     * Returns null if the pipeline can't be compiled.
+     *
+     * @throws IllegalArgumentException if a predicate or field is invalid for
+     * the schema
+     */
+    public static synchronized Pipeline compile(Schema schema, Predicate[][] preds, Integer[] fields) {
+
+        // resolve the predicates, and the output schema
+        CompiledPredicate[][] compiled = new CompiledPredicate[preds.length][];
+        for (int i = 0; i < preds.length; i++) {
+            compiled[i] = new CompiledPredicate[preds[i].length];
+            for (int j = 0; j < preds[i].length; j++) {
+                compiled[i][j] = preds[i][j].compile(schema);
+            }
+        }
+        CopyPlan projection = (fields != null) ? CopyPlan.project(schema, fields) : null;
+        Schema output = (projection != null) ? projection.getSchema() : schema;
+
+        // find or generate the class
+        List<Object> constants = new ArrayList<Object>();
+        String source = generate("$", schema, compiled, projection, constants);
+        Class<?> cls = classes.get(source);
+        if (cls == null) {
+            if (unavailable || classes.size() >= MAX_CLASSES) {
+                return null;
+            }
+            String name = "GeneratedPipeline" + classes.size();
+            byte[] bytes = compile(name, generate(name, schema, compiled, projection,
+                    new ArrayList<Object>()));
+            if (bytes == null) {
+                return null;
+            }
+            try {
+                cls = MethodHandles.lookup().defineClass(bytes);
+            } catch (IllegalAccessException exc) {
+                unavailable = true;
+                return null;
+            }
+            classes.put(source, cls);
+        }
+        try {
+            return (Pipeline) cls.getConstructor(Schema.class, Schema.class, Object[].class)
+                    .newInstance(schema, output, constants.toArray());
+        } catch (ReflectiveOperationException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Generates the source of a pipeline class.
+     */
+    private static String generate(String name, Schema schema, CompiledPredicate[][] preds,
+            CopyPlan projection, List<Object> constants) {
+
+        // the loop: read, select, project
+        StringBuilder loop = new StringBuilder();
+        loop.append("        int n = 0;\n");
+        loop.append("        while (n < out.length && scan.hasNext()) {\n");
+        loop.append("            byte[] d = scan.getNext(rid);\n");
+        if (schema.isVariable()) {
+            loop.append("            d = input.decode(d);\n");
+        }
+        for (CompiledPredicate[] or : preds) {
+            loop.append("            if (!(");
+            for (int j = 0; j < or.length; j++) {
+                loop.append((j > 0) ? "\n                    || " : "");
+                loop.append(or[j].toJava("d", constants));
+            }
+            loop.append((or.length == 0) ? "false" : "").append(")) {\n");
+            loop.append("                continue;\n");
+            loop.append("            }\n");
+        }
+        if (projection == null) {
+            loop.append("            out[n++] = d;\n");
+        } else {
+            loop.append("            byte[] t = new byte[" + projection.getSchema().getLength() + "];\n");
+            for (int r = 0; r < projection.lengths.length; r++) {
+                loop.append("            System.arraycopy(d, " + projection.from[r] + ", t, "
+                        + projection.to[r] + ", " + projection.lengths[r] + ");\n");
+            }
+            loop.append("            out[n++] = t;\n");
+        }
+        loop.append("        }\n");
+        loop.append("        return n;\n");
+
+        // the class, with a field for each constant
+        StringBuilder src = new StringBuilder();
+        src.append("package relop;\n\n");
+        src.append("import global.Convert;\n");
+        src.append("import global.RID;\n");
+        src.append("import heap.HeapScan;\n\n");
+        src.append("public final class " + name + " extends Pipeline {\n\n");
+        for (int k = 0; k < constants.size(); k++) {
+            src.append("    private final " + javaType(constants.get(k)) + " c" + k + ";\n");
+        }
+        src.append("\n    public " + name + "(Schema input, Schema output, Object[] constants) {\n");
+        src.append("        super(input, output);\n");
+        for (int k = 0; k < constants.size(); k++) {
+            src.append("        c" + k + " = (" + boxedType(constants.get(k)) + ") constants[" + k + "];\n");
+        }
+        src.append("    }\n\n");
+        src.append("    int fill(HeapScan scan, RID rid, byte[][] out) {\n");
+        src.append(loop);
+        src.append("    }\n\n");
+        src.append("}\n");
+        return src.toString();
+    }
+
+    /**
+     * Gets the type of a constant's field.
+     */
+    private static String javaType(Object constant) {
+        if (constant instanceof Integer) {
+            return "int";
+        }
+        if (constant instanceof Float) {
+            return "float";
+        }
+        return (constant instanceof String) ? "String" : "byte[]";
+    }
+
+    /**
+     * Gets the type that a constant is cast to.
+     */
+    private static String boxedType(Object constant) {
+        if (constant instanceof Integer) {
+            return "Integer";
+        }
+        if (constant instanceof Float) {
+            return "Float";
+        }
+        return javaType(constant);
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Compiles a class's source in memory; returns its bytecode, or null if it
+     * doesn't compile.
+     */
+    private static byte[] compile(String name, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            unavailable = true;
+            return null;
+        }
+
+        // the class path has this package and the heap file classes
+        StringBuilder classPath = new StringBuilder(System.getProperty("java.class.path"));
+        for (Class<?> cls : Arrays.asList(Pipeline.class, Convert.class, RID.class, HeapScan.class)) {
+            CodeSource code = cls.getProtectionDomain().getCodeSource();
+            if (code != null) {
+                try {
+                    classPath.append(File.pathSeparator).append(new File(code.getLocation().toURI()));
+                } catch (Exception exc) {
+                    // left to the system class path
+                }
+            }
+        }
+
+        // compile the source from a string into a byte array
+        final ByteArrayOutputStream bytecode = new ByteArrayOutputStream();
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///relop/" + name + ".java"),
+                JavaFileObject.Kind.SOURCE) {
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, null, null);
+        JavaFileManager manager = new ForwardingJavaFileManager<JavaFileManager>(standard) {
+            public JavaFileObject getJavaFileForOutput(Location location, String className,
+                    JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("bytes:///" + className + ".class"), kind) {
+                    public OutputStream openOutputStream() {
+                        return bytecode;
+                    }
+                };
+            }
+        };
+        List<String> options = Arrays.asList("-classpath", classPath.toString(), "-proc:none");
+        boolean success = compiler.getTask(null, manager, diagnostics, options, null,
+                Arrays.asList(file)).call();
+        try {
+            manager.close();
+        } catch (Exception exc) {
+            // nothing was opened on disk
+        }
+        return success ? bytecode.toByteArray() : null;
+    }
+
+} // class PipelineCompiler
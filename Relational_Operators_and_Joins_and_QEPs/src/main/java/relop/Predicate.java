@@ -83,6 +83,63 @@ public class Predicate {
 
     } // public boolean validate(Schema schema)
 
+    /**
+     * Returns true if either operand refers to the given field of the schema.
+     */
+    public boolean references(Schema schema, int fldno) {
+        return references(ltype, left, schema, fldno)
+                || references(rtype, right, schema, fldno);
+    }
+
+    /**
+     * Returns the two column names of an equality between columns (i.e. an
+     * equi-join condition), or null if the predicate is anything else.
+     */
+    public String[] equiJoinColumns() {
+        if (oper != AttrOperator.EQ || ltype != AttrType.COLNAME || rtype != AttrType.COLNAME) {
+            return null;
+        }
+        return new String[] { (String) left, (String) right };
+    }
+
+    /**
+     * Returns true if the operand refers to the given field of the schema.
+     */
+    protected boolean references(int type, Object operand, Schema schema, int fldno) {
+        if (type == AttrType.COLNAME) {
+            return schema.fieldNumber((String) operand) == fldno;
+        }
+        return type == AttrType.FIELDNO && (Integer) operand == fldno;
+    }
+
+    /**
+     * Binds the predicate to the given schema, and returns an evaluator of it
+     * specialized for the operand types and the operator (see
+     * CompiledPredicate). Unlike evaluate, this leaves the predicate as is.
+     *
+     * @throws IllegalArgumentException if an operand isn't in the schema, or
+     * the operand types differ
+     */
+    public CompiledPredicate compile(Schema schema) {
+        int lfld = fieldNumber(ltype, left, schema);
+        int rfld = fieldNumber(rtype, right, schema);
+        if (lfld >= schema.getCount() || rfld >= schema.getCount()
+                || (lfld < 0 && (ltype == AttrType.COLNAME || ltype == AttrType.FIELDNO))
+                || (rfld < 0 && (rtype == AttrType.COLNAME || rtype == AttrType.FIELDNO))) {
+            throw new IllegalArgumentException("unknown column in " + this);
+        }
+        int type1 = (lfld >= 0) ? schema.fieldType(lfld) : ltype;
+        int type2 = (rfld >= 0) ? schema.fieldType(rfld) : rtype;
+        if (type1 != type2) {
+            throw new IllegalArgumentException("incompatible types in " + this);
+        }
+        return CompiledPredicate.compile(oper, type1,
+                (lfld >= 0) ? schema.fieldOffset(lfld) : 0, (lfld >= 0) ? schema.fieldLength(lfld) : 0,
+                (lfld >= 0) ? null : left,
+                (rfld >= 0) ? schema.fieldOffset(rfld) : 0, (rfld >= 0) ? schema.fieldLength(rfld) : 0,
+                (rfld >= 0) ? null : right);
+    }
+
     /**
      * Evaluates the predicate on the given tuple and returns true if it passes.
      *
@@ -133,6 +190,85 @@ public class Predicate {
         } // switch (type)
 
         // evaluate the operator
+        return test(comp);
+
+    } // public boolean evaluate(Tuple tuple)
+
+    /**
+     * Evaluates the predicate on every row of the batch, setting the results
+     * in the given array. The operands are resolved once, and the comparison
+     * runs over the batch's primitive columns.
+     *
+     * @throws IllegalStateException if member data lead to an invalid operation
+     */
+    public void evaluate(TupleBatch batch, boolean[] passed) {
+        // resolve the operands to field numbers (or -1 for constants)
+        Schema schema = batch.getSchema();
+        int lfld = fieldNumber(ltype, left, schema);
+        int rfld = fieldNumber(rtype, right, schema);
+        int type = (lfld >= 0) ? schema.fieldType(lfld) : ltype;
+        int size = batch.size();
+
+        // compare whole columns
+        switch (type) {
+
+            case AttrType.INTEGER: {
+                int[] lcol = (lfld >= 0) ? batch.getIntColumn(lfld) : null;
+                int[] rcol = (rfld >= 0) ? batch.getIntColumn(rfld) : null;
+                int lval = (lcol == null) ? (Integer) left : 0;
+                int rval = (rcol == null) ? (Integer) right : 0;
+                for (int r = 0; r < size; r++) {
+                    passed[r] = test(Integer.compare(lcol != null ? lcol[r] : lval,
+                            rcol != null ? rcol[r] : rval));
+                }
+                break;
+            }
+
+            case AttrType.FLOAT: {
+                float[] lcol = (lfld >= 0) ? batch.getFloatColumn(lfld) : null;
+                float[] rcol = (rfld >= 0) ? batch.getFloatColumn(rfld) : null;
+                float lval = (lcol == null) ? (Float) left : 0;
+                float rval = (rcol == null) ? (Float) right : 0;
+                for (int r = 0; r < size; r++) {
+                    passed[r] = test(Float.compare(lcol != null ? lcol[r] : lval,
+                            rcol != null ? rcol[r] : rval));
+                }
+                break;
+            }
+
+            case AttrType.STRING: {
+                String[] lcol = (lfld >= 0) ? batch.getStringColumn(lfld) : null;
+                String[] rcol = (rfld >= 0) ? batch.getStringColumn(rfld) : null;
+                for (int r = 0; r < size; r++) {
+                    String lval = (lcol != null) ? lcol[r] : (String) left;
+                    String rval = (rcol != null) ? rcol[r] : (String) right;
+                    passed[r] = test(lval.compareTo(rval));
+                }
+                break;
+            }
+
+            default:
+                throw new IllegalStateException("unknown types to compare");
+
+        } // switch (type)
+    } // public void evaluate(TupleBatch batch, boolean[] passed)
+
+    /**
+     * Gets the field number an operand refers to, or -1 if it's a constant.
+     */
+    protected int fieldNumber(int type, Object operand, Schema schema) {
+        if (type == AttrType.COLNAME) {
+            return schema.fieldNumber((String) operand);
+        }
+        return (type == AttrType.FIELDNO) ? (Integer) operand : -1;
+    }
+
+    /**
+     * Applies the operator to the result of a comparison.
+     *
+     * @throws IllegalStateException if the operator is invalid
+     */
+    protected boolean test(int comp) {
         switch (oper) {
 
             case AttrOperator.EQ:
@@ -157,7 +293,7 @@ public class Predicate {
                 throw new IllegalStateException("unknown operator to evaluate");
 
         } // switch (oper)
-    } // public boolean evaluate(Tuple tuple)
+    }
 
     /**
      * Returns a string representation of the Predicate.
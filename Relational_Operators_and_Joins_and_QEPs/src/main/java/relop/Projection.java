@@ -1,5 +1,6 @@
 package relop;
 
+import java.util.Arrays;
 
 /**
  * The projection operator extracts columns from a relation; unlike in
@@ -10,6 +11,9 @@ public class Projection extends Iterator {
     private Iterator projection_iterator;
     private Integer[] projection_fields;
     private Schema projection_schema;
+    // Plan for copying the projected fields' bytes
+    private CopyPlan projection_plan;
+    private TupleBatch input_batch;
 
 
 
@@ -23,11 +27,9 @@ public class Projection extends Iterator {
         this.projection_iterator = aIter;
         // Initialize fields
         this.projection_fields = aFields;
-        // Initalize projection schema and schema
-        this.projection_schema = new Schema(aFields.length);
-        for (int i = 0; i < projection_fields.length; i++) {
-            this.projection_schema.initField(i, this.projection_iterator.schema, this.projection_fields[i]);
-        }
+        // Initalize the copy plan, projection schema and schema
+        this.projection_plan = CopyPlan.project(this.projection_iterator.schema, aFields);
+        this.projection_schema = this.projection_plan.getSchema();
         this.schema = this.projection_schema;
     }
 
@@ -36,7 +38,9 @@ public class Projection extends Iterator {
      * child iterators, and increases the indent depth along the way.
      */
     public void explain(int depth) {
-        throw new UnsupportedOperationException("Not implemented");
+        indent(depth);
+        System.out.println("Projection : " + Arrays.toString(this.projection_fields));
+        this.projection_iterator.explain(depth + 1);
     }
 
     /**
@@ -79,26 +83,38 @@ public class Projection extends Iterator {
         return has_next;
     }
 
+    /**
+     * Fills the batch with the next tuples, copying whole columns from an
+     * input batch.
+     */
+    public boolean nextBatch(TupleBatch batch) {
+        batch.clear();
+        if (!this.is_open) {
+            return false;
+        }
+        if (input_batch == null || input_batch.capacity() != batch.capacity()) {
+            input_batch = new TupleBatch(this.projection_iterator.getSchema(), batch.capacity());
+        }
+        if (!this.projection_iterator.nextBatch(input_batch)) {
+            return false;
+        }
+        for (int i = 0; i < projection_fields.length; i++) {
+            batch.copyColumn(i, input_batch, projection_fields[i], input_batch.size());
+        }
+        batch.setSize(input_batch.size());
+        return true;
+    }
+
     /**
      * Gets the next tuple in the iteration.
      *
      * @throws IllegalStateException if no more tuples
      */
     public Tuple getNext() {
-        // Make new tuple for projection
-        Tuple projected = new Tuple(this.projection_schema);
-        // Get next tuple from iterator
+        // Get next tuple from iterator (which throws if there are no more)
         Tuple next = this.projection_iterator.getNext();
-        // Meke new tuple with projection schema
-        for (int i = 0; i < projection_fields.length; i++) {
-            projected.setField(i, next.getField(projection_fields[i]));
-        }
-        // If projection successful, return tuple
-        if (projected.getAllFields().length > 0) {
-            return projected;
-        } else {
-            throw new IllegalStateException("There are no more tuples.");
-        }
+        // Copy the projected fields' bytes into a tuple of the projection schema
+        return this.projection_plan.project(next);
     }
 
 } // public class Projection extends Iterator
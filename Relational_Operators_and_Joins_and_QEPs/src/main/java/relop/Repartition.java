@@ -0,0 +1,63 @@
+package relop;
+
+import java.util.Arrays;
+
+/**
+ * Exchange that sends each tuple to one consumer: by a hash of the given
+ * columns, so that equal keys meet at the same consumer (e.g. for a join or
+ * grouping), or round-robin if there are no columns.
+ */
+public class Repartition extends Exchange {
+
+    private int[] columns;
+
+    /** Next consumer, when round-robin. */
+    private int next;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a repartition of the input to the given number of consumers,
+     * by the given columns.
+     *
+     * @throws IllegalArgumentException if there are no consumers, or a column
+     * is invalid
+     */
+    public Repartition(Iterator input, int consumerCnt, int... columns) {
+        super(input, consumerCnt);
+        for (int col : columns) {
+            if (col < 0 || col >= input.getSchema().getCount()) {
+                throw new IllegalArgumentException("unknown field " + col);
+            }
+        }
+        this.columns = columns;
+    }
+
+    /**
+     * Gives a one-line explanation of the exchange, and explains the input.
+     */
+    public void explain(int depth) {
+        input.indent(depth);
+        System.out.println("Repartition : " + getConsumerCount() + " consumers, "
+                + ((columns.length > 0) ? "columns " + Arrays.toString(columns) : "round-robin"));
+        input.explain(depth + 1);
+    }
+
+    /**
+     * Sends the tuple to the consumer of its key.
+     */
+    protected void route(Tuple tuple) {
+        if (columns.length == 0) {
+            add(next, tuple);
+            next = (next + 1) % getConsumerCount();
+            return;
+        }
+        int hash = 0;
+        for (int col : columns) {
+            hash = 31 * hash + tuple.getField(col).hashCode();
+        }
+        hash ^= (hash >>> 16);
+        add(Math.floorMod(hash, getConsumerCount()), tuple);
+    }
+
+} // public class Repartition extends Exchange
@@ -1,6 +1,7 @@
 package relop;
 
 import global.AttrType;
+import global.Convert;
 
 /**
  * Each tuple has a schema that defines the logical view of the raw bytes; it
@@ -35,6 +36,11 @@ public class Schema {
      */
     protected String[] names;
 
+    /**
+     * True if records are stored in the variable-length format.
+     */
+    protected boolean variable;
+
     // --------------------------------------------------------------------------
 
     /**
@@ -104,6 +110,64 @@ public class Schema {
                 schema.names[srcNo]);
     }
 
+    /**
+     * Sets whether records of this schema are stored in the variable-length
+     * format (see encode); tuples in memory always use the fixed format.
+     */
+    public void setVariable(boolean variable) {
+        this.variable = variable;
+    }
+
+    /**
+     * Returns true if records are stored in the variable-length format.
+     */
+    public boolean isVariable() {
+        return variable;
+    }
+
+    /**
+     * Encodes a tuple's data in the variable-length format: an offset table of
+     * (count + 1) shorts, giving where each field starts and where the last one
+     * ends, followed by the fields; strings are stored without their padding.
+     */
+    public byte[] encode(byte[] data) {
+        int fldcnt = types.length;
+        int[] used = new int[fldcnt];
+        int reclen = (fldcnt + 1) * 2;
+        for (int i = 0; i < fldcnt; i++) {
+            used[i] = lengths[i];
+            if (types[i] == AttrType.STRING) {
+                while (used[i] > 0 && data[offsets[i] + used[i] - 1] == 0) {
+                    used[i]--;
+                }
+            }
+            reclen += used[i];
+        }
+        byte[] record = new byte[reclen];
+        int pos = (fldcnt + 1) * 2;
+        for (int i = 0; i < fldcnt; i++) {
+            Convert.setShortValue((short) pos, i * 2, record);
+            System.arraycopy(data, offsets[i], record, pos, used[i]);
+            pos += used[i];
+        }
+        Convert.setShortValue((short) pos, fldcnt * 2, record);
+        return record;
+    }
+
+    /**
+     * Decodes a record in the variable-length format into a tuple's data.
+     */
+    public byte[] decode(byte[] record) {
+        byte[] data = new byte[getLength()];
+        int start = Convert.getShortValue(0, record);
+        for (int i = 0; i < types.length; i++) {
+            int end = Convert.getShortValue((i + 1) * 2, record);
+            System.arraycopy(record, start, data, offsets[i], end - start);
+            start = end;
+        }
+        return data;
+    }
+
     // --------------------------------------------------------------------------
 
     /**
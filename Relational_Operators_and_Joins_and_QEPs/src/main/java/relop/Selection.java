@@ -1,5 +1,7 @@
 package relop;
 
+import java.util.Arrays;
+
 /**
  * The selection operator specifies which tuples to retain under a condition; in
  * Minibase, this condition is simply a set of independent predicates logically
@@ -11,6 +13,12 @@ public class Selection extends Iterator {
     private boolean is_open;
     private Iterator selection_iterator;
     private Predicate[] selection_predicates;
+    // Predicates compiled for the input schema (or null where invalid for it)
+    private CompiledPredicate[] compiled_predicates;
+    // Input batch and predicate results, when used a batch at a time
+    private TupleBatch input_batch;
+    private boolean[] passed;
+    private boolean[] matched;
 
     /**
      * Constructs a selection, given the underlying iterator and predicates.
@@ -26,6 +34,15 @@ public class Selection extends Iterator {
         this.next = null;
         // Initalize schema
         this.schema = aIter.getSchema();
+        // Compile the predicates, leaving any invalid ones to fail as before
+        this.compiled_predicates = new CompiledPredicate[aPreds.length];
+        for (int i = 0; i < aPreds.length; i++) {
+            try {
+                compiled_predicates[i] = aPreds[i].compile(schema);
+            } catch (IllegalArgumentException exc) {
+                compiled_predicates[i] = null;
+            }
+        }
     }
 
     /**
@@ -33,7 +50,9 @@ public class Selection extends Iterator {
      * child iterators, and increases the indent depth along the way.
      */
     public void explain(int depth) {
-        throw new UnsupportedOperationException("Not implemented");
+        indent(depth);
+        System.out.println("Selection : " + Arrays.toString(this.selection_predicates));
+        this.selection_iterator.explain(depth + 1);
     }
 
     /**
@@ -81,8 +100,9 @@ public class Selection extends Iterator {
                 Tuple candidate = selection_iterator.getNext();
                 for (int i = 0; i < selection_predicates.length; i++) {
                     // Check if tuple satisfies predicate
-                    Predicate predicate = selection_predicates[i];
-                    boolean is_match = predicate.evaluate(candidate);
+                    CompiledPredicate compiled = compiled_predicates[i];
+                    boolean is_match = (compiled != null) ? compiled.evaluate(candidate)
+                            : selection_predicates[i].evaluate(candidate);
 
                     // If the predicate is satisfied store the valid tuple
                     if (is_match) {
@@ -99,6 +119,33 @@ public class Selection extends Iterator {
         return next_tuple;
     }
 
+    /**
+     * Fills the batch with the next tuples that pass, evaluating each
+     * predicate over a whole input batch at a time.
+     */
+    public boolean nextBatch(TupleBatch batch) {
+        batch.clear();
+        if (input_batch == null || input_batch.capacity() != batch.capacity()) {
+            input_batch = new TupleBatch(selection_iterator.getSchema(), batch.capacity());
+            passed = new boolean[batch.capacity()];
+            matched = new boolean[batch.capacity()];
+        }
+
+        // Filter input batches until some rows pass
+        while (batch.size() == 0 && selection_iterator.nextBatch(input_batch)) {
+            int size = input_batch.size();
+            Arrays.fill(passed, 0, size, false);
+            for (Predicate predicate : selection_predicates) {
+                predicate.evaluate(input_batch, matched);
+                for (int r = 0; r < size; r++) {
+                    passed[r] |= matched[r];
+                }
+            }
+            batch.addSelected(input_batch, passed);
+        }
+        return batch.size() > 0;
+    }
+
     /**
      * Gets the next tuple in the iteration.
      *
@@ -10,6 +10,8 @@ public class SimpleJoin extends Iterator {
     private Iterator outer;
     private Iterator inner;
     private Predicate[] preds;
+    // plan for joining an outer and an inner tuple
+    private CopyPlan joinPlan;
     private boolean startJoin = true;
     // boolean variable to indicate whether the pre-fetched tuple is consumed or not
     private boolean nextTupleIsConsumed;
@@ -26,6 +28,7 @@ public class SimpleJoin extends Iterator {
         this.inner = right;
         this.preds = preds;
         this.schema = Schema.join(left.schema, right.schema);
+        this.joinPlan = CopyPlan.join(left.schema, right.schema, this.schema);
 
         nextTupleIsConsumed = true;
     }
@@ -89,7 +92,7 @@ public class SimpleJoin extends Iterator {
                 rightTuple = inner.getNext();
 
                 // try to match
-                nextTuple = Tuple.join(leftTuple, rightTuple, this.schema);
+                nextTuple = joinPlan.join(leftTuple, rightTuple);
                 for (int i = 0; i < preds.length; i++)
                     if (preds[i].evaluate(nextTuple)) {
                         nextTupleIsConsumed = false;
@@ -0,0 +1,376 @@
+package relop;
+
+import global.GlobalConst;
+import global.SortKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * External merge sort of its input on one or more keys, each ascending or
+ * descending. The input is read on the first call to hasNext: if it fits in
+ * the memory budget it is sorted in memory; otherwise replacement selection
+ * writes sorted runs (about twice the budget each, on average) to temporary
+ * files, which are merged a few at a time until one merge of the remaining
+ * runs can produce the output. The final merge is pipelined.
+ */
+public class Sort extends Iterator implements GlobalConst {
+
+    /** Default memory budget (in bytes). */
+    public static final long DEFAULT_MEMORY = TempSpace.DEFAULT_MEMORY;
+
+    // --------------------------------------------------------------------------
+
+    private Iterator input;
+    private KeyComparator comparator;
+    private long memoryBudget;
+
+    /** Space of the runs. */
+    private TempSpace space;
+
+    /** Sorted input, if it fit in memory. */
+    private Tuple[] sorted;
+    private int sortedIndex;
+
+    /** Runs left to merge, and the final merge in progress. */
+    private ArrayList<TempFile> runs;
+    private Iterator[] scans;
+    private Tuple[] heads;
+    private int[] queue;
+    private int queueSize;
+
+    private boolean built;
+    private boolean isOpen;
+
+    // statistics
+    private int runCount;
+    private int mergePasses;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a sort on the given keys with the default memory budget. The
+     * key fields are column names or field numbers of the input's schema.
+     */
+    public Sort(Iterator input, SortKey... keys) {
+        this(input, DEFAULT_MEMORY, keys);
+    }
+
+    /**
+     * Constructs a sort on the given keys that holds at most the given number
+     * of bytes of tuples in memory.
+     *
+     * @throws IllegalArgumentException if there are no keys, or a key names a
+     * column that doesn't exist
+     */
+    public Sort(Iterator input, long memoryBudget, SortKey... keys) {
+        this.input = input;
+        this.memoryBudget = memoryBudget;
+        this.schema = input.getSchema();
+        this.comparator = new KeyComparator(schema, keys);
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("Sort : " + comparator.toString(schema) + ", "
+                + memoryBudget + " bytes");
+        input.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed. The input is
+     * sorted only once; restarting reads the sorted tuples again.
+     */
+    public void restart() {
+        if (built) {
+            closeScans();
+            sortedIndex = 0;
+            if (runs != null) {
+                openScans();
+            }
+        } else {
+            input.restart();
+        }
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        closeScans();
+        if (space != null) {
+            space.close();
+        }
+        input.close();
+        sorted = null;
+        runs = null;
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (!isOpen) {
+            return false;
+        }
+        if (!built) {
+            build();
+        }
+        if (sorted != null) {
+            return sortedIndex < sorted.length;
+        }
+        return queueSize > 0;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        if (sorted != null) {
+            return sorted[sortedIndex++];
+        }
+        return pop();
+    }
+
+    /**
+     * Removes the smallest head tuple from the merge queue, reading the next
+     * tuple of its run.
+     */
+    private Tuple pop() {
+        int r = queue[0];
+        Tuple tuple = heads[r];
+        if (scans[r].hasNext()) {
+            heads[r] = scans[r].getNext();
+        } else {
+            heads[r] = null;
+            queue[0] = queue[--queueSize];
+        }
+        if (queueSize > 0) {
+            siftDown(0);
+        }
+        return tuple;
+    }
+
+    /**
+     * Compares two tuples of the input's schema on the sort keys.
+     *
+     * @return a negative integer, zero, or a positive integer as the first
+     * tuple sorts before, with, or after the second
+     */
+    public int compare(Tuple t1, Tuple t2) {
+        return comparator.compare(t1, t2);
+    }
+
+    /**
+     * Gets the number of sorted runs written (0 if the input fit in memory).
+     */
+    public int getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * Gets the number of merge passes before the final merge.
+     */
+    public int getMergePasses() {
+        return mergePasses;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Reads and sorts the input, leaving either the sorted tuples in memory or
+     * at most fanIn() runs open for the final merge.
+     */
+    private void build() {
+        int capacity = (int) Math.max(2, memoryBudget / schema.getLength());
+        Tuple[] heap = new Tuple[capacity];
+        int[] heapRuns = new int[capacity];
+        int size = 0;
+        while (size < capacity && input.hasNext()) {
+            heap[size++] = input.getNext();
+        }
+
+        if (!input.hasNext()) {
+            // it all fits: sort in memory
+            sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted, comparator);
+        } else {
+            // replacement selection: a heap ordered by (run, key), where tuples
+            // smaller than the last one written wait for the next run
+            space = new TempSpace(0);
+            runs = new ArrayList<TempFile>();
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(heap, heapRuns, size, i);
+            }
+            TempFile run = null;
+            int current = -1;
+            while (size > 0) {
+                Tuple tuple = heap[0];
+                if (heapRuns[0] != current) {
+                    current = heapRuns[0];
+                    run = space.createFile(schema);
+                    runs.add(run);
+                }
+                run.add(tuple);
+                if (input.hasNext()) {
+                    Tuple in = input.getNext();
+                    heap[0] = in;
+                    heapRuns[0] = (compare(in, tuple) >= 0) ? current : current + 1;
+                } else {
+                    heap[0] = heap[--size];
+                    heapRuns[0] = heapRuns[size];
+                    heap[size] = null;
+                }
+                siftDown(heap, heapRuns, size, 0);
+            }
+            runCount = runs.size();
+
+            // merge until the remaining runs fit in one merge
+            int fanIn = fanIn();
+            while (runs.size() > fanIn) {
+                ArrayList<TempFile> merged = new ArrayList<TempFile>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    merged.add(merge(runs.subList(i, Math.min(i + fanIn, runs.size()))));
+                }
+                runs = merged;
+                mergePasses++;
+            }
+            openScans();
+        }
+        input.close();
+        built = true;
+    }
+
+    /**
+     * Gets the number of runs merged at once: one input page per run, plus an
+     * output page, within the memory budget.
+     */
+    private int fanIn() {
+        return (int) Math.max(2, memoryBudget / PAGE_SIZE - 1);
+    }
+
+    /**
+     * Merges runs into a new run, closing them.
+     */
+    private TempFile merge(List<TempFile> group) {
+        TempFile out = space.createFile(schema);
+        ArrayList<TempFile> saved = runs;
+        runs = new ArrayList<TempFile>(group);
+        openScans();
+        while (queueSize > 0) {
+            out.add(pop());
+        }
+        closeScans();
+        for (TempFile run : runs) {
+            run.close();
+        }
+        runs = saved;
+        return out;
+    }
+
+    /**
+     * Opens a scan of each run, and orders the runs by their first tuples.
+     */
+    private void openScans() {
+        scans = new Iterator[runs.size()];
+        heads = new Tuple[runs.size()];
+        queue = new int[runs.size()];
+        queueSize = 0;
+        for (int r = 0; r < scans.length; r++) {
+            scans[r] = runs.get(r).openScan();
+            if (scans[r].hasNext()) {
+                heads[r] = scans[r].getNext();
+                queue[queueSize++] = r;
+            }
+        }
+        for (int i = queueSize / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Closes the scans of the runs, if open.
+     */
+    private void closeScans() {
+        if (scans != null) {
+            for (Iterator scan : scans) {
+                scan.close();
+            }
+        }
+        scans = null;
+        heads = null;
+        queueSize = 0;
+    }
+
+    /**
+     * Restores the order of the merge queue below the given position.
+     */
+    private void siftDown(int i) {
+        int r = queue[i];
+        while (2 * i + 1 < queueSize) {
+            int child = 2 * i + 1;
+            if (child + 1 < queueSize && compare(heads[queue[child + 1]], heads[queue[child]]) < 0) {
+                child++;
+            }
+            if (compare(heads[queue[child]], heads[r]) >= 0) {
+                break;
+            }
+            queue[i] = queue[child];
+            i = child;
+        }
+        queue[i] = r;
+    }
+
+    /**
+     * Restores the (run, key) order of the replacement selection heap below
+     * the given position.
+     */
+    private void siftDown(Tuple[] heap, int[] heapRuns, int size, int i) {
+        Tuple tuple = heap[i];
+        int run = heapRuns[i];
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && before(heap[child + 1], heapRuns[child + 1],
+                    heap[child], heapRuns[child])) {
+                child++;
+            }
+            if (!before(heap[child], heapRuns[child], tuple, run)) {
+                break;
+            }
+            heap[i] = heap[child];
+            heapRuns[i] = heapRuns[child];
+            i = child;
+        }
+        heap[i] = tuple;
+        heapRuns[i] = run;
+    }
+
+    /**
+     * Returns true if the first tuple belongs before the second in the
+     * replacement selection heap.
+     */
+    private boolean before(Tuple t1, int run1, Tuple t2, int run2) {
+        return (run1 != run2) ? run1 < run2 : compare(t1, t2) < 0;
+    }
+
+} // public class Sort extends Iterator implements GlobalConst
@@ -0,0 +1,159 @@
+package relop;
+
+import java.util.Arrays;
+
+/**
+ * Streaming aggregation (i.e. GROUP BY) of an input that is already sorted on
+ * the group columns (e.g. a Sort, or a scan of a table clustered on them), so
+ * that the tuples of each group are consecutive. Each group is returned as
+ * soon as its last tuple has been read, so only one group is held in memory
+ * and nothing is hashed or spilled.
+ * <p>
+ * Without group columns, the whole input is one group, which is returned even
+ * if the input is empty (e.g. a COUNT of 0).
+ */
+public class StreamAggregate extends Iterator {
+
+    private Iterator input;
+    private int[] groupFields;
+    private Aggregate[] aggs;
+
+    /** Accumulators of the current group. */
+    private Accumulators group;
+
+    /** First tuple of the next group, already read from the input. */
+    private Tuple pending;
+
+    private boolean started;
+    private Tuple next;
+    private boolean isOpen;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs an aggregate of the given group fields, on which the input
+     * must be sorted (in either direction).
+     *
+     * @throws IllegalArgumentException if an aggregate is invalid for the input
+     */
+    public StreamAggregate(Iterator input, int[] groupFields, Aggregate... aggs) {
+        this.input = input;
+        this.groupFields = groupFields;
+        this.aggs = aggs;
+        this.group = new Accumulators(input.getSchema(), groupFields, aggs);
+        this.schema = group.getSchema();
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("StreamAggregate : group by " + Arrays.toString(groupFields)
+                + ", " + aggs.length + " aggregates");
+        input.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+        input.restart();
+        group.clear();
+        pending = null;
+        started = false;
+        next = null;
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        input.close();
+        group.clear();
+        pending = null;
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (!isOpen) {
+            return false;
+        }
+        if (pending == null) {
+            if (!input.hasNext()) {
+                // without group columns, an empty input is still one group
+                if (!started && groupFields.length == 0) {
+                    started = true;
+                    group.clear();
+                    next = group.result(group.add(null));
+                    return true;
+                }
+                return false;
+            }
+            pending = input.getNext();
+        }
+        started = true;
+
+        // aggregate tuples until the group columns change
+        group.clear();
+        Tuple first = pending;
+        int g = group.add(first);
+        group.accumulate(g, first);
+        pending = null;
+        while (input.hasNext()) {
+            Tuple tuple = input.getNext();
+            if (!sameGroup(first, tuple)) {
+                pending = tuple;
+                break;
+            }
+            group.accumulate(g, tuple);
+        }
+        next = group.result(g);
+        return true;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        Tuple tuple = next;
+        next = null;
+        return tuple;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Returns true if two tuples have the same group column values.
+     */
+    private boolean sameGroup(Tuple t1, Tuple t2) {
+        for (int fldno : groupFields) {
+            if (!t1.getField(fldno).equals(t2.getField(fldno))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+} // public class StreamAggregate extends Iterator
@@ -0,0 +1,295 @@
+package relop;
+
+import global.Convert;
+import global.GlobalConst;
+import global.Minibase;
+import global.Page;
+import global.PageId;
+
+import java.util.ArrayList;
+
+/**
+ * A temporary, append-only sequence of records created by a TempSpace. Records
+ * stay in memory until the space's budget runs out; the file then spills: all
+ * of its records are written to pages, and so are the records added later.
+ * Records are read back in the order they were added, by any number of scans.
+ * <p>
+ * Page layout: record count (4 bytes), then the fixed-length records.
+ */
+public class TempFile implements GlobalConst {
+
+    /** Offset of the record count on a page. */
+    protected static final int REC_CNT = 0;
+
+    /** Offset of the first record on a page. */
+    protected static final int RECORDS = 4;
+
+    // --------------------------------------------------------------------------
+
+    /** Space the file's memory and pages come from. */
+    protected TempSpace space;
+
+    /** Schema of the records. */
+    protected Schema schema;
+
+    /** Length of each record, and the number of records per page. */
+    protected int reclen;
+    protected int perPage;
+
+    /** Records held in memory (before the file spills). */
+    protected ArrayList<byte[]> records;
+
+    /** Pages written so far, and the extents they belong to. */
+    protected ArrayList<PageId> pages;
+    protected ArrayList<PageId> extents;
+
+    /** Page being filled (not yet written), and the records on it. */
+    protected Page tail;
+    protected int tailCnt;
+
+    protected int recCnt;
+    protected boolean spilled;
+    protected boolean closed;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs an empty file; use TempSpace.createFile.
+     */
+    protected TempFile(TempSpace space, Schema schema) {
+        this.space = space;
+        this.schema = schema;
+        this.reclen = schema.getLength();
+        this.perPage = (PAGE_SIZE - RECORDS) / reclen;
+        if (perPage == 0) {
+            throw new IllegalArgumentException("records too large for a page");
+        }
+        this.records = new ArrayList<byte[]>();
+        this.pages = new ArrayList<PageId>();
+        this.extents = new ArrayList<PageId>();
+    }
+
+    /**
+     * Appends a record to the file.
+     */
+    public void add(Tuple tuple) {
+        insertRecord(tuple.getData());
+    }
+
+    /**
+     * Appends a record, given its data in the layout of the file's schema.
+     */
+    public void insertRecord(byte[] data) {
+        if (closed) {
+            throw new IllegalStateException("temp file is closed");
+        }
+        if (!spilled && !space.reserve(reclen)) {
+            spill();
+        }
+        if (spilled) {
+            writeRecord(data);
+        } else {
+            records.add(data.clone());
+        }
+        recCnt++;
+    }
+
+    /**
+     * Opens a scan of the records, in the order they were added.
+     */
+    public Iterator openScan() {
+        if (closed) {
+            throw new IllegalStateException("temp file is closed");
+        }
+        return new TempScan();
+    }
+
+    /**
+     * Closes the file, returning its memory and pages to the temp space.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        space.release((long) records.size() * reclen);
+        records = null;
+        for (PageId first : extents) {
+            space.freeExtent(first);
+        }
+        extents.clear();
+        pages.clear();
+        tail = null;
+        closed = true;
+        space.closed(this);
+    }
+
+    /**
+     * Gets the number of records in the file.
+     */
+    public int getRecCnt() {
+        return recCnt;
+    }
+
+    /**
+     * Gets the schema of the records.
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns true if the file has spilled to disk.
+     */
+    public boolean isSpilled() {
+        return spilled;
+    }
+
+    /**
+     * Gets the number of pages the file has written.
+     */
+    public int getPageCnt() {
+        return pages.size();
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Moves the records held in memory to pages.
+     */
+    protected void spill() {
+        spilled = true;
+        space.spilled();
+        for (byte[] data : records) {
+            writeRecord(data);
+        }
+        space.release((long) records.size() * reclen);
+        records.clear();
+    }
+
+    /**
+     * Adds a record to the tail page, writing the page out once it's full.
+     */
+    private void writeRecord(byte[] data) {
+        if (tail == null) {
+            tail = new Page();
+            tailCnt = 0;
+        }
+        System.arraycopy(data, 0, tail.getData(), RECORDS + tailCnt * reclen, reclen);
+        tailCnt++;
+        if (tailCnt == perPage) {
+            writeTail();
+        }
+    }
+
+    /**
+     * Writes the tail page to the next free page of the current extent,
+     * allocating a new extent as needed.
+     */
+    private void writeTail() {
+        if (pages.size() % TempSpace.EXTENT_SIZE == 0) {
+            extents.add(space.allocateExtent());
+        }
+        PageId first = extents.get(extents.size() - 1);
+        PageId pageno = new PageId(first.pid + pages.size() % TempSpace.EXTENT_SIZE);
+        Convert.setIntValue(tailCnt, REC_CNT, tail.getData());
+
+        // the page is new, so copy it into the buffer pool instead of reading
+        Minibase.BufferManager.pinPage(pageno, tail, PIN_MEMCPY);
+        Minibase.BufferManager.unpinPage(pageno, UNPIN_DIRTY);
+        pages.add(pageno);
+        tail = null;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Scan of the records: the written pages, then the tail page, then (if the
+     * file hasn't spilled) the records in memory.
+     */
+    private class TempScan extends Iterator {
+
+        private int pageIndex;
+        private int recIndex;
+        private byte[] pageData;
+        private boolean isOpen;
+
+        TempScan() {
+            this.schema = TempFile.this.schema;
+            restart();
+        }
+
+        public void explain(int depth) {
+            indent(depth);
+            System.out.println("TempScan : " + recCnt + " records"
+                    + (spilled ? " on " + pages.size() + " pages" : " in memory"));
+        }
+
+        public void restart() {
+            pageIndex = 0;
+            recIndex = 0;
+            pageData = null;
+            isOpen = true;
+        }
+
+        public boolean isOpen() {
+            return isOpen;
+        }
+
+        public void close() {
+            pageData = null;
+            isOpen = false;
+        }
+
+        public boolean hasNext() {
+            if (!isOpen || closed) {
+                return false;
+            }
+            while (true) {
+                if (pageData != null
+                        && recIndex < Convert.getIntValue(REC_CNT, pageData)) {
+                    return true;
+                }
+                if (pageIndex < pages.size()) {
+                    pageData = readPage(pages.get(pageIndex++));
+                    recIndex = 0;
+                } else if (pageIndex == pages.size() && tail != null) {
+                    pageIndex++;
+                    pageData = tail.getData().clone();
+                    Convert.setIntValue(tailCnt, REC_CNT, pageData);
+                    recIndex = 0;
+                } else {
+                    pageData = null;
+                    return !spilled && recIndex < records.size();
+                }
+            }
+        }
+
+        public Tuple getNext() {
+            if (!hasNext()) {
+                throw new IllegalStateException("no more tuples");
+            }
+            byte[] data;
+            if (pageData != null) {
+                data = new byte[reclen];
+                System.arraycopy(pageData, RECORDS + recIndex * reclen, data, 0, reclen);
+            } else {
+                data = records.get(recIndex).clone();
+            }
+            recIndex++;
+            return new Tuple(schema, data);
+        }
+
+        /**
+         * Copies a written page out of the buffer pool.
+         */
+        private byte[] readPage(PageId pageno) {
+            Page page = new Page();
+            Minibase.BufferManager.pinPage(pageno, page, PIN_DISKIO);
+            byte[] data = page.getData().clone();
+            Minibase.BufferManager.unpinPage(pageno, UNPIN_CLEAN);
+            return data;
+        }
+
+    } // private class TempScan extends Iterator
+
+} // public class TempFile implements GlobalConst
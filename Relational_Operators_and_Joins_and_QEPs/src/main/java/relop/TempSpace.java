@@ -0,0 +1,197 @@
+package relop;
+
+import global.GlobalConst;
+import global.Minibase;
+import global.PageId;
+
+import java.util.ArrayList;
+
+/**
+ * Scratch space shared by the operators of a query, for sort runs, hash
+ * partitions, and other intermediate results. Each TempFile keeps its records
+ * in memory while the space's memory budget allows, and otherwise spills them
+ * to temporary pages; pages are allocated in extents of contiguous pages and
+ * have no file entry. Closing a file (or the whole space) frees its memory and
+ * pages immediately, rather than leaving them to the garbage collector.
+ */
+public class TempSpace implements GlobalConst {
+
+    /** Number of contiguous pages allocated at a time. */
+    public static final int EXTENT_SIZE = 8;
+
+    /** Default memory budget (in bytes). */
+    public static final long DEFAULT_MEMORY = 64L * PAGE_SIZE;
+
+    // --------------------------------------------------------------------------
+
+    /** Maximum number of bytes of records held in memory. */
+    protected long memoryBudget;
+
+    /** Number of bytes of records currently held in memory. */
+    protected long memoryUsed;
+
+    /** Number of temporary pages currently allocated. */
+    protected int pagesUsed;
+
+    // usage statistics
+    private long peakMemory;
+    private int peakPages;
+    private int spillCount;
+
+    /** Files that have not been closed yet. */
+    private ArrayList<TempFile> files;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a temp space with the default memory budget.
+     */
+    public TempSpace() {
+        this(DEFAULT_MEMORY);
+    }
+
+    /**
+     * Constructs a temp space that holds at most the given number of bytes of
+     * records in memory.
+     */
+    public TempSpace(long memoryBudget) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("invalid memory budget");
+        }
+        this.memoryBudget = memoryBudget;
+        this.files = new ArrayList<TempFile>();
+    }
+
+    /**
+     * Creates an empty temporary file for records of the given schema.
+     */
+    public synchronized TempFile createFile(Schema schema) {
+        TempFile file = new TempFile(this, schema);
+        files.add(file);
+        return file;
+    }
+
+    /**
+     * Closes every file that is still open, freeing all memory and pages.
+     */
+    public void close() {
+        ArrayList<TempFile> open;
+        synchronized (this) {
+            open = new ArrayList<TempFile>(files);
+        }
+        for (TempFile file : open) {
+            file.close();
+        }
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Gets the memory budget (in bytes).
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Gets the number of bytes of records currently held in memory.
+     */
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+     * Gets the largest number of bytes held in memory at once.
+     */
+    public synchronized long getPeakMemory() {
+        return peakMemory;
+    }
+
+    /**
+     * Gets the number of temporary pages currently allocated.
+     */
+    public synchronized int getPagesUsed() {
+        return pagesUsed;
+    }
+
+    /**
+     * Gets the largest number of temporary pages allocated at once.
+     */
+    public synchronized int getPeakPages() {
+        return peakPages;
+    }
+
+    /**
+     * Gets the number of files that have spilled to disk.
+     */
+    public synchronized int getSpillCount() {
+        return spillCount;
+    }
+
+    /**
+     * Returns a one-line summary of the space's usage.
+     */
+    public synchronized String toString() {
+        return "TempSpace : " + memoryUsed + " of " + memoryBudget
+                + " bytes in memory (peak " + peakMemory + "), " + pagesUsed
+                + " pages (peak " + peakPages + "), " + spillCount + " spills";
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Reserves memory for a record; returns false if that would exceed the
+     * budget.
+     */
+    protected synchronized boolean reserve(int bytes) {
+        if (memoryUsed + bytes > memoryBudget) {
+            return false;
+        }
+        memoryUsed += bytes;
+        peakMemory = Math.max(peakMemory, memoryUsed);
+        return true;
+    }
+
+    /**
+     * Returns reserved memory to the budget.
+     */
+    protected synchronized void release(long bytes) {
+        memoryUsed -= bytes;
+    }
+
+    /**
+     * Records that a file has started spilling to disk.
+     */
+    protected synchronized void spilled() {
+        spillCount++;
+    }
+
+    /**
+     * Allocates an extent of EXTENT_SIZE contiguous pages, none of which are
+     * in the buffer pool; returns the id of the first one.
+     */
+    protected synchronized PageId allocateExtent() {
+        PageId first = Minibase.DiskManager.allocate_page(EXTENT_SIZE);
+        pagesUsed += EXTENT_SIZE;
+        peakPages = Math.max(peakPages, pagesUsed);
+        return first;
+    }
+
+    /**
+     * Frees an extent, along with any of its pages in the buffer pool.
+     */
+    protected synchronized void freeExtent(PageId first) {
+        for (int i = 0; i < EXTENT_SIZE; i++) {
+            Minibase.BufferManager.freePage(new PageId(first.pid + i));
+        }
+        pagesUsed -= EXTENT_SIZE;
+    }
+
+    /**
+     * Forgets a file that has been closed.
+     */
+    protected synchronized void closed(TempFile file) {
+        files.remove(file);
+    }
+
+} // public class TempSpace implements GlobalConst
@@ -0,0 +1,160 @@
+package relop;
+
+import global.SortKey;
+
+import java.util.Arrays;
+
+/**
+ * Returns the first tuples of its input in the order of the given sort keys
+ * (i.e. ORDER BY ... LIMIT n OFFSET m) without sorting the whole input: a
+ * bounded heap keeps the best n + m tuples seen so far, with the worst of them
+ * on top, so each further tuple is either dropped after one comparison or
+ * replaces the top. Memory is proportional to n + m rather than the input,
+ * and the input is closed as soon as it has been read.
+ */
+public class TopN extends Iterator {
+
+    private Iterator input;
+    private KeyComparator comparator;
+    private int limit;
+    private int offset;
+
+    /** The best tuples, in order, once the input has been read. */
+    private Tuple[] top;
+    private int topIndex;
+
+    private boolean isOpen;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs a top-n of the given number of tuples, after the given number
+     * of tuples, on the given keys (column names or field numbers).
+     *
+     * @throws IllegalArgumentException if the limit or offset is negative, or
+     * the keys are invalid
+     */
+    public TopN(Iterator input, int limit, int offset, SortKey... keys) {
+        if (limit < 0 || offset < 0) {
+            throw new IllegalArgumentException("invalid limit or offset");
+        }
+        this.input = input;
+        this.limit = limit;
+        this.offset = offset;
+        this.schema = input.getSchema();
+        this.comparator = new KeyComparator(schema, keys);
+        this.isOpen = true;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, repeats the call on any
+     * child iterators, and increases the indent depth along the way.
+     */
+    public void explain(int depth) {
+        indent(depth);
+        System.out.println("TopN : " + comparator.toString(schema) + ", limit " + limit
+                + (offset > 0 ? " offset " + offset : ""));
+        input.explain(depth + 1);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed. The input is
+     * read only once; restarting returns the same tuples again.
+     */
+    public void restart() {
+        if (top == null) {
+            input.restart();
+        }
+        topIndex = Math.min(offset, (top == null) ? 0 : top.length);
+        isOpen = true;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Closes the iterator, releasing any resources (i.e. pinned pages).
+     */
+    public void close() {
+        if (top == null && isOpen) {
+            input.close();
+        }
+        top = null;
+        isOpen = false;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+        if (!isOpen) {
+            return false;
+        }
+        if (top == null) {
+            build();
+        }
+        return topIndex < top.length;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+        if (!hasNext()) {
+            throw new IllegalStateException("no more tuples");
+        }
+        return top[topIndex++];
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Reads the input into the bounded heap, then sorts the heap.
+     */
+    private void build() {
+        int capacity = (int) Math.min((long) limit + offset, Integer.MAX_VALUE - 8);
+        Tuple[] heap = new Tuple[Math.min(capacity, 1024)];
+        int size = 0;
+        while (capacity > 0 && input.hasNext()) {
+            Tuple tuple = input.getNext();
+            if (size < capacity) {
+                // still filling: add at the bottom and sift up
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min(2L * size, capacity));
+                }
+                int i = size++;
+                while (i > 0 && comparator.compare(heap[(i - 1) / 2], tuple) < 0) {
+                    heap[i] = heap[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heap[i] = tuple;
+            } else if (comparator.compare(tuple, heap[0]) < 0) {
+                // better than the worst kept: replace the top and sift down
+                int i = 0;
+                while (2 * i + 1 < size) {
+                    int child = 2 * i + 1;
+                    if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) {
+                        child++;
+                    }
+                    if (comparator.compare(heap[child], tuple) <= 0) {
+                        break;
+                    }
+                    heap[i] = heap[child];
+                    i = child;
+                }
+                heap[i] = tuple;
+            }
+        }
+        input.close();
+        top = Arrays.copyOf(heap, size);
+        Arrays.sort(top, comparator);
+        topIndex = Math.min(offset, size);
+    }
+
+} // public class TopN extends Iterator
@@ -57,6 +57,17 @@ public class Tuple {
         this.data = data;
     }
 
+    /**
+     * Creates a tuple from a record read from a file, decoding it if the
+     * schema stores records in the variable-length format.
+     *
+     * @param schema logical information for the fields
+     * @param record record as stored in the file
+     */
+    public static Tuple fromRecord(Schema schema, byte[] record) {
+        return new Tuple(schema, schema.isVariable() ? schema.decode(record) : record);
+    }
+
     /**
      * Builds and returns a new tuple resulting from joining two tuples.
      *
@@ -66,6 +77,15 @@ public class Tuple {
      */
     public static Tuple join(Tuple t1, Tuple t2, Schema schema) {
 
+        // if the schema is the two concatenated (i.e. from Schema.join), so
+        // is the data; operators that join many tuples precompute a CopyPlan
+        if (CopyPlan.concatenates(t1.schema, t2.schema, schema)) {
+            byte[] data = new byte[schema.getLength()];
+            System.arraycopy(t1.data, 0, data, 0, t1.schema.getLength());
+            System.arraycopy(t2.data, 0, data, t1.schema.getLength(), t2.schema.getLength());
+            return new Tuple(schema, data);
+        }
+
         // construct the new tuple
         int t1cnt = t1.schema.getCount();
         int t2cnt = t2.schema.getCount();
@@ -92,11 +112,19 @@ public class Tuple {
         return data;
     }
 
+    /**
+     * Gets the tuple as stored in a file: the data itself, or its encoding if
+     * the schema stores records in the variable-length format.
+     */
+    public byte[] getRecord() {
+        return schema.isVariable() ? schema.encode(data) : data;
+    }
+
     /**
      * Inserts the tuple into the given heap file.
      */
     public RID insertIntoFile(HeapFile file) {
-        return file.insertRecord(data);
+        return file.insertRecord(getRecord());
     }
 
     /**
@@ -0,0 +1,275 @@
+package relop;
+
+import global.AttrType;
+import global.Convert;
+
+/**
+ * A batch of up to a fixed number of rows, stored column-wise: each field of
+ * the schema is an array of primitive values (int[] or float[]), or of
+ * strings. Operators that process whole batches (see Iterator.nextBatch) work
+ * on these arrays directly, rather than creating a Tuple for every row.
+ */
+public class TupleBatch {
+
+    /** Default number of rows in a batch. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // --------------------------------------------------------------------------
+
+    /** Schema of the rows. */
+    protected Schema schema;
+
+    /** Maximum number of rows. */
+    protected int capacity;
+
+    /** Number of rows in the batch. */
+    protected int size;
+
+    /** Column arrays, by field type (null for fields of other types). */
+    protected int[][] ints;
+    protected float[][] floats;
+    protected String[][] strings;
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Constructs an empty batch with the default capacity.
+     */
+    public TupleBatch(Schema schema) {
+        this(schema, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty batch holding up to the given number of rows.
+     */
+    public TupleBatch(Schema schema, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("invalid batch capacity");
+        }
+        this.schema = schema;
+        this.capacity = capacity;
+        int fldcnt = schema.getCount();
+        ints = new int[fldcnt][];
+        floats = new float[fldcnt][];
+        strings = new String[fldcnt][];
+        for (int i = 0; i < fldcnt; i++) {
+            switch (schema.fieldType(i)) {
+
+                case AttrType.INTEGER:
+                    ints[i] = new int[capacity];
+                    break;
+
+                case AttrType.FLOAT:
+                    floats[i] = new float[capacity];
+                    break;
+
+                case AttrType.STRING:
+                    strings[i] = new String[capacity];
+                    break;
+
+                default:
+                    throw new IllegalStateException("invalid attribute type");
+            }
+        }
+    }
+
+    /**
+     * Gets the schema of the rows.
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Gets the number of rows in the batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of rows.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns true if no more rows can be added.
+     */
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Removes all rows.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Sets the number of rows, after the columns were filled directly.
+     */
+    public void setSize(int size) {
+        if (size < 0 || size > capacity) {
+            throw new IllegalArgumentException("invalid batch size");
+        }
+        this.size = size;
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Gets the values of an integer field.
+     */
+    public int[] getIntColumn(int fldno) {
+        return ints[fldno];
+    }
+
+    /**
+     * Gets the values of a float field.
+     */
+    public float[] getFloatColumn(int fldno) {
+        return floats[fldno];
+    }
+
+    /**
+     * Gets the values of a string field.
+     */
+    public String[] getStringColumn(int fldno) {
+        return strings[fldno];
+    }
+
+    // --------------------------------------------------------------------------
+
+    /**
+     * Appends a row holding the fields of a tuple.
+     */
+    public void add(Tuple tuple) {
+        addRecord(tuple.getData());
+    }
+
+    /**
+     * Appends a row, given its data in the (fixed) layout of the schema.
+     */
+    public void addRecord(byte[] data) {
+        int row = size++;
+        for (int i = 0; i < ints.length; i++) {
+            int offset = schema.fieldOffset(i);
+            if (ints[i] != null) {
+                ints[i][row] = Convert.getIntValue(offset, data);
+            } else if (floats[i] != null) {
+                floats[i][row] = Convert.getFloatValue(offset, data);
+            } else {
+                strings[i][row] = Convert.getStringValue(offset, data,
+                        schema.fieldLength(i));
+            }
+        }
+    }
+
+    /**
+     * Copies the fields of a tuple into the given row, starting at the given
+     * field (e.g. for the left side of a join).
+     */
+    public void setFields(int row, int fldno, Tuple tuple) {
+        int fldcnt = tuple.schema.getCount();
+        for (int i = 0; i < fldcnt; i++, fldno++) {
+            if (ints[fldno] != null) {
+                ints[fldno][row] = tuple.getIntFld(i);
+            } else if (floats[fldno] != null) {
+                floats[fldno][row] = tuple.getFloatFld(i);
+            } else {
+                strings[fldno][row] = tuple.getStringFld(i);
+            }
+        }
+    }
+
+    /**
+     * Copies all fields of a row of another batch into the given row, starting
+     * at the given field.
+     */
+    public void setFields(int row, int fldno, TupleBatch src, int srcRow) {
+        for (int i = 0; i < src.ints.length; i++, fldno++) {
+            if (ints[fldno] != null) {
+                ints[fldno][row] = src.ints[i][srcRow];
+            } else if (floats[fldno] != null) {
+                floats[fldno][row] = src.floats[i][srcRow];
+            } else {
+                strings[fldno][row] = src.strings[i][srcRow];
+            }
+        }
+    }
+
+    /**
+     * Copies the first rows of a field of another batch into a field of this
+     * one.
+     */
+    public void copyColumn(int fldno, TupleBatch src, int srcFld, int rows) {
+        if (ints[fldno] != null) {
+            System.arraycopy(src.ints[srcFld], 0, ints[fldno], 0, rows);
+        } else if (floats[fldno] != null) {
+            System.arraycopy(src.floats[srcFld], 0, floats[fldno], 0, rows);
+        } else {
+            System.arraycopy(src.strings[srcFld], 0, strings[fldno], 0, rows);
+        }
+    }
+
+    /**
+     * Copies the rows of another batch (of the same schema) that are marked in
+     * the given array into this batch, after its current rows.
+     *
+     * @return the number of rows copied
+     */
+    public int addSelected(TupleBatch src, boolean[] selected) {
+        int start = size;
+        for (int i = 0; i < ints.length; i++) {
+            int row = start;
+            if (ints[i] != null) {
+                int[] from = src.ints[i];
+                int[] to = ints[i];
+                for (int r = 0; r < src.size; r++) {
+                    if (selected[r]) {
+                        to[row++] = from[r];
+                    }
+                }
+            } else if (floats[i] != null) {
+                float[] from = src.floats[i];
+                float[] to = floats[i];
+                for (int r = 0; r < src.size; r++) {
+                    if (selected[r]) {
+                        to[row++] = from[r];
+                    }
+                }
+            } else {
+                String[] from = src.strings[i];
+                String[] to = strings[i];
+                for (int r = 0; r < src.size; r++) {
+                    if (selected[r]) {
+                        to[row++] = from[r];
+                    }
+                }
+            }
+            size = row;
+        }
+        return size - start;
+    }
+
+    /**
+     * Creates a tuple holding the given row.
+     */
+    public Tuple getTuple(int row) {
+        Tuple tuple = new Tuple(schema);
+        for (int i = 0; i < ints.length; i++) {
+            if (ints[i] != null) {
+                tuple.setIntFld(i, ints[i][row]);
+            } else if (floats[i] != null) {
+                tuple.setFloatFld(i, floats[i][row]);
+            } else {
+                tuple.setStringFld(i, strings[i][row]);
+            }
+        }
+        return tuple;
+    }
+
+} // public class TupleBatch
@@ -19,19 +19,48 @@ import static org.junit.Assert.fail;
 
 import global.AttrOperator;
 import global.AttrType;
+import global.GlobalConst;
+import global.Minibase;
 import global.RID;
 import global.SearchKey;
+import global.SortKey;
 import heap.HeapFile;
 import index.HashIndex;
+import relop.Aggregate;
+import relop.BatchAdapter;
+import relop.BlockNestedLoopJoin;
+import relop.Broadcast;
+import relop.ColumnScan;
+import relop.ColumnarFile;
+import relop.CompiledPredicate;
+import relop.CompiledScan;
+import relop.CopyPlan;
+import relop.Distinct;
+import relop.Exchange;
 import relop.FileScan;
+import relop.Gather;
+import relop.HashAggregate;
 import relop.HashJoin;
+import relop.HybridHashJoin;
+import relop.IndexNestedLoopJoin;
 import relop.IndexScan;
 import relop.KeyScan;
+import relop.LateScan;
+import relop.Limit;
+import relop.Materialize;
+import relop.MergeJoin;
+import relop.ParallelAggregate;
 import relop.Predicate;
 import relop.Projection;
+import relop.Repartition;
 import relop.Schema;
 import relop.Selection;
 import relop.SimpleJoin;
+import relop.Sort;
+import relop.StreamAggregate;
+import relop.TempFile;
+import relop.TempSpace;
+import relop.TopN;
 import relop.Tuple;
 import relop.Iterator;
 
@@ -253,6 +282,167 @@ public class ROTest extends TestDriver {
         execute_and_compare("Selection Multipled Predicates", "selection_preds", selection_preds);
     }
 
+    @Test
+    public void testCompiledPredicate() throws Exception {
+        //Compiled predicates agree with evaluate for each type, operator, and kind of operand
+        int[] opers = { AttrOperator.EQ, AttrOperator.NEQ, AttrOperator.GT, AttrOperator.GTE,
+                AttrOperator.LT, AttrOperator.LTE };
+        ArrayList<Object[]> operands = new ArrayList<Object[]>();
+        operands.add(new Object[] { AttrType.COLNAME, "Age", AttrType.FLOAT, 20f });
+        operands.add(new Object[] { AttrType.FLOAT, 20f, AttrType.COLNAME, "Age" });
+        operands.add(new Object[] { AttrType.FIELDNO, 0, AttrType.INTEGER, 5 });
+        operands.add(new Object[] { AttrType.FIELDNO, 0, AttrType.COLNAME, "NumSeats" });
+        operands.add(new Object[] { AttrType.COLNAME, "FirstName", AttrType.STRING, "Adnan" });
+        operands.add(new Object[] { AttrType.STRING, "Walid", AttrType.COLNAME, "FirstName" });
+        operands.add(new Object[] { AttrType.COLNAME, "FirstName", AttrType.COLNAME, "LastName" });
+        operands.add(new Object[] { AttrType.INTEGER, 3, AttrType.INTEGER, 4 });
+        ArrayList<Tuple> tuples = new ArrayList<Tuple>();
+        FileScan scan = new FileScan(s_driversBig, f_driversBig);
+        while (scan.hasNext()) {
+            tuples.add(scan.getNext());
+        }
+        scan.close();
+        for (int oper : opers) {
+            for (Object[] op : operands) {
+                Predicate pred = new Predicate(oper, (Integer) op[0], op[1], (Integer) op[2], op[3]);
+                String before = pred.toString();
+                CompiledPredicate compiled = pred.compile(s_driversBig);
+                assertTrue("FAILURE: compiling changed " + before, pred.toString().equals(before));
+                for (Tuple tuple : tuples) {
+                    assertTrue("FAILURE: compiled " + before + " disagrees on " + tuple,
+                            compiled.evaluate(tuple) == pred.evaluate(tuple));
+                }
+            }
+        }
+
+        //Invalid predicates don't compile
+        try {
+            new Predicate(AttrOperator.EQ, AttrType.COLNAME, "Age", AttrType.INTEGER, 20).compile(s_drivers);
+            fail("FAILURE: compiled a predicate of incompatible types");
+        } catch (IllegalArgumentException exc) {
+            // expected
+        }
+
+        //One compiled predicate can be shared by threads
+        final CompiledPredicate shared = new Predicate(AttrOperator.LTE, AttrType.COLNAME, "Age",
+                AttrType.FLOAT, 19f).compile(s_driversBig);
+        int expected = 0;
+        for (Tuple tuple : tuples) {
+            expected += shared.evaluate(tuple) ? 1 : 0;
+        }
+        final ArrayList<Tuple> rows = tuples;
+        final int[] counts = new int[4];
+        Thread[] threads = new Thread[counts.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int slot = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    for (Tuple tuple : rows) {
+                        counts[slot] += shared.evaluate(tuple) ? 1 : 0;
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+            assertTrue("FAILURE: shared compiled predicate disagreed", counts[0] == expected);
+        }
+        for (int count : counts) {
+            assertTrue("FAILURE: shared compiled predicate counted " + count + ", should be " + expected,
+                    count == expected);
+        }
+    }
+
+    @Test
+    public void testCompiledScan() {
+        //A compiled scan returns what the interpreted pipeline does
+        Predicate[][] preds = {
+                { new Predicate(AttrOperator.GT, AttrType.COLNAME, "Age", AttrType.FLOAT, 20f),
+                        new Predicate(AttrOperator.EQ, AttrType.COLNAME, "FirstName", AttrType.STRING, "Adnan") },
+                { new Predicate(AttrOperator.GTE, AttrType.COLNAME, "NumSeats", AttrType.INTEGER, 3) } };
+        Integer[] fields = { s_driversBig.fieldNumber("FirstName"), s_driversBig.fieldNumber("LastName"),
+                s_driversBig.fieldNumber("Age") };
+        CompiledScan compiled = CompiledScan.compile(s_driversBig, f_driversBig, preds, fields);
+        assertTrue("FAILURE: the scan did not compile", compiled != null);
+        Iterator interpreted = new Projection(new Selection(new Selection(
+                new FileScan(s_driversBig, f_driversBig), preds[0]), preds[1]), fields);
+        ArrayList<String> expected = rowStrings(interpreted);
+        assertTrue("FAILURE: no rows to compare", expected.size() > 0);
+        assertTrue("FAILURE: compiled scan disagrees", rowStrings(compiled).equals(expected));
+        compiled.restart();
+        assertTrue("FAILURE: compiled scan disagrees after restart", rowStrings(compiled).equals(expected));
+        compiled.close();
+        interpreted.close();
+        assertTrue("FAILURE: compiled scan still open", !compiled.isOpen());
+
+        //Without predicates or projection, every row is returned
+        compiled = CompiledScan.compile(s_driversBig, f_driversBig, new Predicate[0][]);
+        assertTrue("FAILURE: compiled scan lost rows", rowStrings(compiled).size() == 1010);
+        compiled.close();
+
+        //Invalid predicates don't compile
+        try {
+            CompiledScan.compile(s_drivers, f_drivers, new Predicate[][] {
+                    { new Predicate(AttrOperator.EQ, AttrType.COLNAME, "Nope", AttrType.INTEGER, 1) } });
+            fail("FAILURE: compiled a predicate of an unknown column");
+        } catch (IllegalArgumentException exc) {
+            // expected
+        }
+    }
+
+    /**
+     * Iterator that throws an Error on its input's first tuple.
+     */
+    private static class FailingIterator extends Iterator {
+
+        private Iterator input;
+
+        FailingIterator(Iterator input) {
+            this.input = input;
+            this.schema = input.getSchema();
+        }
+
+        public void explain(int depth) {
+            input.explain(depth);
+        }
+
+        public void restart() {
+            input.restart();
+        }
+
+        public boolean isOpen() {
+            return input.isOpen();
+        }
+
+        public void close() {
+            input.close();
+        }
+
+        public boolean hasNext() {
+            if (input.hasNext()) {
+                throw new StackOverflowError();
+            }
+            return false;
+        }
+
+        public Tuple getNext() {
+            throw new IllegalStateException("no more tuples");
+        }
+
+    } // private static class FailingIterator extends Iterator
+
+    /**
+     * Reads the rest of an iterator's rows as strings, in order.
+     */
+    private static ArrayList<String> rowStrings(Iterator iter) {
+        ArrayList<String> rows = new ArrayList<String>();
+        while (iter.hasNext()) {
+            rows.add(Arrays.toString(iter.getNext().getAllFields()));
+        }
+        return rows;
+    }
+
     @Test
     public void testProjection() {
         //Projection on Drivers: {FirstName, NumSeats}
@@ -260,6 +450,55 @@ public class ROTest extends TestDriver {
         execute_and_compare("Projection", "projection", projection);
     }
 
+    @Test
+    public void testCopyPlan() {
+        //Joined and projected tuples copy bytes, but have the same fields as setField gives
+        Schema joined = Schema.join(s_drivers, s_rides);
+        CopyPlan join = CopyPlan.join(s_drivers, s_rides, joined);
+        CopyPlan project = CopyPlan.project(s_drivers, s_drivers.fieldNumber("Age"),
+                s_drivers.fieldNumber("FirstName"), s_drivers.fieldNumber("LastName"));
+        FileScan drivers = new FileScan(s_drivers, f_drivers);
+        FileScan rides = new FileScan(s_rides, f_rides);
+        Tuple ride = rides.getNext();
+        int count = 0;
+        while (drivers.hasNext()) {
+            Tuple driver = drivers.getNext();
+            Object[] fields = new Object[joined.getCount()];
+            System.arraycopy(driver.getAllFields(), 0, fields, 0, s_drivers.getCount());
+            System.arraycopy(ride.getAllFields(), 0, fields, s_drivers.getCount(), s_rides.getCount());
+            Object[] expected = new Tuple(joined, fields).getAllFields();
+            assertTrue("FAILURE: joined tuple differs",
+                    Arrays.equals(join.join(driver, ride).getAllFields(), expected));
+            assertTrue("FAILURE: Tuple.join differs",
+                    Arrays.equals(Tuple.join(driver, ride, joined).getAllFields(), expected));
+            Tuple projected = project.project(driver);
+            assertTrue("FAILURE: projected tuple differs",
+                    projected.getField(0).equals(driver.getField("Age"))
+                            && projected.getField(1).equals(driver.getField("FirstName"))
+                            && projected.getField(2).equals(driver.getField("LastName")));
+            count++;
+        }
+        drivers.close();
+        rides.close();
+        assertTrue("FAILURE: no tuples to compare", count > 0);
+        assertTrue("FAILURE: projected schema differs",
+                project.getSchema().fieldName(1).equals("FirstName") && project.getSchema().getCount() == 3);
+
+        //Schemas that aren't concatenated, and invalid fields, have no plan
+        try {
+            CopyPlan.join(s_rides, s_drivers, joined);
+            fail("FAILURE: planned a join into the wrong schema");
+        } catch (IllegalArgumentException exc) {
+            // expected
+        }
+        try {
+            CopyPlan.project(s_drivers, s_drivers.getCount());
+            fail("FAILURE: planned a projection of an unknown field");
+        } catch (IllegalArgumentException exc) {
+            // expected
+        }
+    }
+
     @Test
     public void testHashJoin() {
         //HashJoin on Drivers X Rides on DriverID
@@ -268,6 +507,352 @@ public class ROTest extends TestDriver {
         execute_and_compare("Hash Join", "hashjoin", hashjoin);
     }
 
+    @Test
+    public void testHashJoinKeyTypes() {
+        //Join drivers with themselves on each key type, against a nested-loop count
+        String[] columns = {"DriverId", "Age", "FirstName"};
+        for (String column : columns) {
+            int col = s_drivers.fieldNumber(column);
+            int expected = 0;
+            FileScan outer = new FileScan(s_drivers, f_drivers);
+            while (outer.hasNext()) {
+                Object key = outer.getNext().getField(col);
+                FileScan inner = new FileScan(s_drivers, f_drivers);
+                while (inner.hasNext()) {
+                    if (key.equals(inner.getNext().getField(col))) {
+                        expected++;
+                    }
+                }
+                inner.close();
+            }
+            outer.close();
+            Iterator hashjoin = new HashJoin(new FileScan(s_drivers, f_drivers),
+                    new FileScan(s_drivers, f_drivers), col, col);
+            int count = 0;
+            while (hashjoin.hasNext()) {
+                Tuple tuple = hashjoin.getNext();
+                assertTrue("FAILURE: HashJoin on " + column + " joined different keys",
+                        tuple.getField(col).equals(tuple.getField(s_drivers.getCount() + col)));
+                count++;
+            }
+            hashjoin.close();
+            assertTrue("FAILURE: HashJoin on " + column + " returned " + count
+                    + " tuples, should be " + expected, count == expected);
+
+            //probing a batch at a time finds the same matches
+            hashjoin = new BatchAdapter(new HashJoin(new FileScan(s_drivers, f_drivers),
+                    new FileScan(s_drivers, f_drivers), col, col), 3);
+            count = rowStrings(hashjoin).size();
+            hashjoin.close();
+            assertTrue("FAILURE: batched HashJoin on " + column + " returned " + count
+                    + " tuples, should be " + expected, count == expected);
+        }
+
+        //Keys of different types never match
+        Iterator hashjoin = new HashJoin(new FileScan(s_drivers, f_drivers),
+                new FileScan(s_drivers, f_drivers), s_drivers.fieldNumber("DriverId"),
+                s_drivers.fieldNumber("Age"));
+        assertTrue("FAILURE: HashJoin matched keys of different types", !hashjoin.hasNext());
+        hashjoin.close();
+    }
+
+    @Test
+    public void testBlockNestedLoopJoin() {
+        //The Simple Join plans, a block of one page at a time
+        Iterator sel_bnl = new Selection(new BlockNestedLoopJoin(new FileScan(s_drivers, f_drivers),
+                new FileScan(s_rides, f_rides), 1, new Predicate(AttrOperator.EQ, AttrType.FIELDNO, 0, AttrType.FIELDNO, 5)),
+                new Predicate(AttrOperator.EQ, AttrType.COLNAME, "FirstName", AttrType.STRING, "Walid"));
+        execute_and_compare("Block Nested-Loop Join - Selection", "sel_sj", sel_bnl);
+        Iterator proj_bnl = new Projection(new BlockNestedLoopJoin(new FileScan(s_drivers, f_drivers),
+                new FileScan(s_rides, f_rides), 1, new Predicate(AttrOperator.EQ, AttrType.FIELDNO, 0, AttrType.FIELDNO, 5)),
+                0, 3);
+        execute_and_compare("Block Nested-Loop Join - Projection", "proj_sj", proj_bnl);
+
+        //A non-equi join of the big table with drivers scans drivers once per block
+        int blockTuples = 2 * GlobalConst.PAGE_SIZE / s_driversBig.getLength();
+        BlockNestedLoopJoin bnl = new BlockNestedLoopJoin(new FileScan(s_driversBig, f_driversBig),
+                new FileScan(s_drivers, f_drivers), 2,
+                new Predicate(AttrOperator.LT, AttrType.FIELDNO, 3, AttrType.FIELDNO, s_driversBig.getCount() + 3));
+        int count = 0;
+        while (bnl.hasNext()) {
+            Tuple tuple = bnl.getNext();
+            assertTrue("FAILURE: Block Nested-Loop Join returned a non-matching tuple",
+                    tuple.getFloatFld(3) < tuple.getFloatFld(s_driversBig.getCount() + 3));
+            count++;
+        }
+        bnl.close();
+        int blocks = (f_driversBig.getRecCnt() + blockTuples - 1) / blockTuples;
+        assertTrue("FAILURE: Block Nested-Loop Join scanned its inner " + bnl.getInnerScans()
+                + " times, should be " + blocks, bnl.getInnerScans() == blocks);
+        assertTrue("FAILURE: Block Nested-Loop Join returned no tuples", count > 0);
+    }
+
+    @Test
+    public void testLateMaterialization() {
+        //The Simple Join projection, joining only the join columns and RIDs
+        LateScan drivers = new LateScan(s_drivers, f_drivers, "drivers", 0);
+        LateScan rides = new LateScan(s_rides, f_rides, "rides", 0);
+        Iterator join = new BlockNestedLoopJoin(drivers, rides, 1,
+                new Predicate(AttrOperator.EQ, AttrType.FIELDNO, 0, AttrType.FIELDNO, 3));
+        assertTrue("FAILURE: late join tuples are not narrower",
+                join.getSchema().getLength() < Schema.join(s_drivers, s_rides).getLength());
+        Materialize proj_late = new Materialize(join, new LateScan[] { drivers, rides },
+                new int[] { 0, 0 }, new int[] { 0, 3 });
+        execute_and_compare("Late Materialization - Projection", "proj_sj", proj_late);
+        assertTrue("FAILURE: Materialize fetched no records", proj_late.getRecordsFetched() > 0);
+
+        //Columns of both tables match the interpreted projection
+        drivers = new LateScan(s_drivers, f_drivers, "drivers", 0);
+        rides = new LateScan(s_rides, f_rides, "rides", 0);
+        Materialize late = new Materialize(new BlockNestedLoopJoin(drivers, rides, 1,
+                new Predicate(AttrOperator.EQ, AttrType.FIELDNO, 0, AttrType.FIELDNO, 3)),
+                new LateScan[] { drivers, rides }, new int[] { 0, 1 }, new int[] { 2, 2 });
+        Iterator early = new Projection(new BlockNestedLoopJoin(new FileScan(s_drivers, f_drivers),
+                new FileScan(s_rides, f_rides), 1,
+                new Predicate(AttrOperator.EQ, AttrType.FIELDNO, 0, AttrType.FIELDNO, 5)),
+                2, s_drivers.getCount() + 2);
+        ArrayList<String> expected = rowStrings(early);
+        assertTrue("FAILURE: no rows to compare", expected.size() > 0);
+        assertTrue("FAILURE: late materialization disagrees", rowStrings(late).equals(expected));
+        assertTrue("FAILURE: Materialize fetched " + late.getRecordsFetched() + " records, should be "
+                + 2 * expected.size(), late.getRecordsFetched() == 2 * expected.size());
+        late.close();
+        early.close();
+
+        //The input must have the RIDs of the tables materialized
+        drivers = new LateScan(s_drivers, f_drivers, "drivers", 0);
+        try {
+            new Materialize(drivers, new LateScan[] { rides }, new int[] { 0 }, new int[] { 0 });
+            fail("FAILURE: materialized a table without its RID");
+        } catch (IllegalArgumentException exc) {
+            // expected
+        }
+        drivers.close();
+    }
+
+    @Test
+    public void testExchange() {
+        int unpinned = Minibase.BufferManager.getNumUnpinned();
+        int workers = 4;
+        Predicate adult = new Predicate(AttrOperator.GT, AttrType.COLNAME, "Age", AttrType.FLOAT, 18F);
+
+        //Selections on workers fed round-robin return the serial selection's rows
+        Exchange dealt = new Repartition(new FileScan(s_driversBig, f_driversBig), workers);
+        Iterator[] selections = new Iterator[workers];
+        for (int w = 0; w < workers; w++) {
+            selections[w] = new Selection(dealt.getConsumer(w), adult);
+        }
+        Gather gather = new Gather(new Exchange[] { dealt }, selections);
+        Iterator serial = new Selection(new FileScan(s_driversBig, f_driversBig), adult);
+        ArrayList<String> expected = rowStrings(serial);
+        ArrayList<String> actual = rowStrings(gather);
+        serial.close();
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertTrue("FAILURE: no rows to compare", expected.size() > 0);
+        assertTrue("FAILURE: parallel selection disagrees", actual.equals(expected));
+
+        //Restarting runs the workers again
+        gather.restart();
+        actual = rowStrings(gather);
+        Collections.sort(actual);
+        assertTrue("FAILURE: restarted Gather disagrees", actual.equals(expected));
+        gather.close();
+
+        //Aggregates of groups repartitioned by their column match the serial ones,
+        //whether the workers hold every group or pass back those over budget
+        int name = s_driversBig.fieldNumber("FirstName");
+        Aggregate[] aggs = { new Aggregate(Aggregate.COUNT, null), new Aggregate(Aggregate.AVG, "Age") };
+        serial = new HashAggregate(new FileScan(s_driversBig, f_driversBig), new int[] { name }, aggs);
+        expected = rowStrings(serial);
+        serial.close();
+        Collections.sort(expected);
+        for (long budget : new long[] { TempSpace.DEFAULT_MEMORY, 256 }) {
+            Exchange byName = new Repartition(new FileScan(s_driversBig, f_driversBig), workers, name);
+            Iterator[] inputs = new Iterator[workers];
+            for (int w = 0; w < workers; w++) {
+                inputs[w] = byName.getConsumer(w);
+            }
+            ParallelAggregate agg = new ParallelAggregate(new Exchange[] { byName }, inputs,
+                    new int[] { name }, budget, aggs);
+            actual = rowStrings(agg);
+            Collections.sort(actual);
+            assertTrue("FAILURE: parallel aggregate (" + budget + " bytes) disagrees", actual.equals(expected));
+            assertTrue("FAILURE: workers passed back " + agg.getTuplesPassed() + " tuples with "
+                    + budget + " bytes", (agg.getTuplesPassed() > 0) == (budget < TempSpace.DEFAULT_MEMORY));
+            agg.close();
+        }
+
+        //Hash joins of repartitioned or broadcast inputs match the serial join
+        serial = new HashJoin(new FileScan(s_driversBig, f_driversBig), new FileScan(s_ridesBig, f_ridesBig), 0, 0);
+        expected = rowStrings(serial);
+        serial.close();
+        Collections.sort(expected);
+        assertTrue("FAILURE: no joined rows to compare", expected.size() > 0);
+        for (boolean broadcast : new boolean[] { false, true }) {
+            FileScan buildScan = new FileScan(s_driversBig, f_driversBig);
+            Exchange build = broadcast ? new Broadcast(buildScan, workers)
+                    : new Repartition(buildScan, workers, 0);
+            Exchange probe = new Repartition(new FileScan(s_ridesBig, f_ridesBig), workers,
+                    broadcast ? new int[0] : new int[] { 0 });
+            Iterator[] joins = new Iterator[workers];
+            for (int w = 0; w < workers; w++) {
+                joins[w] = new HashJoin(build.getConsumer(w), probe.getConsumer(w), 0, 0);
+            }
+            gather = new Gather(new Exchange[] { build, probe }, joins);
+            actual = rowStrings(gather);
+            Collections.sort(actual);
+            assertTrue("FAILURE: parallel join (broadcast " + broadcast + ") disagrees", actual.equals(expected));
+
+            //the joins keep their hash tables, so a restart only rescans the probe side
+            gather.restart();
+            assertTrue("FAILURE: restarted Gather didn't close the build scan", !buildScan.isOpen());
+            actual = rowStrings(gather);
+            gather.close();
+            Collections.sort(actual);
+            assertTrue("FAILURE: restarted parallel join (broadcast " + broadcast + ") disagrees",
+                    actual.equals(expected));
+
+            //a restart after a few tuples, while other joins may still be building, loses no rows
+            build = broadcast ? new Broadcast(new FileScan(s_driversBig, f_driversBig), workers)
+                    : new Repartition(new FileScan(s_driversBig, f_driversBig), workers, 0);
+            probe = new Repartition(new FileScan(s_ridesBig, f_ridesBig), workers,
+                    broadcast ? new int[0] : new int[] { 0 });
+            for (int w = 0; w < workers; w++) {
+                joins[w] = new HashJoin(build.getConsumer(w), probe.getConsumer(w), 0, 0);
+            }
+            gather = new Gather(new Exchange[] { build, probe }, joins);
+            for (int i = 0; i < 3 && gather.hasNext(); i++) {
+                gather.getNext();
+            }
+            gather.restart();
+            actual = rowStrings(gather);
+            gather.close();
+            Collections.sort(actual);
+            assertTrue("FAILURE: parallel join (broadcast " + broadcast + ") restarted early disagrees",
+                    actual.equals(expected));
+        }
+
+        //An Error on a worker is rethrown, rather than leaving the Gather waiting
+        dealt = new Repartition(new FileScan(s_driversBig, f_driversBig), workers);
+        for (int w = 0; w < workers; w++) {
+            selections[w] = new FailingIterator(dealt.getConsumer(w));
+        }
+        gather = new Gather(new Exchange[] { dealt }, selections);
+        try {
+            rowStrings(gather);
+            fail("FAILURE: Gather didn't rethrow a worker's Error");
+        } catch (StackOverflowError exc) {
+            // expected
+        }
+        gather.close();
+
+        //A limit stops the workers and the scan early
+        FileScan scan = new FileScan(s_driversBig, f_driversBig);
+        dealt = new Repartition(scan, workers);
+        for (int w = 0; w < workers; w++) {
+            selections[w] = new Selection(dealt.getConsumer(w), adult);
+        }
+        Limit limit = new Limit(new Gather(new Exchange[] { dealt }, selections), 5);
+        assertTrue("FAILURE: Limit over Gather returned the wrong number of rows", rowStrings(limit).size() == 5);
+        limit.close();
+        assertTrue("FAILURE: Gather didn't close its scan", !scan.isOpen());
+        assertTrue("FAILURE: Gather leaked pins", Minibase.BufferManager.getNumUnpinned() == unpinned);
+    }
+
+    @Test
+    public void testMergeJoin() {
+        //Unsorted inputs are sorted first
+        int unpinned = Minibase.BufferManager.getNumUnpinned();
+        execute_and_compare("Merge Join", "hashjoin", new MergeJoin(new FileScan(s_drivers, f_drivers),
+                new FileScan(s_rides, f_rides), 0, 0));
+        execute_and_compare("Merge Join on Big Tables", "hashEqual", new MergeJoin(
+                new FileScan(s_driversBig, f_driversBig), new FileScan(s_driversBig, f_driversBig), 0, 0));
+
+        //Sorted inputs are used as is
+        execute_and_compare("Merge Join - Sorted Inputs", "hashjoin", new MergeJoin(
+                new Sort(new FileScan(s_drivers, f_drivers), new SortKey(0, false)),
+                new Sort(new FileScan(s_rides, f_rides), new SortKey(0, false)), 0, 0, true));
+
+        //Long runs of duplicates (1001 big drivers with 10 seats) spill, and match the hash join's output
+        int col = s_drivers.fieldNumber("NumSeats");
+        MergeJoin merge = new MergeJoin(new FileScan(s_drivers, f_drivers),
+                new FileScan(s_driversBig, f_driversBig), col, col, false, 4L * s_driversBig.getLength());
+        Iterator hash = new HashJoin(new FileScan(s_drivers, f_drivers),
+                new FileScan(s_driversBig, f_driversBig), col, col);
+        ArrayList<String> res = new ArrayList<String>();
+        ArrayList<String> sol = new ArrayList<String>();
+        while (merge.hasNext()) {
+            res.add(merge.getNext().toString());
+        }
+        while (hash.hasNext()) {
+            sol.add(hash.getNext().toString());
+        }
+        merge.close();
+        hash.close();
+        Collections.sort(res);
+        Collections.sort(sol);
+        assertTrue("FAILURE: Merge Join on duplicates returned " + res.size() + " tuples, should be "
+                + sol.size(), !sol.isEmpty() && res.equals(sol));
+        assertTrue("FAILURE: Merge Join didn't spill a run", merge.getRunsSpilled() > 0);
+        assertTrue("FAILURE: Merge Join leaked pins", Minibase.BufferManager.getNumUnpinned() == unpinned);
+    }
+
+    @Test
+    public void testIndexNestedLoopJoin() {
+        //Drivers probe the big drivers' index on Age, and match the hash join's output
+        int unpinned = Minibase.BufferManager.getNumUnpinned();
+        int col = s_drivers.fieldNumber("Age");
+        IndexNestedLoopJoin inlj = new IndexNestedLoopJoin(new FileScan(s_drivers, f_drivers), col,
+                s_driversBig, col, idx_driversBig, 2);
+        Iterator hash = new HashJoin(new FileScan(s_drivers, f_drivers),
+                new FileScan(s_driversBig, f_driversBig), col, col);
+        ArrayList<String> res = new ArrayList<String>();
+        ArrayList<String> sol = new ArrayList<String>();
+        while (inlj.hasNext()) {
+            res.add(inlj.getNext().toString());
+        }
+        while (hash.hasNext()) {
+            sol.add(hash.getNext().toString());
+        }
+        inlj.close();
+        hash.close();
+        Collections.sort(res);
+        Collections.sort(sol);
+        assertTrue("FAILURE: Index Nested-Loop Join returned " + res.size() + " tuples, should be "
+                + sol.size(), !sol.isEmpty() && res.equals(sol));
+        assertTrue("FAILURE: Index Nested-Loop Join pinned " + inlj.getPagesPinned()
+                + " pages for " + res.size() + " tuples", inlj.getPagesPinned() < res.size());
+        assertTrue("FAILURE: Index Nested-Loop Join leaked pins",
+                Minibase.BufferManager.getNumUnpinned() == unpinned);
+
+        //Keys of another type match nothing
+        Iterator none = new IndexNestedLoopJoin(new FileScan(s_drivers, f_drivers), 0,
+                s_driversBig, col, idx_driversBig);
+        assertTrue("FAILURE: Index Nested-Loop Join matched keys of another type", !none.hasNext());
+        none.close();
+    }
+
+    @Test
+    public void testHashJoinPipelined() {
+        //Nothing is read until the first hasNext, which probes only until a match
+        FileScan drivers = new FileScan(s_drivers, f_drivers);
+        FileScan rides = new FileScan(s_rides, f_rides);
+        Iterator hashjoin = new HashJoin(drivers, rides, 0, 0);
+        assertTrue("FAILURE: HashJoin built its table in the constructor", drivers.isOpen());
+        assertTrue("FAILURE: HashJoin found no first tuple", hashjoin.hasNext());
+        assertTrue("FAILURE: HashJoin drained its right input", rides.hasNext());
+        hashjoin.close();
+
+        //Restarting keeps the table and probes again
+        hashjoin = new HashJoin(new FileScan(s_drivers, f_drivers), new FileScan(s_rides, f_rides), 0, 0);
+        while (hashjoin.hasNext()) {
+            hashjoin.getNext();
+        }
+        hashjoin.restart();
+        execute_and_compare("Hash Join - Restarted", "hashjoin", hashjoin);
+    }
+
     @Test
     public void testSelectionPipelining() {
         //Test all possible Iterator inputs to Selection
@@ -362,4 +947,407 @@ public class ROTest extends TestDriver {
         execute_and_compare("Hash Join", "hashEqual", hashEqual);
     }
 
+    @Test
+    public void testBatchPipelining() {
+        //Run the same plans a batch at a time, with batches that split the inputs unevenly
+        execute_and_compare("Batch - FileScan", "filescan",
+                new BatchAdapter(new FileScan(s_drivers, f_drivers), 3));
+        execute_and_compare("Batch - Selection", "selection", new BatchAdapter(new Selection(
+                new FileScan(s_drivers, f_drivers),
+                new Predicate(AttrOperator.GT, AttrType.COLNAME, "age", AttrType.FLOAT, 20F)), 3));
+        execute_and_compare("Batch - Selection Multiple Predicates", "selection_preds",
+                new BatchAdapter(new Selection(new FileScan(s_drivers, f_drivers),
+                        new Predicate(AttrOperator.GT, AttrType.COLNAME, "age", AttrType.FLOAT, 23F),
+                        new Predicate(AttrOperator.LT, AttrType.COLNAME, "age", AttrType.FLOAT, 19F)), 2));
+        execute_and_compare("Batch - Projection", "projection", new BatchAdapter(new Projection(
+                new FileScan(s_drivers, f_drivers), s_drivers.fieldNumber("FirstName"),
+                s_drivers.fieldNumber("NumSeats")), 4));
+        execute_and_compare("Batch - Hash Join", "hashjoin", new BatchAdapter(new HashJoin(
+                new FileScan(s_drivers, f_drivers), new FileScan(s_rides, f_rides), 0, 0), 5));
+        execute_and_compare("Batch - Pipelining Hash Join", "sel_jh", new BatchAdapter(new Selection(
+                new HashJoin(new FileScan(s_drivers, f_drivers), new FileScan(s_rides, f_rides), 0, 0),
+                new Predicate(AttrOperator.EQ, AttrType.COLNAME, "FirstName", AttrType.STRING, "Walid")), 3));
+        execute_and_compare("Batch - Pipelining Projection/Hash Join", "hj_proj_hj", new BatchAdapter(
+                new HashJoin(new Projection(new FileScan(s_drivers, f_drivers),
+                        s_drivers.fieldNumber("DriverId"), s_drivers.fieldNumber("Age")),
+                        new HashJoin(new FileScan(s_rides, f_rides), new FileScan(s_groups, f_groups), 1, 0),
+                        0, 0), 2));
+        execute_and_compare("Batch - Pipelining IndexScan", "proj_idx", new BatchAdapter(new Projection(
+                new IndexScan(s_drivers, idx_drivers, f_drivers),
+                s_drivers.fieldNumber("DriverId"), s_drivers.fieldNumber("Age")), 3));
+        execute_and_compare("Batch - Hash Join on Big Tables", "hashEqual", new BatchAdapter(new HashJoin(
+                new FileScan(s_driversBig, f_driversBig), new FileScan(s_driversBig, f_driversBig), 0, 0)));
+    }
+
+    @Test
+    public void testColumnScan() {
+        //Copy drivers into a columnar file and scan only the needed columns
+        ColumnarFile c_drivers = new ColumnarFile("drivers_col", s_drivers);
+        FileScan fscan = new FileScan(s_drivers, f_drivers);
+        while (fscan.hasNext()) {
+            c_drivers.insertRecord(fscan.getNext().getData());
+        }
+        fscan.close();
+        assertTrue("FAILURE: columnar file has " + c_drivers.getRecCnt() + " records",
+                c_drivers.getRecCnt() == f_drivers.getRecCnt());
+
+        int[] all = new int[s_drivers.getCount()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        execute_and_compare("ColumnScan", "filescan", new ColumnScan(c_drivers, all));
+        execute_and_compare("ColumnScan - Projection", "projection", new ColumnScan(c_drivers,
+                new int[]{s_drivers.fieldNumber("FirstName"), s_drivers.fieldNumber("NumSeats")}));
+        execute_and_compare("ColumnScan - Selection", "selection", new ColumnScan(c_drivers, all,
+                new Predicate[]{new Predicate(AttrOperator.GT, AttrType.COLNAME, "age", AttrType.FLOAT, 20F)}));
+        execute_and_compare("ColumnScan - Projection/Selection", "proj_sel", new ColumnScan(c_drivers,
+                new int[]{s_drivers.fieldNumber("DriverId"), s_drivers.fieldNumber("Age")},
+                new Predicate[]{new Predicate(AttrOperator.EQ, AttrType.COLNAME, "Age", AttrType.FLOAT, 20F)}));
+
+        //Reopen the file, append to it, and check every value of the big table
+        ColumnarFile c_big = new ColumnarFile("driversBig_col", s_driversBig);
+        fscan = new FileScan(s_driversBig, f_driversBig);
+        while (fscan.hasNext()) {
+            c_big.insertRecord(fscan.getNext().getData());
+        }
+        fscan.close();
+        c_big.flush();
+        c_big = new ColumnarFile("driversBig_col", s_driversBig);
+        Tuple extra = new Tuple(s_driversBig);
+        c_big.insertRecord(extra.getData());
+        int[] allBig = new int[s_driversBig.getCount()];
+        for (int i = 0; i < allBig.length; i++) {
+            allBig[i] = i;
+        }
+        ColumnScan cscan = new ColumnScan(c_big, allBig);
+        fscan = new FileScan(s_driversBig, f_driversBig);
+        while (fscan.hasNext()) {
+            assertTrue("FAILURE: ColumnScan ended early", cscan.hasNext());
+            assertTrue("FAILURE: ColumnScan returned a different record",
+                    Arrays.equals(fscan.getNext().getData(), cscan.getNext().getData()));
+        }
+        assertTrue("FAILURE: ColumnScan lost the appended record",
+                Arrays.equals(extra.getData(), cscan.getNext().getData()) && !cscan.hasNext());
+        fscan.close();
+        cscan.close();
+        c_big.deleteFile();
+        c_drivers.deleteFile();
+    }
+
+    @Test
+    public void testTempSpace() {
+        //Fill one file within the budget and spill another past it
+        int unpinned = Minibase.BufferManager.getNumUnpinned();
+        TempSpace space = new TempSpace(10L * s_driversBig.getLength());
+        TempFile small = space.createFile(s_drivers);
+        TempFile big = space.createFile(s_driversBig);
+        FileScan fscan = new FileScan(s_drivers, f_drivers);
+        while (fscan.hasNext()) {
+            small.add(fscan.getNext());
+        }
+        fscan.close();
+        assertTrue("FAILURE: small temp file spilled", !small.isSpilled());
+        fscan = new FileScan(s_driversBig, f_driversBig);
+        while (fscan.hasNext()) {
+            big.add(fscan.getNext());
+        }
+        fscan.close();
+        assertTrue("FAILURE: big temp file didn't spill", big.isSpilled()
+                && space.getSpillCount() == 1 && space.getPagesUsed() > 0);
+        assertTrue("FAILURE: temp space over budget: " + space,
+                space.getPeakMemory() <= space.getMemoryBudget());
+
+        //Both files read back in order, twice
+        execute_and_compare("TempFile - memory", "filescan", small.openScan());
+        Iterator tscan = big.openScan();
+        for (int pass = 0; pass < 2; pass++) {
+            fscan = new FileScan(s_driversBig, f_driversBig);
+            while (fscan.hasNext()) {
+                assertTrue("FAILURE: TempFile scan ended early", tscan.hasNext());
+                assertTrue("FAILURE: TempFile scan returned a different record",
+                        Arrays.equals(fscan.getNext().getData(), tscan.getNext().getData()));
+            }
+            assertTrue("FAILURE: TempFile scan returned extra records", !tscan.hasNext());
+            fscan.close();
+            tscan.restart();
+        }
+        tscan.close();
+
+        //Closing frees everything
+        small.close();
+        space.close();
+        assertTrue("FAILURE: temp space not freed: " + space,
+                space.getMemoryUsed() == 0 && space.getPagesUsed() == 0);
+        assertTrue("FAILURE: temp space leaked pins",
+                Minibase.BufferManager.getNumUnpinned() == unpinned);
+    }
+
+    @Test
+    public void testHybridHashJoin() {
+        //Fits in memory: nothing spills
+        int unpinned = Minibase.BufferManager.getNumUnpinned();
+        HybridHashJoin join = new HybridHashJoin(new FileScan(s_drivers, f_drivers),
+                new FileScan(s_rides, f_rides), 0, 0);
+        execute_and_compare("Hybrid Hash Join", "hashjoin", join);
+        assertTrue("FAILURE: hybrid hash join spilled in memory",
+                join.getPartitionsSpilled() == 0 && join.getMaxDepth() == 0);
+
+        //A budget of two drivers spills most partitions
+        join = new HybridHashJoin(new FileScan(s_drivers, f_drivers),
+                new FileScan(s_rides, f_rides), 0, 0, 2L * s_drivers.getLength());
+        execute_and_compare("Hybrid Hash Join - Spilled", "hashjoin", join);
+        assertTrue("FAILURE: hybrid hash join didn't spill", join.getPartitionsSpilled() > 0);
+
+        //On the big tables, spilled partitions are still too large and split again
+        join = new HybridHashJoin(new FileScan(s_driversBig, f_driversBig),
+                new FileScan(s_driversBig, f_driversBig), 0, 0, 8L * s_driversBig.getLength());
+        execute_and_compare("Hybrid Hash Join on Big Tables", "hashEqual", join);
+        assertTrue("FAILURE: hybrid hash join didn't recurse: depth " + join.getMaxDepth(),
+                join.getMaxDepth() >= 2);
+        assertTrue("FAILURE: hybrid hash join leaked pins",
+                Minibase.BufferManager.getNumUnpinned() == unpinned);
+    }
+
+    @Test
+    public void testDistinct() {
+        //Distinct first names and ages of the big drivers match a set built from a scan
+        int unpinned = Minibase.BufferManager.getNumUnpinned();
+        int name = s_driversBig.fieldNumber("FirstName");
+        int age = s_driversBig.fieldNumber("Age");
+        HashSet<String> expected = new HashSet<String>();
+        FileScan scan = new FileScan(s_driversBig, f_driversBig);
+        while (scan.hasNext()) {
+            Tuple tuple = scan.getNext();
+            expected.add(tuple.getField(name) + "|" + tuple.getField(age));
+        }
+        scan.close();
+        for (long budget : new long[] { TempSpace.DEFAULT_MEMORY, 64 }) {
+            Distinct distinct = new Distinct(new Projection(new FileScan(s_driversBig, f_driversBig),
+                    name, age), budget);
+            ArrayList<String> res = new ArrayList<String>();
+            while (distinct.hasNext()) {
+                Tuple tuple = distinct.getNext();
+                res.add(tuple.getField(0) + "|" + tuple.getField(1));
+            }
+            distinct.close();
+            assertTrue("FAILURE: Distinct returned " + res.size() + " tuples, should be " + expected.size(),
+                    res.size() == expected.size() && expected.containsAll(res));
+            assertTrue("FAILURE: Distinct spilled " + distinct.getPartitionsSpilled() + " partitions",
+                    (budget == 64) == (distinct.getPartitionsSpilled() > 0));
+        }
+
+        //Distinct is pipelined: the first tuple comes before the input is read
+        FileScan big = new FileScan(s_driversBig, f_driversBig);
+        Iterator first = new Limit(new Distinct(big), 1);
+        assertTrue("FAILURE: Distinct returned no tuple", first.hasNext() && first.getNext() != null);
+        assertTrue("FAILURE: Distinct didn't stop under a Limit", !first.hasNext() && !big.isOpen());
+        first.close();
+        assertTrue("FAILURE: Distinct leaked pins",
+                Minibase.BufferManager.getNumUnpinned() == unpinned);
+    }
+
+    @Test
+    public void testHashAggregate() {
+        //Aggregates per first name match those computed from a scan
+        int unpinned = Minibase.BufferManager.getNumUnpinned();
+        int name = s_driversBig.fieldNumber("FirstName");
+        int age = s_driversBig.fieldNumber("Age");
+        int seats = s_driversBig.fieldNumber("NumSeats");
+        int last = s_driversBig.fieldNumber("LastName");
+        HashMap<String, Object[]> expected = new HashMap<String, Object[]>();
+        FileScan scan = new FileScan(s_driversBig, f_driversBig);
+        while (scan.hasNext()) {
+            Tuple tuple = scan.getNext();
+            Object[] acc = expected.get(tuple.getStringFld(name));
+            if (acc == null) {
+                acc = new Object[] { 0, 0, 0.0, tuple.getFloatFld(age), tuple.getStringFld(last) };
+                expected.put(tuple.getStringFld(name), acc);
+            }
+            acc[0] = (Integer) acc[0] + 1;
+            acc[1] = (Integer) acc[1] + tuple.getIntFld(seats);
+            acc[2] = (Double) acc[2] + tuple.getFloatFld(age);
+            acc[3] = Math.min((Float) acc[3], tuple.getFloatFld(age));
+            if (tuple.getStringFld(last).compareTo((String) acc[4]) > 0) {
+                acc[4] = tuple.getStringFld(last);
+            }
+        }
+        scan.close();
+        HashAggregate agg = new HashAggregate(new FileScan(s_driversBig, f_driversBig), new int[] { name },
+                new Aggregate(Aggregate.COUNT, null), new Aggregate(Aggregate.SUM, "NumSeats"),
+                new Aggregate(Aggregate.AVG, "Age"), new Aggregate(Aggregate.MIN, "Age"),
+                new Aggregate(Aggregate.MAX, "LastName"));
+        int groups = 0;
+        while (agg.hasNext()) {
+            Tuple tuple = agg.getNext();
+            Object[] acc = expected.get(tuple.getStringFld(0));
+            assertTrue("FAILURE: HashAggregate returned a wrong group " + tuple, acc != null
+                    && tuple.getIntFld(1) == (Integer) acc[0] && tuple.getIntFld(2) == (Integer) acc[1]
+                    && Math.abs(tuple.getFloatFld(3) - (Double) acc[2] / (Integer) acc[0]) < 1e-3
+                    && tuple.getFloatFld(4) == (Float) acc[3] && tuple.getStringFld(5).equals(acc[4]));
+            groups++;
+        }
+        agg.close();
+        assertTrue("FAILURE: HashAggregate returned " + groups + " groups, should be " + expected.size(),
+                groups == expected.size());
+        assertTrue("FAILURE: HashAggregate spilled in memory", agg.getPartitionsSpilled() == 0);
+
+        //A budget of a few groups spills and splits partitions again, and matches a streaming aggregate
+        HashAggregate spilled = new HashAggregate(new FileScan(s_driversBig, f_driversBig), new int[] { 0 },
+                4L * s_driversBig.getLength(), new Aggregate(Aggregate.COUNT, null),
+                new Aggregate(Aggregate.MAX, "Age"));
+        Iterator stream = new StreamAggregate(new Sort(new FileScan(s_driversBig, f_driversBig),
+                new SortKey(0, false)), new int[] { 0 }, new Aggregate(Aggregate.COUNT, null),
+                new Aggregate(Aggregate.MAX, "Age"));
+        ArrayList<String> res = new ArrayList<String>();
+        ArrayList<String> sol = new ArrayList<String>();
+        while (spilled.hasNext()) {
+            res.add(spilled.getNext().toString());
+        }
+        while (stream.hasNext()) {
+            sol.add(stream.getNext().toString());
+        }
+        spilled.close();
+        stream.close();
+        Collections.sort(res);
+        Collections.sort(sol);
+        assertTrue("FAILURE: spilled HashAggregate returned " + res.size() + " groups, should be "
+                + sol.size(), !sol.isEmpty() && res.equals(sol));
+        assertTrue("FAILURE: HashAggregate didn't split spilled partitions: depth " + spilled.getMaxDepth(),
+                spilled.getPartitionsSpilled() > 0 && spilled.getMaxDepth() >= 2);
+
+        //Groups of a string and a float column, spilled, match a streaming aggregate too
+        spilled = new HashAggregate(new FileScan(s_driversBig, f_driversBig), new int[] { name, age },
+                4L * s_driversBig.getLength(), new Aggregate(Aggregate.COUNT, null));
+        stream = new StreamAggregate(new Sort(new FileScan(s_driversBig, f_driversBig),
+                new SortKey(name, false), new SortKey(age, false)), new int[] { name, age },
+                new Aggregate(Aggregate.COUNT, null));
+        res = rowStrings(spilled);
+        sol = rowStrings(stream);
+        spilled.close();
+        stream.close();
+        Collections.sort(res);
+        Collections.sort(sol);
+        assertTrue("FAILURE: HashAggregate on two columns returned " + res.size() + " groups, should be "
+                + sol.size(), !sol.isEmpty() && res.equals(sol) && spilled.getPartitionsSpilled() > 0);
+
+        //Without group columns, an empty input is one group
+        Iterator none = new HashAggregate(new Selection(new FileScan(s_drivers, f_drivers),
+                new Predicate(AttrOperator.GT, AttrType.COLNAME, "Age", AttrType.FLOAT, 1000f)),
+                new int[0], new Aggregate(Aggregate.COUNT, null));
+        assertTrue("FAILURE: HashAggregate of nothing returned no group", none.hasNext()
+                && none.getNext().getIntFld(0) == 0 && !none.hasNext());
+        none.close();
+        assertTrue("FAILURE: HashAggregate leaked pins",
+                Minibase.BufferManager.getNumUnpinned() == unpinned);
+    }
+
+    @Test
+    public void testSort() {
+        //Sort drivers in memory on two keys, ascending then descending
+        int unpinned = Minibase.BufferManager.getNumUnpinned();
+        Sort sort = new Sort(new FileScan(s_drivers, f_drivers),
+                new SortKey("NumSeats", false), new SortKey("Age", true));
+        assertSorted("Sort - Multiple Keys", sort, f_drivers.getRecCnt());
+        assertTrue("FAILURE: in-memory Sort wrote runs", sort.getRunCount() == 0);
+        execute_and_compare("Sort", "filescan", new Sort(new FileScan(s_drivers, f_drivers),
+                new SortKey(0, true)));
+
+        //Sort the big table on last name with a budget of 10 tuples: many runs, merged in passes
+        sort = new Sort(new FileScan(s_driversBig, f_driversBig), 10L * s_driversBig.getLength(),
+                new SortKey("LastName", false), new SortKey(0, false));
+        assertSorted("Sort - External", sort, f_driversBig.getRecCnt());
+        assertTrue("FAILURE: external Sort wrote " + sort.getRunCount() + " runs in "
+                + sort.getMergePasses() + " passes", sort.getRunCount() > 1 && sort.getMergePasses() > 0);
+        sort.restart();
+        assertSorted("Sort - Restarted", sort, f_driversBig.getRecCnt());
+        sort.close();
+        assertTrue("FAILURE: Sort leaked pins", Minibase.BufferManager.getNumUnpinned() == unpinned);
+    }
+
+    @Test
+    public void testLimit() {
+        //Limit stops the scan as soon as it has its tuples
+        int unpinned = Minibase.BufferManager.getNumUnpinned();
+        FileScan fscan = new FileScan(s_driversBig, f_driversBig);
+        Iterator limit = new Limit(new Selection(fscan,
+                new Predicate(AttrOperator.GT, AttrType.COLNAME, "Age", AttrType.FLOAT, 18F)), 5, 3);
+        int n = 0;
+        while (limit.hasNext()) {
+            assertTrue("FAILURE: Limit returned a filtered tuple",
+                    limit.getNext().getFloatFld(s_driversBig.fieldNumber("Age")) > 18F);
+            n++;
+        }
+        assertTrue("FAILURE: Limit returned " + n + " tuples, should be 5", n == 5);
+        assertTrue("FAILURE: Limit didn't close its input", !fscan.isOpen());
+        limit.close();
+        assertTrue("FAILURE: Limit leaked pins", Minibase.BufferManager.getNumUnpinned() == unpinned);
+        execute_and_compare("Limit - Past the End", "filescan",
+                new Limit(new FileScan(s_drivers, f_drivers), 100));
+
+        //TopN returns the same tuples as sorting everything, then skipping and limiting
+        SortKey[] keys = {new SortKey("Age", true), new SortKey("DriverId", false)};
+        int[][] cases = {{10, 0}, {7, 5}, {0, 3}, {2000, 0}, {5, 1005}};
+        for (int[] c : cases) {
+            TopN topn = new TopN(new FileScan(s_driversBig, f_driversBig), c[0], c[1], keys);
+            Limit sorted = new Limit(new Sort(new FileScan(s_driversBig, f_driversBig), keys), c[0], c[1]);
+            while (sorted.hasNext()) {
+                assertTrue("FAILURE: TopN " + c[0] + "/" + c[1] + " ended early", topn.hasNext());
+                assertTrue("FAILURE: TopN " + c[0] + "/" + c[1] + " returned a different tuple",
+                        Arrays.equals(sorted.getNext().getData(), topn.getNext().getData()));
+            }
+            assertTrue("FAILURE: TopN " + c[0] + "/" + c[1] + " returned extra tuples", !topn.hasNext());
+            topn.close();
+            sorted.close();
+        }
+        assertTrue("FAILURE: TopN leaked pins", Minibase.BufferManager.getNumUnpinned() == unpinned);
+    }
+
+    /**
+     * Checks that a sort returns the given number of tuples, in order.
+     */
+    private void assertSorted(String testDesc, Sort sort, int count) {
+        Tuple last = null;
+        int n = 0;
+        while (sort.hasNext()) {
+            Tuple tuple = sort.getNext();
+            assertTrue("FAILURE: " + testDesc + " out of order at tuple " + n,
+                    last == null || sort.compare(last, tuple) <= 0);
+            last = tuple;
+            n++;
+        }
+        assertTrue("FAILURE: " + testDesc + " returned " + n + " tuples, should be " + count, n == count);
+    }
+
+    @Test
+    public void testVariableRecords() {
+        //Copy drivers into a file of variable-length records, with an index on age
+        Schema s_var = new Schema(s_drivers.getCount());
+        for (int i = 0; i < s_var.getCount(); i++) {
+            s_var.initField(i, s_drivers, i);
+        }
+        s_var.setVariable(true);
+        HeapFile f_var = new HeapFile("drivers_var");
+        HashIndex idx_var = new HashIndex("drivers_var_idx");
+        FileScan fscan = new FileScan(s_drivers, f_drivers);
+        int fixedBytes = 0;
+        int varBytes = 0;
+        while (fscan.hasNext()) {
+            Tuple tuple = new Tuple(s_var, fscan.getNext().getData());
+            fixedBytes += tuple.getData().length;
+            varBytes += tuple.getRecord().length;
+            idx_var.insertEntry(new SearchKey(tuple.getField("Age")), tuple.insertIntoFile(f_var));
+        }
+        fscan.close();
+        assertTrue("FAILURE: variable-length records take " + varBytes + " bytes, fixed "
+                + fixedBytes, varBytes < fixedBytes);
+
+        //Every access path decodes the records
+        execute_and_compare("FileScan - variable", "filescan", new FileScan(s_var, f_var));
+        execute_and_compare("IndexScan - variable", "idxscan", new IndexScan(s_var, idx_var, f_var));
+        execute_and_compare("KeyScan - variable", "keyscan",
+                new KeyScan(s_var, idx_var, new SearchKey(20f), f_var));
+        idx_var.deleteFile();
+        f_var.deleteFile();
+    }
+
 } // class ROTest extends TestDriver
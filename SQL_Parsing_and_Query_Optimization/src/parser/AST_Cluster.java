@@ -0,0 +1,36 @@
+package parser;
+
+/**
+ * AST node for CLUSTER statements.
+ */
+public class AST_Cluster extends SimpleNode {
+
+  public AST_Cluster(int id) {
+    super(id);
+  }
+
+  public AST_Cluster(MiniSql p, int id) {
+    super(p, id);
+  }
+
+  /** Name of the table to cluster. */
+  protected String fileName;
+
+  /** Name of the column to cluster on. */
+  protected String columnName;
+
+  /**
+   * Gets the name of the table to cluster.
+   */
+  public String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * Gets the name of the column to cluster on.
+   */
+  public String getColumnName() {
+    return columnName;
+  }
+
+} // public class AST_Cluster extends SimpleNode
@@ -19,6 +19,15 @@ public class AST_CreateTable extends SimpleNode implements GlobalConst {
   /** Name of the table to create. */
   protected String fileName;
 
+  /** True if the table is stored by column (USING COLUMNAR); false otherwise. */
+  public boolean isColumnar = false;
+
+  /**
+   * True if the table's records are stored in the variable-length format
+   * (USING VARIABLE); false otherwise.
+   */
+  public boolean isVariable = false;
+
   /**
    * Gets the name of the table to create.
    */
@@ -0,0 +1,16 @@
+package parser;
+
+/**
+ * AST node for GROUP BY clauses.
+ */
+public class AST_GroupBy extends AST_IdentList {
+
+  public AST_GroupBy(int id) {
+    super(id);
+  }
+
+  public AST_GroupBy(MiniSql p, int id) {
+    super(p, id);
+  }
+
+} // public class AST_GroupBy extends AST_IdentList
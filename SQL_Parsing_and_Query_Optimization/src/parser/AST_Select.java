@@ -4,6 +4,7 @@ import global.SortKey;
 
 import java.util.ArrayList;
 
+import relop.Aggregate;
 import relop.Predicate;
 
 /**
@@ -25,8 +26,15 @@ public class AST_Select extends SimpleNode {
   /** True if this is a DISTINCT selection; false otherwise. */
   public boolean isDistinct = false;
 
+  /** Maximum number of rows (LIMIT), or -1 if unlimited. */
+  public int limit = -1;
+
+  /** Number of rows to skip before the first one returned (OFFSET). */
+  public int offset = 0;
+
   /**
-   * Gets the column names in the projection list (length 0 if '*').
+   * Gets the column names in the projection list (length 0 if '*'); the
+   * aggregates are named by their result columns, e.g. "SUM(Age)".
    */
   public String[] getColumns() {
     return ((AST_IdentList) children[0]).getNames();
@@ -39,6 +47,16 @@ public class AST_Select extends SimpleNode {
     return ((AST_IdentList) children[1]).getNames();
   }
 
+  /**
+   * Gets the aggregate functions in the projection list.
+   */
+  public Aggregate[] getAggregates() {
+    if (children[0] instanceof AST_SelectList) {
+      return ((AST_SelectList) children[0]).getAggregates();
+    }
+    return new Aggregate[0];
+  }
+
   /**
    * Gets the WHERE clause predicates in Conjunctive Normal Form (a.k.a. product
    * of sums, i.e. AND expression of OR expressions).
@@ -46,7 +64,7 @@ public class AST_Select extends SimpleNode {
   public Predicate[][] getPredicates() {
 
     // special case: no predicates
-    if ((children.length < 3) || (children[2] instanceof AST_OrderBy)) {
+    if ((children.length < 3) || !(children[2] instanceof AST_OrExpr)) {
       return new Predicate[0][];
     }
 
@@ -55,18 +73,26 @@ public class AST_Select extends SimpleNode {
 
   } // public Predicate[][] getPredicates()
 
+  /**
+   * Gets the columns to group by.
+   */
+  public String[] getGroups() {
+    for (int i = 2; i < children.length; i++) {
+      if (children[i] instanceof AST_GroupBy) {
+        return ((AST_GroupBy) children[i]).getNames();
+      }
+    }
+    return new String[0];
+  }
+
   /**
    * Gets the columns to sort on.
    */
   public SortKey[] getOrders() {
 
-    // find order by clause, if any
-    int ix = 0;
-    if ((children.length == 3) && (children[2] instanceof AST_OrderBy)) {
-      ix = 2;
-    } else if (children.length == 4) {
-      ix = 3;
-    } else {
+    // find order by clause, if any (it is always the last)
+    int ix = children.length - 1;
+    if ((ix < 2) || !(children[ix] instanceof AST_OrderBy)) {
       // special case: no order by clause
       return new SortKey[0];
     }
@@ -0,0 +1,39 @@
+package parser;
+
+import java.util.ArrayList;
+
+import relop.Aggregate;
+
+/**
+ * Dynamic list of the columns and aggregates of a SELECT clause.
+ */
+public class AST_SelectList extends AST_IdentList {
+
+  public AST_SelectList(int id) {
+    super(id);
+  }
+
+  public AST_SelectList(MiniSql p, int id) {
+    super(p, id);
+  }
+
+  /** Aggregate functions, in the order they appear. */
+  protected ArrayList<Aggregate> aggregates = new ArrayList<Aggregate>();
+
+  /**
+   * Adds an aggregate of the given column (or null for '*'); its result
+   * column, e.g. "SUM(Age)", goes in the list of names.
+   */
+  protected void addAggregate(String function, String column) {
+    names.add(function.toUpperCase() + "(" + (column == null ? "*" : column) + ")");
+    aggregates.add(new Aggregate(Aggregate.valueOf(function), column));
+  }
+
+  /**
+   * Gets the aggregate functions.
+   */
+  public Aggregate[] getAggregates() {
+    return aggregates.toArray(new Aggregate[aggregates.size()]);
+  }
+
+} // public class AST_SelectList extends AST_IdentList
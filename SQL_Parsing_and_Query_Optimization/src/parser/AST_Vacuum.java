@@ -0,0 +1,26 @@
+package parser;
+
+/**
+ * AST node for VACUUM statements.
+ */
+public class AST_Vacuum extends SimpleNode {
+
+  public AST_Vacuum(int id) {
+    super(id);
+  }
+
+  public AST_Vacuum(MiniSql p, int id) {
+    super(p, id);
+  }
+
+  /** Name of the table to vacuum. */
+  protected String fileName;
+
+  /**
+   * Gets the name of the table to vacuum.
+   */
+  public String getFileName() {
+    return fileName;
+  }
+
+} // public class AST_Vacuum extends SimpleNode
@@ -63,6 +63,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     jjtc000 = false;
     jjtn000.isQuit = true; {if (true) return jjtn000;}
         break;
+      case K_CLUSTER:
       case K_CREATE:
       case K_DELETE:
       case K_DESCRIBE:
@@ -71,6 +72,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
       case K_INSERT:
       case K_SELECT:
       case K_UPDATE:
+      case K_VACUUM:
         SqlStatement();
         jj_consume_token(O_SEMI);
     jjtree.closeNodeScope(jjtn000, true);
@@ -121,6 +123,12 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
           case K_DROP:
             DropIndexStmt();
             break;
+          case K_CLUSTER:
+            ClusterStmt();
+            break;
+          case K_VACUUM:
+            VacuumStmt();
+            break;
           case K_DESCRIBE:
             DescribeStatement();
             break;
@@ -160,6 +168,28 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
       jj_consume_token(O_LPAREN);
       ColumnList();
       jj_consume_token(O_RPAREN);
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case K_USING:
+        jj_consume_token(K_USING);
+        switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+        case K_COLUMNAR:
+          jj_consume_token(K_COLUMNAR);
+                              jjtn000.isColumnar = true;
+          break;
+        case K_VARIABLE:
+          jj_consume_token(K_VARIABLE);
+                              jjtn000.isVariable = true;
+          break;
+        default:
+          jj_la1[3] = jj_gen;
+          jj_consume_token(-1);
+          throw new ParseException();
+        }
+        break;
+      default:
+        jj_la1[4] = jj_gen;
+        ;
+      }
     } catch (Throwable jjte000) {
     if (jjtc000) {
       jjtree.clearNodeScope(jjtn000);
@@ -243,6 +273,45 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     }
   }
 
+  final public void ClusterStmt() throws ParseException {
+                                /*@bgen(jjtree) _Cluster */
+  AST_Cluster jjtn000 = new AST_Cluster(JJT_CLUSTER);
+  boolean jjtc000 = true;
+  jjtree.openNodeScope(jjtn000);
+    try {
+      jj_consume_token(K_CLUSTER);
+      jj_consume_token(S_IDENTIFIER);
+   jjtn000.fileName = token.image;
+      jj_consume_token(K_ON);
+      jj_consume_token(S_IDENTIFIER);
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+   jjtn000.columnName = token.image;
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+  }
+
+  final public void VacuumStmt() throws ParseException {
+                              /*@bgen(jjtree) _Vacuum */
+  AST_Vacuum jjtn000 = new AST_Vacuum(JJT_VACUUM);
+  boolean jjtc000 = true;
+  jjtree.openNodeScope(jjtn000);
+    try {
+      jj_consume_token(K_VACUUM);
+      jj_consume_token(S_IDENTIFIER);
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+   jjtn000.fileName = token.image;
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+  }
+
   final public void DescribeStatement() throws ParseException {
                                        /*@bgen(jjtree) _Describe */
   AST_Describe jjtn000 = new AST_Describe(JJT_DESCRIBE);
@@ -308,7 +377,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
                 jjtn000.isExplain = true;
         break;
       default:
-        jj_la1[3] = jj_gen;
+        jj_la1[5] = jj_gen;
         ;
       }
       jj_consume_token(K_SELECT);
@@ -318,7 +387,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
                             jjtn000.isDistinct = true;
         break;
       default:
-        jj_la1[4] = jj_gen;
+        jj_la1[6] = jj_gen;
         ;
       }
       SelectClause();
@@ -328,7 +397,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         WhereClause();
         break;
       default:
-        jj_la1[5] = jj_gen;
+        jj_la1[7] = jj_gen;
+        ;
+      }
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case K_GROUP:
+        GroupByClause();
+        break;
+      default:
+        jj_la1[8] = jj_gen;
         ;
       }
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
@@ -336,7 +413,27 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         OrderByClause();
         break;
       default:
-        jj_la1[6] = jj_gen;
+        jj_la1[9] = jj_gen;
+        ;
+      }
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case K_LIMIT:
+        jj_consume_token(K_LIMIT);
+        jj_consume_token(S_INTEGER);
+                           jjtn000.limit = Integer.parseInt(token.image);
+        switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+        case K_OFFSET:
+          jj_consume_token(K_OFFSET);
+          jj_consume_token(S_INTEGER);
+                              jjtn000.offset = Integer.parseInt(token.image);
+          break;
+        default:
+          jj_la1[10] = jj_gen;
+          ;
+        }
+        break;
+      default:
+        jj_la1[11] = jj_gen;
         ;
       }
     } catch (Throwable jjte000) {
@@ -376,7 +473,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         WhereClause();
         break;
       default:
-        jj_la1[7] = jj_gen;
+        jj_la1[12] = jj_gen;
         ;
       }
     } catch (Throwable jjte000) {
@@ -412,7 +509,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         jj_consume_token(K_FROM);
         break;
       default:
-        jj_la1[8] = jj_gen;
+        jj_la1[13] = jj_gen;
         ;
       }
       jj_consume_token(S_IDENTIFIER);
@@ -422,7 +519,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         WhereClause();
         break;
       default:
-        jj_la1[9] = jj_gen;
+        jj_la1[14] = jj_gen;
         ;
       }
     } catch (Throwable jjte000) {
@@ -465,7 +562,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
           ;
           break;
         default:
-          jj_la1[10] = jj_gen;
+          jj_la1[15] = jj_gen;
           break label_1;
         }
         jj_consume_token(O_COMMA);
@@ -527,12 +624,12 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
           jj_consume_token(O_RPAREN);
           break;
         default:
-          jj_la1[11] = jj_gen;
+          jj_la1[16] = jj_gen;
           ;
         }
         break;
       default:
-        jj_la1[12] = jj_gen;
+        jj_la1[17] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -544,8 +641,8 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
   }
 
   final public void SelectClause() throws ParseException {
-                                   /*@bgen(jjtree) _IdentList */
-  AST_IdentList jjtn000 = new AST_IdentList(JJT_IDENTLIST);
+                                    /*@bgen(jjtree) _SelectList */
+  AST_SelectList jjtn000 = new AST_SelectList(JJT_SELECTLIST);
   boolean jjtc000 = true;
   jjtree.openNodeScope(jjtn000);
     try {
@@ -553,9 +650,13 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
       case O_STAR:
         jj_consume_token(O_STAR);
         break;
+      case K_AVG:
+      case K_COUNT:
+      case K_MAX:
+      case K_MIN:
+      case K_SUM:
       case S_IDENTIFIER:
-        jj_consume_token(S_IDENTIFIER);
-                  jjtn000.names.add(token.image);
+        SelectItem(jjtn000);
         label_2:
         while (true) {
           switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
@@ -563,19 +664,32 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
             ;
             break;
           default:
-            jj_la1[13] = jj_gen;
+            jj_la1[18] = jj_gen;
             break label_2;
           }
           jj_consume_token(O_COMMA);
-          jj_consume_token(S_IDENTIFIER);
-                              jjtn000.names.add(token.image);
+          SelectItem(jjtn000);
         }
         break;
       default:
-        jj_la1[14] = jj_gen;
+        jj_la1[19] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
+    } catch (Throwable jjte000) {
+    if (jjtc000) {
+      jjtree.clearNodeScope(jjtn000);
+      jjtc000 = false;
+    } else {
+      jjtree.popNode();
+    }
+    if (jjte000 instanceof RuntimeException) {
+      {if (true) throw (RuntimeException)jjte000;}
+    }
+    if (jjte000 instanceof ParseException) {
+      {if (true) throw (ParseException)jjte000;}
+    }
+    {if (true) throw (Error)jjte000;}
     } finally {
     if (jjtc000) {
       jjtree.closeNodeScope(jjtn000, true);
@@ -583,6 +697,67 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     }
   }
 
+  final public void SelectItem(AST_SelectList list) throws ParseException {
+                                        String function;
+    switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+    case S_IDENTIFIER:
+      jj_consume_token(S_IDENTIFIER);
+                  list.names.add(token.image);
+      break;
+    case K_COUNT:
+      jj_consume_token(K_COUNT);
+      jj_consume_token(O_LPAREN);
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case O_STAR:
+        jj_consume_token(O_STAR);
+              list.addAggregate("COUNT", null);
+        break;
+      case S_IDENTIFIER:
+        jj_consume_token(S_IDENTIFIER);
+                    list.addAggregate("COUNT", token.image);
+        break;
+      default:
+        jj_la1[20] = jj_gen;
+        jj_consume_token(-1);
+        throw new ParseException();
+      }
+      jj_consume_token(O_RPAREN);
+      break;
+    case K_AVG:
+    case K_MAX:
+    case K_MIN:
+    case K_SUM:
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case K_SUM:
+        jj_consume_token(K_SUM);
+        break;
+      case K_AVG:
+        jj_consume_token(K_AVG);
+        break;
+      case K_MIN:
+        jj_consume_token(K_MIN);
+        break;
+      case K_MAX:
+        jj_consume_token(K_MAX);
+        break;
+      default:
+        jj_la1[21] = jj_gen;
+        jj_consume_token(-1);
+        throw new ParseException();
+      }
+   function = token.image;
+      jj_consume_token(O_LPAREN);
+      jj_consume_token(S_IDENTIFIER);
+                             list.addAggregate(function, token.image);
+      jj_consume_token(O_RPAREN);
+      break;
+    default:
+      jj_la1[22] = jj_gen;
+      jj_consume_token(-1);
+      throw new ParseException();
+    }
+  }
+
   final public void FromClause() throws ParseException {
                                  /*@bgen(jjtree) _IdentList */
   AST_IdentList jjtn000 = new AST_IdentList(JJT_IDENTLIST);
@@ -599,7 +774,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
           ;
           break;
         default:
-          jj_la1[15] = jj_gen;
+          jj_la1[23] = jj_gen;
           break label_3;
         }
         jj_consume_token(O_COMMA);
@@ -618,6 +793,37 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     SqlExpression();
   }
 
+  final public void GroupByClause() throws ParseException {
+                                  /*@bgen(jjtree) _GroupBy */
+  AST_GroupBy jjtn000 = new AST_GroupBy(JJT_GROUPBY);
+  boolean jjtc000 = true;
+  jjtree.openNodeScope(jjtn000);
+    try {
+      jj_consume_token(K_GROUP);
+      jj_consume_token(K_BY);
+      jj_consume_token(S_IDENTIFIER);
+                  jjtn000.names.add(token.image);
+      label_4:
+      while (true) {
+        switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+        case O_COMMA:
+          ;
+          break;
+        default:
+          jj_la1[24] = jj_gen;
+          break label_4;
+        }
+        jj_consume_token(O_COMMA);
+        jj_consume_token(S_IDENTIFIER);
+                              jjtn000.names.add(token.image);
+      }
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+  }
+
   final public void OrderByClause() throws ParseException {
                                   /*@bgen(jjtree) _OrderBy */
   AST_OrderBy jjtn000 = new AST_OrderBy(JJT_ORDERBY);
@@ -634,18 +840,18 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
              jjtn000.setDesc();
         break;
       default:
-        jj_la1[16] = jj_gen;
+        jj_la1[25] = jj_gen;
         ;
       }
-      label_4:
+      label_5:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
         case O_COMMA:
           ;
           break;
         default:
-          jj_la1[17] = jj_gen;
-          break label_4;
+          jj_la1[26] = jj_gen;
+          break label_5;
         }
         jj_consume_token(O_COMMA);
         jj_consume_token(S_IDENTIFIER);
@@ -656,7 +862,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
                jjtn000.setDesc();
           break;
         default:
-          jj_la1[18] = jj_gen;
+          jj_la1[27] = jj_gen;
           ;
         }
       }
@@ -677,15 +883,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
    jjtn000.names.add(token.image);
       jj_consume_token(O_EQ);
       SqlValueExpression();
-      label_5:
+      label_6:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
         case O_COMMA:
           ;
           break;
         default:
-          jj_la1[19] = jj_gen;
-          break label_5;
+          jj_la1[28] = jj_gen;
+          break label_6;
         }
         jj_consume_token(O_COMMA);
         jj_consume_token(S_IDENTIFIER);
@@ -724,15 +930,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
   jjtree.openNodeScope(jjtn000);
     try {
       SqlAndExpression();
-      label_6:
+      label_7:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
         case K_OR:
           ;
           break;
         default:
-          jj_la1[20] = jj_gen;
-          break label_6;
+          jj_la1[29] = jj_gen;
+          break label_7;
         }
         jj_consume_token(K_OR);
         SqlAndExpression();
@@ -765,15 +971,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
   jjtree.openNodeScope(jjtn000);
     try {
       SqlRelationalExpression();
-      label_7:
+      label_8:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
         case K_AND:
           ;
           break;
         default:
-          jj_la1[21] = jj_gen;
-          break label_7;
+          jj_la1[30] = jj_gen;
+          break label_8;
         }
         jj_consume_token(K_AND);
         SqlRelationalExpression();
@@ -851,7 +1057,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
       jj_consume_token(O_LTE);
       break;
     default:
-      jj_la1[22] = jj_gen;
+      jj_la1[31] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -882,7 +1088,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
    jjtn000.children = null;
         break;
       default:
-        jj_la1[23] = jj_gen;
+        jj_la1[32] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -936,7 +1142,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
    jjtn000.value = token.image.substring(1, token.image.length() - 1);
         break;
       default:
-        jj_la1[24] = jj_gen;
+        jj_la1[33] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -949,15 +1155,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
 
   final public void SqlValueExpressionList() throws ParseException {
     SqlValueExpression();
-    label_8:
+    label_9:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
       case O_COMMA:
         ;
         break;
       default:
-        jj_la1[25] = jj_gen;
-        break label_8;
+        jj_la1[34] = jj_gen;
+        break label_9;
       }
       jj_consume_token(O_COMMA);
       SqlValueExpression();
@@ -978,25 +1184,25 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     finally { jj_save(1, xla); }
   }
 
-  final private boolean jj_3R_9() {
-    if (jj_scan_token(K_CREATE)) return true;
-    if (jj_scan_token(K_TABLE)) return true;
+  final private boolean jj_3_2() {
+    if (jj_3R_11()) return true;
     return false;
   }
 
   final private boolean jj_3R_10() {
-    if (jj_scan_token(K_DROP)) return true;
+    if (jj_scan_token(K_CREATE)) return true;
     if (jj_scan_token(K_TABLE)) return true;
     return false;
   }
 
-  final private boolean jj_3_2() {
+  final private boolean jj_3_1() {
     if (jj_3R_10()) return true;
     return false;
   }
 
-  final private boolean jj_3_1() {
-    if (jj_3R_9()) return true;
+  final private boolean jj_3R_11() {
+    if (jj_scan_token(K_DROP)) return true;
+    if (jj_scan_token(K_TABLE)) return true;
     return false;
   }
 
@@ -1009,18 +1215,23 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
   public boolean lookingAhead = false;
   private boolean jj_semLA;
   private int jj_gen;
-  final private int[] jj_la1 = new int[26];
+  final private int[] jj_la1 = new int[35];
   static private int[] jj_la1_0;
   static private int[] jj_la1_1;
+  static private int[] jj_la1_2;
   static {
       jj_la1_0();
       jj_la1_1();
+      jj_la1_2();
    }
    private static void jj_la1_0() {
-      jj_la1_0 = new int[] {0xa608eb00,0x100,0x84086a00,0x4000,0x1000,0x0,0x1000000,0x0,0x20000,0x0,0x0,0x0,0x10110000,0x0,0x0,0x0,0x400,0x0,0x400,0x0,0x800000,0x40,0x0,0x0,0x0,0x0,};
+      jj_la1_0 = new int[] {0x10eb200,0x1000,0x106a200,0x400,0x0,0x40000,0x10000,0x0,0x400000,0x0,0x40000000,0x8000000,0x0,0x200000,0x0,0x0,0x0,0x2100000,0x0,0x30000880,0x0,0x30000080,0x30000880,0x0,0x0,0x4000,0x0,0x4000,0x0,0x0,0x40,0x0,0x0,0x0,0x0,};
    }
    private static void jj_la1_1() {
-      jj_la1_1 = new int[] {0x0,0x0,0x0,0x0,0x0,0x2,0x0,0x2,0x0,0x2,0x400,0x100,0x0,0x400,0x11000,0x400,0x0,0x400,0x0,0x400,0x0,0x0,0xfc,0x9a000,0x8a000,0x400,};
+      jj_la1_1 = new int[] {0xa4c,0x0,0xa08,0x2000,0x400,0x0,0x0,0x4000,0x0,0x2,0x0,0x0,0x4000,0x0,0x4000,0x800000,0x200000,0x20,0x800000,0x22000080,0x22000000,0x80,0x20000080,0x800000,0x800000,0x0,0x800000,0x0,0x800000,0x1,0x0,0x1f8000,0x34000000,0x14000000,0x800000,};
+   }
+   private static void jj_la1_2() {
+      jj_la1_2 = new int[] {0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x1,0x1,0x0,};
    }
   final private JJCalls[] jj_2_rtns = new JJCalls[2];
   private boolean jj_rescan = false;
@@ -1035,7 +1246,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 35; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1049,7 +1260,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     jj_ntk = -1;
     jjtree.reset();
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 35; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1059,7 +1270,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 35; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1070,7 +1281,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     jj_ntk = -1;
     jjtree.reset();
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 35; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1079,7 +1290,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 35; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1089,7 +1300,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     jj_ntk = -1;
     jjtree.reset();
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 35; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1200,15 +1411,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
 
   public ParseException generateParseException() {
     jj_expentries.removeAllElements();
-    boolean[] la1tokens = new boolean[54];
-    for (int i = 0; i < 54; i++) {
+    boolean[] la1tokens = new boolean[67];
+    for (int i = 0; i < 67; i++) {
       la1tokens[i] = false;
     }
     if (jj_kind >= 0) {
       la1tokens[jj_kind] = true;
       jj_kind = -1;
     }
-    for (int i = 0; i < 26; i++) {
+    for (int i = 0; i < 35; i++) {
       if (jj_la1[i] == jj_gen) {
         for (int j = 0; j < 32; j++) {
           if ((jj_la1_0[i] & (1<<j)) != 0) {
@@ -1217,10 +1428,13 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
           if ((jj_la1_1[i] & (1<<j)) != 0) {
             la1tokens[32+j] = true;
           }
+          if ((jj_la1_2[i] & (1<<j)) != 0) {
+            la1tokens[64+j] = true;
+          }
         }
       }
     }
-    for (int i = 0; i < 54; i++) {
+    for (int i = 0; i < 67; i++) {
       if (la1tokens[i]) {
         jj_expentry = new int[1];
         jj_expentry[0] = i;
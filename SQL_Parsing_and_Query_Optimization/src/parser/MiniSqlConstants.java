@@ -5,53 +5,66 @@ public interface MiniSqlConstants {
 
   int EOF = 0;
   int K_AND = 6;
-  int K_BY = 7;
-  int K_CREATE = 8;
-  int K_DELETE = 9;
-  int K_DESC = 10;
-  int K_DESCRIBE = 11;
-  int K_DISTINCT = 12;
-  int K_DROP = 13;
-  int K_EXPLAIN = 14;
-  int K_HELP = 15;
-  int K_FLOAT = 16;
-  int K_FROM = 17;
-  int K_INDEX = 18;
-  int K_INSERT = 19;
-  int K_INTEGER = 20;
-  int K_INTO = 21;
-  int K_ON = 22;
-  int K_OR = 23;
-  int K_ORDER = 24;
-  int K_QUIT = 25;
-  int K_SELECT = 26;
-  int K_SET = 27;
-  int K_STRING = 28;
-  int K_STATS = 29;
-  int K_TABLE = 30;
-  int K_UPDATE = 31;
-  int K_VALUES = 32;
-  int K_WHERE = 33;
-  int O_EQ = 34;
-  int O_NEQ = 35;
-  int O_GT = 36;
-  int O_GTE = 37;
-  int O_LT = 38;
-  int O_LTE = 39;
-  int O_LPAREN = 40;
-  int O_RPAREN = 41;
-  int O_COMMA = 42;
-  int O_SEMI = 43;
-  int O_STAR = 44;
-  int S_INTEGER = 45;
-  int DIGIT = 46;
-  int S_FLOAT = 47;
-  int S_IDENTIFIER = 48;
-  int LETTER = 49;
-  int SPECIAL_CHAR = 50;
-  int S_STRING = 51;
-  int LINE_COMMENT = 52;
-  int MULTI_LINE_COMMENT = 53;
+  int K_AVG = 7;
+  int K_BY = 8;
+  int K_CLUSTER = 9;
+  int K_COLUMNAR = 10;
+  int K_COUNT = 11;
+  int K_CREATE = 12;
+  int K_DELETE = 13;
+  int K_DESC = 14;
+  int K_DESCRIBE = 15;
+  int K_DISTINCT = 16;
+  int K_DROP = 17;
+  int K_EXPLAIN = 18;
+  int K_HELP = 19;
+  int K_FLOAT = 20;
+  int K_FROM = 21;
+  int K_GROUP = 22;
+  int K_INDEX = 23;
+  int K_INSERT = 24;
+  int K_INTEGER = 25;
+  int K_INTO = 26;
+  int K_LIMIT = 27;
+  int K_MAX = 28;
+  int K_MIN = 29;
+  int K_OFFSET = 30;
+  int K_ON = 31;
+  int K_OR = 32;
+  int K_ORDER = 33;
+  int K_QUIT = 34;
+  int K_SELECT = 35;
+  int K_SET = 36;
+  int K_STRING = 37;
+  int K_STATS = 38;
+  int K_SUM = 39;
+  int K_TABLE = 40;
+  int K_UPDATE = 41;
+  int K_USING = 42;
+  int K_VACUUM = 43;
+  int K_VALUES = 44;
+  int K_VARIABLE = 45;
+  int K_WHERE = 46;
+  int O_EQ = 47;
+  int O_NEQ = 48;
+  int O_GT = 49;
+  int O_GTE = 50;
+  int O_LT = 51;
+  int O_LTE = 52;
+  int O_LPAREN = 53;
+  int O_RPAREN = 54;
+  int O_COMMA = 55;
+  int O_SEMI = 56;
+  int O_STAR = 57;
+  int S_INTEGER = 58;
+  int DIGIT = 59;
+  int S_FLOAT = 60;
+  int S_IDENTIFIER = 61;
+  int LETTER = 62;
+  int SPECIAL_CHAR = 63;
+  int S_STRING = 64;
+  int LINE_COMMENT = 65;
+  int MULTI_LINE_COMMENT = 66;
 
   int DEFAULT = 0;
 
@@ -63,7 +76,11 @@ public interface MiniSqlConstants {
     "\"\\r\"",
     "\"\\n\"",
     "\"AND\"",
+    "\"AVG\"",
     "\"BY\"",
+    "\"CLUSTER\"",
+    "\"COLUMNAR\"",
+    "\"COUNT\"",
     "\"CREATE\"",
     "\"DELETE\"",
     "\"DESC\"",
@@ -74,10 +91,15 @@ public interface MiniSqlConstants {
     "\"HELP\"",
     "\"FLOAT\"",
     "\"FROM\"",
+    "\"GROUP\"",
     "\"INDEX\"",
     "\"INSERT\"",
     "\"INTEGER\"",
     "\"INTO\"",
+    "\"LIMIT\"",
+    "\"MAX\"",
+    "\"MIN\"",
+    "\"OFFSET\"",
     "\"ON\"",
     "\"OR\"",
     "\"ORDER\"",
@@ -86,9 +108,13 @@ public interface MiniSqlConstants {
     "\"SET\"",
     "\"STRING\"",
     "\"STATS\"",
+    "\"SUM\"",
     "\"TABLE\"",
     "\"UPDATE\"",
+    "\"USING\"",
+    "\"VACUUM\"",
     "\"VALUES\"",
+    "\"VARIABLE\"",
     "\"WHERE\"",
     "\"=\"",
     "\"<>\"",
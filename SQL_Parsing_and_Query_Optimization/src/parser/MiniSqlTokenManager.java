@@ -11,76 +11,76 @@ private final int jjStopStringLiteralDfa_0(int pos, long active0)
    switch (pos)
    {
       case 0:
-         if ((active0 & 0x3ffffffc0L) != 0L)
+         if ((active0 & 0x7fffffffffc0L) != 0L)
          {
-            jjmatchedKind = 48;
+            jjmatchedKind = 61;
             return 25;
          }
          return -1;
       case 1:
-         if ((active0 & 0x3fe3fff40L) != 0L)
+         if ((active0 & 0x7ffc7ffffec0L) != 0L)
          {
             if (jjmatchedPos != 1)
             {
-               jjmatchedKind = 48;
+               jjmatchedKind = 61;
                jjmatchedPos = 1;
             }
             return 25;
          }
-         if ((active0 & 0x1c00080L) != 0L)
+         if ((active0 & 0x380000100L) != 0L)
             return 25;
          return -1;
       case 2:
-         if ((active0 & 0x3f73fff00L) != 0L)
+         if ((active0 & 0x7f6e4ffffe00L) != 0L)
          {
-            jjmatchedKind = 48;
+            jjmatchedKind = 61;
             jjmatchedPos = 2;
             return 25;
          }
-         if ((active0 & 0x8000040L) != 0L)
+         if ((active0 & 0x90300000c0L) != 0L)
             return 25;
          return -1;
       case 3:
-         if ((active0 & 0x3f51d5300L) != 0L)
+         if ((active0 & 0x7f6a4bd53e00L) != 0L)
          {
             if (jjmatchedPos != 3)
             {
-               jjmatchedKind = 48;
+               jjmatchedKind = 61;
                jjmatchedPos = 3;
             }
             return 25;
          }
-         if ((active0 & 0x222ac00L) != 0L)
+         if ((active0 & 0x4042ac000L) != 0L)
             return 25;
          return -1;
       case 4:
-         if ((active0 & 0x194185b00L) != 0L)
+         if ((active0 & 0x454208d00800L) != 0L)
+            return 25;
+         if ((active0 & 0x3a284305b600L) != 0L)
          {
-            jjmatchedKind = 48;
+            jjmatchedKind = 61;
             jjmatchedPos = 4;
             return 25;
          }
-         if ((active0 & 0x261050000L) != 0L)
-            return 25;
          return -1;
       case 5:
-         if ((active0 & 0x105800L) != 0L)
+         if ((active0 & 0x200002058600L) != 0L)
          {
-            jjmatchedKind = 48;
+            jjmatchedKind = 61;
             jjmatchedPos = 5;
             return 25;
          }
-         if ((active0 & 0x194080300L) != 0L)
+         if ((active0 & 0x1a2841003000L) != 0L)
             return 25;
          return -1;
       case 6:
-         if ((active0 & 0x1800L) != 0L)
+         if ((active0 & 0x200000018400L) != 0L)
          {
-            jjmatchedKind = 48;
+            jjmatchedKind = 61;
             jjmatchedPos = 6;
             return 25;
          }
-         if ((active0 & 0x104000L) != 0L)
+         if ((active0 & 0x2040200L) != 0L)
             return 25;
          return -1;
       default :
@@ -110,68 +110,77 @@ private final int jjMoveStringLiteralDfa0_0()
    switch(curChar)
    {
       case 40:
-         return jjStopAtPos(0, 40);
+         return jjStopAtPos(0, 53);
       case 41:
-         return jjStopAtPos(0, 41);
+         return jjStopAtPos(0, 54);
       case 42:
-         return jjStopAtPos(0, 44);
+         return jjStopAtPos(0, 57);
       case 44:
-         return jjStopAtPos(0, 42);
+         return jjStopAtPos(0, 55);
       case 59:
-         return jjStopAtPos(0, 43);
+         return jjStopAtPos(0, 56);
       case 60:
-         jjmatchedKind = 38;
-         return jjMoveStringLiteralDfa1_0(0x8800000000L);
+         jjmatchedKind = 51;
+         return jjMoveStringLiteralDfa1_0(0x11000000000000L);
       case 61:
-         return jjStopAtPos(0, 34);
+         return jjStopAtPos(0, 47);
       case 62:
-         jjmatchedKind = 36;
-         return jjMoveStringLiteralDfa1_0(0x2000000000L);
+         jjmatchedKind = 49;
+         return jjMoveStringLiteralDfa1_0(0x4000000000000L);
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa1_0(0x40L);
+         return jjMoveStringLiteralDfa1_0(0xc0L);
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa1_0(0x80L);
+         return jjMoveStringLiteralDfa1_0(0x100L);
       case 67:
       case 99:
-         return jjMoveStringLiteralDfa1_0(0x100L);
+         return jjMoveStringLiteralDfa1_0(0x1e00L);
       case 68:
       case 100:
-         return jjMoveStringLiteralDfa1_0(0x3e00L);
+         return jjMoveStringLiteralDfa1_0(0x3e000L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa1_0(0x4000L);
+         return jjMoveStringLiteralDfa1_0(0x40000L);
       case 70:
       case 102:
-         return jjMoveStringLiteralDfa1_0(0x30000L);
+         return jjMoveStringLiteralDfa1_0(0x300000L);
+      case 71:
+      case 103:
+         return jjMoveStringLiteralDfa1_0(0x400000L);
       case 72:
       case 104:
-         return jjMoveStringLiteralDfa1_0(0x8000L);
+         return jjMoveStringLiteralDfa1_0(0x80000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa1_0(0x3c0000L);
+         return jjMoveStringLiteralDfa1_0(0x7800000L);
+      case 76:
+      case 108:
+         return jjMoveStringLiteralDfa1_0(0x8000000L);
+      case 77:
+      case 109:
+         return jjMoveStringLiteralDfa1_0(0x30000000L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa1_0(0x1c00000L);
+         return jjMoveStringLiteralDfa1_0(0x3c0000000L);
       case 81:
       case 113:
-         return jjMoveStringLiteralDfa1_0(0x2000000L);
+         return jjMoveStringLiteralDfa1_0(0x400000000L);
       case 83:
       case 115:
-         return jjMoveStringLiteralDfa1_0(0x3c000000L);
+         return jjMoveStringLiteralDfa1_0(0xf800000000L);
       case 84:
       case 116:
-         return jjMoveStringLiteralDfa1_0(0x40000000L);
+         return jjMoveStringLiteralDfa1_0(0x10000000000L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa1_0(0x80000000L);
+         return jjMoveStringLiteralDfa1_0(0x60000000000L);
       case 86:
       case 118:
-         return jjMoveStringLiteralDfa1_0(0x100000000L);
+         return jjMoveStringLiteralDfa1_0(0x380000000000L);
       case 87:
       case 119:
-         return jjMoveStringLiteralDfa1_0(0x200000000L);
+         return jjMoveStringLiteralDfa1_0(0x400000000000L);
       default :
          return jjMoveNfa_0(5, 0);
    }
@@ -186,59 +195,71 @@ private final int jjMoveStringLiteralDfa1_0(long active0)
    switch(curChar)
    {
       case 61:
-         if ((active0 & 0x2000000000L) != 0L)
-            return jjStopAtPos(1, 37);
-         else if ((active0 & 0x8000000000L) != 0L)
-            return jjStopAtPos(1, 39);
+         if ((active0 & 0x4000000000000L) != 0L)
+            return jjStopAtPos(1, 50);
+         else if ((active0 & 0x10000000000000L) != 0L)
+            return jjStopAtPos(1, 52);
          break;
       case 62:
-         if ((active0 & 0x800000000L) != 0L)
-            return jjStopAtPos(1, 35);
+         if ((active0 & 0x1000000000000L) != 0L)
+            return jjStopAtPos(1, 48);
          break;
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa2_0(active0, 0x140000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x390010000000L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa2_0(active0, 0xc008e00L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x180008e000L);
+      case 70:
+      case 102:
+         return jjMoveStringLiteralDfa2_0(active0, 0x40000000L);
       case 72:
       case 104:
-         return jjMoveStringLiteralDfa2_0(active0, 0x200000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x400000000000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa2_0(active0, 0x1000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x28010000L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa2_0(active0, 0x10000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x100200L);
       case 78:
       case 110:
-         if ((active0 & 0x400000L) != 0L)
-            return jjStartNfaWithStates_0(1, 22, 25);
-         return jjMoveStringLiteralDfa2_0(active0, 0x3c0040L);
+         if ((active0 & 0x80000000L) != 0L)
+            return jjStartNfaWithStates_0(1, 31, 25);
+         return jjMoveStringLiteralDfa2_0(active0, 0x7800040L);
+      case 79:
+      case 111:
+         return jjMoveStringLiteralDfa2_0(active0, 0xc00L);
       case 80:
       case 112:
-         return jjMoveStringLiteralDfa2_0(active0, 0x80000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x20000000000L);
       case 82:
       case 114:
-         if ((active0 & 0x800000L) != 0L)
+         if ((active0 & 0x100000000L) != 0L)
          {
-            jjmatchedKind = 23;
+            jjmatchedKind = 32;
             jjmatchedPos = 1;
          }
-         return jjMoveStringLiteralDfa2_0(active0, 0x1022100L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x200621000L);
+      case 83:
+      case 115:
+         return jjMoveStringLiteralDfa2_0(active0, 0x40000000000L);
       case 84:
       case 116:
-         return jjMoveStringLiteralDfa2_0(active0, 0x30000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x6000000000L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa2_0(active0, 0x2000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x8400000000L);
+      case 86:
+      case 118:
+         return jjMoveStringLiteralDfa2_0(active0, 0x80L);
       case 88:
       case 120:
-         return jjMoveStringLiteralDfa2_0(active0, 0x4000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x40000L);
       case 89:
       case 121:
-         if ((active0 & 0x80L) != 0L)
-            return jjStartNfaWithStates_0(1, 7, 25);
+         if ((active0 & 0x100L) != 0L)
+            return jjStartNfaWithStates_0(1, 8, 25);
          break;
       default :
          break;
@@ -258,41 +279,70 @@ private final int jjMoveStringLiteralDfa2_0(long old0, long active0)
    {
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa3_0(active0, 0x20000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x4000000000L);
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa3_0(active0, 0x40000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x10000000000L);
+      case 67:
+      case 99:
+         return jjMoveStringLiteralDfa3_0(active0, 0x80000000000L);
       case 68:
       case 100:
          if ((active0 & 0x40L) != 0L)
             return jjStartNfaWithStates_0(2, 6, 25);
-         return jjMoveStringLiteralDfa3_0(active0, 0x81040000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x20200800000L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa3_0(active0, 0x200000100L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x400000001000L);
+      case 70:
+      case 102:
+         return jjMoveStringLiteralDfa3_0(active0, 0x40000000L);
+      case 71:
+      case 103:
+         if ((active0 & 0x80L) != 0L)
+            return jjStartNfaWithStates_0(2, 7, 25);
+         break;
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa3_0(active0, 0x2000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x40400000000L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa3_0(active0, 0x104008200L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x100800082400L);
+      case 77:
+      case 109:
+         if ((active0 & 0x8000000000L) != 0L)
+            return jjStartNfaWithStates_0(2, 39, 25);
+         return jjMoveStringLiteralDfa3_0(active0, 0x8000000L);
+      case 78:
+      case 110:
+         if ((active0 & 0x20000000L) != 0L)
+            return jjStartNfaWithStates_0(2, 29, 25);
+         break;
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa3_0(active0, 0x32000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x720000L);
       case 80:
       case 112:
-         return jjMoveStringLiteralDfa3_0(active0, 0x4000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x40000L);
       case 82:
       case 114:
-         return jjMoveStringLiteralDfa3_0(active0, 0x10000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x202000000000L);
       case 83:
       case 115:
-         return jjMoveStringLiteralDfa3_0(active0, 0x81c00L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x101c000L);
       case 84:
       case 116:
-         if ((active0 & 0x8000000L) != 0L)
-            return jjStartNfaWithStates_0(2, 27, 25);
-         return jjMoveStringLiteralDfa3_0(active0, 0x300000L);
+         if ((active0 & 0x1000000000L) != 0L)
+            return jjStartNfaWithStates_0(2, 36, 25);
+         return jjMoveStringLiteralDfa3_0(active0, 0x6000000L);
+      case 85:
+      case 117:
+         return jjMoveStringLiteralDfa3_0(active0, 0xa00L);
+      case 88:
+      case 120:
+         if ((active0 & 0x10000000L) != 0L)
+            return jjStartNfaWithStates_0(2, 28, 25);
+         break;
       default :
          break;
    }
@@ -311,52 +361,58 @@ private final int jjMoveStringLiteralDfa3_0(long old0, long active0)
    {
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa4_0(active0, 0x80010100L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x20000101000L);
       case 67:
       case 99:
-         if ((active0 & 0x400L) != 0L)
+         if ((active0 & 0x4000L) != 0L)
          {
-            jjmatchedKind = 10;
+            jjmatchedKind = 14;
             jjmatchedPos = 3;
          }
-         return jjMoveStringLiteralDfa4_0(active0, 0x800L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x8000L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa4_0(active0, 0x51c0200L);
+         return jjMoveStringLiteralDfa4_0(active0, 0xa03802000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa4_0(active0, 0x10000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x202008000000L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa4_0(active0, 0x40004000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x10000040000L);
       case 77:
       case 109:
-         if ((active0 & 0x20000L) != 0L)
-            return jjStartNfaWithStates_0(3, 17, 25);
+         if ((active0 & 0x200000L) != 0L)
+            return jjStartNfaWithStates_0(3, 21, 25);
          break;
+      case 78:
+      case 110:
+         return jjMoveStringLiteralDfa4_0(active0, 0x40000000800L);
       case 79:
       case 111:
-         if ((active0 & 0x200000L) != 0L)
-            return jjStartNfaWithStates_0(3, 21, 25);
+         if ((active0 & 0x4000000L) != 0L)
+            return jjStartNfaWithStates_0(3, 26, 25);
          break;
       case 80:
       case 112:
-         if ((active0 & 0x2000L) != 0L)
-            return jjStartNfaWithStates_0(3, 13, 25);
-         else if ((active0 & 0x8000L) != 0L)
-            return jjStartNfaWithStates_0(3, 15, 25);
+         if ((active0 & 0x20000L) != 0L)
+            return jjStartNfaWithStates_0(3, 17, 25);
+         else if ((active0 & 0x80000L) != 0L)
+            return jjStartNfaWithStates_0(3, 19, 25);
          break;
       case 82:
       case 114:
-         return jjMoveStringLiteralDfa4_0(active0, 0x200000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x400000000000L);
+      case 83:
+      case 115:
+         return jjMoveStringLiteralDfa4_0(active0, 0x40000200L);
       case 84:
       case 116:
-         if ((active0 & 0x2000000L) != 0L)
-            return jjStartNfaWithStates_0(3, 25, 25);
-         return jjMoveStringLiteralDfa4_0(active0, 0x20001000L);
+         if ((active0 & 0x400000000L) != 0L)
+            return jjStartNfaWithStates_0(3, 34, 25);
+         return jjMoveStringLiteralDfa4_0(active0, 0x4000010000L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa4_0(active0, 0x100000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x180000400400L);
       default :
          break;
    }
@@ -375,45 +431,62 @@ private final int jjMoveStringLiteralDfa4_0(long old0, long active0)
    {
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa5_0(active0, 0x4000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x200000040000L);
       case 67:
       case 99:
-         return jjMoveStringLiteralDfa5_0(active0, 0x4000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x800000000L);
       case 69:
       case 101:
-         if ((active0 & 0x40000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 30, 25);
-         else if ((active0 & 0x200000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 33, 25);
-         return jjMoveStringLiteralDfa5_0(active0, 0x100000000L);
+         if ((active0 & 0x10000000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 40, 25);
+         else if ((active0 & 0x400000000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 46, 25);
+         return jjMoveStringLiteralDfa5_0(active0, 0x100040000000L);
       case 71:
       case 103:
-         return jjMoveStringLiteralDfa5_0(active0, 0x100000L);
+         if ((active0 & 0x40000000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 42, 25);
+         return jjMoveStringLiteralDfa5_0(active0, 0x2000000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa5_0(active0, 0x1000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x10000L);
+      case 77:
+      case 109:
+         return jjMoveStringLiteralDfa5_0(active0, 0x400L);
       case 78:
       case 110:
-         return jjMoveStringLiteralDfa5_0(active0, 0x10000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x2000000000L);
+      case 80:
+      case 112:
+         if ((active0 & 0x400000L) != 0L)
+            return jjStartNfaWithStates_0(4, 22, 25);
+         break;
       case 82:
       case 114:
-         if ((active0 & 0x1000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 24, 25);
-         return jjMoveStringLiteralDfa5_0(active0, 0x80800L);
+         if ((active0 & 0x200000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 33, 25);
+         return jjMoveStringLiteralDfa5_0(active0, 0x1008000L);
       case 83:
       case 115:
-         if ((active0 & 0x20000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 29, 25);
+         if ((active0 & 0x4000000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 38, 25);
          break;
       case 84:
       case 116:
-         if ((active0 & 0x10000L) != 0L)
-            return jjStartNfaWithStates_0(4, 16, 25);
-         return jjMoveStringLiteralDfa5_0(active0, 0x80000300L);
+         if ((active0 & 0x800L) != 0L)
+            return jjStartNfaWithStates_0(4, 11, 25);
+         else if ((active0 & 0x100000L) != 0L)
+            return jjStartNfaWithStates_0(4, 20, 25);
+         else if ((active0 & 0x8000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 27, 25);
+         return jjMoveStringLiteralDfa5_0(active0, 0x20000003200L);
+      case 85:
+      case 117:
+         return jjMoveStringLiteralDfa5_0(active0, 0x80000000000L);
       case 88:
       case 120:
-         if ((active0 & 0x40000L) != 0L)
-            return jjStartNfaWithStates_0(4, 18, 25);
+         if ((active0 & 0x800000L) != 0L)
+            return jjStartNfaWithStates_0(4, 23, 25);
          break;
       default :
          break;
@@ -431,37 +504,47 @@ private final int jjMoveStringLiteralDfa5_0(long old0, long active0)
    }
    switch(curChar)
    {
+      case 66:
+      case 98:
+         return jjMoveStringLiteralDfa6_0(active0, 0x200000000000L);
       case 69:
       case 101:
-         if ((active0 & 0x100L) != 0L)
-            return jjStartNfaWithStates_0(5, 8, 25);
-         else if ((active0 & 0x200L) != 0L)
-            return jjStartNfaWithStates_0(5, 9, 25);
-         else if ((active0 & 0x80000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 31, 25);
-         return jjMoveStringLiteralDfa6_0(active0, 0x100000L);
+         if ((active0 & 0x1000L) != 0L)
+            return jjStartNfaWithStates_0(5, 12, 25);
+         else if ((active0 & 0x2000L) != 0L)
+            return jjStartNfaWithStates_0(5, 13, 25);
+         else if ((active0 & 0x20000000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 41, 25);
+         return jjMoveStringLiteralDfa6_0(active0, 0x2000200L);
       case 71:
       case 103:
-         if ((active0 & 0x10000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 28, 25);
+         if ((active0 & 0x2000000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 37, 25);
          break;
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa6_0(active0, 0x4800L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x48000L);
+      case 77:
+      case 109:
+         if ((active0 & 0x80000000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 43, 25);
+         break;
       case 78:
       case 110:
-         return jjMoveStringLiteralDfa6_0(active0, 0x1000L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x10400L);
       case 83:
       case 115:
-         if ((active0 & 0x100000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 32, 25);
+         if ((active0 & 0x100000000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 44, 25);
          break;
       case 84:
       case 116:
-         if ((active0 & 0x80000L) != 0L)
-            return jjStartNfaWithStates_0(5, 19, 25);
-         else if ((active0 & 0x4000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 26, 25);
+         if ((active0 & 0x1000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 24, 25);
+         else if ((active0 & 0x40000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 30, 25);
+         else if ((active0 & 0x800000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 35, 25);
          break;
       default :
          break;
@@ -479,21 +562,29 @@ private final int jjMoveStringLiteralDfa6_0(long old0, long active0)
    }
    switch(curChar)
    {
+      case 65:
+      case 97:
+         return jjMoveStringLiteralDfa7_0(active0, 0x400L);
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa7_0(active0, 0x800L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x8000L);
       case 67:
       case 99:
-         return jjMoveStringLiteralDfa7_0(active0, 0x1000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x10000L);
+      case 76:
+      case 108:
+         return jjMoveStringLiteralDfa7_0(active0, 0x200000000000L);
       case 78:
       case 110:
-         if ((active0 & 0x4000L) != 0L)
-            return jjStartNfaWithStates_0(6, 14, 25);
+         if ((active0 & 0x40000L) != 0L)
+            return jjStartNfaWithStates_0(6, 18, 25);
          break;
       case 82:
       case 114:
-         if ((active0 & 0x100000L) != 0L)
-            return jjStartNfaWithStates_0(6, 20, 25);
+         if ((active0 & 0x200L) != 0L)
+            return jjStartNfaWithStates_0(6, 9, 25);
+         else if ((active0 & 0x2000000L) != 0L)
+            return jjStartNfaWithStates_0(6, 25, 25);
          break;
       default :
          break;
@@ -513,13 +604,20 @@ private final int jjMoveStringLiteralDfa7_0(long old0, long active0)
    {
       case 69:
       case 101:
-         if ((active0 & 0x800L) != 0L)
-            return jjStartNfaWithStates_0(7, 11, 25);
+         if ((active0 & 0x8000L) != 0L)
+            return jjStartNfaWithStates_0(7, 15, 25);
+         else if ((active0 & 0x200000000000L) != 0L)
+            return jjStartNfaWithStates_0(7, 45, 25);
+         break;
+      case 82:
+      case 114:
+         if ((active0 & 0x400L) != 0L)
+            return jjStartNfaWithStates_0(7, 10, 25);
          break;
       case 84:
       case 116:
-         if ((active0 & 0x1000L) != 0L)
-            return jjStartNfaWithStates_0(7, 12, 25);
+         if ((active0 & 0x10000L) != 0L)
+            return jjStartNfaWithStates_0(7, 16, 25);
          break;
       default :
          break;
@@ -582,15 +680,15 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 4:
                   if ((0x3ff001000000000L & l) == 0L)
                      break;
-                  if (kind > 48)
-                     kind = 48;
+                  if (kind > 61)
+                     kind = 61;
                   jjCheckNAdd(4);
                   break;
                case 5:
                   if ((0x3ff000000000000L & l) != 0L)
                   {
-                     if (kind > 45)
-                        kind = 45;
+                     if (kind > 58)
+                        kind = 58;
                      jjCheckNAddStates(0, 2);
                   }
                   else if (curChar == 45)
@@ -615,8 +713,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 2:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 47)
-                     kind = 47;
+                  if (kind > 60)
+                     kind = 60;
                   jjCheckNAdd(2);
                   break;
                case 6:
@@ -626,8 +724,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 7:
                   if (curChar != 39)
                      break;
-                  if (kind > 51)
-                     kind = 51;
+                  if (kind > 64)
+                     kind = 64;
                   jjstateSet[jjnewStateCnt++] = 8;
                   break;
                case 8:
@@ -641,15 +739,15 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 10:
                   if (curChar != 45)
                      break;
-                  if (kind > 52)
-                     kind = 52;
+                  if (kind > 65)
+                     kind = 65;
                   jjCheckNAdd(11);
                   break;
                case 11:
                   if ((0xffffffffffffdbffL & l) == 0L)
                      break;
-                  if (kind > 52)
-                     kind = 52;
+                  if (kind > 65)
+                     kind = 65;
                   jjCheckNAdd(11);
                   break;
                case 12:
@@ -677,8 +775,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                      jjCheckNAddTwoStates(17, 15);
                   break;
                case 18:
-                  if (curChar == 47 && kind > 53)
-                     kind = 53;
+                  if (curChar == 47 && kind > 66)
+                     kind = 66;
                   break;
                case 19:
                   if (curChar == 47)
@@ -691,8 +789,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 21:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 45)
-                     kind = 45;
+                  if (kind > 58)
+                     kind = 58;
                   jjCheckNAdd(21);
                   break;
                case 22:
@@ -706,8 +804,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 24:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 45)
-                     kind = 45;
+                  if (kind > 58)
+                     kind = 58;
                   jjCheckNAddStates(0, 2);
                   break;
                default : break;
@@ -724,14 +822,14 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 25:
                   if ((0x7fffffe87fffffeL & l) != 0L)
                   {
-                     if (kind > 48)
-                        kind = 48;
+                     if (kind > 61)
+                        kind = 61;
                      jjCheckNAdd(4);
                   }
                   if ((0x7fffffe07fffffeL & l) != 0L)
                   {
-                     if (kind > 48)
-                        kind = 48;
+                     if (kind > 61)
+                        kind = 61;
                      jjCheckNAddTwoStates(3, 4);
                   }
                   break;
@@ -739,15 +837,15 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 3:
                   if ((0x7fffffe07fffffeL & l) == 0L)
                      break;
-                  if (kind > 48)
-                     kind = 48;
+                  if (kind > 61)
+                     kind = 61;
                   jjCheckNAddTwoStates(3, 4);
                   break;
                case 4:
                   if ((0x7fffffe87fffffeL & l) == 0L)
                      break;
-                  if (kind > 48)
-                     kind = 48;
+                  if (kind > 61)
+                     kind = 61;
                   jjCheckNAdd(4);
                   break;
                case 6:
@@ -757,8 +855,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                   jjCheckNAddTwoStates(9, 7);
                   break;
                case 11:
-                  if (kind > 52)
-                     kind = 52;
+                  if (kind > 65)
+                     kind = 65;
                   jjstateSet[jjnewStateCnt++] = 11;
                   break;
                case 14:
@@ -791,8 +889,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 11:
                   if ((jjbitVec0[i2] & l2) == 0L)
                      break;
-                  if (kind > 52)
-                     kind = 52;
+                  if (kind > 65)
+                     kind = 65;
                   jjstateSet[jjnewStateCnt++] = 11;
                   break;
                case 14:
@@ -827,20 +925,21 @@ static final int[] jjnextStates = {
 public static final String[] jjstrLiteralImages = {
 "", null, null, null, null, null, null, null, null, null, null, null, null, 
 null, null, null, null, null, null, null, null, null, null, null, null, null, null, 
-null, null, null, null, null, null, null, "\75", "\74\76", "\76", "\76\75", "\74", 
+null, null, null, null, null, null, null, null, null, null, null, null, null, null, 
+null, null, null, null, null, null, "\75", "\74\76", "\76", "\76\75", "\74", 
 "\74\75", "\50", "\51", "\54", "\73", "\52", null, null, null, null, null, null, null, 
 null, null, };
 public static final String[] lexStateNames = {
    "DEFAULT", 
 };
 static final long[] jjtoToken = {
-   0x9bfffffffffc1L, 
+   0x37ffffffffffffc1L, 0x1L, 
 };
 static final long[] jjtoSkip = {
-   0x3000000000003eL, 
+   0x3eL, 0x6L, 
 };
 static final long[] jjtoSpecial = {
-   0x30000000000000L, 
+   0x0L, 0x6L, 
 };
 protected SimpleCharStream input_stream;
 private final int[] jjrounds = new int[25];
@@ -10,18 +10,22 @@ public interface MiniSqlTreeConstants
   public int JJT_CREATEINDEX = 3;
   public int JJT_DROPTABLE = 4;
   public int JJT_DROPINDEX = 5;
-  public int JJT_DESCRIBE = 6;
-  public int JJT_INSERT = 7;
-  public int JJT_SELECT = 8;
-  public int JJT_UPDATE = 9;
-  public int JJT_DELETE = 10;
-  public int JJT_IDENTLIST = 11;
-  public int JJT_COLUMNTYPE = 12;
-  public int JJT_ORDERBY = 13;
-  public int JJT_OREXPR = 14;
-  public int JJT_ANDEXPR = 15;
-  public int JJT_EXPRPRED = 16;
-  public int JJT_EXPRVALUE = 17;
+  public int JJT_CLUSTER = 6;
+  public int JJT_VACUUM = 7;
+  public int JJT_DESCRIBE = 8;
+  public int JJT_INSERT = 9;
+  public int JJT_SELECT = 10;
+  public int JJT_UPDATE = 11;
+  public int JJT_DELETE = 12;
+  public int JJT_IDENTLIST = 13;
+  public int JJT_COLUMNTYPE = 14;
+  public int JJT_SELECTLIST = 15;
+  public int JJT_GROUPBY = 16;
+  public int JJT_ORDERBY = 17;
+  public int JJT_OREXPR = 18;
+  public int JJT_ANDEXPR = 19;
+  public int JJT_EXPRPRED = 20;
+  public int JJT_EXPRVALUE = 21;
 
 
   public String[] jjtNodeName = {
@@ -31,6 +35,8 @@ public interface MiniSqlTreeConstants
     "_CreateIndex",
     "_DropTable",
     "_DropIndex",
+    "_Cluster",
+    "_Vacuum",
     "_Describe",
     "_Insert",
     "_Select",
@@ -38,6 +44,8 @@ public interface MiniSqlTreeConstants
     "_Delete",
     "_IdentList",
     "_ColumnType",
+    "_SelectList",
+    "_GroupBy",
     "_OrderBy",
     "_OrExpr",
     "_AndExpr",
@@ -27,6 +27,15 @@ public class Catalog implements GlobalConst {
   /** Name of the index catalog. */
   protected static final String IND_CAT = "mb_ind";
 
+  /** Storage type of tables kept in heap files. */
+  public static final int HEAP = 0;
+
+  /** Storage type of tables kept in columnar files. */
+  public static final int COLUMNAR = 1;
+
+  /** Storage type of tables kept in heap files of variable-length records. */
+  public static final int VARIABLE = 2;
+
   // --------------------------------------------------------------------------
 
   /** Schema of the relation catalog. */
@@ -76,9 +85,11 @@ public class Catalog implements GlobalConst {
    */
   protected void initSchemas() {
 
-    s_rel = new Schema(2);
+    s_rel = new Schema(4);
     s_rel.initField(0, AttrType.STRING, NAME_MAXLEN, "relName");
     s_rel.initField(1, AttrType.INTEGER, 4, "recCount");
+    s_rel.initField(2, AttrType.INTEGER, 4, "relType");
+    s_rel.initField(3, AttrType.STRING, NAME_MAXLEN, "clusterCol");
 
     s_att = new Schema(5);
     s_att.initField(0, AttrType.STRING, NAME_MAXLEN, "relName");
@@ -106,11 +117,11 @@ public class Catalog implements GlobalConst {
 
     // insert a row for each catalog relation
     Tuple tuple = new Tuple(s_rel);
-    tuple.setAllFields(REL_CAT, 3);
+    tuple.setAllFields(REL_CAT, 3, HEAP, "");
     tuple.insertIntoFile(f_rel);
-    tuple.setAllFields(ATT_CAT, relcnt + attcnt + indcnt);
+    tuple.setAllFields(ATT_CAT, relcnt + attcnt + indcnt, HEAP, "");
     tuple.insertIntoFile(f_rel);
-    tuple.setAllFields(IND_CAT, 0);
+    tuple.setAllFields(IND_CAT, 0, HEAP, "");
     tuple.insertIntoFile(f_rel);
 
     // insert a row for each catalog attribute
@@ -168,13 +179,20 @@ public class Catalog implements GlobalConst {
   } // public RID getFileEntry(String fileName, boolean isTable)
 
   /**
-   * Adds a newly created table to the catalog.
+   * Adds a newly created heap table to the catalog.
    */
   public void createTable(String fileName, Schema schema) {
+    createTable(fileName, schema, HEAP);
+  }
+
+  /**
+   * Adds a newly created table to the catalog, given its storage type.
+   */
+  public void createTable(String fileName, Schema schema, int relType) {
 
     // add the relation catalog row
     Tuple tuple = new Tuple(s_rel);
-    tuple.setAllFields(fileName, 0);
+    tuple.setAllFields(fileName, 0, relType, "");
     tuple.insertIntoFile(f_rel);
 
     // add the attribute catalog rows
@@ -185,7 +203,46 @@ public class Catalog implements GlobalConst {
       tuple.insertIntoFile(f_att);
     }
 
-  } // public void createTable(String fileName, Schema schema)
+  } // public void createTable(String fileName, Schema schema, int relType)
+
+  /**
+   * Returns true if the given table is stored in a columnar file.
+   */
+  public boolean isColumnar(String fileName) {
+    RID rid = getFileRID(fileName, true);
+    Tuple tuple = new Tuple(s_rel, f_rel.selectRecord(rid));
+    return tuple.getIntFld(2) == COLUMNAR;
+  }
+
+  /**
+   * Returns true if the given table stores variable-length records.
+   */
+  public boolean isVariable(String fileName) {
+    RID rid = getFileRID(fileName, true);
+    Tuple tuple = new Tuple(s_rel, f_rel.selectRecord(rid));
+    return tuple.getIntFld(2) == VARIABLE;
+  }
+
+  /**
+   * Gets the column the given table is clustered on, or null if it has never
+   * been clustered (or rows were inserted since).
+   */
+  public String getClusterColumn(String fileName) {
+    RID rid = getFileRID(fileName, true);
+    Tuple tuple = new Tuple(s_rel, f_rel.selectRecord(rid));
+    String columnName = tuple.getStringFld(3);
+    return columnName.length() > 0 ? columnName : null;
+  }
+
+  /**
+   * Records that the given table has been clustered on the given column.
+   */
+  public void setClusterColumn(String fileName, String columnName) {
+    RID rid = getFileRID(fileName, true);
+    Tuple tuple = new Tuple(s_rel, f_rel.selectRecord(rid));
+    tuple.setStringFld(3, columnName);
+    f_rel.updateRecord(rid, tuple.getData());
+  }
 
   /**
    * Gets the Schema for the given table.
@@ -210,6 +267,9 @@ public class Catalog implements GlobalConst {
       schema.initField(i, tuple.getIntFld(2), tuple.getIntFld(3), tuple
           .getStringFld(4));
     }
+    if (tuples.size() > 0) {
+      schema.setVariable(isVariable(fileName));
+    }
     return schema;
 
   } // public Schema getSchema(String fileName)
@@ -0,0 +1,100 @@
+package query;
+
+import global.GlobalConst;
+import global.Minibase;
+import global.RID;
+import global.SearchKey;
+import global.SortKey;
+import heap.HeapFile;
+import index.HashIndex;
+import parser.AST_Cluster;
+import relop.FileScan;
+import relop.Schema;
+import relop.Sort;
+import relop.Tuple;
+
+/**
+ * Execution plan for clustering tables, i.e. physically reordering a table's
+ * heap file by one of its columns. The records are sorted externally (see
+ * relop.Sort) within the sort buffer, and the sorted output is written to a
+ * new heap file under the table's name. The table's indexes
+ * are rebuilt with the new RIDs, so records with equal keys are fetched from
+ * adjacent pages. Later inserts are not kept in order, so they (and updates
+ * of the column) clear the clustering recorded in the catalog.
+ */
+class Cluster implements Plan {
+
+  /** Number of pages worth of records sorted in memory at a time. */
+  protected static final int SORT_PAGES = 32;
+
+  /** Name of the table to cluster. */
+  protected String fileName;
+
+  /** Schema of the table to cluster. */
+  protected Schema schema;
+
+  /** Name of the column to cluster on. */
+  protected String columnName;
+
+  /** Field number of the column to cluster on. */
+  protected int fldno;
+
+  /**
+   * Optimizes the plan, given the parsed query.
+   * 
+   * @throws QueryException if table or column doesn't exist
+   */
+  public Cluster(AST_Cluster tree) throws QueryException {
+
+    // make sure the table and column exist
+    fileName = tree.getFileName();
+    schema = QueryCheck.tableExists(fileName);
+    QueryCheck.heapTable(fileName);
+    columnName = tree.getColumnName();
+    fldno = QueryCheck.columnExists(schema, columnName);
+
+  } // public Cluster(AST_Cluster tree) throws QueryException
+
+  /**
+   * Executes the plan and prints applicable output.
+   */
+  public void execute() {
+
+    // read the whole table into the sort, then replace it
+    Sort sort = new Sort(new FileScan(schema, new HeapFile(fileName)),
+        (long) SORT_PAGES * GlobalConst.PAGE_SIZE, new SortKey(fldno, false));
+    sort.hasNext();
+    new HeapFile(fileName).deleteFile();
+    HeapFile file = new HeapFile(fileName);
+
+    // recreate the indexes empty
+    IndexDesc[] inds = Minibase.SystemCatalog.getIndexes(fileName);
+    HashIndex[] indexes = new HashIndex[inds.length];
+    int[] keyfld = new int[inds.length];
+    for (int i = 0; i < inds.length; i++) {
+      new HashIndex(inds[i].indexName).deleteFile();
+      indexes[i] = new HashIndex(inds[i].indexName);
+      keyfld[i] = schema.fieldNumber(inds[i].columnName);
+    }
+
+    // write the sorted records to the new file, indexing the new RIDs
+    int rowcnt = 0;
+    while (sort.hasNext()) {
+      Tuple tuple = sort.getNext();
+      RID rid = tuple.insertIntoFile(file);
+      for (int i = 0; i < indexes.length; i++) {
+        indexes[i].insertEntry(new SearchKey(tuple.getField(keyfld[i])), rid);
+      }
+      rowcnt++;
+    }
+    sort.close();
+
+    // record the clustering in the catalog
+    Minibase.SystemCatalog.setClusterColumn(fileName, columnName);
+
+    // print the output message
+    System.out.println(rowcnt + " rows clustered.");
+
+  } // public void execute()
+
+} // class Cluster implements Plan
@@ -36,6 +36,7 @@ class CreateIndex implements Plan {
 
         // Validate the table and column
         this.table_schema = QueryCheck.tableExists(this.table_name);
+        QueryCheck.heapTable(this.table_name);
         QueryCheck.columnExists(this.table_schema, this.column_name);
 
         // Check if the index already exists
@@ -4,6 +4,7 @@ import global.Minibase;
 import heap.HeapFile;
 import parser.AST_CreateTable;
 import parser.ParseException;
+import relop.ColumnarFile;
 import relop.Schema;
 
 /**
@@ -17,6 +18,12 @@ class CreateTable implements Plan {
   /** Schema of the table to create. */
   protected Schema schema;
 
+  /** True if the table is stored by column. */
+  protected boolean isColumnar;
+
+  /** True if the table stores variable-length records. */
+  protected boolean isVariable;
+
   /**
    * Optimizes the plan, given the parsed query.
    * 
@@ -35,6 +42,13 @@ class CreateTable implements Plan {
       throw new QueryException(exc.getMessage());
     }
 
+    // columnar tables keep every column's chain on one header page
+    isColumnar = tree.isColumnar;
+    if (isColumnar && schema.getCount() > ColumnarFile.MAX_COLUMNS) {
+      throw new QueryException("too many columns for a columnar table");
+    }
+    isVariable = tree.isVariable;
+
   } // public CreateTable(AST_CreateTable tree) throws QueryException
 
   /**
@@ -42,11 +56,15 @@ class CreateTable implements Plan {
    */
   public void execute() {
 
-    // create the heap file
-    new HeapFile(fileName);
-
-    // add the schema to the catalog
-    Minibase.SystemCatalog.createTable(fileName, schema);
+    // create the heap or columnar file, and add the schema to the catalog
+    if (isColumnar) {
+      new ColumnarFile(fileName, schema);
+      Minibase.SystemCatalog.createTable(fileName, schema, Catalog.COLUMNAR);
+    } else {
+      new HeapFile(fileName);
+      Minibase.SystemCatalog.createTable(fileName, schema,
+          isVariable ? Catalog.VARIABLE : Catalog.HEAP);
+    }
 
     // print the output message
     System.out.println("Table created.");
@@ -40,6 +40,7 @@ class Delete implements Plan {
     // make sure the table exists
     fileName = tree.getFileName();
     schema = QueryCheck.tableExists(fileName);
+    QueryCheck.heapTable(fileName);
 
     // get and validate the column predicates
     preds = tree.getPredicates();
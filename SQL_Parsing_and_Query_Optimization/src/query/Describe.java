@@ -1,6 +1,7 @@
 package query;
 
 import global.AttrType;
+import global.Minibase;
 import parser.AST_Describe;
 import relop.Schema;
 
@@ -47,6 +48,15 @@ class Describe implements Plan {
           + schema.fieldLength(i) + ")");
     }
 
+    // print the clustering column, if any
+    String columnName = Minibase.SystemCatalog.getClusterColumn(fileName);
+    if (columnName != null) {
+      System.out.println("clustered on " + columnName);
+    }
+    if (schema.isVariable()) {
+      System.out.println("variable-length records");
+    }
+
   } // public void execute()
 
 } // class Describe implements Plan
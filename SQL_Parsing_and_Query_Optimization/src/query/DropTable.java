@@ -4,6 +4,7 @@ import global.Minibase;
 import heap.HeapFile;
 import index.HashIndex;
 import parser.AST_DropTable;
+import relop.ColumnarFile;
 
 /**
  * Execution plan for dropping tables.
@@ -38,8 +39,12 @@ class DropTable implements Plan {
       Minibase.SystemCatalog.dropIndex(ind.indexName);
     }
 
-    // delete the heap file and catalog entry
-    new HeapFile(fileName).deleteFile();
+    // delete the heap (or columnar) file and catalog entry
+    if (Minibase.SystemCatalog.isColumnar(fileName)) {
+      new ColumnarFile(fileName, Minibase.SystemCatalog.getSchema(fileName)).deleteFile();
+    } else {
+      new HeapFile(fileName).deleteFile();
+    }
     Minibase.SystemCatalog.dropTable(fileName);
 
     // print the output message
@@ -6,6 +6,7 @@ import global.SearchKey;
 import heap.HeapFile;
 import index.HashIndex;
 import parser.AST_Insert;
+import relop.ColumnarFile;
 import relop.Schema;
 import relop.Tuple;
 
@@ -43,15 +44,29 @@ class Insert implements Plan {
   public void execute() {
 
     // Create a HeapFile and Tuple instances
-    HeapFile heap_file = new HeapFile(this.table_name);
     Tuple tuple = new Tuple(this.table_schema, this.values);
 
+    // Columnar tables are append-only and have no indexes
+    if (Minibase.SystemCatalog.isColumnar(this.table_name)) {
+      ColumnarFile file = new ColumnarFile(this.table_name, this.table_schema);
+      file.insertRecord(tuple.getData());
+      file.flush();
+      System.out.println("1 row affected. (Table: " + table_name + ")");
+      return;
+    }
+    HeapFile heap_file = new HeapFile(this.table_name);
+
     // Insert tuple into HeapFile, get RID
-    RID tuple_rid = heap_file.insertRecord(tuple.getData());
+    RID tuple_rid = tuple.insertIntoFile(heap_file);
 
     // Update the indexes for the inserted tuple
     updateIndexes(tuple, tuple_rid);
 
+    // The new row is out of order, so the table is no longer clustered
+    if (Minibase.SystemCatalog.getClusterColumn(this.table_name) != null) {
+      Minibase.SystemCatalog.setClusterColumn(this.table_name, "");
+    }
+
     System.out.println("1 row affected. (Table: " + table_name + ")");
 
   } // public void execute()
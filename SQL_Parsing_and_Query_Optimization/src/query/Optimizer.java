@@ -1,5 +1,6 @@
 package query;
 
+import parser.AST_Cluster;
 import parser.AST_CreateIndex;
 import parser.AST_CreateTable;
 import parser.AST_Delete;
@@ -10,6 +11,7 @@ import parser.AST_Insert;
 import parser.AST_Select;
 import parser.AST_Start;
 import parser.AST_Update;
+import parser.AST_Vacuum;
 import parser.MiniSqlTreeConstants;
 
 /**
@@ -45,6 +47,14 @@ public class Optimizer implements MiniSqlTreeConstants {
         // System.out.println("Dropping Table...");
         return new DropTable((AST_DropTable) tree.getStmt());
 
+      case JJT_CLUSTER:
+        // System.out.println("Clustering...");
+        return new Cluster((AST_Cluster) tree.getStmt());
+
+      case JJT_VACUUM:
+        // System.out.println("Vacuuming...");
+        return new Vacuum((AST_Vacuum) tree.getStmt());
+
       case JJT_DESCRIBE:
         // System.out.println("Describing...");
         return new Describe((AST_Describe) tree.getStmt());
@@ -43,6 +43,20 @@ class QueryCheck {
 
   } // public static Schema tableExists(String tableName) throws QueryException
 
+  /**
+   * Checks whether an existing table is stored in a heap file; columnar tables
+   * are append-only and cannot be indexed.
+   */
+  public static void heapTable(String tableName) throws QueryException {
+
+    // check the storage type in the catalog
+    if (Minibase.SystemCatalog.isColumnar(tableName)) {
+      throw new QueryException("table '" + tableName
+          + "' is columnar and only supports INSERT and SELECT");
+    }
+
+  } // public static void heapTable(String tableName) throws QueryException
+
   /**
    * Checks whether an index exists.
    */
@@ -1,14 +1,39 @@
 package query;
 
+import global.Minibase;
+import global.SortKey;
 import heap.HeapFile;
+import index.HashIndex;
 import parser.AST_Select;
+import relop.Aggregate;
+import relop.BatchAdapter;
+import relop.BlockNestedLoopJoin;
+import relop.Broadcast;
+import relop.ColumnScan;
+import relop.CompiledScan;
+import relop.ColumnarFile;
+import relop.Distinct;
+import relop.Exchange;
 import relop.FileScan;
+import relop.Gather;
+import relop.HashAggregate;
+import relop.HashJoin;
+import relop.HybridHashJoin;
+import relop.IndexNestedLoopJoin;
 import relop.Iterator;
+import relop.LateScan;
+import relop.Limit;
+import relop.Materialize;
+import relop.ParallelAggregate;
 import relop.Predicate;
 import relop.Projection;
+import relop.Repartition;
 import relop.Schema;
 import relop.Selection;
-import relop.SimpleJoin;
+import relop.Sort;
+import relop.StreamAggregate;
+import relop.TempSpace;
+import relop.TopN;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -22,6 +47,7 @@ class Select implements Plan {
 
   // Variables for the class
   private boolean explain_query;
+  private boolean distinct;
   private Predicate[][] tree_predicates;
 
   private String[] tables;
@@ -31,10 +57,49 @@ class Select implements Plan {
   private Schema schema;
 
   private Integer[] tree_field_numbers;
+  private String[] tree_groups;
+  private Aggregate[] tree_aggregates;
+  private SortKey[] tree_orders;
+  private int tree_limit;
+  private int tree_offset;
+  private boolean top_n;
   private Iterator query_tree;
 
+  /** Minimum ratio of a table's rows to the tree's for an index join. */
+  private static final int INDEX_JOIN_RATIO = 4;
+
   protected boolean pushdown_enabled = false;
 
+  /** Compiles the scan, selections and projection of a single heap table. */
+  protected boolean compilation_enabled = true;
+
+  /** Minimum number of rows in a table for compiling its scan. */
+  private static final long COMPILE_ROWS = 10000;
+
+  /** Set if the compiled scan also projects the columns. */
+  private boolean projection_compiled;
+
+  /** Reads only the columns needed before the projection, if it saves enough. */
+  protected boolean late_materialization_enabled = true;
+
+  /** Scans of the tables, if the projected columns are fetched by RID. */
+  private LateScan[] late_scans;
+
+  /** Number of worker threads for large queries (1 runs serially). */
+  protected int parallelism = Runtime.getRuntime().availableProcessors();
+
+  /** Minimum number of rows in a table for a parallel plan. */
+  private static final long PARALLEL_ROWS = 10000;
+
+  /** Set if the parallel plan's workers also group and aggregate. */
+  private boolean aggregate_parallel;
+
+  /** Runs a heap table's scan, selections and projection a batch at a time. */
+  protected boolean batching_enabled = true;
+
+  /** Set while the tree built so far processes batches (see endBatch). */
+  private boolean batch_pipeline;
+
   /**
    * Optimizes the plan, given the parsed query.
    * 
@@ -63,14 +128,59 @@ class Select implements Plan {
     tree_predicates = tree.getPredicates();
     QueryCheck.predicates(this.schema, tree_predicates);
 
+    // Check the GROUP BY columns and aggregates, which (if any) replace the
+    // rows by one per group, with only the group columns and aggregates
+    tree_groups = tree.getGroups();
+    tree_aggregates = tree.getAggregates();
+    Schema output = this.schema;
+    if (tree_groups.length > 0 || tree_aggregates.length > 0) {
+      int[] groupFields = new int[tree_groups.length];
+      for (int i = 0; i < tree_groups.length; i++) {
+        groupFields[i] = QueryCheck.columnExists(this.schema, tree_groups[i]);
+      }
+      for (Aggregate agg : tree_aggregates) {
+        if (agg.field != null) {
+          QueryCheck.columnExists(this.schema, (String) agg.field);
+        }
+      }
+      try {
+        output = Aggregate.schema(this.schema, groupFields, tree_aggregates);
+      } catch (IllegalArgumentException exc) {
+        throw new QueryException(exc.getMessage());
+      }
+    }
+
     // Build the tree columns and field numbers from the function input 
     tree_columns = tree.getColumns();
     tree_field_numbers = new Integer[tree_columns.length];
     for (int i = 0; i < tree_columns.length; i++) {
-      tree_field_numbers[i] = QueryCheck.columnExists(this.schema, tree_columns[i]);
+      if (output != this.schema && output.fieldNumber(tree_columns[i]) < 0
+          && this.schema.fieldNumber(tree_columns[i]) >= 0) {
+        throw new QueryException("column '" + tree_columns[i] + "' must be in GROUP BY");
+      }
+      tree_field_numbers[i] = QueryCheck.columnExists(output, tree_columns[i]);
+    }
+
+    // Check the ORDER BY columns; DISTINCT rows are sorted after projecting,
+    // so they can only be sorted on projected columns
+    distinct = tree.isDistinct;
+    tree_orders = tree.getOrders();
+    for (SortKey order : tree_orders) {
+      QueryCheck.columnExists(output, (String) order.field);
+      if (distinct && tree_columns.length > 0 && !isSelected((String) order.field)) {
+        throw new QueryException("ORDER BY column '" + order.field + "' must be selected with DISTINCT");
+      }
+    }
+
+    // Check the LIMIT and OFFSET
+    tree_limit = tree.limit;
+    tree_offset = tree.offset;
+    if (tree_limit < -1 || tree_offset < 0) {
+      throw new QueryException("LIMIT and OFFSET must not be negative");
     }
 
     // Build the iterator query tree
+    late_scans = useLateMaterialization() ? new LateScan[this.tables.length] : null;
     if (pushdown_enabled) {
       buildQueryTreeWithPushdown();
     } else {
@@ -82,27 +192,60 @@ class Select implements Plan {
    * Builds the iterator query tree without pushdown optimization.
    */
   private void buildQueryTree() {
-    Iterator iter = null;
+    // Large tables may be joined, selected and aggregated by parallel
+    // workers; a single heap table may be scanned, selected and projected by
+    // a compiled class; otherwise the iterators are interpreted
+    Iterator iter = parallelPlan();
+    if (iter == null) {
+      iter = compileScan();
+    }
+    if (iter == null) {
+      List<Predicate[]> pushedDownPredicates = new ArrayList<>();
+
+      // Iterate through all tables, update schema with joins
+      long rows = 0;
+      for (int i = 0; i < this.tables.length; i++) {
+        if (iter == null) {
+          iter = scanTable(i, pushedDownPredicates);
+          rows = estimateRows(i);
+        } else {
+          Iterator currSchemaIter = scanTable(i, pushedDownPredicates);
+          iter = join(iter, rows, i, currSchemaIter);
+          rows = Math.max(rows, estimateRows(i));
+        }
+      }
 
-    // Iterate through all tables, update schema with joins
-    for (int i = 0; i < this.tables.length; i++) {
-      if (iter == null) {
-        iter = new FileScan(this.table_schemas[i], new HeapFile(this.tables[i]));
-      } else {
-        Iterator currSchemaIter = new FileScan(this.table_schemas[i], new HeapFile(this.tables[i]));
-        iter = new SimpleJoin(iter, currSchemaIter);
+      // Selections (except those evaluated by columnar scans)
+      for (Predicate[] pred : tree_predicates) {
+        if (!pushedDownPredicates.contains(pred)) {
+          iter = new Selection(iter, pred);
+        }
       }
+
+      batch_pipeline = isBatchPipeline();
     }
 
-    // Selections
-    for (Predicate[] pred : tree_predicates) {
-      iter = new Selection(iter, pred);
+    // Grouping and aggregates
+    iter = aggregate(iter);
+
+    // Sort, before projecting away any ORDER BY columns
+    if (!distinct) {
+      iter = orderBy(iter);
     }
 
-    // Projection
-    if (tree_columns.length > 0) {
-      iter = new Projection(iter, tree_field_numbers);
+    // Projection (unless the compiled scan projected)
+    if (tree_columns.length > 0 && !projection_compiled) {
+      iter = project(iter);
     }
+    iter = endBatch(iter);
+
+    // Duplicate elimination, then sorting only the distinct rows
+    if (distinct) {
+      iter = orderBy(new Distinct(iter));
+    }
+
+    // Limit, which stops the rest of the tree once it has its rows
+    iter = limit(iter);
 
     // Store iterator query tree
     this.query_tree = iter;
@@ -112,48 +255,547 @@ class Select implements Plan {
    * Builds the iterator query tree with selection pushdown optimization.
    */
   private void buildQueryTreeWithPushdown() {
-    Iterator[] tableIterators = new Iterator[this.tables.length];
+    // Large tables may be joined, selected and aggregated by parallel
+    // workers; a single heap table may be scanned, selected and projected by
+    // a compiled class; otherwise the iterators are interpreted
+    Iterator iter = parallelPlan();
+    if (iter == null) {
+      iter = compileScan();
+    }
+    if (iter == null) {
+      Iterator[] tableIterators = new Iterator[this.tables.length];
 
-    // List of pushed-down predicates
-    List<Predicate[]> pushedDownPredicates = new ArrayList<>();
+      // List of pushed-down predicates
+      List<Predicate[]> pushedDownPredicates = new ArrayList<>();
 
-    // Pushdown for each table
-    for (int i = 0; i < this.tables.length; i++) {
-      tableIterators[i] = new FileScan(this.table_schemas[i], new HeapFile(this.tables[i]));
+      // Pushdown for each table
+      for (int i = 0; i < this.tables.length; i++) {
+        tableIterators[i] = scanTable(i, pushedDownPredicates);
 
-      // Try to push down the first single-table predicate array for this table
-      for (Predicate[] pred : tree_predicates) {
-        if (!pushedDownPredicates.contains(pred) && isSingleTablePredicate(pred, this.table_schemas[i])) {
-          tableIterators[i] = new Selection(tableIterators[i], pred);
+        // Try to push down the first single-table predicate array for this table
+        for (Predicate[] pred : tree_predicates) {
+          if (!pushedDownPredicates.contains(pred) && isSingleTablePredicate(pred, this.table_schemas[i])) {
+            tableIterators[i] = new Selection(tableIterators[i], pred);
+
+            // Mark predicate as pushed down
+            pushedDownPredicates.add(pred);
 
-          // Mark predicate as pushed down
-          pushedDownPredicates.add(pred);
+            break;
+          }
+        }
+      }
 
-          break;
+      // Join tables
+      iter = tableIterators[0];
+      long rows = estimateRows(0);
+      for (int i = 1; i < tableIterators.length; i++) {
+        iter = join(iter, rows, i, tableIterators[i]);
+        rows = Math.max(rows, estimateRows(i));
+      }
+
+      // Remaining selections
+      for (Predicate[] pred : tree_predicates) {
+        if (!pushedDownPredicates.contains(pred)) { // Apply only non-pushed-down predicates
+          iter = new Selection(iter, pred);
         }
       }
+
+      batch_pipeline = isBatchPipeline();
+    }
+
+    // Grouping and aggregates
+    iter = aggregate(iter);
+
+    // Sort, before projecting away any ORDER BY columns
+    if (!distinct) {
+      iter = orderBy(iter);
+    }
+
+    // Projection (unless the compiled scan projected)
+    if (tree_columns.length > 0 && !projection_compiled) {
+      iter = project(iter);
+    }
+    iter = endBatch(iter);
+
+    // Duplicate elimination, then sorting only the distinct rows
+    if (distinct) {
+      iter = orderBy(new Distinct(iter));
+    }
+
+    // Limit, which stops the rest of the tree once it has its rows
+    iter = limit(iter);
+
+    // Store iterator query tree
+    this.query_tree = iter;
+  }
+
+  /**
+   * Compiles the scan of a single heap table with all of the selections, and
+   * the projection too if nothing after it needs the other columns (i.e.
+   * there's no grouping, and sorting comes after the projection). Returns
+   * null if compilation is disabled, the query doesn't qualify, the table has
+   * fewer than COMPILE_ROWS rows (so generating a class would cost more than
+   * it saves), or the pipeline can't be compiled, in which case the tree is
+   * interpreted.
+   */
+  private Iterator compileScan() {
+    projection_compiled = false;
+    if (!compilation_enabled || this.tables.length != 1
+        || Minibase.SystemCatalog.isColumnar(this.tables[0]) || estimateRows(0) < COMPILE_ROWS) {
+      return null;
+    }
+    boolean project = tree_columns.length > 0 && tree_groups.length == 0
+        && tree_aggregates.length == 0 && (distinct || tree_orders.length == 0);
+    CompiledScan scan;
+    try {
+      scan = CompiledScan.compile(this.schema, new HeapFile(this.tables[0]), tree_predicates,
+          project ? fieldNumbers(this.schema) : null);
+    } catch (IllegalArgumentException exc) {
+      return null;
+    }
+    projection_compiled = (scan != null) && project;
+    return scan;
+  }
+
+  /**
+   * Builds a plan whose selections, grouping and join run on parallel workers,
+   * if there are at least two and a table has PARALLEL_ROWS rows. Tables are
+   * still scanned by this thread, feeding the workers through exchanges:
+   * <ul>
+   * <li>a single table with GROUP BY is repartitioned by the group columns, so
+   * that each worker selects and aggregates whole groups, within its share of
+   * the memory budget (see ParallelAggregate); without groups, the rows are
+   * dealt round-robin to be selected, and aggregated afterwards</li>
+   * <li>two tables with an equality predicate on a column of each, the first
+   * of which fits in the memory budget, are hash joined: the first table is
+   * broadcast to every worker if the other has many times more rows (which
+   * are then dealt round-robin), otherwise both are repartitioned by the join
+   * columns; the workers then select (larger joins spill, so they stay
+   * serial; see join)</li>
+   * </ul>
+   * Returns null if the query doesn't qualify.
+   */
+  private Iterator parallelPlan() {
+    aggregate_parallel = false;
+    if (parallelism < 2 || this.tables.length > 2) {
+      return null;
+    }
+    long[] rows = new long[this.tables.length];
+    long maxRows = 0;
+    for (int i = 0; i < this.tables.length; i++) {
+      rows[i] = estimateRows(i);
+      maxRows = Math.max(maxRows, rows[i]);
+    }
+    if (maxRows < PARALLEL_ROWS) {
+      return null;
+    }
+    Iterator[] workers = new Iterator[parallelism];
+    List<Predicate[]> pushedDownPredicates = new ArrayList<>();
+
+    // A single table: select and aggregate, if there's work for the workers
+    if (this.tables.length == 1) {
+      // without groups the workers only select, which pays off before an
+      // aggregate; otherwise a compiled scan selects faster than the exchange
+      // moves the rows
+      boolean grouped = tree_groups.length > 0;
+      if (!grouped && (tree_predicates.length == 0 || tree_aggregates.length == 0)) {
+        return null;
+      }
+      Iterator scan = scanTable(0, pushedDownPredicates);
+      if (!grouped && pushedDownPredicates.size() == tree_predicates.length) {
+        // the columnar scan evaluates every predicate
+        scan.close();
+        return null;
+      }
+      int[] groupFields = new int[tree_groups.length];
+      for (int i = 0; i < tree_groups.length; i++) {
+        groupFields[i] = scan.getSchema().fieldNumber(tree_groups[i]);
+      }
+      Exchange exchange = new Repartition(scan, parallelism, groupFields);
+      for (int w = 0; w < parallelism; w++) {
+        workers[w] = select(exchange.getConsumer(w), pushedDownPredicates);
+      }
+      aggregate_parallel = grouped;
+      if (grouped) {
+        return new ParallelAggregate(new Exchange[] { exchange }, workers, groupFields,
+            TempSpace.DEFAULT_MEMORY, tree_aggregates);
+      }
+      return new Gather(new Exchange[] { exchange }, workers);
+    }
+
+    // Two tables, unless the second is big enough for an index join (see join)
+    if (late_scans == null && rows[0] * INDEX_JOIN_RATIO <= rows[1]
+        && !Minibase.SystemCatalog.isColumnar(this.tables[1])
+        && Minibase.SystemCatalog.getIndexes(this.tables[1]).length > 0) {
+      return null;
     }
 
-    // Join tables
-    Iterator iter = tableIterators[0];
-    for (int i = 1; i < tableIterators.length; i++) {
-      iter = new SimpleJoin(iter, tableIterators[i]);
+    // Find an equality predicate between them
+    Iterator left = scanTable(0, pushedDownPredicates);
+    Iterator right = scanTable(1, pushedDownPredicates);
+    int[] columns = equiJoinColumns(left.getSchema(), right.getSchema());
+    if (columns == null || rows[0] * left.getSchema().getLength() > TempSpace.DEFAULT_MEMORY) {
+      left.close();
+      right.close();
+      return null;
+    }
+    Exchange build;
+    Exchange probe;
+    if (rows[0] * parallelism <= rows[1]) {
+      build = new Broadcast(left, parallelism);
+      probe = new Repartition(right, parallelism);
+    } else {
+      build = new Repartition(left, parallelism, columns[0]);
+      probe = new Repartition(right, parallelism, columns[1]);
+    }
+
+    // the predicate is still evaluated by a selection, as for the other joins
+    for (int w = 0; w < parallelism; w++) {
+      workers[w] = select(new HashJoin(build.getConsumer(w), probe.getConsumer(w), columns[0], columns[1]),
+          pushedDownPredicates);
+    }
+    return new Gather(new Exchange[] { build, probe }, workers);
+  }
+
+  /**
+   * Checks if batching is enabled and the interpreted tree reads a single heap
+   * table, whose FileScan, Selections and Projection all process whole
+   * batches.
+   */
+  private boolean isBatchPipeline() {
+    return batching_enabled && this.tables.length == 1
+        && !Minibase.SystemCatalog.isColumnar(this.tables[0]);
+  }
+
+  /**
+   * Ends the batch pipeline, if the tree is one: the operators below pass
+   * batches, and a BatchAdapter returns their rows one at a time to those
+   * above (e.g. aggregates, sorting, and DISTINCT).
+   */
+  private Iterator endBatch(Iterator iter) {
+    if (!batch_pipeline) {
+      return iter;
     }
+    batch_pipeline = false;
+    return new BatchAdapter(iter);
+  }
 
-    // Remaining selections
+  /**
+   * Applies the selections that haven't been pushed down.
+   */
+  private Iterator select(Iterator iter, List<Predicate[]> pushedDownPredicates) {
     for (Predicate[] pred : tree_predicates) {
-      if (!pushedDownPredicates.contains(pred)) { // Apply only non-pushed-down predicates
+      if (!pushedDownPredicates.contains(pred)) {
         iter = new Selection(iter, pred);
       }
     }
+    return iter;
+  }
+
+  /**
+   * Joins a table onto the tree. If the table has a hash index on a column
+   * that an equality predicate compares with a column of the tree, and the
+   * tree has far fewer rows than the table, each row of the tree probes the
+   * index. Otherwise, if an equality predicate compares a column of each and
+   * the tree's rows don't fit in one block, the tree is hash partitioned
+   * (spilling partitions past the memory budget) and the table probes it;
+   * else the table is scanned once per block of the tree's rows. Either way,
+   * the predicate is still evaluated by a selection above.
+   */
+  private Iterator join(Iterator iter, long outerRows, int i, Iterator inner) {
+    if (inner instanceof FileScan && outerRows * INDEX_JOIN_RATIO <= estimateRows(i)) {
+      Schema outerSchema = iter.getSchema();
+      Schema innerSchema = this.table_schemas[i];
+      for (IndexDesc ind : Minibase.SystemCatalog.getIndexes(this.tables[i])) {
+        int innerCol = innerSchema.fieldNumber(ind.columnName);
+        for (Predicate[] pred : tree_predicates) {
+          String[] columns = (pred.length == 1) ? pred[0].equiJoinColumns() : null;
+          if (columns == null) {
+            continue;
+          }
+          for (int side = 0; side < 2; side++) {
+            int outerCol = outerSchema.fieldNumber(columns[side]);
+            String innerName = columns[1 - side];
+
+            // the inner column's name must not also resolve to the tree
+            if (outerCol >= 0 && innerSchema.fieldNumber(innerName) == innerCol
+                && outerSchema.fieldNumber(innerName) < 0
+                && outerSchema.fieldType(outerCol) == innerSchema.fieldType(innerCol)) {
+              inner.close();
+              return new IndexNestedLoopJoin(iter, outerCol, innerSchema, innerCol,
+                  new HashIndex(ind.indexName));
+            }
+          }
+        }
+      }
+    }
+    int[] columns = equiJoinColumns(iter.getSchema(), inner.getSchema());
+    if (columns != null && outerRows * iter.getSchema().getLength() > TempSpace.DEFAULT_MEMORY) {
+      return new HybridHashJoin(iter, inner, columns[0], columns[1]);
+    }
+    return new BlockNestedLoopJoin(iter, inner);
+  }
 
-    // Projection
-    if (tree_columns.length > 0) {
-      iter = new Projection(iter, tree_field_numbers);
+  /**
+   * Finds an equality predicate between a column of the left schema and one
+   * of the right, of the same type; returns their field numbers, or null.
+   */
+  private int[] equiJoinColumns(Schema left, Schema right) {
+    for (Predicate[] pred : tree_predicates) {
+      String[] columns = (pred.length == 1) ? pred[0].equiJoinColumns() : null;
+      if (columns == null) {
+        continue;
+      }
+      for (int side = 0; side < 2; side++) {
+        int leftCol = left.fieldNumber(columns[side]);
+        int rightCol = right.fieldNumber(columns[1 - side]);
+
+        // each column's name must resolve to its own side only
+        if (leftCol >= 0 && rightCol >= 0 && right.fieldNumber(columns[side]) < 0
+            && left.fieldNumber(columns[1 - side]) < 0
+            && left.fieldType(leftCol) == right.fieldType(rightCol)) {
+          return new int[] { leftCol, rightCol };
+        }
+      }
     }
+    return null;
+  }
 
-    // Store iterator query tree
-    this.query_tree = iter;
+  /**
+   * Gets the number of rows in a table.
+   */
+  private long estimateRows(int i) {
+    if (Minibase.SystemCatalog.isColumnar(this.tables[i])) {
+      return new ColumnarFile(this.tables[i], this.table_schemas[i]).getRecCnt();
+    }
+    return new HeapFile(this.tables[i]).getRecCnt();
+  }
+
+  /**
+   * Groups the rows and computes the aggregates, if any. A single table that
+   * is clustered on the one group column is read in group order, so it is
+   * aggregated as it streams; otherwise the groups are hashed (unless the
+   * parallel workers did).
+   */
+  private Iterator aggregate(Iterator iter) {
+    if ((tree_groups.length == 0 && tree_aggregates.length == 0) || aggregate_parallel) {
+      return iter;
+    }
+    iter = endBatch(iter);
+    int[] groupFields = new int[tree_groups.length];
+    for (int i = 0; i < tree_groups.length; i++) {
+      groupFields[i] = iter.getSchema().fieldNumber(tree_groups[i]);
+    }
+    if (this.tables.length == 1 && tree_groups.length == 1
+        && tree_groups[0].equalsIgnoreCase(Minibase.SystemCatalog.getClusterColumn(this.tables[0]))) {
+      return new StreamAggregate(iter, groupFields, tree_aggregates);
+    }
+    return new HashAggregate(iter, groupFields, tree_aggregates);
+  }
+
+  /**
+   * Sorts the rows for ORDER BY, if any. With a LIMIT whose rows fit in the
+   * sort's memory, only the top rows are kept (in a bounded heap) instead.
+   */
+  private Iterator orderBy(Iterator iter) {
+    if (tree_orders.length == 0) {
+      return iter;
+    }
+    iter = endBatch(iter);
+    long topBytes = ((long) tree_limit + tree_offset) * iter.getSchema().getLength();
+    top_n = tree_limit >= 0 && topBytes <= Sort.DEFAULT_MEMORY;
+    if (top_n) {
+      return new TopN(iter, tree_limit, tree_offset, tree_orders);
+    }
+    return new Sort(iter, tree_orders);
+  }
+
+  /**
+   * Applies the LIMIT and OFFSET, unless the sort already did.
+   */
+  private Iterator limit(Iterator iter) {
+    if (tree_limit < 0 || top_n) {
+      return iter;
+    }
+    return new Limit(iter, tree_limit, tree_offset);
+  }
+
+  /**
+   * Builds the scan of a table. Columnar tables read only the columns that the
+   * query needs, and evaluate all of the table's own predicates in the scan;
+   * these are added to the list of pushed-down predicates.
+   */
+  private Iterator scanTable(int i, List<Predicate[]> pushedDownPredicates) {
+    Schema tableSchema = this.table_schemas[i];
+    if (late_scans != null) {
+      late_scans[i] = new LateScan(tableSchema, new HeapFile(this.tables[i]), this.tables[i] + "#" + i,
+          neededFields(tableSchema));
+      return late_scans[i];
+    }
+    if (!Minibase.SystemCatalog.isColumnar(this.tables[i])) {
+      return new FileScan(tableSchema, new HeapFile(this.tables[i]));
+    }
+
+    // Push down every single-table predicate array for this table
+    List<Predicate[]> scanPredicates = new ArrayList<>();
+    for (Predicate[] pred : tree_predicates) {
+      if (!pushedDownPredicates.contains(pred) && isSingleTablePredicate(pred, tableSchema)) {
+        scanPredicates.add(pred);
+        pushedDownPredicates.add(pred);
+      }
+    }
+
+    // Read the projected columns and those used by the remaining predicates
+    List<Integer> fields = new ArrayList<>();
+    for (int fldno = 0; fldno < tableSchema.getCount(); fldno++) {
+      if (tree_columns.length == 0 || isReferenced(tableSchema, fldno, pushedDownPredicates)) {
+        fields.add(fldno);
+      }
+    }
+    if (fields.isEmpty()) {
+      // e.g. COUNT(*): read one column to count the rows
+      fields.add(0);
+    }
+    int[] scanFields = new int[fields.size()];
+    for (int j = 0; j < scanFields.length; j++) {
+      scanFields[j] = fields.get(j);
+    }
+    return new ColumnScan(new ColumnarFile(this.tables[i], tableSchema), scanFields,
+        scanPredicates.toArray(new Predicate[scanPredicates.size()][]));
+  }
+
+  /**
+   * Checks if late materialization is enabled and worth it: the query joins
+   * heap tables and projects columns without grouping, and the columns needed
+   * before the projection (by predicates and sorting), plus a RID per table,
+   * are at most half of the joined row. Intermediate tuples then have only
+   * those columns, and the projected ones are fetched by RID at the end; index
+   * nested-loop joins aren't used, since they read the whole inner rows.
+   */
+  private boolean useLateMaterialization() {
+    if (!late_materialization_enabled || this.tables.length < 2 || tree_columns.length == 0
+        || tree_groups.length > 0 || tree_aggregates.length > 0) {
+      return false;
+    }
+    int lateLength = 0;
+    for (int i = 0; i < this.tables.length; i++) {
+      if (Minibase.SystemCatalog.isColumnar(this.tables[i])) {
+        return false;
+      }
+      for (int fldno : neededFields(this.table_schemas[i])) {
+        lateLength += this.table_schemas[i].fieldLength(fldno);
+      }
+      lateLength += 8;
+    }
+    return 2 * lateLength <= this.schema.getLength();
+  }
+
+  /**
+   * Gets the fields of a table that are needed before the projection, i.e.
+   * used by a predicate or sorted on.
+   */
+  private int[] neededFields(Schema tableSchema) {
+    List<Integer> fields = new ArrayList<>();
+    for (int fldno = 0; fldno < tableSchema.getCount(); fldno++) {
+      boolean needed = false;
+      for (Predicate[] pred : tree_predicates) {
+        for (Predicate predicate : pred) {
+          needed |= predicate.references(tableSchema, fldno);
+        }
+      }
+      for (SortKey order : tree_orders) {
+        needed |= tableSchema.fieldName(fldno).equalsIgnoreCase((String) order.field);
+      }
+      if (needed) {
+        fields.add(fldno);
+      }
+    }
+    int[] needed = new int[fields.size()];
+    for (int j = 0; j < needed.length; j++) {
+      needed[j] = fields.get(j);
+    }
+    return needed;
+  }
+
+  /**
+   * Projects the tree's columns: from the tree, or if the tables were read by
+   * late scans, from their records fetched by RID.
+   */
+  private Iterator project(Iterator iter) {
+    if (late_scans == null) {
+      return new Projection(iter, fieldNumbers(iter.getSchema()));
+    }
+    int[] tables = new int[tree_columns.length];
+    int[] fields = new int[tree_columns.length];
+    for (int c = 0; c < tree_columns.length; c++) {
+      // the column's table and field, as resolved in the joined schema
+      fields[c] = this.schema.fieldNumber(tree_columns[c]);
+      while (fields[c] >= this.table_schemas[tables[c]].getCount()) {
+        fields[c] -= this.table_schemas[tables[c]++].getCount();
+      }
+    }
+    return new Materialize(iter, late_scans, tables, fields);
+  }
+
+  /**
+   * Checks if a table's field is projected, grouped on, aggregated, sorted on,
+   * or used by a predicate array that has not been pushed down.
+   */
+  private boolean isReferenced(Schema tableSchema, int fldno, List<Predicate[]> pushedDownPredicates) {
+    for (String column : tree_columns) {
+      if (tableSchema.fieldName(fldno).equalsIgnoreCase(column)) {
+        return true;
+      }
+    }
+    for (String group : tree_groups) {
+      if (tableSchema.fieldName(fldno).equalsIgnoreCase(group)) {
+        return true;
+      }
+    }
+    for (Aggregate agg : tree_aggregates) {
+      if (agg.field != null && tableSchema.fieldName(fldno).equalsIgnoreCase((String) agg.field)) {
+        return true;
+      }
+    }
+    for (SortKey order : tree_orders) {
+      if (tableSchema.fieldName(fldno).equalsIgnoreCase((String) order.field)) {
+        return true;
+      }
+    }
+    for (Predicate[] pred : tree_predicates) {
+      if (!pushedDownPredicates.contains(pred)) {
+        for (Predicate predicate : pred) {
+          if (predicate.references(tableSchema, fldno)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if a column is in the projection list.
+   */
+  private boolean isSelected(String column) {
+    for (String selected : tree_columns) {
+      if (selected.equalsIgnoreCase(column)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the field numbers of the projected columns in the given schema, which
+   * may lack the columns that columnar scans did not read.
+   */
+  private Integer[] fieldNumbers(Schema treeSchema) {
+    Integer[] fldnos = new Integer[tree_columns.length];
+    for (int i = 0; i < tree_columns.length; i++) {
+      fldnos[i] = treeSchema.fieldNumber(tree_columns[i]);
+    }
+    return fldnos;
   }
 
   /**
@@ -43,6 +43,7 @@ class Update implements Plan {
     // make sure the table exists
     fileName = tree.getFileName();
     schema = QueryCheck.tableExists(fileName);
+    QueryCheck.heapTable(fileName);
 
     // get and validate the field numbers
     String[] fields = tree.getColumns();
@@ -73,9 +74,11 @@ class Update implements Plan {
       iter = new Selection(iter, preds[i]);
     }
 
-    // only update indexes where keys are affected
-    IndexDesc[] inds = Minibase.SystemCatalog.getIndexes(fileName, schema,
-        fldnos);
+    // only update indexes where keys are affected (or every index, if
+    // records can change size and move)
+    IndexDesc[] inds = schema.isVariable()
+        ? Minibase.SystemCatalog.getIndexes(fileName)
+        : Minibase.SystemCatalog.getIndexes(fileName, schema, fldnos);
 
     // update each tuple in place
     int updcnt = 0;
@@ -95,7 +98,14 @@ class Update implements Plan {
       for (int i = 0; i < fldnos.length; i++) {
         tuple.setField(fldnos[i], values[i]);
       }
-      file.updateRecord(rid, tuple.getData());
+      byte[] record = tuple.getRecord();
+      if (record.length == file.selectRecord(rid).length) {
+        file.updateRecord(rid, record);
+      } else {
+        // a variable-length record changed size, so it gets a new RID
+        file.deleteRecord(rid);
+        rid = file.insertRecord(record);
+      }
       updcnt++;
 
       // insert index entries with new key
@@ -108,6 +118,19 @@ class Update implements Plan {
     } // while
     iter.close();
 
+    // rows whose cluster key changed (or that moved) are out of order
+    String clusterColumn = Minibase.SystemCatalog.getClusterColumn(fileName);
+    if (updcnt > 0 && clusterColumn != null) {
+      int clusterFld = schema.fieldNumber(clusterColumn);
+      boolean moved = schema.isVariable();
+      for (int fldno : fldnos) {
+        moved |= (fldno == clusterFld);
+      }
+      if (moved) {
+        Minibase.SystemCatalog.setClusterColumn(fileName, "");
+      }
+    }
+
     // print the output message
     System.out.println(updcnt + " rows affected.");
 
@@ -0,0 +1,86 @@
+package query;
+
+import global.Minibase;
+import global.RID;
+import global.SearchKey;
+import heap.HeapFile;
+import index.HashIndex;
+import parser.AST_Vacuum;
+import relop.FileScan;
+import relop.Schema;
+import relop.Tuple;
+
+/**
+ * Execution plan for vacuuming tables, i.e. reclaiming the pages left sparse or
+ * empty by deletes. The records are copied to a temporary heap file and then
+ * reinserted, in scan order, into a new heap file under the table's name, so
+ * the table ends up on as few pages as possible; the table's indexes are
+ * rebuilt with the new RIDs.
+ */
+class Vacuum implements Plan {
+
+  /** Name of the table to vacuum. */
+  protected String fileName;
+
+  /** Schema of the table to vacuum. */
+  protected Schema schema;
+
+  /**
+   * Optimizes the plan, given the parsed query.
+   * 
+   * @throws QueryException if table doesn't exist
+   */
+  public Vacuum(AST_Vacuum tree) throws QueryException {
+
+    // make sure the table exists
+    fileName = tree.getFileName();
+    schema = QueryCheck.tableExists(fileName);
+    QueryCheck.heapTable(fileName);
+
+  } // public Vacuum(AST_Vacuum tree) throws QueryException
+
+  /**
+   * Executes the plan and prints applicable output.
+   */
+  public void execute() {
+
+    // copy the records aside, then replace the table's file
+    HeapFile temp = new HeapFile(null);
+    FileScan scan = new FileScan(schema, new HeapFile(fileName));
+    while (scan.hasNext()) {
+      scan.getNext().insertIntoFile(temp);
+    }
+    scan.close();
+    new HeapFile(fileName).deleteFile();
+    HeapFile file = new HeapFile(fileName);
+
+    // recreate the indexes empty
+    IndexDesc[] inds = Minibase.SystemCatalog.getIndexes(fileName);
+    HashIndex[] indexes = new HashIndex[inds.length];
+    int[] keyfld = new int[inds.length];
+    for (int i = 0; i < inds.length; i++) {
+      new HashIndex(inds[i].indexName).deleteFile();
+      indexes[i] = new HashIndex(inds[i].indexName);
+      keyfld[i] = schema.fieldNumber(inds[i].columnName);
+    }
+
+    // reinsert the records, indexing the new RIDs
+    int rowcnt = 0;
+    scan = new FileScan(schema, temp);
+    while (scan.hasNext()) {
+      Tuple tuple = scan.getNext();
+      RID rid = tuple.insertIntoFile(file);
+      for (int i = 0; i < indexes.length; i++) {
+        indexes[i].insertEntry(new SearchKey(tuple.getField(keyfld[i])), rid);
+      }
+      rowcnt++;
+    }
+    scan.close();
+    temp.deleteFile();
+
+    // print the output message
+    System.out.println(rowcnt + " rows vacuumed.");
+
+  } // public void execute()
+
+} // class Vacuum implements Plan
@@ -0,0 +1,108 @@
+package heap;
+
+import global.*;
+import chainexception.ChainException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A BackgroundVacuum compacts a heap file on a daemon thread, freeing one page
+ * per step (see HeapFile.vacuum). Each step holds the file's lock, so it runs
+ * between the file's other operations, and the buffer manager's lock, since the
+ * buffer manager is not thread-safe; other threads that use the buffer manager
+ * concurrently must lock it as well. Steps are skipped while scans of the file
+ * are open, because moved records could be missed or returned twice.
+ */
+public class BackgroundVacuum implements Runnable {
+
+  private final HeapFile file;
+  private final HeapFile.MoveHandler handler;
+  private final long intervalMillis;
+  private final Thread thread;
+  private final AtomicInteger pagesFreed;
+  private volatile boolean stopped;
+  private volatile RuntimeException failure;
+
+  /**
+   * Constructs a vacuum of the given file that reports moved records to the
+   * handler (if any), and waits for the given interval whenever it has nothing
+   * to do.
+   */
+  protected BackgroundVacuum(HeapFile file, HeapFile.MoveHandler handler,
+      long intervalMillis) {
+    if (intervalMillis < 0) {
+      throw new IllegalArgumentException("Invalid vacuum interval");
+    }
+    this.file = file;
+    this.handler = handler;
+    this.intervalMillis = intervalMillis;
+    this.pagesFreed = new AtomicInteger();
+    this.stopped = false;
+    this.thread = new Thread(this, "vacuum " + file);
+    this.thread.setDaemon(true);
+  }
+
+  /**
+   * Starts the vacuum thread.
+   */
+  protected void start() {
+    thread.start();
+  }
+
+  /**
+   * Repeatedly frees a page, resting whenever no page can be freed.
+   */
+  public void run() {
+    while (!stopped) {
+      boolean freed;
+      try {
+        synchronized (file) {
+          synchronized (Minibase.BufferManager) {
+            freed = file.vacuumStep(handler);
+          }
+        }
+      } catch (ChainException e) {
+        failure = new IllegalStateException("Background vacuum failed", e);
+        return;
+      } catch (RuntimeException e) {
+        failure = e;
+        return;
+      }
+      if (freed) {
+        pagesFreed.incrementAndGet();
+      } else {
+        try {
+          Thread.sleep(intervalMillis);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops the vacuum and waits for its current step to finish.
+   *
+   * @throws IllegalStateException if a step failed
+   */
+  public void stop() {
+    stopped = true;
+    thread.interrupt();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Gets the number of pages freed so far.
+   */
+  public int getPagesFreed() {
+    return pagesFreed.get();
+  }
+
+} // public class BackgroundVacuum implements Runnable
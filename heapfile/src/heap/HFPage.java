@@ -132,6 +132,12 @@ class HFPage extends Page {
         return record;
     }
 
+    public boolean matches(RID rid, ScanPredicate[][] preds) {
+        this.checkRID(rid);
+        short offset = this.getSlotOffset(rid.slotno);
+        return ScanPredicate.evaluate(preds, this.data, offset);
+    }
+
     public void updateRecord(RID rid, Tuple record) {
         short length = this.checkRID(rid);
         if (record.getLength() != length) {
@@ -142,6 +148,30 @@ class HFPage extends Page {
         }
     }
 
+    /**
+     * Replaces a record with one of a different length, keeping its slot (and
+     * so its RID): the old bytes are compacted away, and the new ones are
+     * placed at the start of the used space.
+     *
+     * @return false if the page doesn't have room for the new record
+     */
+    public boolean resizeRecord(RID rid, byte[] record) {
+        short length = this.checkRID(rid);
+        if (record.length - length > this.getFreeSpace()) {
+            return false;
+        }
+        this.deleteRecord(rid);
+        short recLength = (short)record.length;
+        short usedPtr = (short)(this.getShortValue(2) - recLength);
+        this.setShortValue(usedPtr, 2);
+        this.setShortValue((short)(this.getFreeSpace() - recLength), 4);
+        int slotpos = 20 + rid.slotno * 4;
+        this.setShortValue(recLength, slotpos);
+        this.setShortValue(usedPtr, slotpos + 2);
+        System.arraycopy(record, 0, this.data, usedPtr, recLength);
+        return true;
+    }
+
     public void deleteRecord(RID rid) {
         short length = this.checkRID(rid);
         short offset = this.getSlotOffset(rid.slotno);
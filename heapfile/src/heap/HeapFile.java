@@ -4,6 +4,7 @@ import global.*;
 import chainexception.ChainException;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <h3>Minibase Heap Files</h3>
@@ -14,11 +15,32 @@ import java.util.*;
  * is the most basic access method.
  */
 public class HeapFile implements GlobalConst {
+
+  /** Number of pages linked to the end of the file at a time in append mode. */
+  public static final int APPEND_EXTENT = 8;
+
+  /**
+   * Callback for records that a vacuum moves to another page, e.g. to update
+   * index entries that refer to their old RIDs.
+   */
+  public interface MoveHandler {
+    void moved(Tuple record, RID oldRid, RID newRid);
+  }
+
   protected List<PageId> pageIdList;
   protected TreeMap<Integer, List<PageId>> freeSpaceMap;
   protected int recCount;
   protected String name;
   protected int fileStatus;
+  protected ZoneMap zoneMap;
+  protected int openScans;
+
+  // append mode: the pinned last page, its free space as recorded in the
+  // free space map, and the number of empty pages linked after it
+  protected PageId appendPageId;
+  protected HFPage appendPage;
+  protected int appendFreeSpace;
+  protected int preLinked;
 
   /**
    * If the given name already denotes a file, this opens it; otherwise, this
@@ -40,18 +62,25 @@ public class HeapFile implements GlobalConst {
         } else {
           loadExistingFile(firstPageId);
         }
+        zoneMap = ZoneMap.open(name);
       } else {
-        initializeTempFile();
+        initializeNewFile();
       }
     } catch (Exception e) {
       throw new RuntimeException("HeapFile initialization failed", e);
     }
   }
 
+  /**
+   * Allocates the first page of a new file; temporary files get a real page
+   * too, just no file entry.
+   */
   private void initializeNewFile() throws ChainException {
     Page newPage = new Page();
     PageId newPageId = Minibase.BufferManager.newPage(newPage, 1);
-    Minibase.DiskManager.add_file_entry(name, newPageId);
+    if (name != null) {
+      Minibase.DiskManager.add_file_entry(name, newPageId);
+    }
     HFPage hfPage = new HFPage(newPage);
     hfPage.initDefaults();
     hfPage.setCurPage(newPageId);
@@ -83,7 +112,9 @@ public class HeapFile implements GlobalConst {
 
   /**
    * Called by the garbage collector when there are no more references to the
-   * object; deletes the heap file if it's temporary.
+   * object; deletes the heap file if it's temporary. This is only a fallback:
+   * temporary files should be deleted explicitly, since finalization may never
+   * run.
    */
   protected void finalize() throws Throwable {
     if (name == null) {
@@ -94,12 +125,20 @@ public class HeapFile implements GlobalConst {
   /**
    * Deletes the heap file from the database, freeing all of its pages.
    */
-  public void deleteFile() {
+  public synchronized void deleteFile() {
     if (fileStatus == 0) {
+      if (appendPage != null) {
+        Minibase.BufferManager.unpinPage(appendPageId, UNPIN_DIRTY);
+        appendPage = null;
+      }
+      dropZoneMap();
       for (PageId pageId : pageIdList) {
-        Minibase.DiskManager.deallocate_page(pageId);
+        // free through the buffer manager, so no stale frame outlives the page
+        Minibase.BufferManager.freePage(pageId);
+      }
+      if (name != null) {
+        Minibase.DiskManager.delete_file_entry(name);
       }
-      Minibase.DiskManager.delete_file_entry(name);
       recCount = 0;
       fileStatus = 1;
       pageIdList.clear();
@@ -112,11 +151,14 @@ public class HeapFile implements GlobalConst {
    *
    * @throws IllegalArgumentException if the record is too large
    */
-  public RID insertRecord(byte[] record) throws ChainException {
+  public synchronized RID insertRecord(byte[] record) throws ChainException {
     if (record.length + HFPage.HEADER_SIZE > PAGE_SIZE) {
       throw new SpaceNotAvailableException("Record too large");
     }
 
+    if (appendPage != null) {
+      return appendRecord(record);
+    }
     int spaceNeeded = record.length + 4;
     if (!freeSpaceMap.isEmpty() && freeSpaceMap.firstKey() >= spaceNeeded) {
       return insertIntoExistingPage(record, spaceNeeded);
@@ -145,6 +187,9 @@ public class HeapFile implements GlobalConst {
     updateStructures(targetPageId, oldFreeSpace, newFreeSpace);
     Minibase.BufferManager.unpinPage(targetPageId, UNPIN_DIRTY);
     recCount++;
+    if (zoneMap != null) {
+      zoneMap.widen(targetPageId, record, 0);
+    }
     return rid;
   }
 
@@ -167,6 +212,9 @@ public class HeapFile implements GlobalConst {
     updateStructures(newPageId, Integer.MAX_VALUE, hfPage.getFreeSpace());
     recCount++;
     Minibase.BufferManager.unpinPage(newPageId, UNPIN_DIRTY);
+    if (zoneMap != null) {
+      zoneMap.widen(newPageId, record, 0);
+    }
     return rid;
   }
 
@@ -183,12 +231,6 @@ public class HeapFile implements GlobalConst {
     Minibase.BufferManager.unpinPage(newPageId, UNPIN_DIRTY);
   }
 
-  private void initializeTempFile() {
-    PageId tempPageId = new PageId(-1);
-    pageIdList.add(tempPageId);
-    freeSpaceMap.computeIfAbsent(1024 - HFPage.HEADER_SIZE, k -> new ArrayList<>()).add(tempPageId);
-  }
-
   private void updateStructures(PageId pageId, int oldFreeSpace, int newFreeSpace) {
     if (oldFreeSpace != Integer.MAX_VALUE) {
       List<PageId> oldList = freeSpaceMap.get(oldFreeSpace);
@@ -205,7 +247,7 @@ public class HeapFile implements GlobalConst {
     }
   }
 
-  public Tuple getRecord(RID rid) throws ChainException {
+  public synchronized Tuple getRecord(RID rid) throws ChainException {
     PageId pageno = rid.pageno;
     boolean found = false;
     for (PageId pid : pageIdList) {
@@ -233,7 +275,7 @@ public class HeapFile implements GlobalConst {
    *
    * @throws IllegalArgumentException if the rid is invalid
    */
-  public byte[] selectRecord(RID rid) {
+  public synchronized byte[] selectRecord(RID rid) {
     PageId targetPage = rid.pageno;
 
     // Verify the page exists in this heap file
@@ -264,7 +306,8 @@ public class HeapFile implements GlobalConst {
    *
    * @throws IllegalArgumentException if the rid or new record is invalid
    */
-  public boolean updateRecord(RID rid, Tuple newRecord) throws ChainException {
+  public synchronized boolean updateRecord(RID rid, Tuple newRecord)
+      throws ChainException {
     PageId pageno = rid.pageno;
     HFPage hfPage = new HFPage();
     Minibase.BufferManager.pinPage(pageno, hfPage, PIN_DISKIO);
@@ -274,19 +317,64 @@ public class HeapFile implements GlobalConst {
         throw new InvalidUpdateException();
       }
       hfPage.updateRecord(rid, newRecord);
+      if (zoneMap != null) {
+        // the old value may have been a bound, so recompute rather than widen
+        zoneMap.rebuild(pageno, hfPage);
+      }
       return true;
     } finally {
       Minibase.BufferManager.unpinPage(pageno, UNPIN_DIRTY);
     }
   }
 
+  /**
+   * Replaces the specified record with one that may have a different length
+   * (e.g. a record in a variable-length format), keeping its RID.
+   *
+   * @return false if the record's page doesn't have room for the new one, in
+   * which case the caller has to delete and reinsert it
+   * @throws IllegalArgumentException if the rid is invalid
+   */
+  public synchronized boolean replaceRecord(RID rid, byte[] record)
+      throws ChainException {
+    if (record.length + HFPage.HEADER_SIZE > PAGE_SIZE) {
+      throw new SpaceNotAvailableException("Record too large");
+    }
+    PageId pageno = rid.pageno;
+    if (appendPage != null && pageno.pid == appendPageId.pid) {
+      syncAppendPage();
+    }
+    HFPage hfPage = new HFPage();
+    Minibase.BufferManager.pinPage(pageno, hfPage, PIN_DISKIO);
+    boolean replaced = false;
+    try {
+      int oldFreeSpace = hfPage.getFreeSpace();
+      replaced = hfPage.resizeRecord(rid, record);
+      if (replaced) {
+        updateStructures(pageno, oldFreeSpace, hfPage.getFreeSpace());
+        if (appendPage != null && pageno.pid == appendPageId.pid) {
+          appendFreeSpace = hfPage.getFreeSpace();
+        }
+        if (zoneMap != null) {
+          zoneMap.rebuild(pageno, hfPage);
+        }
+      }
+      return replaced;
+    } finally {
+      Minibase.BufferManager.unpinPage(pageno, replaced ? UNPIN_DIRTY : UNPIN_CLEAN);
+    }
+  }
+
   /**
    * Deletes the specified record from the heap file.
    *
    * @throws IllegalArgumentException if the rid is invalid
    */
-  public boolean deleteRecord(RID rid) throws ChainException {
+  public synchronized boolean deleteRecord(RID rid) throws ChainException {
     PageId pageno = rid.pageno;
+    if (appendPage != null && pageno.pid == appendPageId.pid) {
+      syncAppendPage();
+    }
     HFPage hfPage = new HFPage();
     Minibase.BufferManager.pinPage(pageno, hfPage, PIN_DISKIO);
     try {
@@ -295,12 +383,361 @@ public class HeapFile implements GlobalConst {
       int newFreeSpace = hfPage.getFreeSpace();
       updateStructures(pageno, oldFreeSpace, newFreeSpace);
       recCount--;
+      if (zoneMap != null) {
+        zoneMap.rebuild(pageno, hfPage);
+      }
       return true;
     } finally {
       Minibase.BufferManager.unpinPage(pageno, UNPIN_DIRTY);
     }
   }
 
+  /**
+   * Creates a zone map over the given columns (described by AttrType, offset
+   * and length within the record), summarizing the records already in the
+   * file; filtered scans then skip pages that cannot contain a match. The zone
+   * map is persisted with the file and maintained on every modification.
+   */
+  public ZoneMap createZoneMap(int[] types, int[] offsets, int[] lengths)
+      throws ChainException {
+    if (name == null) {
+      throw new IllegalStateException("Temporary files cannot have zone maps");
+    }
+    dropZoneMap();
+    ZoneMap map = new ZoneMap(name, types, offsets, lengths);
+    for (PageId pageId : pageIdList) {
+      HFPage hfPage = new HFPage();
+      Minibase.BufferManager.pinPage(pageId, hfPage, PIN_DISKIO);
+      try {
+        map.rebuild(pageId, hfPage);
+      } finally {
+        Minibase.BufferManager.unpinPage(pageId, UNPIN_CLEAN);
+      }
+    }
+    zoneMap = map;
+    return map;
+  }
+
+  /**
+   * Gets the zone map of the file, or null if it has none.
+   */
+  public ZoneMap getZoneMap() {
+    return zoneMap;
+  }
+
+  /**
+   * Drops the zone map of the file, if any.
+   */
+  public void dropZoneMap() {
+    if (zoneMap != null) {
+      zoneMap.delete();
+      zoneMap = null;
+    }
+  }
+
+  /**
+   * Compacts the file: every page whose records fit in the free space of
+   * earlier pages is emptied into them, and empty pages are unlinked from the
+   * chain and deallocated (the first page, which the file entry refers to, is
+   * always kept). Each moved record is reported to the handler, if any.
+   *
+   * @return the number of pages freed
+   * @throws IllegalStateException if scans of the file are open, or the file
+   * is in append mode
+   */
+  public synchronized int vacuum(MoveHandler handler) throws ChainException {
+    if (openScans > 0) {
+      throw new IllegalStateException("Cannot vacuum while scans are open");
+    }
+    if (appendPage != null) {
+      throw new IllegalStateException("Cannot vacuum in append mode");
+    }
+    int freed = 0;
+    for (int i = pageIdList.size() - 1; i > 0; i--) {
+      if (vacuumPage(i, handler)) {
+        freed++;
+      }
+    }
+    return freed;
+  }
+
+  /**
+   * Starts vacuuming the file on a background thread, which frees one page
+   * at a time between the file's other operations and waits for the given
+   * interval whenever there is nothing to free or scans are open.
+   */
+  public BackgroundVacuum startVacuum(MoveHandler handler, long intervalMillis) {
+    BackgroundVacuum vacuum = new BackgroundVacuum(this, handler, intervalMillis);
+    vacuum.start();
+    return vacuum;
+  }
+
+  /**
+   * Frees the last page that can be emptied, if any; returns false if there
+   * are none, scans of the file are open, or the file is in append mode.
+   */
+  protected synchronized boolean vacuumStep(MoveHandler handler)
+      throws ChainException {
+    if (openScans > 0 || appendPage != null) {
+      return false;
+    }
+    for (int i = pageIdList.size() - 1; i > 0; i--) {
+      if (vacuumPage(i, handler)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Moves the records on the page at the given position of the chain into
+   * earlier pages, if they all fit, and then frees the page.
+   *
+   * @return true if the page was freed
+   */
+  private boolean vacuumPage(int index, MoveHandler handler)
+      throws ChainException {
+    PageId pageId = pageIdList.get(index);
+    HFPage hfPage = new HFPage();
+    Minibase.BufferManager.pinPage(pageId, hfPage, PIN_DISKIO);
+    int freeSpace = hfPage.getFreeSpace();
+    boolean moved = false;
+    try {
+      // plan a first-fit placement of every record on an earlier page
+      List<RID> rids = new ArrayList<>();
+      for (RID rid = hfPage.firstRecord(); rid != null; rid = hfPage.nextRecord(rid)) {
+        rids.add(rid);
+      }
+      Map<Integer, Integer> freeByPid = new HashMap<>();
+      for (Map.Entry<Integer, List<PageId>> entry : freeSpaceMap.entrySet()) {
+        for (PageId pid : entry.getValue()) {
+          freeByPid.put(pid.pid, entry.getKey());
+        }
+      }
+      int[] free = new int[index];
+      for (int i = 0; i < index; i++) {
+        free[i] = freeByPid.getOrDefault(pageIdList.get(i).pid, 0);
+      }
+      int[] targets = new int[rids.size()];
+      for (int r = 0; r < rids.size(); r++) {
+        int needed = hfPage.getSlotLength(rids.get(r).slotno) + HFPage.SLOT_SIZE;
+        int t = 0;
+        while (t < index && free[t] < needed) {
+          t++;
+        }
+        if (t == index) {
+          return false;
+        }
+        free[t] -= needed;
+        targets[r] = t;
+      }
+
+      // move the records, then unlink the empty page
+      moved = true;
+      for (int r = 0; r < rids.size(); r++) {
+        RID oldRid = rids.get(r);
+        byte[] record = hfPage.selectRecord(oldRid);
+        RID newRid = moveRecord(record, pageIdList.get(targets[r]));
+        hfPage.deleteRecord(oldRid);
+        if (handler != null) {
+          handler.moved(new Tuple(record, 0, record.length), oldRid, newRid);
+        }
+      }
+      unlinkPage(index, hfPage, freeSpace);
+    } finally {
+      Minibase.BufferManager.unpinPage(pageId, moved ? UNPIN_DIRTY : UNPIN_CLEAN);
+    }
+    Minibase.BufferManager.freePage(pageId);
+    return true;
+  }
+
+  /**
+   * Inserts a record moved by a vacuum into the given page.
+   */
+  private RID moveRecord(byte[] record, PageId targetPageId) throws ChainException {
+    HFPage target = new HFPage();
+    Minibase.BufferManager.pinPage(targetPageId, target, PIN_DISKIO);
+    try {
+      int oldFreeSpace = target.getFreeSpace();
+      RID rid = target.insertRecord(record);
+      if (rid == null) {
+        throw new SpaceNotAvailableException("Vacuum could not move record");
+      }
+      updateStructures(targetPageId, oldFreeSpace, target.getFreeSpace());
+      if (zoneMap != null) {
+        zoneMap.widen(targetPageId, record, 0);
+      }
+      return rid;
+    } finally {
+      Minibase.BufferManager.unpinPage(targetPageId, UNPIN_DIRTY);
+    }
+  }
+
+  /**
+   * Removes the (pinned, empty) page at the given position from the chain and
+   * from the file's structures, given its free space as last recorded.
+   */
+  private void unlinkPage(int index, HFPage hfPage, int freeSpace)
+      throws ChainException {
+    PageId pageId = pageIdList.get(index);
+    PageId prevPageId = pageIdList.get(index - 1);
+    PageId nextPageId = hfPage.getNextPage();
+
+    HFPage prevPage = new HFPage();
+    Minibase.BufferManager.pinPage(prevPageId, prevPage, PIN_DISKIO);
+    prevPage.setNextPage(nextPageId);
+    Minibase.BufferManager.unpinPage(prevPageId, UNPIN_DIRTY);
+    if (nextPageId.pid != INVALID_PAGEID) {
+      HFPage nextPage = new HFPage();
+      Minibase.BufferManager.pinPage(nextPageId, nextPage, PIN_DISKIO);
+      nextPage.setPrevPage(prevPageId);
+      Minibase.BufferManager.unpinPage(nextPageId, UNPIN_DIRTY);
+    }
+
+    List<PageId> list = freeSpaceMap.get(freeSpace);
+    if (list != null) {
+      list.remove(pageId);
+      if (list.isEmpty()) {
+        freeSpaceMap.remove(freeSpace);
+      }
+    }
+    pageIdList.remove(index);
+    if (zoneMap != null) {
+      zoneMap.remove(pageId);
+    }
+  }
+
+  /**
+   * Gets the number of pages in the file.
+   */
+  public synchronized int getPageCnt() {
+    return pageIdList.size();
+  }
+
+  /**
+   * Turns append mode on or off. In append mode, every insert goes to the last
+   * page, which stays pinned, instead of the page with the most free space;
+   * when it fills up, the next page is already linked, since new pages are
+   * allocated and chained an extent at a time. Turning append mode off unpins
+   * the last page and frees the linked pages that were never used.
+   */
+  public synchronized void setAppendMode(boolean append) throws ChainException {
+    if (append == (appendPage != null)) {
+      return;
+    }
+    if (append) {
+      appendPageId = pageIdList.get(pageIdList.size() - 1);
+      appendPage = new HFPage();
+      Minibase.BufferManager.pinPage(appendPageId, appendPage, PIN_DISKIO);
+      appendFreeSpace = appendPage.getFreeSpace();
+      preLinked = 0;
+      return;
+    }
+
+    // unlink and free the unused pages at the end of the chain
+    syncAppendPage();
+    for (; preLinked > 0; preLinked--) {
+      PageId pageId = pageIdList.remove(pageIdList.size() - 1);
+      HFPage hfPage = new HFPage();
+      int freeSpace = hfPage.getFreeSpace();
+      List<PageId> list = freeSpaceMap.get(freeSpace);
+      list.remove(pageId);
+      if (list.isEmpty()) {
+        freeSpaceMap.remove(freeSpace);
+      }
+      Minibase.BufferManager.freePage(pageId);
+    }
+    appendPage.setNextPage(new PageId(INVALID_PAGEID));
+    Minibase.BufferManager.unpinPage(appendPageId, UNPIN_DIRTY);
+    appendPage = null;
+    appendPageId = null;
+  }
+
+  /**
+   * Returns true if the file is in append mode.
+   */
+  public synchronized boolean isAppendMode() {
+    return appendPage != null;
+  }
+
+  /**
+   * Inserts a record into the pinned last page, moving on to the next linked
+   * page when it's full.
+   */
+  private RID appendRecord(byte[] record) throws ChainException {
+    RID rid = appendPage.insertRecord(record);
+    if (rid == null) {
+      if (preLinked == 0) {
+        linkExtent();
+      }
+      syncAppendPage();
+      Minibase.BufferManager.unpinPage(appendPageId, UNPIN_DIRTY);
+      appendPageId = pageIdList.get(pageIdList.size() - preLinked);
+      appendPage = new HFPage();
+      Minibase.BufferManager.pinPage(appendPageId, appendPage, PIN_DISKIO);
+      appendFreeSpace = appendPage.getFreeSpace();
+      preLinked--;
+      rid = appendPage.insertRecord(record);
+      if (rid == null) {
+        throw new SpaceNotAvailableException("Insert into new page failed");
+      }
+    }
+    recCount++;
+    if (zoneMap != null) {
+      zoneMap.widen(appendPageId, record, 0);
+    }
+    return rid;
+  }
+
+  /**
+   * Allocates an extent of empty pages and links them after the last page.
+   */
+  private void linkExtent() throws ChainException {
+    Page first = new Page();
+    PageId firstId = Minibase.BufferManager.newPage(first, APPEND_EXTENT);
+    PageId prevPageId = appendPageId;
+    for (int i = 0; i < APPEND_EXTENT; i++) {
+      PageId pageId = new PageId(firstId.pid + i);
+      HFPage hfPage = i == 0 ? new HFPage(first) : new HFPage();
+      hfPage.initDefaults();
+      hfPage.setCurPage(pageId);
+      hfPage.setPrevPage(prevPageId);
+      if (i + 1 < APPEND_EXTENT) {
+        hfPage.setNextPage(new PageId(pageId.pid + 1));
+      }
+      if (i > 0) {
+        // the rest of the extent isn't in the buffer pool yet
+        Minibase.BufferManager.pinPage(pageId, hfPage, PIN_MEMCPY);
+      }
+      Minibase.BufferManager.unpinPage(pageId, UNPIN_DIRTY);
+      pageIdList.add(pageId);
+      freeSpaceMap.computeIfAbsent((int) hfPage.getFreeSpace(), k -> new ArrayList<>())
+          .add(pageId);
+      prevPageId = pageId;
+    }
+    appendPage.setNextPage(firstId);
+    preLinked = APPEND_EXTENT;
+  }
+
+  /**
+   * Records the free space of the pinned last page in the free space map,
+   * which append mode otherwise leaves alone.
+   */
+  private void syncAppendPage() {
+    int freeSpace = appendPage.getFreeSpace();
+    if (freeSpace != appendFreeSpace) {
+      updateStructures(appendPageId, appendFreeSpace, freeSpace);
+      appendFreeSpace = freeSpace;
+    }
+  }
+
+  /**
+   * Registers or unregisters a scan that relies on records staying in place.
+   */
+  protected synchronized void scanOpened(boolean opened) {
+    openScans += opened ? 1 : -1;
+  }
+
   /**
    * Gets the number of records in the file.
    */
@@ -311,10 +748,36 @@ public class HeapFile implements GlobalConst {
   /**
    * Initiates a sequential scan of the heap file.
    */
-  public HeapScan openScan() {
+  public synchronized HeapScan openScan() {
     return new HeapScan(this);
   }
 
+  /**
+   * Initiates a sequential scan that only returns records passing the given
+   * predicates; each argument is a group of OR'ed predicates, and all groups
+   * must pass (i.e. the same semantics as a chain of relop Selections).
+   */
+  public synchronized HeapScan openScan(ScanPredicate[]... preds) {
+    return new HeapScan(this, preds);
+  }
+
+  /**
+   * Initiates a parallel scan of the heap file, using one worker per processor.
+   */
+  public ParallelHeapScan openParallelScan() {
+    return new ParallelHeapScan(this);
+  }
+
+  /**
+   * Initiates a parallel scan of the heap file on the given pool, handing out
+   * morselSize pages to a worker at a time; the optional predicates filter
+   * records as in openScan.
+   */
+  public ParallelHeapScan openParallelScan(ForkJoinPool pool, int morselSize,
+      ScanPredicate[]... preds) {
+    return new ParallelHeapScan(this, pool, morselSize, preds);
+  }
+
   /**
    * Returns the name of the heap file.
    */
@@ -12,28 +12,48 @@ import java.util.List;
  * the next record in the file.
  */
 public class HeapScan implements GlobalConst {
+  private HeapFile file;
   private List<PageId> pageIds;
   private int currentPageIndex;
   private RID currentRid;
   private HFPage currentPage;
   private PageId currentPageId;
+  private ScanPredicate[][] preds;
+  private ZoneMap zoneMap;
+  private int pagesSkipped;
+  private int pagesScanned;
 
   /**
    * Constructs a file scan by pinning the directoy header page and initializing
    * iterator fields.
    */
   protected HeapScan(HeapFile hf) {
+    this(hf, new ScanPredicate[0][]);
+  }
+
+  /**
+   * Constructs a file scan that only returns records passing the predicates,
+   * given in conjunctive normal form (i.e. AND of OR groups). The predicates
+   * are evaluated on the pinned page, so non-matching records are never copied,
+   * and pages that the file's zone map rules out are never pinned.
+   */
+  protected HeapScan(HeapFile hf, ScanPredicate[][] preds) {
     this.pageIds = new ArrayList<>(hf.pageIdList);
+    this.preds = preds;
     this.currentPageIndex = 0;
     this.currentRid = null;
     this.currentPage = null;
     this.currentPageId = null;
+    this.zoneMap = preds.length > 0 ? hf.zoneMap : null;
+    this.file = hf;
+    hf.scanOpened(true);
 
-    if (!pageIds.isEmpty()) {
+    if (!pageIds.isEmpty() && zoneMap == null) {
       currentPageId = pageIds.get(currentPageIndex);
       currentPage = new HFPage();
         Minibase.BufferManager.pinPage(currentPageId, currentPage, PIN_DISKIO);
         currentRid = currentPage.firstRecord();
+        pagesScanned++;
     }
   }
 
@@ -50,6 +70,7 @@ public class HeapScan implements GlobalConst {
    */
   public void close() throws ChainException {
     unpinCurrentPage();
+    release();
     pageIds = null;
     currentRid = null;
   }
@@ -58,9 +79,8 @@ public class HeapScan implements GlobalConst {
    * Returns true if there are more records to scan, false otherwise.
    */
   public boolean hasNext() {
-    if (currentPageIndex >= pageIds.size()) return false;
-    if (currentPage == null) return true;
-    return currentRid != null || currentPageIndex < pageIds.size() - 1;
+    if (pageIds == null) return false;
+    return seekNext();
   }
 
   /**
@@ -70,20 +90,46 @@ public class HeapScan implements GlobalConst {
    * @throws IllegalStateException if the scan has no more elements
    */
   public Tuple getNext(RID rid) {
+    if (pageIds == null || !seekNext()) {
+      return null;
+    }
+    byte[] record = currentPage.selectRecord(currentRid);
+    Tuple tuple = new Tuple(record, 0, record.length);
+    rid.copyRID(currentRid);
+    currentRid = currentPage.nextRecord(currentRid);
+    return tuple;
+  }
+
+  /**
+   * Positions currentRid on the next qualifying record, pinning the following
+   * pages as needed; returns false once every page has been scanned.
+   */
+  private boolean seekNext() {
     while (currentPageIndex < pageIds.size()) {
       if (currentPage == null) {
+        if (zoneMap != null) {
+          boolean skip = zoneMap.canSkip(pageIds.get(currentPageIndex), preds);
+          zoneMap.count(skip);
+          if (skip) {
+            pagesSkipped++;
+            currentPageIndex++;
+            continue;
+          }
+        }
+        pagesScanned++;
         currentPageId = pageIds.get(currentPageIndex);
         currentPage = new HFPage();
           Minibase.BufferManager.pinPage(currentPageId, currentPage, PIN_DISKIO);
           currentRid = currentPage.firstRecord();
       }
 
-      if (currentRid != null) {
-        byte[] record = currentPage.selectRecord(currentRid);
-        Tuple tuple = new Tuple(record, 0, record.length);
-        rid.copyRID(currentRid);
+      while (currentRid != null && preds.length > 0
+          && !currentPage.matches(currentRid, preds)) {
         currentRid = currentPage.nextRecord(currentRid);
-        return tuple;
+      }
+
+      if (currentRid != null) {
+        return true;
       } else {
         unpinCurrentPage();
         currentPageIndex++;
@@ -91,7 +137,33 @@ public class HeapScan implements GlobalConst {
         currentPageId = null;
       }
     }
-    return null;
+    release();
+    return false;
+  }
+
+  /**
+   * Gets the number of pages this scan skipped using the file's zone map.
+   */
+  public int getPagesSkipped() {
+    return pagesSkipped;
+  }
+
+  /**
+   * Gets the number of pages this scan had to read.
+   */
+  public int getPagesScanned() {
+    return pagesScanned;
+  }
+
+  /**
+   * Tells the file that this scan no longer needs its records to stay in
+   * place (i.e. that it may be vacuumed).
+   */
+  private void release() {
+    if (file != null) {
+      file.scanOpened(false);
+      file = null;
+    }
   }
 
   private void unpinCurrentPage() {
@@ -0,0 +1,315 @@
+package heap;
+
+import global.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ParallelHeapScan splits the pages of a heap file into morsels and scans
+ * them on the worker threads of a ForkJoinPool. Each worker pins its own pages.
+ * Records can either be consumed in place through a RecordHandler (see
+ * forEach), or merged back into one stream through the same hasNext/getNext
+ * interface as HeapScan; in the latter case records from different morsels may
+ * arrive in any order.
+ */
+public class ParallelHeapScan implements GlobalConst {
+
+  /**
+   * Callback for records produced by a parallel scan. Handlers are invoked
+   * concurrently from several worker threads and must be thread-safe.
+   */
+  public interface RecordHandler {
+    void handle(Tuple record, RID rid);
+  }
+
+  /** Default number of pages handed to a worker at a time. */
+  public static final int DEFAULT_MORSEL_SIZE = 4;
+
+  /** Number of scanned morsels buffered ahead of a getNext consumer. */
+  protected static final int QUEUE_CAPACITY = 16;
+
+  /** Marks the end of the merged stream. */
+  private static final Morsel END = new Morsel();
+
+  private HeapFile file;
+  private List<PageId> pageIds;
+  private ForkJoinPool pool;
+  private boolean ownsPool;
+  private int morselSize;
+  private ScanPredicate[][] preds;
+  private ZoneMap zoneMap;
+
+  private BlockingQueue<Morsel> queue;
+  private MorselTask root;
+  private AtomicInteger remaining;
+  private volatile boolean closed;
+  private Morsel current;
+  private int currentIndex;
+  private boolean finished;
+
+  /**
+   * Constructs a parallel scan using a private pool with one worker per
+   * available processor.
+   */
+  protected ParallelHeapScan(HeapFile hf) {
+    this(hf, new ForkJoinPool(Runtime.getRuntime().availableProcessors()),
+        DEFAULT_MORSEL_SIZE, new ScanPredicate[0][]);
+    this.ownsPool = true;
+  }
+
+  /**
+   * Constructs a parallel scan on the given pool, handing out morselSize pages
+   * to a worker at a time; only records passing the predicates (in conjunctive
+   * normal form) are produced, and pages ruled out by the file's zone map are
+   * never pinned.
+   */
+  protected ParallelHeapScan(HeapFile hf, ForkJoinPool pool, int morselSize,
+      ScanPredicate[][] preds) {
+    if (morselSize < 1) {
+      throw new IllegalArgumentException("Invalid morsel size");
+    }
+    this.pageIds = new ArrayList<>(hf.pageIdList);
+    this.pool = pool;
+    this.ownsPool = false;
+    this.morselSize = morselSize;
+    this.preds = preds;
+    this.zoneMap = preds.length > 0 ? hf.zoneMap : null;
+    this.closed = false;
+    this.finished = false;
+    this.file = hf;
+    hf.scanOpened(true);
+  }
+
+  /**
+   * Scans every page in parallel, passing each record to the handler, and
+   * returns once all pages have been scanned.
+   */
+  public void forEach(RecordHandler handler) {
+    if (queue != null) {
+      throw new IllegalStateException("Scan already started");
+    }
+    try {
+      pool.invoke(new MorselTask(0, pageIds.size(), handler));
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * Returns true if there are more records to scan, false otherwise.
+   */
+  public boolean hasNext() {
+    if (closed || finished) {
+      return false;
+    }
+    if (queue == null) {
+      start();
+    }
+    while (current == null || currentIndex >= current.records.size()) {
+      try {
+        current = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Parallel scan interrupted", e);
+      }
+      currentIndex = 0;
+      if (current == END) {
+        current = null;
+        finished = true;
+        release();
+        return false;
+      }
+      if (current.failure != null) {
+        Throwable failure = current.failure;
+        current = null;
+        finished = true;
+        release();
+        if (failure instanceof Error) {
+          throw (Error) failure;
+        }
+        if (failure instanceof RuntimeException) {
+          throw (RuntimeException) failure;
+        }
+        throw new IllegalStateException("Parallel scan failed", failure);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the next record in the merged stream, or null if there are none.
+   *
+   * @param rid output parameter that identifies the returned record
+   */
+  public Tuple getNext(RID rid) {
+    if (!hasNext()) {
+      return null;
+    }
+    rid.copyRID(current.rids.get(currentIndex));
+    return current.records.get(currentIndex++);
+  }
+
+  /**
+   * Closes the scan; workers stop at their next page boundary, and the scan
+   * waits for them to unpin their pages before returning. A private pool is
+   * then shut down.
+   */
+  public void close() {
+    closed = true;
+    if (queue != null) {
+      queue.clear();
+    }
+    if (root != null) {
+      root.quietlyJoin();
+      root = null;
+    }
+    current = null;
+    release();
+    if (ownsPool) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Tells the file that this scan no longer needs its records to stay in
+   * place (i.e. that it may be vacuumed).
+   */
+  private synchronized void release() {
+    if (file != null) {
+      file.scanOpened(false);
+      file = null;
+    }
+  }
+
+  /**
+   * Submits the morsel tasks that feed the merged stream.
+   */
+  private void start() {
+    int morsels = (pageIds.size() + morselSize - 1) / morselSize;
+    queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 1);
+    remaining = new AtomicInteger(morsels);
+    if (morsels == 0) {
+      queue.add(END);
+    } else {
+      root = new MorselTask(0, pageIds.size(), null);
+      pool.execute(root);
+    }
+  }
+
+  /**
+   * Hands a scanned morsel to the consumer, waiting for room in the queue.
+   */
+  private void publish(Morsel morsel) {
+    try {
+      while (!closed && !queue.offer(morsel, 10, TimeUnit.MILLISECONDS)) {
+        // wait for the consumer to catch up
+      }
+      if (remaining.decrementAndGet() == 0 && !closed) {
+        queue.put(END);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Scans the pages in [lo, hi), passing each record to the handler.
+   */
+  private void scanPages(int lo, int hi, RecordHandler handler) {
+    for (int i = lo; i < hi && !closed; i++) {
+      PageId pageId = pageIds.get(i);
+      if (zoneMap != null) {
+        boolean skip = zoneMap.canSkip(pageId, preds);
+        zoneMap.count(skip);
+        if (skip) {
+          continue;
+        }
+      }
+      HFPage page = new HFPage();
+      pinPage(pageId, page);
+      try {
+        RID rid = page.firstRecord();
+        while (rid != null) {
+          if (preds.length == 0 || page.matches(rid, preds)) {
+            byte[] record = page.selectRecord(rid);
+            handler.handle(new Tuple(record, 0, record.length), rid);
+          }
+          rid = page.nextRecord(rid);
+        }
+      } finally {
+        unpinPage(pageId);
+      }
+    }
+  }
+
+  /**
+   * The buffer manager is not thread-safe, so workers serialize their pins.
+   */
+  private static void pinPage(PageId pageId, HFPage page) {
+    synchronized (Minibase.BufferManager) {
+      Minibase.BufferManager.pinPage(pageId, page, PIN_DISKIO);
+    }
+  }
+
+  private static void unpinPage(PageId pageId) {
+    synchronized (Minibase.BufferManager) {
+      Minibase.BufferManager.unpinPage(pageId, UNPIN_CLEAN);
+    }
+  }
+
+  /**
+   * Records scanned from one morsel, in page order; or the error that stopped
+   * its worker, which the consumer rethrows.
+   */
+  private static class Morsel {
+    final List<Tuple> records = new ArrayList<>();
+    final List<RID> rids = new ArrayList<>();
+    Throwable failure;
+  }
+
+  /**
+   * Recursively splits a page range until it is at most one morsel long.
+   */
+  private class MorselTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int lo;
+    private final int hi;
+    private final RecordHandler handler;
+
+    MorselTask(int lo, int hi, RecordHandler handler) {
+      this.lo = lo;
+      this.hi = hi;
+      this.handler = handler;
+    }
+
+    protected void compute() {
+      if (hi - lo > morselSize) {
+        int mid = lo + Math.max(1, (hi - lo) / morselSize / 2) * morselSize;
+        invokeAll(new MorselTask(lo, mid, handler), new MorselTask(mid, hi, handler));
+      } else if (handler != null) {
+        scanPages(lo, hi, handler);
+      } else {
+        Morsel morsel = new Morsel();
+        try {
+          scanPages(lo, hi, (record, rid) -> {
+            morsel.records.add(record);
+            morsel.rids.add(new RID(rid.pageno, rid.slotno));
+          });
+        } catch (Throwable e) {
+          // publish even on an Error, so the consumer never waits for this morsel
+          morsel.failure = e;
+        }
+        publish(morsel);
+      }
+    }
+  }
+
+} // public class ParallelHeapScan implements GlobalConst
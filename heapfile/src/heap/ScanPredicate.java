@@ -0,0 +1,145 @@
+package heap;
+
+import global.*;
+
+/**
+ * A simple column-versus-constant predicate that a heap scan evaluates on the
+ * raw record bytes inside a pinned page, so that non-matching records are never
+ * copied out of the page. The column is described by its AttrType and its
+ * offset and length within the record; operators are AttrOperator constants.
+ */
+public class ScanPredicate {
+
+  protected int oper;
+  protected int type;
+  protected int offset;
+  protected int length;
+
+  protected int intValue;
+  protected float floatValue;
+  protected byte[] stringValue;
+
+  /**
+   * Constructs a predicate comparing the given column to a constant.
+   *
+   * @param oper   AttrOperator constant
+   * @param type   AttrType of the column (INTEGER, FLOAT or STRING)
+   * @param offset offset of the column within the record
+   * @param length length of the column (in bytes)
+   * @param value  Integer, Float or String constant to compare against
+   * @throws IllegalArgumentException if the type or value is invalid
+   */
+  public ScanPredicate(int oper, int type, int offset, int length, Object value) {
+    this.oper = oper;
+    this.type = type;
+    this.offset = offset;
+    this.length = length;
+
+    switch (type) {
+      case AttrType.INTEGER:
+        intValue = (Integer) value;
+        break;
+      case AttrType.FLOAT:
+        floatValue = (Float) value;
+        break;
+      case AttrType.STRING:
+        stringValue = ((String) value).trim().getBytes();
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid predicate type");
+    }
+  }
+
+  /**
+   * Evaluates the predicate on the record stored at recOffset in data.
+   */
+  public boolean evaluate(byte[] data, int recOffset) {
+    int pos = recOffset + offset;
+    int comp;
+    switch (type) {
+      case AttrType.INTEGER:
+        comp = Integer.compare(Convert.getIntValue(pos, data), intValue);
+        break;
+      case AttrType.FLOAT:
+        comp = Float.compare(Convert.getFloatValue(pos, data), floatValue);
+        break;
+      default:
+        comp = compareString(data, pos);
+        break;
+    }
+
+    switch (oper) {
+      case AttrOperator.EQ:
+        return comp == 0;
+      case AttrOperator.NEQ:
+        return comp != 0;
+      case AttrOperator.GT:
+        return comp > 0;
+      case AttrOperator.GTE:
+        return comp >= 0;
+      case AttrOperator.LT:
+        return comp < 0;
+      case AttrOperator.LTE:
+        return comp <= 0;
+      default:
+        throw new IllegalStateException("unknown operator to evaluate");
+    }
+  }
+
+  /**
+   * Compares a zero-padded string column to the constant, ignoring the same
+   * surrounding whitespace and padding that String.trim() would drop.
+   */
+  private int compareString(byte[] data, int pos) {
+    int start = pos;
+    int end = pos + length;
+    while (end > start && (data[end - 1] & 0xff) <= ' ') {
+      end--;
+    }
+    while (start < end && (data[start] & 0xff) <= ' ') {
+      start++;
+    }
+
+    int len = end - start;
+    int n = Math.min(len, stringValue.length);
+    for (int i = 0; i < n; i++) {
+      int diff = (data[start + i] & 0xff) - (stringValue[i] & 0xff);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return len - stringValue.length;
+  }
+
+  /**
+   * Evaluates predicates in conjunctive normal form: the record qualifies if
+   * every group has at least one passing predicate.
+   */
+  public static boolean evaluate(ScanPredicate[][] preds, byte[] data, int recOffset) {
+    for (ScanPredicate[] group : preds) {
+      boolean passed = false;
+      for (ScanPredicate pred : group) {
+        if (pred.evaluate(data, recOffset)) {
+          passed = true;
+          break;
+        }
+      }
+      if (!passed) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a string representation of the predicate.
+   */
+  public String toString() {
+    String value = type == AttrType.INTEGER ? Integer.toString(intValue)
+        : type == AttrType.FLOAT ? Float.toString(floatValue)
+        : "'" + new String(stringValue) + "'";
+    return "{" + offset + ":" + AttrType.toString(type) + "} "
+        + AttrOperator.toString(oper) + " " + value;
+  }
+
+} // public class ScanPredicate
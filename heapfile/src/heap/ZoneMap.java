@@ -0,0 +1,375 @@
+package heap;
+
+import global.*;
+import chainexception.ChainException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A zone map keeps the minimum and maximum value of selected columns for each
+ * page of a heap file, so that scans can skip pages whose ranges cannot satisfy
+ * their predicates. Values are summarized as order-preserving long keys; string
+ * columns are summarized by their first eight bytes, which is enough to rule
+ * pages out but never to rule them in.
+ * <p>
+ * The summaries are persisted in a companion heap file (the table name plus
+ * SUFFIX): one header record describing the columns, and one record per page
+ * that is rewritten in place whenever the page's bounds change.
+ */
+public class ZoneMap implements GlobalConst {
+
+  /** Appended to the table name to form the companion file name. */
+  public static final String SUFFIX = ".zmap";
+
+  /** Page id of the header record in the companion file. */
+  protected static final int HEADER_PID = INVALID_PAGEID;
+
+  protected int[] types;
+  protected int[] offsets;
+  protected int[] lengths;
+
+  /** Companion heap file holding the summaries. */
+  protected HeapFile file;
+
+  /** Bounds for each page: min and max key of each column, interleaved. */
+  protected Map<Integer, long[]> bounds;
+
+  /** Location of each page's summary record in the companion file. */
+  protected Map<Integer, RID> entries;
+
+  private final AtomicLong pagesSkipped = new AtomicLong();
+  private final AtomicLong pagesScanned = new AtomicLong();
+
+  /**
+   * Creates an empty zone map over the given columns, persisted in a new
+   * companion file for the named table.
+   */
+  protected ZoneMap(String tableName, int[] types, int[] offsets, int[] lengths)
+      throws ChainException {
+    this.types = types.clone();
+    this.offsets = offsets.clone();
+    this.lengths = lengths.clone();
+    this.bounds = new HashMap<>();
+    this.entries = new HashMap<>();
+    this.file = new HeapFile(tableName + SUFFIX);
+
+    byte[] header = new byte[8 + types.length * 12];
+    Convert.setIntValue(HEADER_PID, 0, header);
+    Convert.setIntValue(types.length, 4, header);
+    for (int i = 0; i < types.length; i++) {
+      Convert.setIntValue(types[i], 8 + i * 12, header);
+      Convert.setIntValue(offsets[i], 12 + i * 12, header);
+      Convert.setIntValue(lengths[i], 16 + i * 12, header);
+    }
+    file.insertRecord(header);
+  }
+
+  /**
+   * Loads the zone map persisted for the named table.
+   */
+  private ZoneMap(HeapFile file) {
+    this.file = file;
+    this.bounds = new HashMap<>();
+    this.entries = new HashMap<>();
+
+    HeapScan scan = file.openScan();
+    RID rid = new RID();
+    Tuple tuple;
+    while ((tuple = scan.getNext(rid)) != null) {
+      byte[] data = tuple.getTupleByteArray();
+      int pid = Convert.getIntValue(0, data);
+      if (pid == HEADER_PID) {
+        int count = Convert.getIntValue(4, data);
+        types = new int[count];
+        offsets = new int[count];
+        lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+          types[i] = Convert.getIntValue(8 + i * 12, data);
+          offsets[i] = Convert.getIntValue(12 + i * 12, data);
+          lengths[i] = Convert.getIntValue(16 + i * 12, data);
+        }
+      } else {
+        long[] keys = new long[(data.length - 4) / 8];
+        for (int i = 0; i < keys.length; i++) {
+          keys[i] = getLong(4 + i * 8, data);
+        }
+        bounds.put(pid, keys);
+        entries.put(pid, new RID(rid.pageno, rid.slotno));
+      }
+    }
+    try {
+      scan.close();
+    } catch (ChainException e) {
+      throw new IllegalStateException("Could not close zone map scan", e);
+    }
+  }
+
+  /**
+   * Opens the zone map of the named table, or returns null if it has none.
+   */
+  protected static ZoneMap open(String tableName) {
+    if (Minibase.DiskManager.get_file_entry(tableName + SUFFIX) == null) {
+      return null;
+    }
+    return new ZoneMap(new HeapFile(tableName + SUFFIX));
+  }
+
+  /**
+   * Deletes the companion file.
+   */
+  protected void delete() {
+    file.deleteFile();
+    bounds.clear();
+    entries.clear();
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Widens the bounds of a page to include the record stored at recOffset.
+   */
+  protected void widen(PageId pageId, byte[] data, int recOffset)
+      throws ChainException {
+    long[] keys = bounds.get(pageId.pid);
+    boolean changed = false;
+    if (keys == null) {
+      keys = emptyBounds();
+      changed = true;
+    }
+    for (int i = 0; i < types.length; i++) {
+      long key = key(i, data, recOffset);
+      if (key < keys[2 * i]) {
+        keys[2 * i] = key;
+        changed = true;
+      }
+      if (key > keys[2 * i + 1]) {
+        keys[2 * i + 1] = key;
+        changed = true;
+      }
+    }
+    if (changed) {
+      save(pageId.pid, keys);
+    }
+  }
+
+  /**
+   * Recomputes the bounds of a pinned page from the records it holds.
+   */
+  protected void rebuild(PageId pageId, HFPage page) throws ChainException {
+    long[] keys = emptyBounds();
+    byte[] data = page.getData();
+    RID rid = page.firstRecord();
+    while (rid != null) {
+      int recOffset = page.getSlotOffset(rid.slotno);
+      for (int i = 0; i < types.length; i++) {
+        long key = key(i, data, recOffset);
+        keys[2 * i] = Math.min(keys[2 * i], key);
+        keys[2 * i + 1] = Math.max(keys[2 * i + 1], key);
+      }
+      rid = page.nextRecord(rid);
+    }
+    save(pageId.pid, keys);
+  }
+
+  /**
+   * Removes the summary of a page that was freed from the file.
+   */
+  protected void remove(PageId pageId) throws ChainException {
+    bounds.remove(pageId.pid);
+    RID rid = entries.remove(pageId.pid);
+    if (rid != null) {
+      file.deleteRecord(rid);
+    }
+  }
+
+  /**
+   * Returns true if no record on the page can pass the predicates, given in
+   * conjunctive normal form; pages without a summary are never skipped.
+   */
+  public boolean canSkip(PageId pageId, ScanPredicate[][] preds) {
+    long[] keys = bounds.get(pageId.pid);
+    if (keys == null) {
+      return false;
+    }
+    for (ScanPredicate[] group : preds) {
+      boolean groupFails = group.length > 0;
+      for (ScanPredicate pred : group) {
+        if (!ruledOut(keys, pred)) {
+          groupFails = false;
+          break;
+        }
+      }
+      if (groupFails) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Records whether a scan skipped or read a page.
+   */
+  protected void count(boolean skipped) {
+    if (skipped) {
+      pagesSkipped.incrementAndGet();
+    } else {
+      pagesScanned.incrementAndGet();
+    }
+  }
+
+  /**
+   * Gets the number of pages that scans have skipped using this zone map.
+   */
+  public long getPagesSkipped() {
+    return pagesSkipped.get();
+  }
+
+  /**
+   * Gets the number of pages that filtered scans had to read.
+   */
+  public long getPagesScanned() {
+    return pagesScanned.get();
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Returns true if the page bounds prove that no record passes the predicate.
+   */
+  private boolean ruledOut(long[] keys, ScanPredicate pred) {
+    if (keys.length > 0 && keys[0] > keys[1]) {
+      // no records on the page
+      return true;
+    }
+    int col = findColumn(pred);
+    if (col < 0) {
+      // not a summarized column
+      return false;
+    }
+    long min = keys[2 * col];
+    long max = keys[2 * col + 1];
+
+    // string keys are prefixes, so only strict comparisons are conclusive
+    boolean exact = pred.type != AttrType.STRING;
+    long k = valueKey(pred);
+    switch (pred.oper) {
+      case AttrOperator.EQ:
+        return k < min || k > max;
+      case AttrOperator.NEQ:
+        return exact && min == k && max == k;
+      case AttrOperator.LT:
+        return min > k || (exact && min == k);
+      case AttrOperator.LTE:
+        return min > k;
+      case AttrOperator.GT:
+        return max < k || (exact && max == k);
+      case AttrOperator.GTE:
+        return max < k;
+      default:
+        return false;
+    }
+  }
+
+  private int findColumn(ScanPredicate pred) {
+    for (int i = 0; i < types.length; i++) {
+      if (offsets[i] == pred.offset && types[i] == pred.type) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private long[] emptyBounds() {
+    long[] keys = new long[types.length * 2];
+    for (int i = 0; i < types.length; i++) {
+      keys[2 * i] = Long.MAX_VALUE;
+      keys[2 * i + 1] = Long.MIN_VALUE;
+    }
+    return keys;
+  }
+
+  /**
+   * Writes a page's bounds through to its record in the companion file.
+   */
+  private void save(int pid, long[] keys) throws ChainException {
+    bounds.put(pid, keys);
+    byte[] record = new byte[4 + keys.length * 8];
+    Convert.setIntValue(pid, 0, record);
+    for (int i = 0; i < keys.length; i++) {
+      setLong(keys[i], 4 + i * 8, record);
+    }
+    RID rid = entries.get(pid);
+    if (rid == null) {
+      entries.put(pid, file.insertRecord(record));
+    } else {
+      file.updateRecord(rid, new Tuple(record, 0, record.length));
+    }
+  }
+
+  /**
+   * Maps a column value to a long whose order matches the column's order.
+   */
+  private long key(int col, byte[] data, int recOffset) {
+    int pos = recOffset + offsets[col];
+    switch (types[col]) {
+      case AttrType.INTEGER:
+        return Convert.getIntValue(pos, data);
+      case AttrType.FLOAT:
+        return floatKey(Convert.getFloatValue(pos, data));
+      default:
+        return stringKey(data, pos, lengths[col]);
+    }
+  }
+
+  private static long valueKey(ScanPredicate pred) {
+    switch (pred.type) {
+      case AttrType.INTEGER:
+        return pred.intValue;
+      case AttrType.FLOAT:
+        return floatKey(pred.floatValue);
+      default:
+        return stringKey(pred.stringValue, 0, pred.stringValue.length);
+    }
+  }
+
+  private static long floatKey(float value) {
+    int bits = Float.floatToIntBits(value);
+    return bits ^ ((bits >> 31) & 0x7fffffff);
+  }
+
+  /**
+   * Packs the first eight bytes of the trimmed string, flipping the sign bit so
+   * that signed comparison matches unsigned byte order.
+   */
+  private static long stringKey(byte[] data, int pos, int length) {
+    int start = pos;
+    int end = pos + length;
+    while (end > start && (data[end - 1] & 0xff) <= ' ') {
+      end--;
+    }
+    while (start < end && (data[start] & 0xff) <= ' ') {
+      start++;
+    }
+    long key = 0;
+    for (int i = 0; i < 8; i++) {
+      key <<= 8;
+      if (start + i < end) {
+        key |= data[start + i] & 0xff;
+      }
+    }
+    return key ^ Long.MIN_VALUE;
+  }
+
+  private static long getLong(int pos, byte[] data) {
+    return ((long) Convert.getIntValue(pos, data) << 32)
+        | (Convert.getIntValue(pos + 4, data) & 0xffffffffL);
+  }
+
+  private static void setLong(long value, int pos, byte[] data) {
+    Convert.setIntValue((int) (value >>> 32), pos, data);
+    Convert.setIntValue((int) value, pos + 4, data);
+  }
+
+} // public class ZoneMap implements GlobalConst
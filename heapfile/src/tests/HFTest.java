@@ -1,14 +1,27 @@
 package tests;
 
+import global.AttrOperator;
+import global.AttrType;
 import global.Convert;
 import global.GlobalConst;
 import global.Minibase;
 import global.RID;
+import heap.BackgroundVacuum;
 import heap.HeapFile;
 import heap.HeapScan;
+import heap.ParallelHeapScan;
+import heap.ScanPredicate;
 import heap.Tuple;
+import heap.ZoneMap;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import chainexception.ChainException;
 
@@ -610,7 +623,87 @@ class HFDriver extends TestDriver implements GlobalConst
 	//deal with variable size records.  it's probably easier to re-write
 	//one instead of using the ones from C++
 	protected boolean test5 () {
-		return true;
+
+		System.out.println ("\n  Test 5: Variable-length records\n");
+		boolean status = OK;
+		HeapFile f = null;
+		int reccnt = choice;
+		int unpinned = Minibase.BufferManager.getNumUnpinned();
+		List<RID> rids = new ArrayList<>();
+		int inPlace = 0;
+
+		try {
+			System.out.println ("  - Insert " + reccnt + " records of different lengths\n");
+			f = new HeapFile("file_3");
+			for (int i = 0; i < reccnt; i++) {
+				byte[] data = new byte[4 + i % 50];
+				Convert.setIntValue(i, 0, data);
+				rids.add(f.insertRecord(data));
+			}
+
+			System.out.println ("  - Replace them with records of other lengths\n");
+			for (int i = 0; i < reccnt; i++) {
+				byte[] data = new byte[4 + (i * 7) % 60];
+				Convert.setIntValue(i, 0, data);
+				if (f.replaceRecord(rids.get(i), data)) {
+					inPlace++;
+				} else {
+					f.deleteRecord(rids.get(i));
+					rids.set(i, f.insertRecord(data));
+				}
+			}
+		}
+		catch (Exception e) {
+			status = FAIL;
+			System.err.println ("*** Could not replace the records\n");
+			e.printStackTrace();
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Check the records\n");
+			if ( inPlace == 0 || f.getRecCnt() != reccnt ) {
+				System.err.println ("*** Replaced " + inPlace + " records in place; file has "
+						+ f.getRecCnt() + " records\n");
+				status = FAIL;
+			}
+			for (int i = 0; i < reccnt && status == OK; i++) {
+				byte[] data = f.selectRecord(rids.get(i));
+				if ( data.length != 4 + (i * 7) % 60 || Convert.getIntValue(0, data) != i ) {
+					System.err.println ("*** Record " + i + " has the wrong length or value\n");
+					status = FAIL;
+				}
+			}
+			try {
+				HeapScan scan = f.openScan();
+				RID rid = new RID();
+				int cnt = 0;
+				while (scan.getNext(rid) != null) {
+					cnt++;
+				}
+				scan.close();
+				if ( cnt != reccnt ) {
+					System.err.println ("*** Scan returned " + cnt + " records\n");
+					status = FAIL;
+				}
+			}
+			catch (Exception e) {
+				status = FAIL;
+				System.err.println ("*** Could not scan the file\n");
+				e.printStackTrace();
+			}
+		}
+
+		if ( status == OK ) {
+			f.deleteFile();
+			if ( Minibase.BufferManager.getNumUnpinned() != unpinned ) {
+				System.err.println ("*** Replacing records has left pages pinned\n");
+				status = FAIL;
+			}
+		}
+
+		if ( status == OK )
+			System.out.println ("  Test 5 completed successfully.\n");
+		return status;
 	}
 
 
@@ -782,7 +875,564 @@ class HFDriver extends TestDriver implements GlobalConst
 
 	protected boolean test6 () {
 
-		return true;
+		System.out.println ("\n  Test 6: Scan a heap file in parallel\n");
+		boolean status = OK;
+		HeapFile f = null;
+		int reccnt = choice * 5;
+		long expected = 0;
+		int unpinned = Minibase.BufferManager.getNumUnpinned();
+
+		System.out.println ("  - Create a heap file with " + reccnt + " records\n");
+		try {
+			f = new HeapFile("file_2");
+			for (int i = 0; i < reccnt; i++) {
+				DummyRecord rec = new DummyRecord(reclen);
+				rec.ival = i;
+				rec.fval = (float) (i*2.5);
+				rec.name = "record" + i;
+				f.insertRecord(rec.toByteArray());
+				expected += i;
+			}
+		}
+		catch (Exception e) {
+			status = FAIL;
+			System.err.println ("*** Could not create heap file\n");
+			e.printStackTrace();
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Sum the records through a callback\n");
+			final AtomicLong sum = new AtomicLong();
+			final AtomicInteger cnt = new AtomicInteger();
+			ForkJoinPool pool = new ForkJoinPool(4);
+			try {
+				f.openParallelScan(pool, 2).forEach((tuple, rid) -> {
+					cnt.incrementAndGet();
+					sum.addAndGet(Convert.getIntValue(0, tuple.getTupleByteArray()));
+				});
+			}
+			catch (Exception e) {
+				status = FAIL;
+				System.err.println ("*** Error scanning in parallel\n");
+				e.printStackTrace();
+			}
+			pool.shutdown();
+
+			if ( status == OK && (cnt.get() != reccnt || sum.get() != expected) ) {
+				System.err.println ("*** Callback saw " + cnt.get() + " records summing to "
+						+ sum.get() + "; expected " + reccnt + " summing to " + expected + "\n");
+				status = FAIL;
+			}
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Merge the records into a single stream\n");
+			ParallelHeapScan scan = f.openParallelScan();
+			RID rid = new RID();
+			long sum = 0;
+			int cnt = 0;
+			Tuple tuple;
+			while ((tuple = scan.getNext(rid)) != null) {
+				cnt++;
+				sum += Convert.getIntValue(0, tuple.getTupleByteArray());
+			}
+			scan.close();
+
+			if ( cnt != reccnt || sum != expected ) {
+				System.err.println ("*** Merged scan saw " + cnt + " records summing to "
+						+ sum + "; expected " + reccnt + " summing to " + expected + "\n");
+				status = FAIL;
+			}
+		}
+
+		if ( status == OK && Minibase.BufferManager.getNumUnpinned() != unpinned ) {
+			System.err.println ("*** The parallel scan has left pages pinned\n");
+			status = FAIL;
+		}
+
+		if ( status == OK )
+			System.out.println ("  Test 6 completed successfully.\n");
+		return status;
+	}
+
+	protected boolean test7 () {
+
+		System.out.println ("\n  Test 7: Filter records inside the scan\n");
+		boolean status = OK;
+		HeapFile f = null;
+		HeapScan scan = null;
+		RID rid = new RID();
+		Tuple tuple;
+
+		try {
+			f = new HeapFile("file_2");
+		}
+		catch (Exception e) {
+			status = FAIL;
+			System.err.println ("*** Could not open heap file\n");
+			e.printStackTrace();
+		}
+
+		// ival in [100, 200) and (name = 'record142' or fval >= 450.0)
+		ScanPredicate[] range = {
+			new ScanPredicate(AttrOperator.GTE, AttrType.INTEGER, 0, 4, 100) };
+		ScanPredicate[] upper = {
+			new ScanPredicate(AttrOperator.LT, AttrType.INTEGER, 0, 4, 200) };
+		ScanPredicate[] either = {
+			new ScanPredicate(AttrOperator.EQ, AttrType.STRING, 8, reclen - 8, "record142"),
+			new ScanPredicate(AttrOperator.GTE, AttrType.FLOAT, 4, 4, 450F) };
+
+		int expected = 0;
+		if ( status == OK ) {
+			System.out.println ("  - Count the matching records with a plain scan\n");
+			scan = f.openScan();
+			while ((tuple = scan.getNext(rid)) != null) {
+				DummyRecord rec = null;
+				try {
+					rec = new DummyRecord(tuple);
+				}
+				catch (Exception e) {
+					status = FAIL;
+					e.printStackTrace();
+					break;
+				}
+				if (rec.ival >= 100 && rec.ival < 200
+						&& (rec.name.equals("record142") || rec.fval >= 450F)) {
+					expected++;
+				}
+			}
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Scan with the predicates pushed down\n");
+			scan = f.openScan(range, upper, either);
+			int cnt = 0;
+			while (scan.hasNext()) {
+				tuple = scan.getNext(rid);
+				int ival = Convert.getIntValue(0, tuple.getTupleByteArray());
+				float fval = Convert.getFloatValue(4, tuple.getTupleByteArray());
+				if (ival < 100 || ival >= 200 || (ival != 142 && fval < 450F)) {
+					System.err.println ("*** Record " + ival + " should have been filtered\n");
+					status = FAIL;
+					break;
+				}
+				cnt++;
+			}
+			if ( status == OK && (cnt != expected || cnt == 0) ) {
+				System.err.println ("*** Pushed down scan returned " + cnt
+						+ " records; expected " + expected + "\n");
+				status = FAIL;
+			}
+		}
+
+		if ( status == OK )
+			System.out.println ("  Test 7 completed successfully.\n");
+		return status;
+	}
+
+	protected boolean test8 () {
+
+		System.out.println ("\n  Test 8: Skip pages using a zone map\n");
+		boolean status = OK;
+		HeapFile f = null;
+		HeapScan scan = null;
+		RID rid = new RID();
+		Tuple tuple;
+		int reccnt = choice * 5;
+		int unpinned = Minibase.BufferManager.getNumUnpinned();
+
+		ScanPredicate[] tail = {
+			new ScanPredicate(AttrOperator.GTE, AttrType.INTEGER, 0, 4, reccnt - 50) };
+
+		try {
+			System.out.println ("  - Create a zone map on the integer field\n");
+			f = new HeapFile("file_2");
+			f.createZoneMap(new int[] { AttrType.INTEGER, AttrType.FLOAT },
+					new int[] { 0, 4 }, new int[] { 4, 4 });
+		}
+		catch (Exception e) {
+			status = FAIL;
+			System.err.println ("*** Could not create zone map\n");
+			e.printStackTrace();
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Scan for the last 50 records\n");
+			scan = f.openScan(tail);
+			int cnt = 0;
+			while (scan.getNext(rid) != null) {
+				cnt++;
+			}
+			if ( cnt != 50 ) {
+				System.err.println ("*** Scan returned " + cnt + " records; expected 50\n");
+				status = FAIL;
+			}
+			else if ( scan.getPagesSkipped() == 0
+					|| f.getZoneMap().getPagesSkipped() != scan.getPagesSkipped() ) {
+				System.err.println ("*** The scan did not skip any pages\n");
+				status = FAIL;
+			}
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Delete the last 10 records and move one record to the end\n");
+			try {
+				List<RID> doomed = new ArrayList<>();
+				RID moved = null;
+				scan = f.openScan();
+				while ((tuple = scan.getNext(rid)) != null) {
+					int ival = Convert.getIntValue(0, tuple.getTupleByteArray());
+					if (ival >= reccnt - 10) {
+						doomed.add(new RID(rid.pageno, rid.slotno));
+					} else if (ival == 7) {
+						moved = new RID(rid.pageno, rid.slotno);
+					}
+				}
+				scan.close();
+				for (RID r : doomed) {
+					f.deleteRecord(r);
+				}
+				DummyRecord rec = new DummyRecord(f.getRecord(moved));
+				rec.ival = reccnt + 7;
+				f.updateRecord(moved, new Tuple(rec.toByteArray(), 0, reclen));
+			}
+			catch (Exception e) {
+				status = FAIL;
+				System.err.println ("*** Could not modify the file\n");
+				e.printStackTrace();
+			}
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Reopen the file and scan again\n");
+			f = new HeapFile("file_2");
+			if ( f.getZoneMap() == null ) {
+				System.err.println ("*** The zone map was not persisted\n");
+				status = FAIL;
+			}
+			else {
+				scan = f.openScan(tail);
+				int cnt = 0;
+				while (scan.getNext(rid) != null) {
+					cnt++;
+				}
+				ScanPredicate[] beyond = {
+					new ScanPredicate(AttrOperator.GT, AttrType.INTEGER, 0, 4, reccnt) };
+				scan = f.openScan(beyond);
+				int found = 0;
+				while ((tuple = scan.getNext(rid)) != null) {
+					found = Convert.getIntValue(0, tuple.getTupleByteArray());
+				}
+				if ( cnt != 41 || found != reccnt + 7 ) {
+					System.err.println ("*** Scans returned " + cnt + " records and record "
+							+ found + "; expected 41 and " + (reccnt + 7) + "\n");
+					status = FAIL;
+				}
+				else if ( scan.getPagesSkipped() == 0 ) {
+					System.err.println ("*** The reopened zone map did not skip any pages\n");
+					status = FAIL;
+				}
+			}
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Scan in parallel with the zone map\n");
+			final AtomicInteger cnt = new AtomicInteger();
+			ForkJoinPool pool = new ForkJoinPool(4);
+			long skipped = f.getZoneMap().getPagesSkipped();
+			f.openParallelScan(pool, 2, tail).forEach((t, r) -> cnt.incrementAndGet());
+			pool.shutdown();
+			if ( cnt.get() != 41 || f.getZoneMap().getPagesSkipped() == skipped ) {
+				System.err.println ("*** Parallel scan returned " + cnt.get()
+						+ " records; expected 41\n");
+				status = FAIL;
+			}
+		}
+
+		if ( status == OK ) {
+			f.dropZoneMap();
+			if ( Minibase.DiskManager.get_file_entry("file_2" + ZoneMap.SUFFIX) != null ) {
+				System.err.println ("*** The zone map file was not deleted\n");
+				status = FAIL;
+			}
+		}
+
+		if ( status == OK && Minibase.BufferManager.getNumUnpinned() != unpinned ) {
+			System.err.println ("*** The zone map scans have left pages pinned\n");
+			status = FAIL;
+		}
+
+		if ( status == OK )
+			System.out.println ("  Test 8 completed successfully.\n");
+		return status;
+	}
+
+	protected boolean test9 () {
+
+		System.out.println ("\n  Test 9: Vacuum sparse and empty pages\n");
+		boolean status = OK;
+		HeapFile f = null;
+		HeapScan scan = null;
+		RID rid = new RID();
+		Tuple tuple;
+		int reccnt = choice * 5;
+		int unpinned = Minibase.BufferManager.getNumUnpinned();
+		final Map<Integer, RID> rids = new HashMap<>();
+		int pagecnt = 0;
+
+		try {
+			System.out.println ("  - Insert " + reccnt + " records and delete three in four\n");
+			f = new HeapFile("file_vacuum");
+			for (int i = 0; i < reccnt; i++) {
+				byte[] data = new byte[reclen];
+				Convert.setIntValue(i, 0, data);
+				Convert.setFloatValue((float) (i * 2.5), 4, data);
+				Convert.setStringValue("record" + i, 8, data);
+				rids.put(i, f.insertRecord(data));
+			}
+			pagecnt = f.getPageCnt();
+			for (int i = 0; i < reccnt; i++) {
+				if (i % 4 != 0) {
+					f.deleteRecord(rids.remove(i));
+				}
+			}
+		}
+		catch (Exception e) {
+			status = FAIL;
+			System.err.println ("*** Could not build the file\n");
+			e.printStackTrace();
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Vacuum the file, tracking the moved records\n");
+			try {
+				final AtomicInteger moves = new AtomicInteger();
+				int freed = f.vacuum((record, oldRid, newRid) -> {
+					int ival = Convert.getIntValue(0, record.getTupleByteArray());
+					if (!rids.get(ival).equals(oldRid)) {
+						System.err.println ("*** Record " + ival + " moved from the wrong RID\n");
+					}
+					rids.put(ival, new RID(newRid.pageno, newRid.slotno));
+					moves.incrementAndGet();
+				});
+				if ( freed == 0 || moves.get() == 0
+						|| f.getPageCnt() != pagecnt - freed || f.getPageCnt() > pagecnt / 2 ) {
+					System.err.println ("*** Vacuum freed " + freed + " of " + pagecnt
+							+ " pages with " + moves.get() + " moves\n");
+					status = FAIL;
+				}
+				for (Map.Entry<Integer, RID> entry : rids.entrySet()) {
+					int ival = Convert.getIntValue(0, f.selectRecord(entry.getValue()));
+					if ( ival != entry.getKey() ) {
+						System.err.println ("*** Record " + entry.getKey() + " is not at its RID\n");
+						status = FAIL;
+						break;
+					}
+				}
+			}
+			catch (Exception e) {
+				status = FAIL;
+				System.err.println ("*** Could not vacuum the file\n");
+				e.printStackTrace();
+			}
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Reopen the file and follow the relinked chain\n");
+			HeapFile g = new HeapFile("file_vacuum");
+			scan = g.openScan();
+			int cnt = 0;
+			while (scan.getNext(rid) != null) {
+				cnt++;
+			}
+			if ( g.getRecCnt() != reccnt / 4 || cnt != reccnt / 4
+					|| g.getPageCnt() != f.getPageCnt() ) {
+				System.err.println ("*** Reopened file has " + cnt + " records on "
+						+ g.getPageCnt() + " pages\n");
+				status = FAIL;
+			}
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Vacuum in the background once scans are closed\n");
+			try {
+				for (int i = reccnt; i < reccnt * 2; i++) {
+					byte[] data = new byte[reclen];
+					Convert.setIntValue(i, 0, data);
+					Convert.setStringValue("record" + i, 8, data);
+					rids.put(i, f.insertRecord(data));
+				}
+				for (int i = reccnt; i < reccnt * 2; i++) {
+					if (i % 2 != 0) {
+						f.deleteRecord(rids.remove(i));
+					}
+				}
+				pagecnt = f.getPageCnt();
+				scan = f.openScan();
+				scan.getNext(rid);
+				HeapFile.MoveHandler handler = (record, oldRid, newRid) ->
+					rids.put(Convert.getIntValue(0, record.getTupleByteArray()),
+							new RID(newRid.pageno, newRid.slotno));
+				BackgroundVacuum vacuum = f.startVacuum(handler, 5);
+				Thread.sleep(50);
+				if ( vacuum.getPagesFreed() != 0 ) {
+					System.err.println ("*** Vacuum ran while a scan was open\n");
+					status = FAIL;
+				}
+				scan.close();
+				for (int i = 0; i < 200 && f.getPageCnt() > pagecnt * 2 / 3; i++) {
+					Thread.sleep(10);
+				}
+				vacuum.stop();
+				if ( vacuum.getPagesFreed() == 0
+						|| f.getPageCnt() != pagecnt - vacuum.getPagesFreed() ) {
+					System.err.println ("*** Background vacuum freed " + vacuum.getPagesFreed()
+							+ " of " + pagecnt + " pages\n");
+					status = FAIL;
+				}
+				if ( f.getRecCnt() != rids.size() ) {
+					System.err.println ("*** File has " + f.getRecCnt() + " records; expected "
+							+ rids.size() + "\n");
+					status = FAIL;
+				}
+				for (Map.Entry<Integer, RID> entry : rids.entrySet()) {
+					int ival = Convert.getIntValue(0, f.selectRecord(entry.getValue()));
+					if ( ival != entry.getKey() ) {
+						System.err.println ("*** Record " + entry.getKey() + " is not at its RID\n");
+						status = FAIL;
+						break;
+					}
+				}
+			}
+			catch (Exception e) {
+				status = FAIL;
+				System.err.println ("*** Background vacuum failed\n");
+				e.printStackTrace();
+			}
+		}
+
+		if ( status == OK ) {
+			f.deleteFile();
+			if ( Minibase.BufferManager.getNumUnpinned() != unpinned ) {
+				System.err.println ("*** The vacuum has left pages pinned\n");
+				status = FAIL;
+			}
+		}
+
+		if ( status == OK )
+			System.out.println ("  Test 9 completed successfully.\n");
+		return status;
+	}
+
+	protected boolean test10 () {
+
+		System.out.println ("\n  Test 10: Append mode\n");
+		boolean status = OK;
+		HeapFile f = null;
+		RID rid = new RID();
+		int reccnt = choice * 5;
+		int unpinned = Minibase.BufferManager.getNumUnpinned();
+		List<RID> rids = new ArrayList<>();
+
+		try {
+			System.out.println ("  - Append " + reccnt + " records to a new file\n");
+			f = new HeapFile("file_append");
+			f.setAppendMode(true);
+			if ( !f.isAppendMode()
+					|| Minibase.BufferManager.getNumUnpinned() != unpinned - 1 ) {
+				System.err.println ("*** Append mode should keep the last page pinned\n");
+				status = FAIL;
+			}
+			for (int i = 0; i < reccnt; i++) {
+				byte[] data = new byte[reclen];
+				Convert.setIntValue(i, 0, data);
+				Convert.setFloatValue((float) (i * 2.5), 4, data);
+				Convert.setStringValue("record" + i, 8, data);
+				rids.add(f.insertRecord(data));
+			}
+
+			// delete the last record while its page is pinned
+			f.deleteRecord(rids.remove(reccnt - 1));
+			f.setAppendMode(false);
+		}
+		catch (Exception e) {
+			status = FAIL;
+			System.err.println ("*** Could not append to the file\n");
+			e.printStackTrace();
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Check the records and the chain\n");
+			if ( Minibase.BufferManager.getNumUnpinned() != unpinned ) {
+				System.err.println ("*** Append mode has left pages pinned\n");
+				status = FAIL;
+			}
+			for (int i = 0; i < rids.size() && status == OK; i++) {
+				if ( Convert.getIntValue(0, f.selectRecord(rids.get(i))) != i ) {
+					System.err.println ("*** Record " + i + " is not at its RID\n");
+					status = FAIL;
+				}
+			}
+			try {
+				HeapFile g = new HeapFile("file_append");
+				HeapScan scan = g.openScan();
+				int cnt = 0;
+				Tuple tuple;
+				while ((tuple = scan.getNext(rid)) != null) {
+					if ( Convert.getIntValue(0, tuple.getTupleByteArray()) != cnt ) {
+						System.err.println ("*** Records are out of order\n");
+						status = FAIL;
+						break;
+					}
+					cnt++;
+				}
+				scan.close();
+				int perPage = (GlobalConst.PAGE_SIZE - 20) / (reclen + 4);
+				int pagecnt = (reccnt + perPage - 1) / perPage;
+				if ( cnt != reccnt - 1 || g.getRecCnt() != reccnt - 1
+						|| g.getPageCnt() != pagecnt || f.getPageCnt() != pagecnt ) {
+					System.err.println ("*** Reopened file has " + cnt + " records on "
+							+ g.getPageCnt() + " pages; expected " + pagecnt + " pages\n");
+					status = FAIL;
+				}
+			}
+			catch (Exception e) {
+				status = FAIL;
+				System.err.println ("*** Could not reopen the file\n");
+				e.printStackTrace();
+			}
+		}
+
+		if ( status == OK ) {
+			System.out.println ("  - Reuse the free space once append mode is off\n");
+			try {
+				int pagecnt = f.getPageCnt();
+				byte[] data = new byte[reclen];
+				Convert.setIntValue(reccnt - 1, 0, data);
+				rid = f.insertRecord(data);
+				if ( f.getPageCnt() != pagecnt || f.getRecCnt() != reccnt ) {
+					System.err.println ("*** Insert after append mode added a page\n");
+					status = FAIL;
+				}
+			}
+			catch (Exception e) {
+				status = FAIL;
+				System.err.println ("*** Could not insert after append mode\n");
+				e.printStackTrace();
+			}
+		}
+
+		if ( status == OK ) {
+			f.deleteFile();
+			if ( Minibase.BufferManager.getNumUnpinned() != unpinned ) {
+				System.err.println ("*** Deleting the file has left pages pinned\n");
+				status = FAIL;
+			}
+		}
+
+		if ( status == OK )
+			System.out.println ("  Test 10 completed successfully.\n");
+		return status;
 	}
 
 	protected boolean runAllTests (){
@@ -795,6 +1445,10 @@ class HFDriver extends TestDriver implements GlobalConst
 		if (!test4()) { _passAll = FAIL; }
 		if (!test5()) { _passAll = FAIL; }
 		if (!test6()) { _passAll = FAIL; }
+		if (!test7()) { _passAll = FAIL; }
+		if (!test8()) { _passAll = FAIL; }
+		if (!test9()) { _passAll = FAIL; }
+		if (!test10()) { _passAll = FAIL; }
 
 		return _passAll;
 	}